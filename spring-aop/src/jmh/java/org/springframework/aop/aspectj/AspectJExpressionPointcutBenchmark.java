@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * Benchmark for determining the advisors that apply to bean classes,
+ * as done for every bean by an advisor-based auto-proxy creator.
+ *
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AspectJExpressionPointcutBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"20"})
+		public int pointcutCount;
+
+		public List<String> expressions;
+
+		public List<Class<?>> beanClasses;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.expressions = new ArrayList<>();
+			for (int i = 0; i < this.pointcutCount - 2; i++) {
+				this.expressions.add("execution(* com.example.module" + i + "..*Service.*(..))");
+			}
+			this.expressions.add("@annotation(org.springframework.aop.aspectj.AspectJExpressionPointcutBenchmark.Audited)");
+			this.expressions.add("within(com.example..*) && @within(org.springframework.aop.aspectj.AspectJExpressionPointcutBenchmark.Audited)");
+			this.beanClasses = new ArrayList<>();
+			this.beanClasses.add(ArrayList.class);
+			this.beanClasses.add(LinkedList.class);
+			this.beanClasses.add(HashMap.class);
+			this.beanClasses.add(TreeMap.class);
+			this.beanClasses.add(ConcurrentHashMap.class);
+			this.beanClasses.add(Properties.class);
+			this.beanClasses.add(Date.class);
+			this.beanClasses.add(StringBuilder.class);
+		}
+
+		public List<Advisor> createAdvisors() {
+			List<Advisor> advisors = new ArrayList<>(this.expressions.size());
+			for (String expression : this.expressions) {
+				AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+				pointcut.setExpression(expression);
+				advisors.add(new DefaultPointcutAdvisor(pointcut, ExposeInvocationInterceptor.INSTANCE));
+			}
+			return advisors;
+		}
+	}
+
+	@Benchmark
+	public int findAdvisorsThatCanApply(BenchmarkState state) {
+		List<Advisor> advisors = state.createAdvisors();
+		int count = 0;
+		for (Class<?> beanClass : state.beanClasses) {
+			count += AopUtils.findAdvisorsThatCanApply(advisors, beanClass).size();
+		}
+		return count;
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Audited {
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for invocations through AOP proxies with a chain of interceptors.
+ *
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ProxyInvocationBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"jdk", "cglib", "cglibFrozen"})
+		public String proxyType;
+
+		@Param({"5"})
+		public int interceptorCount;
+
+		public Service proxy;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			ProxyFactory proxyFactory = new ProxyFactory(new DefaultService());
+			if ("jdk".equals(this.proxyType)) {
+				proxyFactory.addInterface(Service.class);
+			}
+			else {
+				proxyFactory.setProxyTargetClass(true);
+			}
+			for (int i = 0; i < this.interceptorCount; i++) {
+				proxyFactory.addAdvice(new PassThroughInterceptor());
+			}
+			proxyFactory.setFrozen("cglibFrozen".equals(this.proxyType));
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+	@Benchmark
+	public String invokeWithArgument(BenchmarkState state) {
+		return state.proxy.echo("value");
+	}
+
+	@Benchmark
+	public int invokeWithoutArguments(BenchmarkState state) {
+		return state.proxy.count();
+	}
+
+
+	public interface Service {
+
+		String echo(String value);
+
+		int count();
+	}
+
+
+	public static class DefaultService implements Service {
+
+		private int count;
+
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public int count() {
+			return this.count++;
+		}
+	}
+
+
+	private static class PassThroughInterceptor implements MethodInterceptor {
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+	}
+
+}
@@ -18,12 +18,15 @@ package org.springframework.aop.aspectj;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -103,6 +106,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private static final Log logger = LogFactory.getLog(AspectJExpressionPointcut.class);
 
+	/** Match state shared by equal pointcuts, weakly referenced while in use. */
+	private static final Map<List<Object>, WeakReference<SharedMatchState>> sharedMatchStates = new WeakHashMap<>();
+
 	@Nullable
 	private Class<?> pointcutDeclarationScope;
 
@@ -121,6 +127,12 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
 
+	@Nullable
+	private transient PointcutExpressionPrefilter prefilter;
+
+	@Nullable
+	private transient SharedMatchState sharedMatchState;
+
 
 	/**
 	 * Create a new default AspectJExpressionPointcut.
@@ -152,6 +164,15 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		this.pointcutDeclarationScope = pointcutDeclarationScope;
 	}
 
+	/**
+	 * Return the declaration scope for the pointcut, if any.
+	 * @since 5.3.24
+	 */
+	@Nullable
+	public Class<?> getPointcutDeclarationScope() {
+		return this.pointcutDeclarationScope;
+	}
+
 	/**
 	 * Set the parameter names for the pointcut.
 	 */
@@ -195,11 +216,42 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 		if (this.pointcutExpression == null) {
 			this.pointcutClassLoader = determinePointcutClassLoader();
-			this.pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			PointcutExpression pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			initMatchState(pointcutExpression);
+			this.pointcutExpression = pointcutExpression;
 		}
 		return this.pointcutExpression;
 	}
 
+	/**
+	 * Initialize the pre-filter and the ShadowMatch cache for the given expression.
+	 * <p>Equal pointcuts for the same ClassLoader and BeanFactory share both, so that
+	 * e.g. a pointcut referenced by several advice methods of an aspect is only
+	 * evaluated once per method. Subclasses keep their own state, since they may
+	 * customize matching through {@link #getCurrentProxiedBeanName()}.
+	 */
+	private void initMatchState(PointcutExpression pointcutExpression) {
+		if (getClass() != AspectJExpressionPointcut.class) {
+			this.prefilter = PointcutExpressionPrefilter.forExpression(pointcutExpression);
+			return;
+		}
+		List<Object> key = Arrays.asList(getExpression(), this.pointcutDeclarationScope,
+				Arrays.asList(this.pointcutParameterNames), Arrays.asList(this.pointcutParameterTypes),
+				this.pointcutClassLoader, this.beanFactory);
+		SharedMatchState sharedMatchState;
+		synchronized (sharedMatchStates) {
+			WeakReference<SharedMatchState> ref = sharedMatchStates.get(key);
+			sharedMatchState = (ref != null ? ref.get() : null);
+			if (sharedMatchState == null) {
+				sharedMatchState = new SharedMatchState(key, PointcutExpressionPrefilter.forExpression(pointcutExpression));
+				sharedMatchStates.put(key, new WeakReference<>(sharedMatchState));
+			}
+		}
+		this.sharedMatchState = sharedMatchState;
+		this.shadowMatchCache = sharedMatchState.shadowMatchCache;
+		this.prefilter = sharedMatchState.prefilter;
+	}
+
 	/**
 	 * Determine the ClassLoader to use for pointcut evaluation.
 	 */
@@ -292,6 +344,10 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	@Override
 	public boolean matches(Method method, Class<?> targetClass, boolean hasIntroductions) {
 		obtainPointcutExpression();
+		if (this.prefilter != null && !this.prefilter.couldMatch(method, targetClass)) {
+			// Cannot match according to the types involved: no need to ask AspectJ
+			return false;
+		}
 		ShadowMatch shadowMatch = getTargetShadowMatch(method, targetClass);
 
 		// Special handling for this, target, @this, @target, @annotation
@@ -577,6 +633,26 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 
+	/**
+	 * Pre-filter and ShadowMatch cache shared by equal pointcuts.
+	 * Holds on to its key in order to keep its registry entry alive.
+	 */
+	private static final class SharedMatchState {
+
+		final List<Object> key;
+
+		final Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<>(32);
+
+		@Nullable
+		final PointcutExpressionPrefilter prefilter;
+
+		SharedMatchState(List<Object> key, @Nullable PointcutExpressionPrefilter prefilter) {
+			this.key = key;
+			this.prefilter = prefilter;
+		}
+	}
+
+
 	/**
 	 * Handler for the Spring-specific {@code bean()} pointcut designator
 	 * extension to AspectJ.
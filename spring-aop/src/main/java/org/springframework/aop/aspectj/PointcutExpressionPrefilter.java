@@ -0,0 +1,339 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.aspectj.weaver.Shadow;
+import org.aspectj.weaver.internal.tools.PointcutExpressionImpl;
+import org.aspectj.weaver.patterns.AndPointcut;
+import org.aspectj.weaver.patterns.AnnotationPointcut;
+import org.aspectj.weaver.patterns.AnnotationTypePattern;
+import org.aspectj.weaver.patterns.ExactAnnotationTypePattern;
+import org.aspectj.weaver.patterns.ExactTypePattern;
+import org.aspectj.weaver.patterns.KindedPointcut;
+import org.aspectj.weaver.patterns.NamePattern;
+import org.aspectj.weaver.patterns.OrPointcut;
+import org.aspectj.weaver.patterns.Pointcut;
+import org.aspectj.weaver.patterns.TypePattern;
+import org.aspectj.weaver.patterns.WildTypePattern;
+import org.aspectj.weaver.patterns.WithinAnnotationPointcut;
+import org.aspectj.weaver.patterns.WithinPointcut;
+import org.aspectj.weaver.tools.PointcutExpression;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * Cheap pre-filter for an AspectJ pointcut expression, rejecting methods
+ * without evaluating the expression against them.
+ *
+ * <p>Derives necessary conditions from the declaring type patterns of
+ * {@code execution} and {@code within} as well as from the annotation types
+ * of {@code @annotation} and {@code @within}, combined as specified by
+ * {@code &&} and {@code ||}. Those conditions are checked against a summary
+ * of the type hierarchy of a class: the names of all its supertypes, the
+ * annotations declared on them and the annotations declared on their methods.
+ * Every other part of an expression is assumed to match.
+ *
+ * <p>Like {@link RuntimeTestWalker}, this class relies on implementation
+ * specific knowledge in AspectJ, namely the structure of parsed pointcuts.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see AspectJExpressionPointcut#matches(Method, Class, boolean)
+ */
+final class PointcutExpressionPrefilter {
+
+	private static final Map<Class<?>, TypeHierarchy> typeHierarchyCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private final Predicate<TypeHierarchy> condition;
+
+	private final Map<Class<?>, Boolean> matchCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	private PointcutExpressionPrefilter(Predicate<TypeHierarchy> condition) {
+		this.condition = condition;
+	}
+
+
+	/**
+	 * Determine whether the given method might be matched by the pointcut expression,
+	 * considering the type hierarchies of the target class as well as of the declaring
+	 * class of the method (e.g. for a method on an interface that the target does not
+	 * implement).
+	 * @param method the candidate method
+	 * @param targetClass the target class
+	 * @return {@code false} if the expression cannot match the method
+	 */
+	boolean couldMatch(Method method, Class<?> targetClass) {
+		return (couldMatch(targetClass) ||
+				(method.getDeclaringClass() != targetClass && couldMatch(method.getDeclaringClass())));
+	}
+
+	private boolean couldMatch(Class<?> clazz) {
+		Boolean match = this.matchCache.get(clazz);
+		if (match == null) {
+			match = this.condition.test(TypeHierarchy.forClass(clazz));
+			this.matchCache.put(clazz, match);
+		}
+		return match;
+	}
+
+
+	/**
+	 * Create a pre-filter for the given pointcut expression.
+	 * @param expression the parsed pointcut expression
+	 * @return the pre-filter, or {@code null} if the expression does not
+	 * constrain the types it may match
+	 */
+	@Nullable
+	static PointcutExpressionPrefilter forExpression(PointcutExpression expression) {
+		if (!(expression instanceof PointcutExpressionImpl)) {
+			return null;
+		}
+		Predicate<TypeHierarchy> condition = conditionFor(((PointcutExpressionImpl) expression).getUnderlyingPointcut());
+		return (condition != null ? new PointcutExpressionPrefilter(condition) : null);
+	}
+
+	/**
+	 * Determine a necessary condition for the given pointcut to match.
+	 * @return the condition, or {@code null} for no constraint
+	 */
+	@Nullable
+	private static Predicate<TypeHierarchy> conditionFor(Pointcut pointcut) {
+		if (pointcut instanceof AndPointcut) {
+			AndPointcut and = (AndPointcut) pointcut;
+			Predicate<TypeHierarchy> left = conditionFor(and.getLeft());
+			Predicate<TypeHierarchy> right = conditionFor(and.getRight());
+			return (left == null ? right : (right == null ? left : left.and(right)));
+		}
+		if (pointcut instanceof OrPointcut) {
+			OrPointcut or = (OrPointcut) pointcut;
+			Predicate<TypeHierarchy> left = conditionFor(or.getLeft());
+			Predicate<TypeHierarchy> right = conditionFor(or.getRight());
+			return (left != null && right != null ? left.or(right) : null);
+		}
+		if (pointcut instanceof KindedPointcut) {
+			KindedPointcut kinded = (KindedPointcut) pointcut;
+			if (kinded.getKind() != Shadow.MethodExecution) {
+				return null;
+			}
+			Predicate<TypeHierarchy> declaringType = conditionFor(kinded.getSignature().getDeclaringType());
+			String annotationName = annotationName(kinded.getSignature().getAnnotationPattern());
+			Predicate<TypeHierarchy> annotation = (annotationName != null ?
+					hierarchy -> hierarchy.hasMethodAnnotation(annotationName) : null);
+			return (declaringType == null ? annotation :
+					(annotation == null ? declaringType : declaringType.and(annotation)));
+		}
+		if (pointcut instanceof WithinPointcut) {
+			return conditionFor(((WithinPointcut) pointcut).getTypePattern());
+		}
+		if (pointcut instanceof AnnotationPointcut) {
+			String annotationName = annotationName(((AnnotationPointcut) pointcut).getAnnotationTypePattern());
+			return (annotationName != null ? hierarchy -> hierarchy.hasMethodAnnotation(annotationName) : null);
+		}
+		if (pointcut instanceof WithinAnnotationPointcut) {
+			String annotationName = annotationName(((WithinAnnotationPointcut) pointcut).getAnnotationTypePattern());
+			return (annotationName != null ? hierarchy -> hierarchy.hasTypeAnnotation(annotationName) : null);
+		}
+		// Negations, args, this/target, bean() etc: no constraint
+		return null;
+	}
+
+	@Nullable
+	private static Predicate<TypeHierarchy> conditionFor(TypePattern typePattern) {
+		if (typePattern instanceof ExactTypePattern) {
+			ExactTypePattern exact = (ExactTypePattern) typePattern;
+			if (exact.isArray()) {
+				return null;
+			}
+			String typeName = exact.getType().getRawName();
+			return hierarchy -> hierarchy.hasTypeName(typeName);
+		}
+		if (typePattern instanceof WildTypePattern) {
+			WildTypePattern wild = (WildTypePattern) typePattern;
+			if (wild.getDimensions() != 0) {
+				return null;
+			}
+			NamePattern[] namePatterns = wild.getNamePatterns();
+			if (matchesAnyTypeName(namePatterns)) {
+				return null;
+			}
+			return hierarchy -> hierarchy.hasTypeName(typeName -> matchesTypeName(namePatterns, typeName));
+		}
+		return null;
+	}
+
+	@Nullable
+	private static String annotationName(@Nullable AnnotationTypePattern annotationPattern) {
+		if (annotationPattern instanceof ExactAnnotationTypePattern) {
+			ExactAnnotationTypePattern exact = (ExactAnnotationTypePattern) annotationPattern;
+			if (exact.getAnnotationType() != null) {
+				return exact.getAnnotationType().getRawName();
+			}
+		}
+		return null;
+	}
+
+	private static boolean matchesAnyTypeName(NamePattern[] namePatterns) {
+		boolean ellipsis = false;
+		for (NamePattern namePattern : namePatterns) {
+			if (namePattern == NamePattern.ELLIPSIS) {
+				ellipsis = true;
+			}
+			else if (!namePattern.isAny()) {
+				return false;
+			}
+		}
+		return (ellipsis || namePatterns.length == 1);
+	}
+
+	/**
+	 * Determine whether the given type name might be matched by a wildcard type
+	 * pattern. Since AspectJ also resolves patterns against imported prefixes
+	 * (such as {@code java.lang}), every package or enclosing type qualifier may
+	 * be omitted, and nested types may be separated by {@code '.'} or {@code '$'}.
+	 */
+	private static boolean matchesTypeName(NamePattern[] namePatterns, String typeName) {
+		return (matchesQualifiedName(namePatterns, StringUtils.tokenizeToStringArray(typeName, ".")) ||
+				(typeName.indexOf('$') != -1 &&
+						matchesQualifiedName(namePatterns, StringUtils.tokenizeToStringArray(typeName, ".$"))));
+	}
+
+	private static boolean matchesQualifiedName(NamePattern[] namePatterns, String[] names) {
+		for (int start = 0; start < names.length; start++) {
+			if (matchesNames(namePatterns, 0, names, start)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matchesNames(NamePattern[] namePatterns, int patternIndex, String[] names, int nameIndex) {
+		if (patternIndex == namePatterns.length) {
+			return (nameIndex == names.length);
+		}
+		NamePattern namePattern = namePatterns[patternIndex];
+		if (namePattern == NamePattern.ELLIPSIS) {
+			for (int i = nameIndex; i <= names.length; i++) {
+				if (matchesNames(namePatterns, patternIndex + 1, names, i)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return (nameIndex < names.length && namePattern.matches(names[nameIndex]) &&
+				matchesNames(namePatterns, patternIndex + 1, names, nameIndex + 1));
+	}
+
+
+	/**
+	 * Summary of the type hierarchy of a class: the names of the class and all
+	 * of its supertypes, and the names of the annotations declared on them and
+	 * on their methods.
+	 */
+	private static final class TypeHierarchy {
+
+		private final Set<String> typeNames = new HashSet<>();
+
+		private final Set<String> typeAnnotationNames = new HashSet<>();
+
+		private final Set<String> methodAnnotationNames = new HashSet<>();
+
+		private final boolean introspected;
+
+		private TypeHierarchy(Class<?> clazz) {
+			// Interfaces are considered to extend Object in AspectJ
+			this.typeNames.add(Object.class.getName());
+			this.typeNames.add(clazz.getName());
+			boolean introspected = true;
+			try {
+				addAnnotationNames(clazz.getDeclaredAnnotations(), this.typeAnnotationNames);
+				for (Method method : clazz.getDeclaredMethods()) {
+					addAnnotationNames(method.getDeclaredAnnotations(), this.methodAnnotationNames);
+				}
+				Class<?> superclass = clazz.getSuperclass();
+				if (superclass != null) {
+					introspected = add(forClass(superclass));
+				}
+				for (Class<?> ifc : clazz.getInterfaces()) {
+					introspected &= add(forClass(ifc));
+				}
+			}
+			catch (Throwable ex) {
+				// Unresolvable types in signatures or annotations: do not filter at all
+				introspected = false;
+			}
+			this.introspected = introspected;
+		}
+
+		private boolean add(TypeHierarchy other) {
+			this.typeNames.addAll(other.typeNames);
+			this.typeAnnotationNames.addAll(other.typeAnnotationNames);
+			this.methodAnnotationNames.addAll(other.methodAnnotationNames);
+			return other.introspected;
+		}
+
+		boolean hasTypeName(String typeName) {
+			return (!this.introspected || this.typeNames.contains(typeName));
+		}
+
+		boolean hasTypeName(Predicate<String> typeNameMatcher) {
+			if (!this.introspected) {
+				return true;
+			}
+			for (String typeName : this.typeNames) {
+				if (typeNameMatcher.test(typeName)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean hasTypeAnnotation(String annotationName) {
+			return (!this.introspected || this.typeAnnotationNames.contains(annotationName));
+		}
+
+		boolean hasMethodAnnotation(String annotationName) {
+			return (!this.introspected || this.methodAnnotationNames.contains(annotationName));
+		}
+
+		private static void addAnnotationNames(Annotation[] annotations, Set<String> annotationNames) {
+			for (Annotation annotation : annotations) {
+				annotationNames.add(annotation.annotationType().getName());
+			}
+		}
+
+		static TypeHierarchy forClass(Class<?> clazz) {
+			TypeHierarchy typeHierarchy = typeHierarchyCache.get(clazz);
+			if (typeHierarchy == null) {
+				typeHierarchy = new TypeHierarchy(clazz);
+				typeHierarchyCache.put(clazz, typeHierarchy);
+			}
+			return typeHierarchy;
+		}
+	}
+
+}
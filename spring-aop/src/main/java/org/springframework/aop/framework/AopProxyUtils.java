@@ -53,6 +53,8 @@ public abstract class AopProxyUtils {
 	@Nullable
 	private static final Method isSealedMethod = ClassUtils.getMethodIfAvailable(Class.class, "isSealed");
 
+	private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
 
 	/**
 	 * Obtain the singleton target object behind the given proxy, if any.
@@ -216,11 +218,12 @@ public abstract class AopProxyUtils {
 	 * @param method the target method
 	 * @param arguments the given arguments
 	 * @return a cloned argument array, or the original if no adaptation is needed
+	 * (an empty array being shared for a method without arguments)
 	 * @since 4.2.3
 	 */
 	static Object[] adaptArgumentsIfNecessary(Method method, @Nullable Object[] arguments) {
 		if (ObjectUtils.isEmpty(arguments)) {
-			return new Object[0];
+			return EMPTY_ARGUMENTS;
 		}
 		if (method.isVarArgs()) {
 			if (method.getParameterCount() == arguments.length) {
@@ -17,29 +17,36 @@
 package org.springframework.aop.framework;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.function.Supplier;
 
-import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
 import org.springframework.aop.PointcutAdvisor;
 import org.springframework.aop.RawTargetAccess;
 import org.springframework.aop.TargetSource;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.support.AopUtils;
-import org.springframework.cglib.core.ClassLoaderAwareGeneratorStrategy;
+import org.springframework.aop.support.annotation.AnnotationClassFilter;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.aop.support.annotation.AnnotationMethodMatcher;
 import org.springframework.cglib.core.CodeGenerationException;
-import org.springframework.cglib.core.SpringNamingPolicy;
 import org.springframework.cglib.proxy.Callback;
 import org.springframework.cglib.proxy.CallbackFilter;
 import org.springframework.cglib.proxy.Dispatcher;
@@ -54,7 +61,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ObjectUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -187,10 +194,9 @@ class CglibAopProxy implements AopProxy, Serializable {
 					enhancer.setUseCache(false);
 				}
 			}
+			Class<?>[] interfaces = AopProxyUtils.completeProxiedInterfaces(this.advised);
 			enhancer.setSuperclass(proxySuperClass);
-			enhancer.setInterfaces(AopProxyUtils.completeProxiedInterfaces(this.advised));
-			enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
-			enhancer.setStrategy(new ClassLoaderAwareGeneratorStrategy(classLoader));
+			enhancer.setInterfaces(interfaces);
 
 			Callback[] callbacks = getCallbacks(rootClass);
 			Class<?>[] types = new Class<?>[callbacks.length];
@@ -198,12 +204,22 @@ class CglibAopProxy implements AopProxy, Serializable {
 				types[x] = callbacks[x].getClass();
 			}
 			// fixedInterceptorMap only populated at this point, after getCallbacks call above
-			enhancer.setCallbackFilter(new ProxyCallbackFilter(
-					this.advised.getConfigurationOnlyCopy(), this.fixedInterceptorMap, this.fixedInterceptorOffset));
+			ProxyCallbackFilter callbackFilter = new ProxyCallbackFilter(
+					this.advised.getConfigurationOnlyCopy(), this.fixedInterceptorMap, this.fixedInterceptorOffset);
+			enhancer.setCallbackFilter(callbackFilter);
 			enhancer.setCallbackTypes(types);
+			CglibProxyClassCache.prepareEnhancer(enhancer, classLoader,
+					getKeyDescription(proxySuperClass, interfaces, types, callbackFilter));
 
 			// Generate the proxy class and create a proxy instance.
-			return createProxyClassAndInstance(enhancer, callbacks);
+			try {
+				return createProxyClassAndInstance(enhancer, callbacks);
+			}
+			finally {
+				// The filter may be retained along with the cached proxy class:
+				// only keep the state that it is compared by.
+				callbackFilter.reduceToKey();
+			}
 		}
 		catch (CodeGenerationException | IllegalArgumentException ex) {
 			throw new AopConfigException("Could not generate CGLIB subclass of " + this.advised.getTargetClass() +
@@ -216,6 +232,33 @@ class CglibAopProxy implements AopProxy, Serializable {
 		}
 	}
 
+	/**
+	 * Return a lazily built description of the proxy class key which is
+	 * stable across JVM runs, or {@code null} if there is none.
+	 * @see CglibProxyClassCache
+	 */
+	@Nullable
+	private Supplier<String> getKeyDescription(Class<?> proxySuperClass, Class<?>[] interfaces,
+			Class<?>[] callbackTypes, ProxyCallbackFilter callbackFilter) {
+
+		if (!callbackFilter.isDescribable()) {
+			return null;
+		}
+		String aopProxyType = getClass().getName();
+		return () -> {
+			StringBuilder sb = new StringBuilder(aopProxyType);
+			sb.append('|').append(proxySuperClass.getName());
+			for (Class<?> ifc : interfaces) {
+				sb.append('|').append(ifc.getName());
+			}
+			for (Class<?> callbackType : callbackTypes) {
+				sb.append('|').append(callbackType.getName());
+			}
+			callbackFilter.appendKeyDescription(sb);
+			return sb.toString();
+		};
+	}
+
 	protected Object createProxyClassAndInstance(Enhancer enhancer, Callback[] callbacks) {
 		enhancer.setInterceptDuringConstruction(false);
 		enhancer.setCallbacks(callbacks);
@@ -322,7 +365,8 @@ class CglibAopProxy implements AopProxy, Serializable {
 
 		// If the target is a static one and the advice chain is frozen,
 		// then we can make some optimizations by sending the AOP calls
-		// direct to the target using the fixed chain for that method.
+		// direct to the target using the fixed chain for that method,
+		// linked into the proxy class through its callback index.
 		if (isStatic && isFrozen) {
 			Method[] methods = rootClass.getMethods();
 			Callback[] fixedCallbacks = new Callback[methods.length];
@@ -333,7 +377,8 @@ class CglibAopProxy implements AopProxy, Serializable {
 				Method method = methods[x];
 				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, rootClass);
 				fixedCallbacks[x] = new FixedChainStaticTargetInterceptor(
-						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass());
+						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass(),
+						CglibMethodInvocation.isMethodProxyCompatible(method), exposeProxy);
 				this.fixedInterceptorMap.put(method, x);
 			}
 
@@ -631,6 +676,9 @@ class CglibAopProxy implements AopProxy, Serializable {
 
 	/**
 	 * Interceptor used specifically for advised methods on a frozen, static proxy.
+	 * <p>The advice chain and the method proxy compatibility of the target method
+	 * are resolved once at proxy creation, so invocations neither look up the chain
+	 * nor invoke the target method reflectively.
 	 */
 	private static class FixedChainStaticTargetInterceptor implements MethodInterceptor, Serializable {
 
@@ -642,23 +690,40 @@ class CglibAopProxy implements AopProxy, Serializable {
 		@Nullable
 		private final Class<?> targetClass;
 
-		public FixedChainStaticTargetInterceptor(
-				List<Object> adviceChain, @Nullable Object target, @Nullable Class<?> targetClass) {
+		private final boolean methodProxyCompatible;
+
+		private final boolean exposeProxy;
+
+		public FixedChainStaticTargetInterceptor(List<Object> adviceChain, @Nullable Object target,
+				@Nullable Class<?> targetClass, boolean methodProxyCompatible, boolean exposeProxy) {
 
 			this.adviceChain = adviceChain;
 			this.target = target;
 			this.targetClass = targetClass;
+			this.methodProxyCompatible = methodProxyCompatible;
+			this.exposeProxy = exposeProxy;
 		}
 
 		@Override
 		@Nullable
 		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-			MethodInvocation invocation = new CglibMethodInvocation(
-					proxy, this.target, method, args, this.targetClass, this.adviceChain, methodProxy);
-			// If we get here, we need to create a MethodInvocation.
-			Object retVal = invocation.proceed();
-			retVal = processReturnType(proxy, this.target, method, retVal);
-			return retVal;
+			Object oldProxy = null;
+			if (this.exposeProxy) {
+				oldProxy = AopContext.setCurrentProxy(proxy);
+			}
+			try {
+				// If we get here, we need to create a MethodInvocation.
+				MethodInvocation invocation = new CglibMethodInvocation(proxy, this.target, method, args,
+						this.targetClass, this.adviceChain, methodProxy, this.methodProxyCompatible);
+				Object retVal = invocation.proceed();
+				retVal = processReturnType(proxy, this.target, method, retVal);
+				return retVal;
+			}
+			finally {
+				if (this.exposeProxy) {
+					AopContext.setCurrentProxy(oldProxy);
+				}
+			}
 		}
 	}
 
@@ -750,10 +815,19 @@ class CglibAopProxy implements AopProxy, Serializable {
 				Object[] arguments, @Nullable Class<?> targetClass,
 				List<Object> interceptorsAndDynamicMethodMatchers, MethodProxy methodProxy) {
 
+			this(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers,
+					methodProxy, isMethodProxyCompatible(method));
+		}
+
+		public CglibMethodInvocation(Object proxy, @Nullable Object target, Method method,
+				Object[] arguments, @Nullable Class<?> targetClass,
+				List<Object> interceptorsAndDynamicMethodMatchers, MethodProxy methodProxy,
+				boolean methodProxyCompatible) {
+
 			super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
 
 			// Only use method proxy for public methods not derived from java.lang.Object
-			this.methodProxy = (isMethodProxyCompatible(method) ? methodProxy : null);
+			this.methodProxy = (methodProxyCompatible ? methodProxy : null);
 		}
 
 		@Override
@@ -818,18 +892,86 @@ class CglibAopProxy implements AopProxy, Serializable {
 	 */
 	private static class ProxyCallbackFilter implements CallbackFilter {
 
-		private final AdvisedSupport advised;
+		@Nullable
+		private AdvisedSupport advised;
 
 		private final Map<Method, Integer> fixedInterceptorMap;
 
 		private final int fixedInterceptorOffset;
 
+		private final boolean frozen;
+
+		private final boolean exposeProxy;
+
+		private final boolean opaque;
+
+		private final boolean staticTargetSource;
+
+		private final Class<?>[] proxiedInterfaces;
+
+		private final AdvisorKeyEntry[] advisorKey;
+
+		private final int hashCode;
+
 		public ProxyCallbackFilter(
 				AdvisedSupport advised, Map<Method, Integer> fixedInterceptorMap, int fixedInterceptorOffset) {
 
 			this.advised = advised;
 			this.fixedInterceptorMap = fixedInterceptorMap;
 			this.fixedInterceptorOffset = fixedInterceptorOffset;
+			this.frozen = advised.isFrozen();
+			this.exposeProxy = advised.isExposeProxy();
+			this.opaque = advised.isOpaque();
+			this.staticTargetSource = advised.getTargetSource().isStatic();
+			this.proxiedInterfaces = advised.getProxiedInterfaces();
+			Advisor[] advisors = advised.getAdvisors();
+			this.advisorKey = new AdvisorKeyEntry[advisors.length];
+			int hashCode = 0;
+			for (int i = 0; i < advisors.length; i++) {
+				this.advisorKey[i] = new AdvisorKeyEntry(advisors[i]);
+				hashCode = 13 * hashCode + this.advisorKey[i].hashCode();
+			}
+			hashCode = 13 * hashCode + (this.frozen ? 1 : 0);
+			hashCode = 13 * hashCode + (this.exposeProxy ? 1 : 0);
+			hashCode = 13 * hashCode + (this.opaque ? 1 : 0);
+			hashCode = 13 * hashCode + (this.staticTargetSource ? 1 : 0);
+			this.hashCode = hashCode;
+		}
+
+		/**
+		 * Release the proxy configuration, only keeping the state that this
+		 * filter is compared by. To be called once the proxy class is available.
+		 */
+		public void reduceToKey() {
+			this.advised = null;
+		}
+
+		/**
+		 * Return whether the key of this filter can be described in a stable fashion.
+		 * @see #appendKeyDescription
+		 */
+		public boolean isDescribable() {
+			for (AdvisorKeyEntry entry : this.advisorKey) {
+				if (!entry.isDescribable()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Append a description of the key of this filter to the given builder.
+		 */
+		public void appendKeyDescription(StringBuilder sb) {
+			sb.append("|frozen=").append(this.frozen).append("|exposeProxy=").append(this.exposeProxy)
+					.append("|opaque=").append(this.opaque).append("|static=").append(this.staticTargetSource);
+			for (Class<?> ifc : this.proxiedInterfaces) {
+				sb.append('|').append(ifc.getName());
+			}
+			for (AdvisorKeyEntry entry : this.advisorKey) {
+				sb.append('|');
+				entry.appendDescription(sb);
+			}
 		}
 
 		/**
@@ -843,8 +985,9 @@ class CglibAopProxy implements AopProxy, Serializable {
 		 * <dt>For exposed proxies</dt>
 		 * <dd>Exposing the proxy requires code to execute before and after the
 		 * method/chain invocation. This means we must use
-		 * DynamicAdvisedInterceptor, since all other interceptors can avoid the
-		 * need for a try/catch block</dd>
+		 * DynamicAdvisedInterceptor for advised methods, unless a
+		 * FixedChainStaticTargetInterceptor is available (see below), since all
+		 * other interceptors can avoid the need for a try/catch block</dd>
 		 * <dt>For Object.finalize():</dt>
 		 * <dd>No override for this method is used.</dd>
 		 * <dt>For equals():</dt>
@@ -870,11 +1013,13 @@ class CglibAopProxy implements AopProxy, Serializable {
 		 */
 		@Override
 		public int accept(Method method) {
+			AdvisedSupport advised = this.advised;
+			Assert.state(advised != null, "ProxyCallbackFilter already reduced to its key");
 			if (AopUtils.isFinalizeMethod(method)) {
 				logger.trace("Found finalize() method - using NO_OVERRIDE");
 				return NO_OVERRIDE;
 			}
-			if (!this.advised.isOpaque() && method.getDeclaringClass().isInterface() &&
+			if (!advised.isOpaque() && method.getDeclaringClass().isInterface() &&
 					method.getDeclaringClass().isAssignableFrom(Advised.class)) {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Method is declared on Advised interface: " + method);
@@ -895,23 +1040,16 @@ class CglibAopProxy implements AopProxy, Serializable {
 				}
 				return INVOKE_HASHCODE;
 			}
-			Class<?> targetClass = this.advised.getTargetClass();
+			Class<?> targetClass = advised.getTargetClass();
 			// Proxy is not yet available, but that shouldn't matter.
-			List<?> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			List<?> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
 			boolean haveAdvice = !chain.isEmpty();
-			boolean exposeProxy = this.advised.isExposeProxy();
-			boolean isStatic = this.advised.getTargetSource().isStatic();
-			boolean isFrozen = this.advised.isFrozen();
+			boolean exposeProxy = this.exposeProxy;
+			boolean isStatic = this.staticTargetSource;
+			boolean isFrozen = this.frozen;
 			if (haveAdvice || !isFrozen) {
-				// If exposing the proxy, then AOP_PROXY must be used.
-				if (exposeProxy) {
-					if (logger.isTraceEnabled()) {
-						logger.trace("Must expose proxy on advised method: " + method);
-					}
-					return AOP_PROXY;
-				}
-				// Check to see if we have fixed interceptor to serve this method.
-				// Else use the AOP_PROXY.
+				// Check to see if we have fixed interceptor to serve this method,
+				// exposing the proxy itself if necessary. Else use the AOP_PROXY.
 				if (isStatic && isFrozen && this.fixedInterceptorMap.containsKey(method)) {
 					if (logger.isTraceEnabled()) {
 						logger.trace("Method has advice and optimizations are enabled: " + method);
@@ -920,6 +1058,12 @@ class CglibAopProxy implements AopProxy, Serializable {
 					int index = this.fixedInterceptorMap.get(method);
 					return (index + this.fixedInterceptorOffset);
 				}
+				else if (exposeProxy) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("Must expose proxy on advised method: " + method);
+					}
+					return AOP_PROXY;
+				}
 				else {
 					if (logger.isTraceEnabled()) {
 						logger.trace("Unable to apply any optimizations to advised method: " + method);
@@ -963,64 +1107,146 @@ class CglibAopProxy implements AopProxy, Serializable {
 				return false;
 			}
 			ProxyCallbackFilter otherCallbackFilter = (ProxyCallbackFilter) other;
-			AdvisedSupport otherAdvised = otherCallbackFilter.advised;
-			if (this.advised.isFrozen() != otherAdvised.isFrozen()) {
-				return false;
-			}
-			if (this.advised.isExposeProxy() != otherAdvised.isExposeProxy()) {
-				return false;
-			}
-			if (this.advised.getTargetSource().isStatic() != otherAdvised.getTargetSource().isStatic()) {
-				return false;
-			}
-			if (!AopProxyUtils.equalsProxiedInterfaces(this.advised, otherAdvised)) {
-				return false;
-			}
 			// Advice instance identity is unimportant to the proxy class:
 			// All that matters is type and ordering.
-			if (this.advised.getAdvisorCount() != otherAdvised.getAdvisorCount()) {
-				return false;
+			return (this.frozen == otherCallbackFilter.frozen &&
+					this.exposeProxy == otherCallbackFilter.exposeProxy &&
+					this.opaque == otherCallbackFilter.opaque &&
+					this.staticTargetSource == otherCallbackFilter.staticTargetSource &&
+					Arrays.equals(this.proxiedInterfaces, otherCallbackFilter.proxiedInterfaces) &&
+					Arrays.equals(this.advisorKey, otherCallbackFilter.advisorKey));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Key for a single advisor of a {@link ProxyCallbackFilter}, holding the
+	 * advice type and the weakly held pointcut but not the advisor itself.
+	 * Pointcuts are compared through {@code equals} while available, with
+	 * their {@code toString()} representation, if overridden, serving as
+	 * a stable description for the name of the proxy class. For common
+	 * pointcut types, that description is amended with state compared in
+	 * {@code equals} but not exposed in {@code toString()}.
+	 */
+	private static final class AdvisorKeyEntry {
+
+		private static final boolean aspectjPresent = ClassUtils.isPresent(
+				"org.aspectj.weaver.tools.PointcutParser", AdvisorKeyEntry.class.getClassLoader());
+
+		private static final Map<Class<?>, Boolean> describedTypes = new ConcurrentReferenceHashMap<>();
+
+		private final Class<?> adviceType;
+
+		@Nullable
+		private final String pointcutDescription;
+
+		private final boolean pointcutDescribed;
+
+		@Nullable
+		private final WeakReference<Object> pointcutReference;
+
+		private final int hashCode;
+
+		AdvisorKeyEntry(Advisor advisor) {
+			this.adviceType = advisor.getAdvice().getClass();
+			if (advisor instanceof PointcutAdvisor) {
+				Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+				this.pointcutDescribed = isDescribedType(pointcut.getClass());
+				this.pointcutDescription = (this.pointcutDescribed ? describe(pointcut) : pointcut.getClass().getName());
+				this.pointcutReference = new WeakReference<>(pointcut);
+				this.hashCode = 31 * this.adviceType.getName().hashCode() + pointcut.hashCode();
 			}
-			Advisor[] thisAdvisors = this.advised.getAdvisors();
-			Advisor[] thatAdvisors = otherAdvised.getAdvisors();
-			for (int i = 0; i < thisAdvisors.length; i++) {
-				Advisor thisAdvisor = thisAdvisors[i];
-				Advisor thatAdvisor = thatAdvisors[i];
-				if (!equalsAdviceClasses(thisAdvisor, thatAdvisor)) {
-					return false;
+			else {
+				// Introductions are reflected in the proxied interfaces already
+				this.pointcutDescription = null;
+				this.pointcutDescribed = true;
+				this.pointcutReference = null;
+				this.hashCode = this.adviceType.getName().hashCode();
+			}
+		}
+
+		private static boolean isDescribedType(Class<?> pointcutType) {
+			return describedTypes.computeIfAbsent(pointcutType, type -> {
+				Method toString = ReflectionUtils.findMethod(type, "toString");
+				return (toString != null && toString.getDeclaringClass() != Object.class);
+			});
+		}
+
+		private static String describe(Pointcut pointcut) {
+			StringBuilder sb = new StringBuilder(pointcut.toString());
+			if (pointcut instanceof AnnotationMatchingPointcut) {
+				ClassFilter classFilter = pointcut.getClassFilter();
+				if (classFilter instanceof AnnotationClassFilter &&
+						((AnnotationClassFilter) classFilter).isCheckInherited()) {
+					sb.append(";inheritedClassAnnotation");
 				}
-				if (!equalsPointcuts(thisAdvisor, thatAdvisor)) {
-					return false;
+				MethodMatcher methodMatcher = pointcut.getMethodMatcher();
+				if (methodMatcher instanceof AnnotationMethodMatcher &&
+						((AnnotationMethodMatcher) methodMatcher).isCheckInherited()) {
+					sb.append(";inheritedMethodAnnotation");
 				}
 			}
-			return true;
+			else if (aspectjPresent) {
+				AspectJPointcutDescriber.appendDeclarationScope(pointcut, sb);
+			}
+			return sb.toString();
+		}
+
+		boolean isDescribable() {
+			return this.pointcutDescribed;
 		}
 
-		private static boolean equalsAdviceClasses(Advisor a, Advisor b) {
-			return (a.getAdvice().getClass() == b.getAdvice().getClass());
+		void appendDescription(StringBuilder sb) {
+			sb.append(this.adviceType.getName());
+			if (this.pointcutDescription != null) {
+				sb.append('@').append(this.pointcutDescription);
+			}
 		}
 
-		private static boolean equalsPointcuts(Advisor a, Advisor b) {
-			// If only one of the advisor (but not both) is PointcutAdvisor, then it is a mismatch.
-			// Takes care of the situations where an IntroductionAdvisor is used (see SPR-3959).
-			return (!(a instanceof PointcutAdvisor) ||
-					(b instanceof PointcutAdvisor &&
-							ObjectUtils.nullSafeEquals(((PointcutAdvisor) a).getPointcut(), ((PointcutAdvisor) b).getPointcut())));
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AdvisorKeyEntry)) {
+				return false;
+			}
+			AdvisorKeyEntry otherEntry = (AdvisorKeyEntry) other;
+			if (this.adviceType != otherEntry.adviceType || this.hashCode != otherEntry.hashCode) {
+				return false;
+			}
+			if (this.pointcutReference == null || otherEntry.pointcutReference == null) {
+				return (this.pointcutReference == otherEntry.pointcutReference);
+			}
+			// A pointcut that is not available anymore cannot be requested again
+			Object pointcut = this.pointcutReference.get();
+			return (pointcut != null && pointcut.equals(otherEntry.pointcutReference.get()));
 		}
 
 		@Override
 		public int hashCode() {
-			int hashCode = 0;
-			Advisor[] advisors = this.advised.getAdvisors();
-			for (Advisor advisor : advisors) {
-				Advice advice = advisor.getAdvice();
-				hashCode = 13 * hashCode + advice.getClass().hashCode();
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Inner class to avoid a hard dependency on AspectJ at runtime.
+	 */
+	private static class AspectJPointcutDescriber {
+
+		static void appendDeclarationScope(Pointcut pointcut, StringBuilder sb) {
+			if (pointcut instanceof AspectJExpressionPointcut) {
+				Class<?> declarationScope = ((AspectJExpressionPointcut) pointcut).getPointcutDeclarationScope();
+				if (declarationScope != null) {
+					sb.append(";declaredIn=").append(declarationScope.getName());
+				}
 			}
-			hashCode = 13 * hashCode + (this.advised.isFrozen() ? 1 : 0);
-			hashCode = 13 * hashCode + (this.advised.isExposeProxy() ? 1 : 0);
-			hashCode = 13 * hashCode + (this.advised.isOptimize() ? 1 : 0);
-			hashCode = 13 * hashCode + (this.advised.isOpaque() ? 1 : 0);
-			return hashCode;
 		}
 	}
 
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.ClassLoaderAwareGeneratorStrategy;
+import org.springframework.cglib.core.GeneratorStrategy;
+import org.springframework.cglib.core.Predicate;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Global access to the CGLIB proxy classes generated by {@link CglibAopProxy}.
+ *
+ * <p>CGLIB proxy classes are cached per ClassLoader, keyed by the target class,
+ * the proxied interfaces and the shape of the callback filter: the advice types
+ * and pointcuts of the advisors along with the {@link ProxyConfig} flags that
+ * affect the generated class. The key only holds pointcuts weakly and does not
+ * retain any advisor, advice or target instance, so a proxy class generated for
+ * one application context gets reused by other application contexts with an
+ * equivalent proxy configuration, without keeping the original application context
+ * alive. Pointcuts are compared through {@code equals} as long as they are in use.
+ *
+ * <p>Proxy classes are named after a digest of their key, which makes the class
+ * names stable across JVM runs. This allows for pre-generating proxy classes at
+ * build time: with an {@linkplain #setOutputDirectory output directory} specified,
+ * the bytecode of each generated proxy class gets written to that directory.
+ * If the resulting class files are packaged with the application, proxy classes
+ * may be {@linkplain #setLoadPregeneratedClasses loaded from the classpath}
+ * instead of being generated at runtime. Since pointcuts are described by their
+ * {@code toString()} representation for that purpose, proxy classes can only be
+ * pre-generated for pointcuts overriding {@code toString()} consistently with
+ * {@code equals}. Note that pre-generated proxy classes need to be regenerated
+ * whenever the proxied classes or the Spring version change.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see CglibAopProxy
+ */
+public final class CglibProxyClassCache {
+
+	/**
+	 * System property that instructs Spring to load CGLIB proxy classes from
+	 * the classpath if available, before generating them at runtime:
+	 * "spring.aop.pregenerated-proxy-classes".
+	 * <p>The default is "false", always generating proxy classes at runtime.
+	 * @see #setLoadPregeneratedClasses
+	 */
+	public static final String PREGENERATED_PROXY_CLASSES_PROPERTY_NAME = "spring.aop.pregenerated-proxy-classes";
+
+	/**
+	 * System property that specifies a directory to write the bytecode of
+	 * generated CGLIB proxy classes to: "spring.aop.proxy-class-output-dir".
+	 * <p>Typically set for a build-time run of the application, with the
+	 * content of the directory packaged with the application afterwards.
+	 * @see #setOutputDirectory
+	 */
+	public static final String PROXY_CLASS_OUTPUT_DIR_PROPERTY_NAME = "spring.aop.proxy-class-output-dir";
+
+
+	private static final Log logger = LogFactory.getLog(CglibProxyClassCache.class);
+
+	private static final LongAdder requestCount = new LongAdder();
+
+	private static final LongAdder missCount = new LongAdder();
+
+	private static final LongAdder generatedCount = new LongAdder();
+
+	private static volatile boolean loadPregeneratedClasses =
+			SpringProperties.getFlag(PREGENERATED_PROXY_CLASSES_PROPERTY_NAME);
+
+	@Nullable
+	private static volatile Path outputDirectory = initOutputDirectory();
+
+
+	private CglibProxyClassCache() {
+	}
+
+
+	/**
+	 * Specify whether to load proxy classes from the ClassLoader of the proxy
+	 * before generating them, e.g. for proxy classes pre-generated at build time.
+	 * <p>Default is "false", unless the {@link #PREGENERATED_PROXY_CLASSES_PROPERTY_NAME}
+	 * system property is set to "true".
+	 */
+	public static void setLoadPregeneratedClasses(boolean loadPregeneratedClasses) {
+		CglibProxyClassCache.loadPregeneratedClasses = loadPregeneratedClasses;
+	}
+
+	/**
+	 * Return whether proxy classes are loaded from the ClassLoader of the proxy
+	 * before generating them.
+	 */
+	public static boolean isLoadPregeneratedClasses() {
+		return loadPregeneratedClasses;
+	}
+
+	/**
+	 * Specify a directory to write the bytecode of generated proxy classes to,
+	 * in the directory layout of a classpath root.
+	 * <p>Default is none, unless the {@link #PROXY_CLASS_OUTPUT_DIR_PROPERTY_NAME}
+	 * system property is set.
+	 */
+	public static void setOutputDirectory(@Nullable Path outputDirectory) {
+		CglibProxyClassCache.outputDirectory = outputDirectory;
+	}
+
+	/**
+	 * Return the directory to write the bytecode of generated proxy classes to, if any.
+	 */
+	@Nullable
+	public static Path getOutputDirectory() {
+		return outputDirectory;
+	}
+
+	/**
+	 * Return the current statistics for proxy class lookups.
+	 */
+	public static Statistics getStatistics() {
+		return new Statistics(requestCount.sum(), missCount.sum(), generatedCount.sum());
+	}
+
+	/**
+	 * Reset the statistics for proxy class lookups.
+	 */
+	public static void resetStatistics() {
+		requestCount.reset();
+		missCount.reset();
+		generatedCount.reset();
+	}
+
+	/**
+	 * Prepare the given Enhancer for the lookup of a proxy class.
+	 * @param enhancer the fully configured Enhancer, apart from naming and strategy
+	 * @param classLoader the ClassLoader to expose during class generation
+	 * @param keyDescription the stable description of the proxy class key,
+	 * or {@code null} if the key cannot be described in a stable fashion
+	 */
+	static void prepareEnhancer(Enhancer enhancer, @Nullable ClassLoader classLoader,
+			@Nullable Supplier<String> keyDescription) {
+
+		requestCount.increment();
+		ProxyClassGeneration generation = new ProxyClassGeneration(classLoader, keyDescription);
+		enhancer.setNamingPolicy(generation);
+		enhancer.setStrategy(generation);
+		enhancer.setAttemptLoad(keyDescription != null && loadPregeneratedClasses);
+	}
+
+	@Nullable
+	private static Path initOutputDirectory() {
+		String dir = SpringProperties.getProperty(PROXY_CLASS_OUTPUT_DIR_PROPERTY_NAME);
+		return (dir != null ? Paths.get(dir) : null);
+	}
+
+
+	/**
+	 * Statistics for proxy class lookups, cumulative since startup
+	 * or since the last {@linkplain #resetStatistics() reset}.
+	 */
+	public static final class Statistics {
+
+		private final long requestCount;
+
+		private final long missCount;
+
+		private final long generatedCount;
+
+		Statistics(long requestCount, long missCount, long generatedCount) {
+			this.requestCount = requestCount;
+			this.missCount = missCount;
+			this.generatedCount = generatedCount;
+		}
+
+		/**
+		 * Return the number of proxy class lookups.
+		 */
+		public long getRequestCount() {
+			return this.requestCount;
+		}
+
+		/**
+		 * Return the number of lookups served by a previously obtained proxy class.
+		 */
+		public long getHitCount() {
+			return Math.max(this.requestCount - this.missCount, 0);
+		}
+
+		/**
+		 * Return the number of lookups that required a proxy class to be
+		 * generated or loaded.
+		 */
+		public long getMissCount() {
+			return this.missCount;
+		}
+
+		/**
+		 * Return the number of proxy classes generated at runtime.
+		 */
+		public long getGeneratedCount() {
+			return this.generatedCount;
+		}
+
+		/**
+		 * Return the number of pre-generated proxy classes loaded from the classpath.
+		 */
+		public long getLoadedCount() {
+			return Math.max(this.missCount - this.generatedCount, 0);
+		}
+
+		@Override
+		public String toString() {
+			return "requests=" + this.requestCount + ", hits=" + getHitCount() +
+					", generated=" + this.generatedCount + ", loaded=" + getLoadedCount();
+		}
+	}
+
+
+	/**
+	 * Naming policy and generator strategy for a single proxy class lookup,
+	 * only invoked by CGLIB on a cache miss. Also retained for the lazy
+	 * generation of the FastClasses behind the proxy's method proxies.
+	 */
+	private static class ProxyClassGeneration extends SpringNamingPolicy implements GeneratorStrategy {
+
+		private final GeneratorStrategy delegate;
+
+		@Nullable
+		private volatile Supplier<String> keyDescription;
+
+		private volatile boolean stableName;
+
+		ProxyClassGeneration(@Nullable ClassLoader classLoader, @Nullable Supplier<String> keyDescription) {
+			this.delegate = new ClassLoaderAwareGeneratorStrategy(classLoader);
+			this.keyDescription = keyDescription;
+		}
+
+		@Override
+		public String getClassName(String prefix, String source, Object key, Predicate names) {
+			if (!Enhancer.class.getName().equals(source)) {
+				// FastClass for a method proxy: named after the proxy class already
+				return super.getClassName(prefix, source, key, names);
+			}
+			missCount.increment();
+			Supplier<String> keyDescription = this.keyDescription;
+			if (keyDescription == null) {
+				return super.getClassName(prefix, source, key, names);
+			}
+			// The description is not needed anymore: do not retain it along with the method proxies.
+			this.keyDescription = null;
+			if (prefix == null) {
+				prefix = "org.springframework.cglib.empty.Object";
+			}
+			else if (prefix.startsWith("java")) {
+				prefix = "$" + prefix;
+			}
+			String digest = DigestUtils.md5DigestAsHex(keyDescription.get().getBytes(StandardCharsets.UTF_8));
+			String base = prefix + "$$" + source.substring(source.lastIndexOf('.') + 1) + getTag() +
+					"$$" + digest.substring(0, 16);
+			String attempt = base;
+			int index = 2;
+			while (names.evaluate(attempt)) {
+				attempt = base + "_" + index++;
+			}
+			this.stableName = attempt.equals(base);
+			return attempt;
+		}
+
+		@Override
+		public byte[] generate(ClassGenerator cg) throws Exception {
+			if (cg instanceof Enhancer) {
+				generatedCount.increment();
+			}
+			byte[] bytes = this.delegate.generate(cg);
+			Path dir = outputDirectory;
+			if (dir != null && this.stableName) {
+				writeClassFile(dir, new ClassReader(bytes).getClassName(), bytes);
+			}
+			return bytes;
+		}
+
+		private static void writeClassFile(Path dir, String internalClassName, byte[] bytes) {
+			Path file = dir.resolve(internalClassName + ClassUtils.CLASS_FILE_SUFFIX);
+			try {
+				Files.createDirectories(file.getParent());
+				Files.write(file, bytes);
+			}
+			catch (IOException ex) {
+				logger.warn("Failed to write proxy class file " + file, ex);
+			}
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
+	}
+
+}
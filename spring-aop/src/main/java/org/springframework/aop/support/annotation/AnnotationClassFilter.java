@@ -59,6 +59,15 @@ public class AnnotationClassFilter implements ClassFilter {
 		this.checkInherited = checkInherited;
 	}
 
+	/**
+	 * Return whether the superclasses and interfaces are checked for the
+	 * annotation as well.
+	 * @since 5.3.24
+	 */
+	public boolean isCheckInherited() {
+		return this.checkInherited;
+	}
+
 
 	@Override
 	public boolean matches(Class<?> clazz) {
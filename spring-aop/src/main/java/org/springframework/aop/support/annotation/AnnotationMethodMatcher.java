@@ -67,6 +67,15 @@ public class AnnotationMethodMatcher extends StaticMethodMatcher {
 		this.checkInherited = checkInherited;
 	}
 
+	/**
+	 * Return whether the superclasses and interfaces as well as meta-annotations
+	 * are checked for the annotation too.
+	 * @since 5.3.24
+	 */
+	public boolean isCheckInherited() {
+		return this.checkInherited;
+	}
+
 
 
 	@Override
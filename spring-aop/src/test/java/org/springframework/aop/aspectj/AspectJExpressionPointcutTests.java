@@ -505,6 +505,42 @@ public class AspectJExpressionPointcutTests {
 	}
 
 
+	@Test
+	public void testEqualExpressionsWithDifferentParameterTypes() {
+		String expression = "execution(* set*(..)) && args(value)";
+		AspectJExpressionPointcut intPointcut = new AspectJExpressionPointcut(
+				TestBean.class, new String[] {"value"}, new Class<?>[] {int.class});
+		intPointcut.setExpression(expression);
+		AspectJExpressionPointcut samePointcut = new AspectJExpressionPointcut(
+				TestBean.class, new String[] {"value"}, new Class<?>[] {int.class});
+		samePointcut.setExpression(expression);
+		AspectJExpressionPointcut numberPointcut = new AspectJExpressionPointcut(
+				TestBean.class, new String[] {"value"}, new Class<?>[] {Number.class});
+		numberPointcut.setExpression(expression);
+
+		assertThat(intPointcut.matches(setAge, TestBean.class)).isTrue();
+		assertThat(intPointcut.matches(setSomeNumber, TestBean.class)).isFalse();
+		assertThat(samePointcut.matches(setAge, TestBean.class)).isTrue();
+		assertThat(samePointcut.matches(setSomeNumber, TestBean.class)).isFalse();
+		assertThat(numberPointcut.matches(setAge, TestBean.class)).isFalse();
+		assertThat(numberPointcut.matches(setSomeNumber, TestBean.class)).isTrue();
+	}
+
+	@Test
+	public void testCompositeExpressionWithTypeAndAnnotationPatterns() throws Exception {
+		AspectJExpressionPointcut ajexp = new AspectJExpressionPointcut();
+		ajexp.setExpression("execution(* org.springframework.beans.testfixture..*.get*(..)) || " +
+				"@within(test.annotation.transaction.Tx) || @annotation(test.annotation.transaction.Tx)");
+
+		assertThat(ajexp.matches(getAge, TestBean.class)).isTrue();
+		assertThat(ajexp.matches(setAge, TestBean.class)).isFalse();
+		assertThat(ajexp.matches(HasTransactionalAnnotation.class.getMethod("foo"), HasTransactionalAnnotation.class)).isTrue();
+		assertThat(ajexp.matches(BeanA.class.getMethod("getAge"), BeanA.class)).isTrue();
+		assertThat(ajexp.matches(BeanA.class.getMethod("setName", String.class), BeanA.class)).isFalse();
+		assertThat(ajexp.matches(SpringAnnotated.class.getMethod("foo"), SpringAnnotated.class)).isFalse();
+	}
+
+
 	public static class HasGeneric {
 
 		public void setFriends(List<TestBean> friends) {
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.junit.jupiter.api.Test;
+import test.annotation.transaction.Tx;
+
+import org.springframework.beans.testfixture.beans.ITestBean;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.beans.testfixture.beans.subpkg.DeepBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PointcutExpressionPrefilter}.
+ *
+ * @author haozhifeng
+ */
+class PointcutExpressionPrefilterTests {
+
+	private static final Class<?>[] CANDIDATE_CLASSES =
+			{TestBean.class, DeepBean.class, Plain.class, Annotated.class, WithAnnotatedMethod.class};
+
+
+	@Test
+	void unconstrainedExpressions() {
+		assertThat(prefilter("execution(* *(..))")).isNull();
+		assertThat(prefilter("execution(* *..*.*(..))")).isNull();
+		assertThat(prefilter("!within(org.springframework..*)")).isNull();
+		assertThat(prefilter("within(org.springframework..*) || args(String)")).isNull();
+		assertThat(prefilter("this(org.springframework.beans.testfixture.beans.ITestBean)")).isNull();
+	}
+
+	@Test
+	void exactDeclaringType() {
+		String expression = "execution(* org.springframework.beans.testfixture.beans.ITestBean.*(..))";
+		assertCouldMatch(expression, TestBean.class);
+		assertCannotMatch(expression, DeepBean.class, Plain.class);
+	}
+
+	@Test
+	void wildcardDeclaringType() {
+		assertCouldMatch("execution(* org.springframework.beans.testfixture..*.*(..))", TestBean.class, DeepBean.class);
+		assertCannotMatch("execution(* org.springframework.beans.testfixture..*.*(..))", Plain.class);
+		assertCouldMatch("execution(* *..*Bean.*(..))", TestBean.class, DeepBean.class);
+		assertCannotMatch("execution(* *..*Bean.*(..))", Plain.class, Annotated.class);
+		assertCouldMatch("within(org.springframework.beans.testfixture.beans.subpkg.*)", DeepBean.class);
+		assertCannotMatch("within(org.springframework.beans.testfixture.beans.subpkg.*)", TestBean.class);
+	}
+
+	@Test
+	void wildcardNestedType() {
+		String expression = "execution(* *..PointcutExpressionPrefilterTests.Pl*.*(..))";
+		assertCouldMatch(expression, Plain.class);
+		assertCannotMatch(expression, Annotated.class, TestBean.class);
+	}
+
+	@Test
+	void wildcardTypeResolvedAgainstImports() {
+		// Matched against java.lang.Object as declaring type of hashCode()
+		String expression = "execution(* Ob*.hashCode())";
+		assertCouldMatch(expression, Plain.class, TestBean.class);
+	}
+
+	@Test
+	void annotationPatterns() {
+		assertCouldMatch("@annotation(test.annotation.transaction.Tx)", WithAnnotatedMethod.class);
+		assertCannotMatch("@annotation(test.annotation.transaction.Tx)", Annotated.class, Plain.class);
+		assertCouldMatch("execution(@test.annotation.transaction.Tx * *(..))", WithAnnotatedMethod.class);
+		assertCannotMatch("execution(@test.annotation.transaction.Tx * *(..))", Plain.class);
+		assertCouldMatch("@within(test.annotation.transaction.Tx)", Annotated.class);
+		assertCannotMatch("@within(test.annotation.transaction.Tx)", WithAnnotatedMethod.class, Plain.class);
+	}
+
+	@Test
+	void compositeExpressions() {
+		String expression = "within(org.springframework.beans.testfixture..*) || @within(test.annotation.transaction.Tx)";
+		assertCouldMatch(expression, TestBean.class, Annotated.class);
+		assertCannotMatch(expression, Plain.class, WithAnnotatedMethod.class);
+
+		expression = "within(org.springframework.beans..*) && @annotation(test.annotation.transaction.Tx)";
+		assertCannotMatch(expression, TestBean.class, WithAnnotatedMethod.class, Plain.class);
+
+		expression = "execution(* *..*Bean.*(..)) && !within(org.springframework.beans.testfixture.beans.subpkg.*)";
+		assertCouldMatch(expression, TestBean.class);
+		assertCannotMatch(expression, Plain.class);
+	}
+
+	@Test
+	void declaringClassOfMethodIsConsidered() throws Exception {
+		PointcutExpressionPrefilter prefilter = prefilter(
+				"execution(* org.springframework.beans.testfixture.beans.ITestBean.*(..))");
+		assertThat(prefilter.couldMatch(ITestBean.class.getMethod("getName"), Plain.class)).isTrue();
+		assertThat(prefilter.couldMatch(Plain.class.getMethod("getAge"), Plain.class)).isFalse();
+	}
+
+
+	private static PointcutExpressionPrefilter prefilter(String expression) {
+		return PointcutExpressionPrefilter.forExpression(parse(expression));
+	}
+
+	private static PointcutExpression parse(String expression) {
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+		pointcut.setExpression(expression);
+		return pointcut.getPointcutExpression();
+	}
+
+	private static void assertCouldMatch(String expression, Class<?>... classes) {
+		PointcutExpressionPrefilter prefilter = prefilter(expression);
+		assertThat(prefilter).isNotNull();
+		for (Class<?> clazz : classes) {
+			assertThat(couldMatchAnyMethod(prefilter, clazz)).as(clazz.getName()).isTrue();
+		}
+		assertNeverRejectsMatches(expression);
+	}
+
+	private static void assertCannotMatch(String expression, Class<?>... classes) {
+		PointcutExpressionPrefilter prefilter = prefilter(expression);
+		assertThat(prefilter).isNotNull();
+		for (Class<?> clazz : classes) {
+			assertThat(couldMatchAnyMethod(prefilter, clazz)).as(clazz.getName()).isFalse();
+		}
+		assertNeverRejectsMatches(expression);
+	}
+
+	private static boolean couldMatchAnyMethod(PointcutExpressionPrefilter prefilter, Class<?> clazz) {
+		for (Method method : clazz.getMethods()) {
+			if (prefilter.couldMatch(method, clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void assertNeverRejectsMatches(String expression) {
+		PointcutExpression pointcutExpression = parse(expression);
+		PointcutExpressionPrefilter prefilter = PointcutExpressionPrefilter.forExpression(pointcutExpression);
+		for (Class<?> clazz : CANDIDATE_CLASSES) {
+			for (Method method : clazz.getMethods()) {
+				if (!pointcutExpression.matchesMethodExecution(method).neverMatches()) {
+					assertThat(prefilter.couldMatch(method, clazz)).as(method.toString()).isTrue();
+				}
+			}
+		}
+	}
+
+
+	public static class Plain {
+
+		public int getAge() {
+			return 0;
+		}
+	}
+
+
+	@Tx
+	public static class Annotated {
+
+		public void foo() {
+		}
+	}
+
+
+	public static class WithAnnotatedMethod {
+
+		@Tx
+		public void foo() {
+		}
+	}
+
+}
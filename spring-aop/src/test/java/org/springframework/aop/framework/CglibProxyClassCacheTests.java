@@ -0,0 +1,306 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.framework.CglibProxyClassCache.Statistics;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.aop.testfixture.interceptor.NopInterceptor;
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CglibProxyClassCache}.
+ *
+ * @author haozhifeng
+ */
+class CglibProxyClassCacheTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void equivalentConfigurationsShareProxyClass() {
+		Statistics before = CglibProxyClassCache.getStatistics();
+		Object proxy1 = createProxy(new Bean(), namePointcut("getName"), new NopInterceptor());
+		Object proxy2 = createProxy(new Bean(), namePointcut("getName"), new NopInterceptor());
+		assertThat(proxy2.getClass()).isSameAs(proxy1.getClass());
+		assertThat(proxy1.getClass().getName())
+				.matches(".*\\$Bean\\$\\$EnhancerBySpringCGLIB\\$\\$[0-9a-f]{16}");
+
+		Statistics after = CglibProxyClassCache.getStatistics();
+		assertThat(after.getRequestCount() - before.getRequestCount()).isEqualTo(2);
+		assertThat(after.getHitCount() - before.getHitCount()).isGreaterThanOrEqualTo(1);
+		assertThat(after.getLoadedCount() - before.getLoadedCount()).isZero();
+	}
+
+	@Test
+	void differentConfigurationsUseDifferentProxyClasses() {
+		Object proxy1 = createProxy(new Bean(), namePointcut("getName"), new NopInterceptor());
+		Object proxy2 = createProxy(new Bean(), namePointcut("getAge"), new NopInterceptor());
+		Object proxy3 = createProxy(new Bean(), namePointcut("getName"), new SuffixInterceptor());
+		assertThat(proxy2.getClass()).isNotSameAs(proxy1.getClass());
+		assertThat(proxy3.getClass()).isNotSameAs(proxy1.getClass());
+		assertThat(proxy3.getClass()).isNotSameAs(proxy2.getClass());
+	}
+
+	@Test
+	void pointcutWithoutDescriptionComparedByEquals() {
+		Object proxy1 = createProxy(new Bean(), new UndescribedPointcut("getName"), new NopInterceptor());
+		Object proxy2 = createProxy(new Bean(), new UndescribedPointcut("getName"), new NopInterceptor());
+		Object proxy3 = createProxy(new Bean(), new UndescribedPointcut("getAge"), new NopInterceptor());
+		assertThat(proxy2.getClass()).isSameAs(proxy1.getClass());
+		assertThat(proxy3.getClass()).isNotSameAs(proxy1.getClass());
+	}
+
+	@Test
+	void pointcutsDifferingInDeclarationScopeUseDifferentProxyClasses() {
+		Object proxy1 = createProxy(new Bean(), aspectJPointcut(Bean.class), new NopInterceptor());
+		Object proxy2 = createProxy(new Bean(), aspectJPointcut(GreetingBean.class), new NopInterceptor());
+		Object proxy3 = createProxy(new Bean(), aspectJPointcut(Bean.class), new NopInterceptor());
+		assertThat(proxy2.getClass()).isNotSameAs(proxy1.getClass());
+		assertThat(proxy2.getClass().getName()).doesNotStartWith(proxy1.getClass().getName());
+		assertThat(proxy3.getClass()).isSameAs(proxy1.getClass());
+	}
+
+	@Test
+	void pointcutsDifferingInCheckInheritedUseDifferentProxyClasses() {
+		Object proxy1 = createFrozenProxy(new InheritingBean(),
+				new AnnotationMatchingPointcut(null, Marked.class, false), new SuffixInterceptor());
+		Object proxy2 = createFrozenProxy(new InheritingBean(),
+				new AnnotationMatchingPointcut(null, Marked.class, true), new SuffixInterceptor());
+		assertThat(proxy2.getClass()).isNotSameAs(proxy1.getClass());
+		assertThat(proxy2.getClass().getName()).doesNotStartWith(proxy1.getClass().getName());
+		assertThat(((Bean) proxy1).getName()).isEqualTo("bean");
+		assertThat(((Bean) proxy2).getName()).isEqualTo("bean!");
+	}
+
+	@Test
+	void proxyClassDoesNotRetainAdvice() throws InterruptedException {
+		NopInterceptor advice = new NopInterceptor();
+		WeakReference<Object> adviceReference = new WeakReference<>(advice);
+		Class<?> proxyClass = createProxyClass(advice);
+		advice = null;
+		for (int i = 0; i < 50 && adviceReference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(adviceReference.get()).isNull();
+		assertThat(proxyClass).isNotNull();
+	}
+
+	@Test
+	void pregeneratedProxyClassLoadedFromClassPath() throws Exception {
+		String proxyClassName;
+		CglibProxyClassCache.setOutputDirectory(this.tempDir);
+		try {
+			Object proxy = createProxy(new GreetingBean(), namePointcut("get"), new SuffixInterceptor());
+			proxyClassName = proxy.getClass().getName();
+		}
+		finally {
+			CglibProxyClassCache.setOutputDirectory(null);
+		}
+		assertThat(this.tempDir.resolve(ClassUtils.convertClassNameToResourcePath(proxyClassName) +
+				ClassUtils.CLASS_FILE_SUFFIX)).exists();
+
+		URLClassLoader outputClassLoader = new URLClassLoader(
+				new URL[] {this.tempDir.toUri().toURL()}, getClass().getClassLoader());
+		ClassLoader classLoader = new OverridingClassLoader(outputClassLoader) {
+			@Override
+			protected boolean isEligibleForOverriding(String className) {
+				return className.startsWith(GreetingBean.class.getName());
+			}
+		};
+		Object target = classLoader.loadClass(GreetingBean.class.getName()).getDeclaredConstructor().newInstance();
+
+		Statistics before = CglibProxyClassCache.getStatistics();
+		CglibProxyClassCache.setLoadPregeneratedClasses(true);
+		Object proxy;
+		try {
+			ProxyFactory pf = new ProxyFactory(target);
+			pf.setProxyTargetClass(true);
+			pf.addAdvisor(new DefaultPointcutAdvisor(namePointcut("get"), new SuffixInterceptor()));
+			proxy = pf.getProxy(classLoader);
+		}
+		finally {
+			CglibProxyClassCache.setLoadPregeneratedClasses(false);
+			outputClassLoader.close();
+		}
+		Statistics after = CglibProxyClassCache.getStatistics();
+
+		assertThat(proxy.getClass().getName()).isEqualTo(proxyClassName);
+		assertThat(proxy.getClass().getClassLoader()).isSameAs(classLoader);
+		assertThat(after.getLoadedCount() - before.getLoadedCount()).isEqualTo(1);
+		assertThat(after.getGeneratedCount() - before.getGeneratedCount()).isZero();
+		@SuppressWarnings("unchecked")
+		Supplier<String> supplier = (Supplier<String>) proxy;
+		assertThat(supplier.get()).isEqualTo("hello!");
+	}
+
+
+	private static Object createProxy(Object target, Pointcut pointcut, MethodInterceptor interceptor) {
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setProxyTargetClass(true);
+		pf.addAdvisor(new DefaultPointcutAdvisor(pointcut, interceptor));
+		return pf.getProxy();
+	}
+
+	private static Object createFrozenProxy(Object target, Pointcut pointcut, MethodInterceptor interceptor) {
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setProxyTargetClass(true);
+		pf.addAdvisor(new DefaultPointcutAdvisor(pointcut, interceptor));
+		pf.setFrozen(true);
+		return pf.getProxy();
+	}
+
+	private static Class<?> createProxyClass(NopInterceptor interceptor) {
+		return createProxy(new Bean(), namePointcut("setName"), interceptor).getClass();
+	}
+
+	private static Pointcut namePointcut(String methodName) {
+		NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+		pointcut.setMappedName(methodName);
+		return pointcut;
+	}
+
+	private static Pointcut aspectJPointcut(Class<?> declarationScope) {
+		AspectJExpressionPointcut pointcut =
+				new AspectJExpressionPointcut(declarationScope, new String[0], new Class<?>[0]);
+		pointcut.setExpression("execution(* getName())");
+		return pointcut;
+	}
+
+
+	public static class Bean {
+
+		private String name = "bean";
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return 42;
+		}
+	}
+
+
+	public static class AnnotatedBean extends Bean {
+
+		@Marked
+		@Override
+		public String getName() {
+			return super.getName();
+		}
+	}
+
+
+	public static class InheritingBean extends AnnotatedBean {
+
+		@Override
+		public String getName() {
+			return super.getName();
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Marked {
+	}
+
+
+	public static class GreetingBean implements Supplier<String> {
+
+		@Override
+		public String get() {
+			return "hello";
+		}
+	}
+
+
+	public static class SuffixInterceptor implements MethodInterceptor {
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed() + "!";
+		}
+	}
+
+
+	private static class UndescribedPointcut extends StaticMethodMatcher implements Pointcut {
+
+		private final String methodName;
+
+		UndescribedPointcut(String methodName) {
+			this.methodName = methodName;
+		}
+
+		@Override
+		public boolean matches(Method method, Class<?> targetClass) {
+			return method.getName().equals(this.methodName);
+		}
+
+		@Override
+		public ClassFilter getClassFilter() {
+			return ClassFilter.TRUE;
+		}
+
+		@Override
+		public MethodMatcher getMethodMatcher() {
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof UndescribedPointcut &&
+					this.methodName.equals(((UndescribedPointcut) other).methodName));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.methodName.hashCode();
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmark for creating singletons of different names on several threads at
+ * the same time, within the singleton mutex versus with concurrent singleton
+ * creation.
+ *
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SingletonCreationBenchmark {
+
+	private static final int THREADS = 4;
+
+	private static final int SINGLETONS = 16;
+
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		@Param({"false", "true"})
+		public boolean concurrentSingletonCreation;
+
+		@Param({"blocking", "cpu"})
+		public String initialization;
+
+		public ExecutorService executor;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.executor = Executors.newFixedThreadPool(THREADS);
+		}
+
+		@TearDown(Level.Trial)
+		public void shutdown() {
+			this.executor.shutdownNow();
+		}
+	}
+
+
+	@Benchmark
+	public void createSingletons(BenchmarkState state, Blackhole bh) throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(state.concurrentSingletonCreation);
+		boolean blocking = "blocking".equals(state.initialization);
+		for (int i = 0; i < SINGLETONS; i++) {
+			beanFactory.registerBeanDefinition("bean" + i, new RootBeanDefinition(Object.class, () -> {
+				// Initialization work, e.g. opening a connection or computing a lookup table
+				if (blocking) {
+					sleep();
+				}
+				else {
+					Blackhole.consumeCPU(100_000);
+				}
+				return new Object();
+			}));
+		}
+		List<Future<Object>> singletons = new ArrayList<>(SINGLETONS);
+		for (int i = 0; i < SINGLETONS; i++) {
+			String beanName = "bean" + i;
+			singletons.add(state.executor.submit(() -> beanFactory.getBean(beanName)));
+		}
+		for (Future<Object> singleton : singletons) {
+			bh.consume(singleton.get());
+		}
+	}
+
+	private static void sleep() {
+		try {
+			Thread.sleep(1);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
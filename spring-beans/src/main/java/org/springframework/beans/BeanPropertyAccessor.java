@@ -0,0 +1,62 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Direct access to the properties of a specific bean class, implemented by
+ * classes that are generated per bean class if {@link BeanWrapperImpl} is set
+ * up to {@link BeanWrapperImpl#setGeneratedAccessors use generated accessors}.
+ *
+ * <p>Properties are identified by their index in the generated class.
+ * Implementations follow the exception contract of {@link java.lang.reflect.Method#invoke}.
+ *
+ * <p><b>NOTE:</b> This interface is only public in order to be implemented by
+ * generated classes in the packages of bean classes; it is not meant to be used
+ * or implemented by application code.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+public interface BeanPropertyAccessor {
+
+	/**
+	 * Invoke the read method of the property with the given index.
+	 * @param index the index of the property
+	 * @param target the bean instance
+	 * @return the property value
+	 * @throws InvocationTargetException if the read method threw an exception
+	 * @throws IllegalArgumentException if the target is not an instance of the bean class
+	 */
+	@Nullable
+	Object getValue(int index, Object target) throws InvocationTargetException;
+
+	/**
+	 * Invoke the write method of the property with the given index.
+	 * @param index the index of the property
+	 * @param target the bean instance
+	 * @param value the property value, of the exact property type
+	 * @throws InvocationTargetException if the write method threw an exception
+	 * @throws IllegalArgumentException if the target is not an instance of the bean
+	 * class or the value is not of the property type
+	 */
+	void setValue(int index, Object target, @Nullable Object value) throws InvocationTargetException;
+
+}
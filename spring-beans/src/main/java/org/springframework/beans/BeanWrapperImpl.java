@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 
 import org.springframework.core.ResolvableType;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.lang.Nullable;
@@ -62,6 +63,19 @@ import org.springframework.util.ReflectionUtils;
  */
 public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements BeanWrapper {
 
+	/**
+	 * System property that instructs Spring to use generated accessor classes
+	 * for bean properties by default: "spring.beanwrapper.generated-accessors".
+	 * <p>The default is "false", invoking read and write methods reflectively.
+	 * @since 5.3.24
+	 * @see #setGeneratedAccessors
+	 */
+	public static final String GENERATED_ACCESSORS_PROPERTY_NAME = "spring.beanwrapper.generated-accessors";
+
+	private static final boolean shouldUseGeneratedAccessors =
+			SpringProperties.getFlag(GENERATED_ACCESSORS_PROPERTY_NAME);
+
+
 	/**
 	 * Cached introspections results for this object, to prevent encountering
 	 * the cost of JavaBeans introspection every time.
@@ -75,6 +89,8 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	@Nullable
 	private AccessControlContext acc;
 
+	private boolean generatedAccessors = shouldUseGeneratedAccessors;
+
 
 	/**
 	 * Create a new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -132,6 +148,7 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 	private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl parent) {
 		super(object, nestedPath, parent);
 		setSecurityContext(parent.acc);
+		setGeneratedAccessors(parent.generatedAccessors);
 	}
 
 
@@ -193,6 +210,39 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		return this.acc;
 	}
 
+	/**
+	 * Set whether to access bean properties through a class generated per bean
+	 * class, calling read and write methods directly instead of reflectively.
+	 * <p>The accessor class is generated on first property access and cached
+	 * along with the introspection results of the bean class, so this is
+	 * worthwhile for bean classes that are accessed many times, e.g. in data
+	 * binding. Properties that cannot be accessed from generated code, as well
+	 * as all properties in case of a security manager, are accessed reflectively.
+	 * <p>Default is "false", unless the {@link #GENERATED_ACCESSORS_PROPERTY_NAME}
+	 * system property is set to "true".
+	 * @since 5.3.24
+	 */
+	public void setGeneratedAccessors(boolean generatedAccessors) {
+		this.generatedAccessors = generatedAccessors;
+	}
+
+	/**
+	 * Return whether bean properties are accessed through generated classes.
+	 * @since 5.3.24
+	 */
+	public boolean isGeneratedAccessors() {
+		return this.generatedAccessors;
+	}
+
+	/**
+	 * Return the generated accessor for the wrapped object, if enabled.
+	 */
+	@Nullable
+	private GeneratedBeanPropertyAccessor getGeneratedAccessor() {
+		return (this.generatedAccessors && System.getSecurityManager() == null ?
+				getCachedIntrospectionResults().getGeneratedAccessor() : null);
+	}
+
 
 	/**
 	 * Convert the given value for the specified property to the latter's type.
@@ -289,6 +339,13 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 		@Override
 		@Nullable
 		public Object getValue() throws Exception {
+			GeneratedBeanPropertyAccessor generatedAccessor = getGeneratedAccessor();
+			if (generatedAccessor != null) {
+				int index = generatedAccessor.getReadIndex(this.pd);
+				if (index != -1) {
+					return generatedAccessor.getAccessor().getValue(index, getWrappedInstance());
+				}
+			}
 			Method readMethod = this.pd.getReadMethod();
 			if (System.getSecurityManager() != null) {
 				AccessController.doPrivileged((PrivilegedAction<Object>) () -> {
@@ -311,6 +368,14 @@ public class BeanWrapperImpl extends AbstractNestablePropertyAccessor implements
 
 		@Override
 		public void setValue(@Nullable Object value) throws Exception {
+			GeneratedBeanPropertyAccessor generatedAccessor = getGeneratedAccessor();
+			if (generatedAccessor != null) {
+				int index = generatedAccessor.getWriteIndex(this.pd);
+				if (index != -1) {
+					generatedAccessor.getAccessor().setValue(index, getWrappedInstance(), value);
+					return;
+				}
+			}
 			Method writeMethod = (this.pd instanceof GenericTypeAwarePropertyDescriptor ?
 					((GenericTypeAwarePropertyDescriptor) this.pd).getWriteMethodForActualAccess() :
 					this.pd.getWriteMethod());
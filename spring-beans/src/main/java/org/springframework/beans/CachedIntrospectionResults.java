@@ -263,6 +263,12 @@ public final class CachedIntrospectionResults {
 	/** TypeDescriptor objects keyed by PropertyDescriptor. */
 	private final ConcurrentMap<PropertyDescriptor, TypeDescriptor> typeDescriptorCache;
 
+	/** Generated property accessor, lazily generated on first use. */
+	@Nullable
+	private volatile GeneratedBeanPropertyAccessor generatedAccessor;
+
+	private volatile boolean generatedAccessorResolved;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -443,4 +449,25 @@ public final class CachedIntrospectionResults {
 		return this.typeDescriptorCache.get(pd);
 	}
 
+	/**
+	 * Return the generated accessor for the properties of the bean class,
+	 * generating it on first access.
+	 * @return the generated accessor, or {@code null} if none could be generated
+	 * for the bean class (in which case reflective access is to be used)
+	 * @since 5.3.24
+	 */
+	@Nullable
+	GeneratedBeanPropertyAccessor getGeneratedAccessor() {
+		if (!this.generatedAccessorResolved) {
+			synchronized (this) {
+				if (!this.generatedAccessorResolved) {
+					this.generatedAccessor = GeneratedBeanPropertyAccessor.generate(
+							getBeanClass(), getPropertyDescriptors());
+					this.generatedAccessorResolved = true;
+				}
+			}
+		}
+		return this.generatedAccessor;
+	}
+
 }
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Generates a {@link BeanPropertyAccessor} class for a bean class, calling
+ * the read and write methods of its properties directly instead of through
+ * {@link Method#invoke}, and maps property names to the indexes in the
+ * generated class.
+ *
+ * <p>Accessor classes are defined in the package and class loader of the bean
+ * class, so non-public bean classes are supported as well. Read and write
+ * methods that cannot be called from generated code (e.g. protected methods
+ * declared in a different package, or methods with inaccessible parameter
+ * types) are not part of the generated class and are to be invoked reflectively.
+ *
+ * <p>The name of an accessor class is derived from the bean class and the
+ * generated methods. An accessor class is therefore defined once per bean
+ * class and reused when its introspection results are rebuilt, e.g. after
+ * having been collected for a bean class that is not cache-safe.
+ *
+ * <p>Note that, unlike {@link Method#invoke}, generated accessors do not apply
+ * widening conversions to primitive values: an {@code Integer} passed for a
+ * {@code long} property results in an {@link IllegalArgumentException}. Values
+ * are converted to the exact property type before being set, so this is not
+ * a concern for bean property access.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see CachedIntrospectionResults#getGeneratedAccessor()
+ */
+final class GeneratedBeanPropertyAccessor implements Opcodes {
+
+	private static final Log logger = LogFactory.getLog(GeneratedBeanPropertyAccessor.class);
+
+	private static final String CLASS_NAME_SEPARATOR = "$$BeanPropertyAccessor$$";
+
+	private static final String ACCESSOR_TYPE = Type.getInternalName(BeanPropertyAccessor.class);
+
+	private static final String GET_VALUE_DESCRIPTOR = "(ILjava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String SET_VALUE_DESCRIPTOR = "(ILjava/lang/Object;Ljava/lang/Object;)V";
+
+
+	private final BeanPropertyAccessor accessor;
+
+	private final Map<String, Integer> readIndexes;
+
+	private final Map<String, Integer> writeIndexes;
+
+
+	private GeneratedBeanPropertyAccessor(BeanPropertyAccessor accessor,
+			Map<String, Integer> readIndexes, Map<String, Integer> writeIndexes) {
+
+		this.accessor = accessor;
+		this.readIndexes = readIndexes;
+		this.writeIndexes = writeIndexes;
+	}
+
+
+	/**
+	 * Return the generated accessor.
+	 */
+	public BeanPropertyAccessor getAccessor() {
+		return this.accessor;
+	}
+
+	/**
+	 * Return the index of the read method of the given property in the
+	 * generated accessor, or {@code -1} if it has to be invoked reflectively.
+	 */
+	public int getReadIndex(PropertyDescriptor pd) {
+		Integer index = this.readIndexes.get(pd.getName());
+		return (index != null ? index : -1);
+	}
+
+	/**
+	 * Return the index of the write method of the given property in the
+	 * generated accessor, or {@code -1} if it has to be invoked reflectively.
+	 */
+	public int getWriteIndex(PropertyDescriptor pd) {
+		Integer index = this.writeIndexes.get(pd.getName());
+		return (index != null ? index : -1);
+	}
+
+
+	/**
+	 * Generate an accessor for the given properties of the given bean class.
+	 * @param beanClass the bean class
+	 * @param pds the property descriptors of the bean class
+	 * @return the generated accessor, or {@code null} if none could be generated
+	 */
+	@Nullable
+	static GeneratedBeanPropertyAccessor generate(Class<?> beanClass, PropertyDescriptor[] pds) {
+		if (beanClass.getClassLoader() == null || beanClass.getName().startsWith("java.") ||
+				beanClass.isInterface() || beanClass.isArray()) {
+			return null;
+		}
+		List<Method> readMethods = new ArrayList<>();
+		List<Method> writeMethods = new ArrayList<>();
+		Map<String, Integer> readIndexes = new HashMap<>();
+		Map<String, Integer> writeIndexes = new HashMap<>();
+		for (PropertyDescriptor pd : pds) {
+			Method readMethod = pd.getReadMethod();
+			if (readMethod != null && isGenerationSupported(readMethod, beanClass)) {
+				readIndexes.put(pd.getName(), readMethods.size());
+				readMethods.add(readMethod);
+			}
+			Method writeMethod = pd.getWriteMethod();
+			if (writeMethod != null && pd instanceof GenericTypeAwarePropertyDescriptor) {
+				writeMethod = ((GenericTypeAwarePropertyDescriptor) pd).getWriteMethodForActualAccess();
+			}
+			if (writeMethod != null && isGenerationSupported(writeMethod, beanClass)) {
+				writeIndexes.put(pd.getName(), writeMethods.size());
+				writeMethods.add(writeMethod);
+			}
+		}
+		if (readMethods.isEmpty() && writeMethods.isEmpty()) {
+			return null;
+		}
+		try {
+			String className = getClassName(beanClass, readMethods, writeMethods);
+			Class<?> accessorClass = findAccessorClass(className, beanClass);
+			if (accessorClass == null) {
+				byte[] bytes = generateClass(className.replace('.', '/'), beanClass, readMethods, writeMethods);
+				try {
+					accessorClass = ReflectUtils.defineClass(className, bytes, beanClass.getClassLoader(),
+							beanClass.getProtectionDomain(), beanClass);
+				}
+				catch (Exception ex) {
+					// Possibly defined by another thread in the meantime
+					accessorClass = findAccessorClass(className, beanClass);
+					if (accessorClass == null) {
+						throw ex;
+					}
+				}
+			}
+			BeanPropertyAccessor accessor =
+					(BeanPropertyAccessor) ReflectionUtils.accessibleConstructor(accessorClass).newInstance();
+			return new GeneratedBeanPropertyAccessor(accessor, readIndexes, writeIndexes);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Falling back to reflective property access for " + beanClass, ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Derive the accessor class name from the bean class and the generated
+	 * methods, making it stable across rebuilt introspection results.
+	 */
+	private static String getClassName(Class<?> beanClass, List<Method> readMethods, List<Method> writeMethods) {
+		StringBuilder layout = new StringBuilder();
+		for (Method readMethod : readMethods) {
+			layout.append(readMethod.getName()).append(Type.getMethodDescriptor(readMethod));
+		}
+		layout.append('|');
+		for (Method writeMethod : writeMethods) {
+			layout.append(writeMethod.getName()).append(Type.getMethodDescriptor(writeMethod));
+		}
+		return beanClass.getName() + CLASS_NAME_SEPARATOR + Integer.toHexString(layout.toString().hashCode());
+	}
+
+	/**
+	 * Find an accessor class of the given name already defined for the given
+	 * bean class, if any.
+	 */
+	@Nullable
+	private static Class<?> findAccessorClass(String className, Class<?> beanClass) {
+		try {
+			Class<?> accessorClass = Class.forName(className, false, beanClass.getClassLoader());
+			return (accessorClass.getClassLoader() == beanClass.getClassLoader() &&
+					BeanPropertyAccessor.class.isAssignableFrom(accessorClass) ? accessorClass : null);
+		}
+		catch (ClassNotFoundException ex) {
+			return null;
+		}
+	}
+
+	private static boolean isGenerationSupported(Method method, Class<?> beanClass) {
+		if (Modifier.isStatic(method.getModifiers()) || Modifier.isPrivate(method.getModifiers()) ||
+				(!Modifier.isPublic(method.getModifiers()) && !isInPackageOf(method.getDeclaringClass(), beanClass))) {
+			return false;
+		}
+		if (!isAccessible(method.getReturnType(), beanClass)) {
+			return false;
+		}
+		for (Class<?> paramType : method.getParameterTypes()) {
+			if (!isAccessible(paramType, beanClass)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> type, Class<?> beanClass) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive() || Modifier.isPublic(type.getModifiers())) {
+			return true;
+		}
+		return (!Modifier.isPrivate(type.getModifiers()) && isInPackageOf(type, beanClass));
+	}
+
+	private static boolean isInPackageOf(Class<?> type, Class<?> beanClass) {
+		return (type.getClassLoader() == beanClass.getClassLoader() &&
+				ClassUtils.getPackageName(type).equals(ClassUtils.getPackageName(beanClass)));
+	}
+
+	private static byte[] generateClass(String internalName, Class<?> beanClass,
+			List<Method> readMethods, List<Method> writeMethods) {
+
+		ClassWriter cw = new AccessorClassWriter(beanClass.getClassLoader());
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null,
+				"java/lang/Object", new String[] {ACCESSOR_TYPE});
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "getValue", GET_VALUE_DESCRIPTOR, null, null);
+		mv.visitCode();
+		generateAccessBody(mv, beanClass, readMethods, false);
+		mv.visitMaxs(0, 0);  // computed by the ClassWriter
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC, "setValue", SET_VALUE_DESCRIPTOR, null, null);
+		mv.visitCode();
+		generateAccessBody(mv, beanClass, writeMethods, true);
+		mv.visitMaxs(0, 0);  // computed by the ClassWriter
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generate a switch over the property index (local 1), invoking the
+	 * corresponding method on the target (local 2) with the value (local 3)
+	 * in case of write methods.
+	 * <p>Methods are invoked on the bean class rather than on their declaring
+	 * class, which therefore does not need to be accessible.
+	 */
+	private static void generateAccessBody(MethodVisitor mv, Class<?> beanClass, List<Method> methods, boolean write) {
+		String owner = Type.getInternalName(beanClass);
+		int exceptionLocal = (write ? 4 : 3);
+		Label argumentMismatch = new Label();
+		Label targetException = new Label();
+		Label invalidIndex = new Label();
+		Label[] cases = new Label[methods.size()];
+		for (int i = 0; i < cases.length; i++) {
+			cases[i] = new Label();
+		}
+
+		if (cases.length > 0) {
+			mv.visitVarInsn(ILOAD, 1);
+			mv.visitTableSwitchInsn(0, cases.length - 1, invalidIndex, cases);
+		}
+		for (int i = 0; i < cases.length; i++) {
+			Method method = methods.get(i);
+			Label invokeStart = new Label();
+			Label invokeEnd = new Label();
+
+			// Anything failing while preparing the call is an argument mismatch
+			mv.visitTryCatchBlock(cases[i], invokeStart, argumentMismatch, "java/lang/ClassCastException");
+			mv.visitTryCatchBlock(cases[i], invokeStart, argumentMismatch, "java/lang/NullPointerException");
+			// Anything thrown by the property method itself is wrapped like Method#invoke does
+			mv.visitTryCatchBlock(invokeStart, invokeEnd, targetException, "java/lang/Throwable");
+
+			mv.visitLabel(cases[i]);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitTypeInsn(CHECKCAST, owner);
+			if (write) {
+				mv.visitVarInsn(ALOAD, 3);
+				generateArgumentConversion(mv, method.getParameterTypes()[0]);
+			}
+			mv.visitLabel(invokeStart);
+			mv.visitMethodInsn(INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method), false);
+			mv.visitLabel(invokeEnd);
+			if (write) {
+				if (method.getReturnType() != void.class) {
+					// Builder-style write method
+					mv.visitInsn(method.getReturnType() == long.class || method.getReturnType() == double.class ?
+							POP2 : POP);
+				}
+				mv.visitInsn(RETURN);
+			}
+			else {
+				generateReturnValueConversion(mv, method.getReturnType());
+				mv.visitInsn(ARETURN);
+			}
+		}
+
+		mv.visitLabel(invalidIndex);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("Invalid property index");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>",
+				"(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+
+		if (cases.length > 0) {
+			mv.visitLabel(argumentMismatch);
+			mv.visitVarInsn(ASTORE, exceptionLocal);
+			mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+			mv.visitInsn(DUP);
+			mv.visitLdcInsn("argument type mismatch");
+			mv.visitVarInsn(ALOAD, exceptionLocal);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>",
+					"(Ljava/lang/String;Ljava/lang/Throwable;)V", false);
+			mv.visitInsn(ATHROW);
+
+			mv.visitLabel(targetException);
+			mv.visitVarInsn(ASTORE, exceptionLocal);
+			mv.visitTypeInsn(NEW, "java/lang/reflect/InvocationTargetException");
+			mv.visitInsn(DUP);
+			mv.visitVarInsn(ALOAD, exceptionLocal);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/reflect/InvocationTargetException", "<init>",
+					"(Ljava/lang/Throwable;)V", false);
+			mv.visitInsn(ATHROW);
+		}
+	}
+
+	private static void generateArgumentConversion(MethodVisitor mv, Class<?> paramType) {
+		if (paramType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(paramType);
+			String wrapper = Type.getInternalName(wrapperType);
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, paramType.getName() + "Value",
+					"()" + Type.getDescriptor(paramType), false);
+		}
+		else if (paramType != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(paramType));
+		}
+	}
+
+	private static void generateReturnValueConversion(MethodVisitor mv, Class<?> returnType) {
+		if (returnType.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+			mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+					"(" + Type.getDescriptor(returnType) + ")L" + wrapper + ";", false);
+		}
+	}
+
+
+	/**
+	 * ClassWriter that resolves types against the bean class loader
+	 * when computing stack map frames.
+	 */
+	private static class AccessorClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		public AccessorClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
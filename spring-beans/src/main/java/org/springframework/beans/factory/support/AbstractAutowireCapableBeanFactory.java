@@ -77,6 +77,8 @@ import org.springframework.core.NativeDetector;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -611,7 +613,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			 * 增强 bean 实例。
 			 */
 			// 实例化对象，里面第二次调用后置处理器
-			instanceWrapper = createBeanInstance(beanName, mbd, args);
+			StartupStep createInstance = startCreationPhase("create-instance");
+			try {
+				instanceWrapper = createBeanInstance(beanName, mbd, args);
+			}
+			finally {
+				createInstance.end();
+			}
 		}
 		// 包装的实例对象，也就是原始对象
 		Object bean = instanceWrapper.getWrappedInstance();
@@ -624,19 +632,26 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 		// 3、寻找注入点
 		// Allow post-processors to modify the merged bean definition.
-		synchronized (mbd.postProcessingLock) {
-			if (!mbd.postProcessed) {
-				try {
-					// 第三次调用后置处理器
-					// 这里会查找@Autowired、@Value、Resource的注入点(InjectedElement)，
-					// 并把这些注入点添加到mbd的属性externallyManagedConfigMembers中
-					applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
-				}
-				catch (Throwable ex) {
-					throw new BeanCreationException(mbd.getResourceDescription(), beanName,
-							"Post-processing of merged bean definition failed", ex);
+		// Quick check without lock for each further instance of a prototype or scoped bean
+		if (!mbd.postProcessed) {
+			synchronized (mbd.postProcessingLock) {
+				if (!mbd.postProcessed) {
+					StartupStep postProcessMergedDefinition = startCreationPhase("post-process-merged-definition");
+					try {
+						// 第三次调用后置处理器
+						// 这里会查找@Autowired、@Value、Resource的注入点(InjectedElement)，
+						// 并把这些注入点添加到mbd的属性externallyManagedConfigMembers中
+						applyMergedBeanDefinitionPostProcessors(mbd, beanType, beanName);
+					}
+					catch (Throwable ex) {
+						throw new BeanCreationException(mbd.getResourceDescription(), beanName,
+								"Post-processing of merged bean definition failed", ex);
+					}
+					finally {
+						postProcessMergedDefinition.end();
+					}
+					mbd.postProcessed = true;
 				}
-				mbd.postProcessed = true;
 			}
 		}
 
@@ -663,7 +678,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		try {
 			// 5、填充属性，即属性的自动注入
 			// 里面完成第五次和第六次后置处理器的调用
-			populateBean(beanName, mbd, instanceWrapper);
+			StartupStep populate = startCreationPhase("populate");
+			try {
+				populateBean(beanName, mbd, instanceWrapper);
+			}
+			finally {
+				populate.end();
+			}
 			// 6、执行初始化方法，初始化Spring
 			// 里面会进行第七次和第八次后置处理器的调用
 			exposedObject = initializeBean(beanName, exposedObject, mbd);
@@ -2029,9 +2050,16 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			// 继续执行下一个 BeanPostProcessor中的postProcessBeforeInitialization初始化前方法。
 			// CommonAnnotationBeanPostProcessor 在这里对@@PostConstruct 、@PreDestroy做了处理，具体代码是在其父类
 			// InitDestroyAnnotationBeanPostProcessor中
-			wrappedBean = applyBeanPostProcessorsBeforeInitialization(wrappedBean, beanName);
+			StartupStep postProcessBeforeInitialization = startCreationPhase("post-process-before-initialization");
+			try {
+				wrappedBean = applyBeanPostProcessorsBeforeInitialization(wrappedBean, beanName);
+			}
+			finally {
+				postProcessBeforeInitialization.end();
+			}
 		}
 
+		StartupStep initMethods = startCreationPhase("init-methods");
 		try {
 			// 如果bean实现了InitializingBean或者用户自定义的init方法方法，那么调用这些初始化方法对bean的属性进行一些个性化设置
 
@@ -2049,16 +2077,40 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 					(mbd != null ? mbd.getResourceDescription() : null),
 					beanName, "Invocation of init method failed", ex);
 		}
+		finally {
+			initMethods.end();
+		}
 		// 判断当 mbd == null || mbd的定义不是合成的，即程序本身定义的
 		if (mbd == null || !mbd.isSynthetic()) {
 			// 执行后置处理器的postProcessAfterInitialization方法
 			// 具体逻辑和applyBeanPostProcessorsBeforeInitialization类似
-			wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
+			StartupStep postProcessAfterInitialization = startCreationPhase("post-process-after-initialization");
+			try {
+				wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
+			}
+			finally {
+				postProcessAfterInitialization.end();
+			}
 		}
 
 		return wrappedBean;
 	}
 
+	/**
+	 * Start a step for the given phase of the creation of a bean, provided that
+	 * the {@link #getApplicationStartup() ApplicationStartup} asks for fine-grained
+	 * steps. Otherwise, a no-op step is returned.
+	 * @param phase the name of the phase within "spring.beans.instantiate"
+	 * @see ApplicationStartup#supportsFineGrainedSteps()
+	 */
+	private StartupStep startCreationPhase(String phase) {
+		ApplicationStartup applicationStartup = getApplicationStartup();
+		if (!applicationStartup.supportsFineGrainedSteps()) {
+			return ApplicationStartup.DEFAULT.start(phase);
+		}
+		return applicationStartup.start("spring.beans.instantiate." + phase);
+	}
+
 	private void invokeAwareMethods(String beanName, Object bean) {
 		if (bean instanceof Aware) {
 			if (bean instanceof BeanNameAware) {
@@ -39,6 +39,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -157,6 +159,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Resolver to use for checking if a bean definition is an autowire candidate. */
 	private AutowireCandidateResolver autowireCandidateResolver = SimpleAutowireCandidateResolver.INSTANCE;
 
+	/** Optional Executor for pre-instantiating singletons in parallel. */
+	@Nullable
+	private Executor bootstrapExecutor;
+
 	/** Map from dependency type to corresponding autowired value. */
 	private final Map<Class<?>, Object> resolvableDependencies = new ConcurrentHashMap<>(16);
 
@@ -167,10 +173,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private final Map<String, BeanDefinitionHolder> mergedBeanDefinitionHolders = new ConcurrentHashMap<>(256);
 
 	/** Map of singleton and non-singleton bean names, keyed by dependency type. */
-	private final Map<Class<?>, String[]> allBeanNamesByType = new ConcurrentHashMap<>(64);
+	private final Map<Class<?>, TypeMatches> allBeanNamesByType = new ConcurrentHashMap<>(64);
 
 	/** Map of singleton-only bean names, keyed by dependency type. */
-	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
+	private final Map<Class<?>, TypeMatches> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
+
+	/** Map of singleton and non-singleton bean names, keyed by generic dependency type. */
+	private final Map<ResolvableType, TypeMatches> allBeanNamesByGenericType = new ConcurrentHashMap<>(16);
+
+	/** Map of singleton-only bean names, keyed by generic dependency type. */
+	private final Map<ResolvableType, TypeMatches> singletonBeanNamesByGenericType = new ConcurrentHashMap<>(16);
+
+	/** Generation of the by-type caches, incremented on every registration or removal. */
+	private final AtomicLong byTypeCacheGeneration = new AtomicLong();
+
+	/** Number of times the by-type caches have been cleared, e.g. on every removal. */
+	private final AtomicLong byTypeCacheClearCount = new AtomicLong();
 
 	/** List of bean definition names, in registration order. */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
@@ -316,6 +334,38 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.autowireCandidateResolver;
 	}
 
+	/**
+	 * Set an {@link Executor} for pre-instantiating singletons in parallel.
+	 * <p>Default is none, creating singletons sequentially on the calling thread.
+	 * If specified, {@link #preInstantiateSingletons()} derives a dependency graph
+	 * from the bean definitions (depends-on declarations, bean references and
+	 * factory beans) and creates singletons in parallel on the given executor,
+	 * each one as soon as the singletons it depends on are available.
+	 * <p>Dependencies that are only determined during creation, e.g. autowired
+	 * ones, are resolved by waiting for singletons in creation by other threads.
+	 * Beans failing to be created due to a circular reference across threads are
+	 * created again sequentially once all others are available, and other
+	 * failures are reported for the first failed bean in registration order.
+	 * <p>Only applied in combination with
+	 * {@link #setConcurrentSingletonCreation concurrent singleton creation}:
+	 * singletons are otherwise pre-instantiated sequentially on the calling thread.
+	 * @since 5.3.24
+	 * @see #setConcurrentSingletonCreation
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setBootstrapExecutor(@Nullable Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+	}
+
+	/**
+	 * Return the {@link Executor} for pre-instantiating singletons in parallel, if any.
+	 * @since 5.3.24
+	 */
+	@Nullable
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 
 	@Override
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
@@ -325,6 +375,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
+			setConcurrentSingletonCreation(otherListableFactory.isConcurrentSingletonCreation());
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware
 			setAutowireCandidateResolver(otherListableFactory.getAutowireCandidateResolver().cloneIfNecessary());
 			// Make resolvable dependencies (e.g. ResourceLoader) available here as well
@@ -526,9 +578,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (resolved != null && !type.hasGenerics()) {
 			return getBeanNamesForType(resolved, includeNonSingletons, allowEagerInit);
 		}
-		else {
+		if (!isConfigurationFrozen() || !allowEagerInit || !isCacheSafe(type)) {
 			return doGetBeanNamesForType(type, includeNonSingletons, allowEagerInit);
 		}
+		Map<ResolvableType, TypeMatches> cache =
+				(includeNonSingletons ? this.allBeanNamesByGenericType : this.singletonBeanNamesByGenericType);
+		return getCachedBeanNamesForType(cache, type, type, includeNonSingletons, true);
 	}
 
 	@Override
@@ -541,104 +596,189 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		if (!isConfigurationFrozen() || type == null || !allowEagerInit) {
 			return doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, allowEagerInit);
 		}
-		Map<Class<?>, String[]> cache =
+		Map<Class<?>, TypeMatches> cache =
 				(includeNonSingletons ? this.allBeanNamesByType : this.singletonBeanNamesByType);
-		String[] resolvedBeanNames = cache.get(type);
-		if (resolvedBeanNames != null) {
-			return resolvedBeanNames;
+		return getCachedBeanNamesForType(cache, type, ResolvableType.forRawClass(type), includeNonSingletons,
+				ClassUtils.isCacheSafe(type, getBeanClassLoader()));
+	}
+
+	/**
+	 * Return the names of the beans matching the given type from the given cache,
+	 * only checking the bean definitions and manually registered singletons that
+	 * have been registered since the cached names have been determined.
+	 */
+	private <K> String[] getCachedBeanNamesForType(Map<K, TypeMatches> cache, K key, ResolvableType type,
+			boolean includeNonSingletons, boolean cacheSafe) {
+
+		TypeMatches matches = cache.getOrDefault(key, TypeMatches.NONE);
+		TypeMatches updatedMatches = matchBeanNamesForType(type, includeNonSingletons, true, matches);
+		if (updatedMatches != matches && cacheSafe) {
+			cache.put(key, updatedMatches);
 		}
-		resolvedBeanNames = doGetBeanNamesForType(ResolvableType.forRawClass(type), includeNonSingletons, true);
-		if (ClassUtils.isCacheSafe(type, getBeanClassLoader())) {
-			cache.put(type, resolvedBeanNames);
+		return updatedMatches.beanNames;
+	}
+
+	private boolean isCacheSafe(ResolvableType type) {
+		if (type.isArray()) {
+			return isCacheSafe(type.getComponentType());
+		}
+		Class<?> resolved = type.resolve();
+		if (resolved == null || !ClassUtils.isCacheSafe(resolved, getBeanClassLoader())) {
+			return false;
 		}
-		return resolvedBeanNames;
+		for (ResolvableType generic : type.getGenerics()) {
+			if (!isCacheSafe(generic)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
+		return matchBeanNamesForType(type, includeNonSingletons, allowEagerInit, TypeMatches.NONE).beanNames;
+	}
+
+	/**
+	 * Determine the names of the beans matching the given type, retaining the given
+	 * previous matches and only checking the bean definitions and manually registered
+	 * singletons that have been registered since.
+	 * @return the updated matches, or the previous matches if still current
+	 */
+	private TypeMatches matchBeanNamesForType(ResolvableType type, boolean includeNonSingletons,
+			boolean allowEagerInit, TypeMatches previous) {
+
+		// Generation before clear count, and both before the registrations they reflect
+		long generation = this.byTypeCacheGeneration.get();
+		long clearCount = this.byTypeCacheClearCount.get();
+		if (previous.generation == generation) {
+			return previous;
+		}
+		List<String> beanDefinitionNames = this.beanDefinitionNames;
+		Set<String> manualSingletonNames = this.manualSingletonNames;
+		if (previous.clearCount != clearCount || !previous.canBeUpdated(beanDefinitionNames, manualSingletonNames)) {
+			previous = TypeMatches.NONE;
+		}
 		List<String> result = new ArrayList<>();
 
 		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
-			// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
-			if (!isAlias(beanName)) {
-				try {
-					RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
-					// Only check bean definition if it is complete.
-					if (!mbd.isAbstract() && (allowEagerInit ||
-							(mbd.hasBeanClass() || !mbd.isLazyInit() || isAllowEagerClassLoading()) &&
-									!requiresEagerInitForType(mbd.getFactoryBeanName()))) {
-						boolean isFactoryBean = isFactoryBean(beanName, mbd);
-						BeanDefinitionHolder dbd = mbd.getDecoratedDefinition();
-						boolean matchFound = false;
-						boolean allowFactoryBeanInit = (allowEagerInit || containsSingleton(beanName));
-						boolean isNonLazyDecorated = (dbd != null && !mbd.isLazyInit());
-						if (!isFactoryBean) {
-							if (includeNonSingletons || isSingleton(beanName, mbd, dbd)) {
-								matchFound = isTypeMatch(beanName, type, allowFactoryBeanInit);
-							}
+		result.addAll(Arrays.asList(previous.beanNames).subList(0, previous.beanDefinitionMatchCount));
+		for (String beanName : beanDefinitionNames.subList(previous.beanDefinitionCount, beanDefinitionNames.size())) {
+			String match = matchBeanDefinition(beanName, type, includeNonSingletons, allowEagerInit);
+			if (match != null) {
+				result.add(match);
+			}
+		}
+		int beanDefinitionMatchCount = result.size();
+
+		// Check manually registered singletons too.
+		result.addAll(Arrays.asList(previous.beanNames).subList(
+				previous.beanDefinitionMatchCount, previous.beanNames.length));
+		int index = 0;
+		for (String beanName : manualSingletonNames) {
+			if (index++ >= previous.manualSingletonCount) {
+				String match = matchManualSingleton(beanName, type, includeNonSingletons);
+				if (match != null) {
+					result.add(match);
+				}
+			}
+		}
+
+		return new TypeMatches(StringUtils.toStringArray(result), beanDefinitionMatchCount,
+				beanDefinitionNames.size(), manualSingletonNames.size(), generation, clearCount);
+	}
+
+	/**
+	 * Check whether the bean definition with the given name matches the given type.
+	 * @return the name of the bean, the factory-dereferenced name in case of a
+	 * {@link FactoryBean} matching the type itself, or {@code null} if no match
+	 */
+	@Nullable
+	private String matchBeanDefinition(String beanName, ResolvableType type,
+			boolean includeNonSingletons, boolean allowEagerInit) {
+
+		// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
+		if (!isAlias(beanName)) {
+			try {
+				RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+				// Only check bean definition if it is complete.
+				if (!mbd.isAbstract() && (allowEagerInit ||
+						(mbd.hasBeanClass() || !mbd.isLazyInit() || isAllowEagerClassLoading()) &&
+								!requiresEagerInitForType(mbd.getFactoryBeanName()))) {
+					boolean isFactoryBean = isFactoryBean(beanName, mbd);
+					BeanDefinitionHolder dbd = mbd.getDecoratedDefinition();
+					boolean matchFound = false;
+					boolean allowFactoryBeanInit = (allowEagerInit || containsSingleton(beanName));
+					boolean isNonLazyDecorated = (dbd != null && !mbd.isLazyInit());
+					if (!isFactoryBean) {
+						if (includeNonSingletons || isSingleton(beanName, mbd, dbd)) {
+							matchFound = isTypeMatch(beanName, type, allowFactoryBeanInit);
+						}
+					}
+					else {
+						if (includeNonSingletons || isNonLazyDecorated ||
+								(allowFactoryBeanInit && isSingleton(beanName, mbd, dbd))) {
+							matchFound = isTypeMatch(beanName, type, allowFactoryBeanInit);
 						}
-						else {
-							if (includeNonSingletons || isNonLazyDecorated ||
-									(allowFactoryBeanInit && isSingleton(beanName, mbd, dbd))) {
+						if (!matchFound) {
+							// In case of FactoryBean, try to match FactoryBean instance itself next.
+							beanName = FACTORY_BEAN_PREFIX + beanName;
+							if (includeNonSingletons || isSingleton(beanName, mbd, dbd)) {
 								matchFound = isTypeMatch(beanName, type, allowFactoryBeanInit);
 							}
-							if (!matchFound) {
-								// In case of FactoryBean, try to match FactoryBean instance itself next.
-								beanName = FACTORY_BEAN_PREFIX + beanName;
-								if (includeNonSingletons || isSingleton(beanName, mbd, dbd)) {
-									matchFound = isTypeMatch(beanName, type, allowFactoryBeanInit);
-								}
-							}
-						}
-						if (matchFound) {
-							result.add(beanName);
 						}
 					}
-				}
-				catch (CannotLoadBeanClassException | BeanDefinitionStoreException ex) {
-					if (allowEagerInit) {
-						throw ex;
+					if (matchFound) {
+						return beanName;
 					}
-					// Probably a placeholder: let's ignore it for type matching purposes.
-					LogMessage message = (ex instanceof CannotLoadBeanClassException ?
-							LogMessage.format("Ignoring bean class loading failure for bean '%s'", beanName) :
-							LogMessage.format("Ignoring unresolvable metadata in bean definition '%s'", beanName));
-					logger.trace(message, ex);
-					// Register exception, in case the bean was accidentally unresolvable.
-					onSuppressedException(ex);
 				}
-				catch (NoSuchBeanDefinitionException ex) {
-					// Bean definition got removed while we were iterating -> ignore.
+			}
+			catch (CannotLoadBeanClassException | BeanDefinitionStoreException ex) {
+				if (allowEagerInit) {
+					throw ex;
 				}
+				// Probably a placeholder: let's ignore it for type matching purposes.
+				LogMessage message = (ex instanceof CannotLoadBeanClassException ?
+						LogMessage.format("Ignoring bean class loading failure for bean '%s'", beanName) :
+						LogMessage.format("Ignoring unresolvable metadata in bean definition '%s'", beanName));
+				logger.trace(message, ex);
+				// Register exception, in case the bean was accidentally unresolvable.
+				onSuppressedException(ex);
+			}
+			catch (NoSuchBeanDefinitionException ex) {
+				// Bean definition got removed while we were iterating -> ignore.
 			}
 		}
+		return null;
+	}
 
-		// Check manually registered singletons too.
-		for (String beanName : this.manualSingletonNames) {
-			try {
-				// In case of FactoryBean, match object created by FactoryBean.
-				if (isFactoryBean(beanName)) {
-					if ((includeNonSingletons || isSingleton(beanName)) && isTypeMatch(beanName, type)) {
-						result.add(beanName);
-						// Match found for this bean: do not match FactoryBean itself anymore.
-						continue;
-					}
-					// In case of FactoryBean, try to match FactoryBean itself next.
-					beanName = FACTORY_BEAN_PREFIX + beanName;
-				}
-				// Match raw bean instance (might be raw FactoryBean).
-				if (isTypeMatch(beanName, type)) {
-					result.add(beanName);
+	/**
+	 * Check whether the manually registered singleton with the given name matches the given type.
+	 * @return the name of the bean, the factory-dereferenced name in case of a
+	 * {@link FactoryBean} matching the type itself, or {@code null} if no match
+	 */
+	@Nullable
+	private String matchManualSingleton(String beanName, ResolvableType type, boolean includeNonSingletons) {
+		try {
+			// In case of FactoryBean, match object created by FactoryBean.
+			if (isFactoryBean(beanName)) {
+				if ((includeNonSingletons || isSingleton(beanName)) && isTypeMatch(beanName, type)) {
+					// Match found for this bean: do not match FactoryBean itself anymore.
+					return beanName;
 				}
+				// In case of FactoryBean, try to match FactoryBean itself next.
+				beanName = FACTORY_BEAN_PREFIX + beanName;
 			}
-			catch (NoSuchBeanDefinitionException ex) {
-				// Shouldn't happen - probably a result of circular reference resolution...
-				logger.trace(LogMessage.format(
-						"Failed to check manually registered singleton with name '%s'", beanName), ex);
+			// Match raw bean instance (might be raw FactoryBean).
+			if (isTypeMatch(beanName, type)) {
+				return beanName;
 			}
 		}
-
-		return StringUtils.toStringArray(result);
+		catch (NoSuchBeanDefinitionException ex) {
+			// Shouldn't happen - probably a result of circular reference resolution...
+			logger.trace(LogMessage.format(
+					"Failed to check manually registered singleton with name '%s'", beanName), ex);
+		}
+		return null;
 	}
 
 	private boolean isSingleton(String beanName, RootBeanDefinition mbd, @Nullable BeanDefinitionHolder dbd) {
@@ -931,41 +1071,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 		// 2.遍历beanNames，触发所有非懒加载单例bean的初始化
 		// Trigger initialization of all non-lazy singleton beans...
-		for (String beanName : beanNames) {
-			// 3.获取beanName对应的MergedBeanDefinition
-			// MergedBeanDefinition是spring获取bean流程中的一个重要处理过程，他将基础的BeanDefinition合并为一个新
-			// 的BeanDefinition对象(RootBeanDefinition)，后续的处理过程都依赖这个新对象，
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			// 4.bd对应的Bean实例：不是抽象类 && 是单例 && 不是懒加载
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				// 5.判断beanName对应的bean是否为FactoryBean
-				if (isFactoryBean(beanName)) {
-					// 5.1 通过beanName获取FactoryBean实例
-					// 通过getBean(&beanName)拿到的是FactoryBean本身；通过getBean(beanName)拿到的是FactoryBean创建的Bean实例
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						// 5.2 判断这个FactoryBean是否希望急切的初始化
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						// 5.3 如果希望急切的初始化，则通过beanName获取bean实例
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				}
-				else {
-					// 6.如果beanName对应的bean不是FactoryBean，只是普通Bean，通过beanName获取bean实例
-					getBean(beanName);
-				}
+		if (this.bootstrapExecutor != null && isConcurrentSingletonCreation()) {
+			new ParallelSingletonInstantiation(this, this.bootstrapExecutor).instantiate(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
 			}
 		}
 
@@ -996,6 +1107,51 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Pre-instantiate the given bean if it is a non-lazy singleton, including
+	 * the object of a {@link SmartFactoryBean} that asks for eager initialization.
+	 * @param beanName the name of the bean
+	 * @since 5.3.24
+	 * @see #preInstantiateSingletons()
+	 */
+	void preInstantiateSingleton(String beanName) {
+		// 3.获取beanName对应的MergedBeanDefinition
+		// MergedBeanDefinition是spring获取bean流程中的一个重要处理过程，他将基础的BeanDefinition合并为一个新
+		// 的BeanDefinition对象(RootBeanDefinition)，后续的处理过程都依赖这个新对象，
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		// 4.bd对应的Bean实例：不是抽象类 && 是单例 && 不是懒加载
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			// 5.判断beanName对应的bean是否为FactoryBean
+			if (isFactoryBean(beanName)) {
+				// 5.1 通过beanName获取FactoryBean实例
+				// 通过getBean(&beanName)拿到的是FactoryBean本身；通过getBean(beanName)拿到的是FactoryBean创建的Bean实例
+				Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+				if (bean instanceof FactoryBean) {
+					FactoryBean<?> factory = (FactoryBean<?>) bean;
+					// 5.2 判断这个FactoryBean是否希望急切的初始化
+					boolean isEagerInit;
+					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+						isEagerInit = AccessController.doPrivileged(
+								(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+								getAccessControlContext());
+					}
+					else {
+						isEagerInit = (factory instanceof SmartFactoryBean &&
+								((SmartFactoryBean<?>) factory).isEagerInit());
+					}
+					// 5.3 如果希望急切的初始化，则通过beanName获取bean实例
+					if (isEagerInit) {
+						getBean(beanName);
+					}
+				}
+			}
+			else {
+				// 6.如果beanName对应的bean不是FactoryBean，只是普通Bean，通过beanName获取bean实例
+				getBean(beanName);
+			}
+		}
+	}
+
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
 	//---------------------------------------------------------------------
@@ -1065,14 +1221,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				removeManualSingletonName(beanName);
 			}
 			this.frozenBeanDefinitionNames = null;
+			this.byTypeCacheGeneration.incrementAndGet();
 		}
 
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			resetBeanDefinition(beanName);
 		}
-		else if (isConfigurationFrozen()) {
-			clearByTypeCache();
-		}
+		// Otherwise a new bean definition is checked on the next by-type lookup
 	}
 
 	@Override
@@ -1165,7 +1320,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		if (this.beanDefinitionMap.containsKey(beanName)) {
+			clearByTypeCache();
+		}
+		else {
+			// A new manual singleton is checked on the next by-type lookup
+			this.byTypeCacheGeneration.incrementAndGet();
+		}
 	}
 
 	@Override
@@ -1213,10 +1374,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	/**
 	 * Remove any assumptions about by-type mappings.
+	 * <p>Also invalidates matches that are being determined concurrently
+	 * and get stored in the by-type caches afterwards.
 	 */
 	private void clearByTypeCache() {
+		this.byTypeCacheClearCount.incrementAndGet();
+		this.byTypeCacheGeneration.incrementAndGet();
 		this.allBeanNamesByType.clear();
 		this.singletonBeanNamesByType.clear();
+		this.allBeanNamesByGenericType.clear();
+		this.singletonBeanNamesByGenericType.clear();
 	}
 
 
@@ -1969,6 +2136,49 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Names of the beans matching a type, along with the number of bean definitions
+	 * and manually registered singletons that have been checked: bean definitions
+	 * and manual singletons are only ever appended until the by-type cache is cleared,
+	 * so that matches can be updated by checking the ones registered since.
+	 * The cache generation and clear count as of the start of the lookup tell
+	 * whether that is still the case.
+	 */
+	private static final class TypeMatches {
+
+		static final TypeMatches NONE = new TypeMatches(new String[0], 0, 0, 0, -1, -1);
+
+		final String[] beanNames;
+
+		/** Number of leading bean names that stem from bean definitions. */
+		final int beanDefinitionMatchCount;
+
+		final int beanDefinitionCount;
+
+		final int manualSingletonCount;
+
+		final long generation;
+
+		final long clearCount;
+
+		TypeMatches(String[] beanNames, int beanDefinitionMatchCount, int beanDefinitionCount,
+				int manualSingletonCount, long generation, long clearCount) {
+
+			this.beanNames = beanNames;
+			this.beanDefinitionMatchCount = beanDefinitionMatchCount;
+			this.beanDefinitionCount = beanDefinitionCount;
+			this.manualSingletonCount = manualSingletonCount;
+			this.generation = generation;
+			this.clearCount = clearCount;
+		}
+
+		boolean canBeUpdated(List<String> beanDefinitionNames, Set<String> manualSingletonNames) {
+			return (this.beanDefinitionCount <= beanDefinitionNames.size() &&
+					this.manualSingletonCount <= manualSingletonNames.size());
+		}
+	}
+
+
 	/**
 	 * Minimal id reference to the factory.
 	 * Resolved to the actual factory instance on deserialization.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -32,6 +32,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -61,6 +62,13 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>Fully initialized singletons are read without locking. Singletons are
+ * created within the singleton mutex by default. With
+ * {@link #setConcurrentSingletonCreation concurrent singleton creation}, they
+ * are created outside of the mutex instead, holding a creation claim per bean
+ * name: other threads asking for a singleton in creation wait for it to be
+ * completed, while singletons of other names may be created concurrently.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -118,9 +126,18 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			Collections.newSetFromMap(new ConcurrentHashMap<>(16));
 
 	//存放该类异常集合
-	/** Collection of suppressed Exceptions, available for associating related causes. */
-	@Nullable
-	private Set<Exception> suppressedExceptions;
+	/** Suppressed Exceptions of the current thread, available for associating related causes. */
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of singleton creation");
+
+	/** Whether to create singletons outside of the singleton mutex, holding a claim per bean name. */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Threads creating singletons: bean name to thread, modified within the singleton mutex. */
+	private final Map<String, Thread> singletonCreationThreads = new ConcurrentHashMap<>(16);
+
+	/** Threads waiting for singletons in creation: thread to bean name, modified within the singleton mutex. */
+	private final Map<Thread, String> singletonCreationWaits = new ConcurrentHashMap<>(4);
 
 	// 是否销毁标识
 	/** Flag that indicates whether we're currently within destroySingletons. */
@@ -149,6 +166,33 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
 
+	/**
+	 * Set whether to create singletons of different names concurrently.
+	 * <p>Default is "false", creating singletons within the singleton mutex,
+	 * i.e. one at a time across all threads. Switch this flag to "true" for
+	 * creating singletons outside of the mutex, e.g. for pre-instantiating
+	 * singletons in parallel: the creating thread then holds a claim for the
+	 * bean name, with other threads asking for the same singleton waiting for
+	 * its completion. Early references are only exposed to the creating thread
+	 * or within a circular reference across threads.
+	 * <p>To be set before any singletons get created.
+	 * @since 5.3.24
+	 * @see DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singletons of different names may be created concurrently.
+	 * @since 5.3.24
+	 * @see #setConcurrentSingletonCreation
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
+
 	@Override
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "Bean name must not be null");
@@ -229,6 +273,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		Object singletonObject = this.singletonObjects.get(beanName);
 		// 当前还不存在这个单例对象，且该对象正在创建中，即在singletonsCurrentlyInCreation列表中
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (!isEarlyReferenceVisible(beanName)) {
+				// In creation by another thread: to be awaited through getSingleton(String, ObjectFactory)
+				return null;
+			}
 			singletonObject = this.earlySingletonObjects.get(beanName);
 			//如果获取不到且允许早期依赖
 			if (singletonObject == null && allowEarlyReference) {
@@ -270,71 +318,288 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (this.concurrentSingletonCreation) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
 				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+					throw creationNotAllowedInDestruction(beanName);
 				}
 				if (logger.isDebugEnabled()) {
 					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
 				}
 				beforeSingletonCreation(beanName);
-				boolean newSingleton = false;
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<>();
+				singletonObject = createSingleton(beanName, singletonFactory);
+			}
+			return singletonObject;
+		}
+	}
+
+	/**
+	 * Return the (raw) singleton object registered under the given name,
+	 * creating it outside of the singleton mutex under a claim for the bean name.
+	 * @see #setConcurrentSingletonCreation
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		// Quick check for existing instance without full singleton lock
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		boolean claimed = false;
+		try {
+			synchronized (this.singletonObjects) {
+				// A claim held by the current thread indicates a circular reference,
+				// left to the in-creation check below
+				boolean claimedBefore = (this.singletonCreationThreads.get(beanName) == Thread.currentThread());
+				singletonObject = awaitSingletonCreation(beanName);
+				if (singletonObject != null) {
+					return singletonObject;
 				}
-				try {
-					singletonObject = singletonFactory.getObject();
-					newSingleton = true;
+				claimed = !claimedBefore;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
 				}
-				catch (IllegalStateException ex) {
-					// Has the singleton object implicitly appeared in the meantime ->
-					// if yes, proceed with it since the exception indicates that state.
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						throw ex;
-					}
+				// In-creation marker along with the claim, consistent with type checks within the singleton mutex
+				beforeSingletonCreation(beanName);
+			}
+			return createSingleton(beanName, singletonFactory);
+		}
+		finally {
+			if (claimed) {
+				releaseSingletonCreation(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the creation of the given singleton by another thread, if any,
+	 * and claim its creation for the current thread otherwise.
+	 * <p>To be called within the singleton mutex, which is released while waiting.
+	 * The claim is taken without releasing the mutex after the final checks, so
+	 * that no other thread may pass those checks for the same singleton in between.
+	 * @param beanName the name of the bean
+	 * @return the singleton object created by another thread in the meantime,
+	 * an early reference to it in case of a circular reference across threads,
+	 * or {@code null} if the singleton is to be created by the current thread,
+	 * having been claimed for it (unless claimed by the current thread already)
+	 * @throws BeanCurrentlyInCreationException if the other thread in turn waits
+	 * for a singleton in creation by the current thread, without an early
+	 * reference being available
+	 */
+	@Nullable
+	private Object awaitSingletonCreation(String beanName) {
+		Thread currentThread = Thread.currentThread();
+		while (true) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			if (this.singletonsCurrentlyInDestruction) {
+				throw creationNotAllowedInDestruction(beanName);
+			}
+			Thread creationThread = this.singletonCreationThreads.get(beanName);
+			if (creationThread == currentThread) {
+				return null;
+			}
+			if (creationThread == null) {
+				if (this.singletonCreationThreads.putIfAbsent(beanName, currentThread) != null) {
+					// Claimed by another thread in the meantime: wait for it
+					continue;
 				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
-							ex.addRelatedCause(suppressedException);
-						}
-					}
-					throw ex;
+				// Registered by the previous creation thread after all?
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null) {
+					this.singletonCreationThreads.remove(beanName);
+					return singletonObject;
 				}
-				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
-					}
-					afterSingletonCreation(beanName);
+				return null;
+			}
+			if (isWaitingFor(creationThread, currentThread)) {
+				// The creating thread may have started waiting after our early reference check
+				singletonObject = getSingleton(beanName, true);
+				if (singletonObject != null) {
+					return singletonObject;
+				}
+				throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+						"in thread '" + creationThread.getName() + "' which waits for a bean in creation in the " +
+						"current thread: Is there an unresolvable circular reference across threads?");
+			}
+			waitForSingletonCreation(beanName, beanName, creationThread);
+		}
+	}
+
+	/**
+	 * Claim the creation of an object derived from a singleton for the current
+	 * thread, e.g. of the object exposed by a singleton FactoryBean, waiting for
+	 * another thread holding the claim to release it.
+	 * <p>Only to be used with concurrent singleton creation, holding the claim
+	 * instead of the singleton mutex while creating the object: waiting for
+	 * singletons in creation by other threads releases the mutex.
+	 * @param name the name to claim, distinct from all bean names
+	 * @param beanName the name of the bean that the object is derived from
+	 * @return {@code true} if the claim has been taken, to be released through
+	 * {@link #releaseSingletonCreation}, or {@code false} if the current thread
+	 * holds it already
+	 * @throws BeanCurrentlyInCreationException if the thread holding the claim
+	 * in turn waits for a singleton in creation by the current thread
+	 * @see #setConcurrentSingletonCreation
+	 */
+	boolean claimSingletonCreation(String name, String beanName) {
+		Thread currentThread = Thread.currentThread();
+		synchronized (this.singletonObjects) {
+			while (true) {
+				Thread creationThread = this.singletonCreationThreads.get(name);
+				if (creationThread == currentThread) {
+					return false;
 				}
-				if (newSingleton) {
-					addSingleton(beanName, singletonObject);
+				if (creationThread == null) {
+					this.singletonCreationThreads.put(name, currentThread);
+					return true;
 				}
+				if (isWaitingFor(creationThread, currentThread)) {
+					throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+							"in thread '" + creationThread.getName() + "' which waits for a bean in creation in the " +
+							"current thread: Is there an unresolvable circular reference across threads?");
+				}
+				waitForSingletonCreation(name, beanName, creationThread);
 			}
-			return singletonObject;
 		}
 	}
 
+	/**
+	 * Release the given creation claim of the current thread, notifying
+	 * threads waiting for it.
+	 * @param name the claimed name
+	 * @see #claimSingletonCreation
+	 */
+	void releaseSingletonCreation(String name) {
+		synchronized (this.singletonObjects) {
+			this.singletonCreationThreads.remove(name);
+			this.singletonObjects.notifyAll();
+		}
+	}
+
+	/**
+	 * Wait for a change of the creation claims, registering the current thread
+	 * as waiting for the given claim in the meantime.
+	 * <p>To be called within the singleton mutex, which is released while waiting.
+	 */
+	private void waitForSingletonCreation(String name, String beanName, Thread creationThread) {
+		Thread currentThread = Thread.currentThread();
+		this.singletonCreationWaits.put(currentThread, name);
+		try {
+			this.singletonObjects.wait();
+		}
+		catch (InterruptedException ex) {
+			currentThread.interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for singleton creation in thread '" + creationThread.getName() + "'");
+		}
+		finally {
+			this.singletonCreationWaits.remove(currentThread);
+		}
+	}
+
+	private static BeanCreationNotAllowedException creationNotAllowedInDestruction(String beanName) {
+		return new BeanCreationNotAllowedException(beanName,
+				"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+				"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+	}
+
+	/**
+	 * Determine whether the given thread waits for a singleton in creation by
+	 * the given creation thread, directly or through other waiting threads.
+	 */
+	private boolean isWaitingFor(Thread thread, Thread creationThread) {
+		Thread current = thread;
+		// Bounded since waits never form a cycle
+		for (int i = 0; i <= this.singletonCreationWaits.size(); i++) {
+			String awaitedBeanName = this.singletonCreationWaits.get(current);
+			if (awaitedBeanName == null) {
+				return false;
+			}
+			current = this.singletonCreationThreads.get(awaitedBeanName);
+			if (current == null) {
+				return false;
+			}
+			if (current == creationThread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether the current thread may see an early reference to the
+	 * given singleton in creation: if it creates the singleton itself or if
+	 * the creating thread waits for a singleton in creation by the current thread.
+	 */
+	private boolean isEarlyReferenceVisible(String beanName) {
+		Thread creationThread = this.singletonCreationThreads.get(beanName);
+		Thread currentThread = Thread.currentThread();
+		return (creationThread == null || creationThread == currentThread ||
+				isWaitingFor(creationThread, currentThread));
+	}
+
+	/**
+	 * Create the given singleton, marked as in creation for the current thread
+	 * already, as well as claimed by it in case of concurrent singleton creation.
+	 */
+	private Object createSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject;
+		boolean newSingleton = false;
+		boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
+		if (recordSuppressedExceptions) {
+			this.suppressedExceptions.set(new LinkedHashSet<>());
+		}
+		try {
+			singletonObject = singletonFactory.getObject();
+			newSingleton = true;
+		}
+		catch (IllegalStateException ex) {
+			// Has the singleton object implicitly appeared in the meantime ->
+			// if yes, proceed with it since the exception indicates that state.
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				throw ex;
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Exception suppressedException : this.suppressedExceptions.get()) {
+					ex.addRelatedCause(suppressedException);
+				}
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				this.suppressedExceptions.remove();
+			}
+			afterSingletonCreation(beanName);
+		}
+		if (newSingleton) {
+			addSingleton(beanName, singletonObject);
+		}
+		return singletonObject;
+	}
+
 	/**
 	 * Register an exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
-	 * <p>The default implementation preserves any given exception in this registry's
-	 * collection of suppressed exceptions, up to a limit of 100 exceptions, adding
-	 * them as related causes to an eventual top-level {@link BeanCreationException}.
+	 * <p>The default implementation preserves any given exception in the collection
+	 * of suppressed exceptions of the current thread, up to a limit of 100 exceptions,
+	 * adding them as related causes to an eventual top-level {@link BeanCreationException}.
 	 * @param ex the Exception to register
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> suppressedExceptions = this.suppressedExceptions.get();
+		if (suppressedExceptions != null && suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+			suppressedExceptions.add(ex);
 		}
 	}
 
@@ -470,21 +735,41 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public void registerDependentBean(String beanName, String dependentBeanName) {
 		String canonicalName = canonicalName(beanName);
 
+		// Quick check for an existing registration without full lock,
+		// e.g. for each injection into a prototype or scoped bean
+		Set<String> dependentBeans = this.dependentBeanMap.get(canonicalName);
+		if (dependentBeans != null && dependentBeans.contains(dependentBeanName)) {
+			return;
+		}
+
 		synchronized (this.dependentBeanMap) {
-			Set<String> dependentBeans =
-					this.dependentBeanMap.computeIfAbsent(canonicalName, k -> new LinkedHashSet<>(8));
-			if (!dependentBeans.add(dependentBeanName)) {
+			if (!addToSet(this.dependentBeanMap, canonicalName, dependentBeanName)) {
 				return;
 			}
 		}
 
 		synchronized (this.dependenciesForBeanMap) {
-			Set<String> dependenciesForBean =
-					this.dependenciesForBeanMap.computeIfAbsent(dependentBeanName, k -> new LinkedHashSet<>(8));
-			dependenciesForBean.add(canonicalName);
+			addToSet(this.dependenciesForBeanMap, dependentBeanName, canonicalName);
 		}
 	}
 
+	/**
+	 * Add the given value to the Set for the given key, replacing the Set with
+	 * an extended copy: the Sets in the dependency maps are never modified once
+	 * published, allowing for reads without the lock of the map.
+	 * <p>To be called within the lock of the given map.
+	 */
+	private static boolean addToSet(Map<String, Set<String>> map, String key, String value) {
+		Set<String> values = map.get(key);
+		if (values != null && values.contains(value)) {
+			return false;
+		}
+		Set<String> newValues = (values != null ? new LinkedHashSet<>(values) : new LinkedHashSet<>(8));
+		newValues.add(value);
+		map.put(key, newValues);
+		return true;
+	}
+
 	/**
 	 * Determine whether the specified dependent bean has been registered as
 	 * dependent on the given bean or on any of its transitive dependencies.
@@ -567,6 +852,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 		synchronized (this.singletonObjects) {
 			this.singletonsCurrentlyInDestruction = true;
+			awaitSingletonCreationCompletion();
 		}
 
 		String[] disposableBeanNames;
@@ -584,6 +870,39 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		clearSingletonCache();
 	}
 
+	/**
+	 * Wait for singletons in creation by other threads to be completed, so that
+	 * they get destroyed along with all others. Further creation attempts fail
+	 * once destruction has begun.
+	 * <p>To be called within the singleton mutex, which is released while waiting.
+	 */
+	private void awaitSingletonCreationCompletion() {
+		Thread currentThread = Thread.currentThread();
+		// Let waiting threads fail, releasing their own claims
+		this.singletonObjects.notifyAll();
+		while (isSingletonCreationInProgress(currentThread)) {
+			try {
+				this.singletonObjects.wait();
+			}
+			catch (InterruptedException ex) {
+				currentThread.interrupt();
+				if (logger.isWarnEnabled()) {
+					logger.warn("Interrupted while waiting for singletons in creation before destruction");
+				}
+				return;
+			}
+		}
+	}
+
+	private boolean isSingletonCreationInProgress(Thread excludedThread) {
+		for (Thread creationThread : this.singletonCreationThreads.values()) {
+			if (creationThread != excludedThread) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Clear all cached singleton instances in this registry.
 	 * @since 4.3.15
@@ -667,9 +986,16 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			for (Iterator<Map.Entry<String, Set<String>>> it = this.dependentBeanMap.entrySet().iterator(); it.hasNext();) {
 				Map.Entry<String, Set<String>> entry = it.next();
 				Set<String> dependenciesToClean = entry.getValue();
-				dependenciesToClean.remove(beanName);
-				if (dependenciesToClean.isEmpty()) {
-					it.remove();
+				if (dependenciesToClean.contains(beanName)) {
+					if (dependenciesToClean.size() == 1) {
+						it.remove();
+					}
+					else {
+						// Copy on write, see addToSet
+						Set<String> cleanedDependencies = new LinkedHashSet<>(dependenciesToClean);
+						cleanedDependencies.remove(beanName);
+						entry.setValue(cleanedDependencies);
+					}
 				}
 			}
 		}
@@ -684,6 +1010,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * any sort of extended singleton creation phase. In particular, subclasses
 	 * should <i>not</i> have their own mutexes involved in singleton creation,
 	 * to avoid the potential for deadlocks in lazy-init situations.
+	 * <p>Note that with {@link #setConcurrentSingletonCreation concurrent singleton
+	 * creation}, singletons are created outside of the mutex, holding a claim per
+	 * bean name instead: threads waiting for a singleton in creation wait on the
+	 * mutex, releasing it in the meantime.
 	 */
 	@Override
 	public final Object getSingletonMutex() {
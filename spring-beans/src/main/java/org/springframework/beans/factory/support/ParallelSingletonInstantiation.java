@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanReference;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.lang.Nullable;
+
+/**
+ * Pre-instantiates the non-lazy singletons of a {@link DefaultListableBeanFactory}
+ * in parallel on a given {@link Executor}, following a dependency graph derived
+ * from the bean definitions: depends-on declarations, bean references in
+ * constructor arguments and property values, and factory beans.
+ *
+ * <p>Requires {@linkplain DefaultSingletonBeanRegistry#setConcurrentSingletonCreation
+ * concurrent singleton creation}. Each singleton is created as soon as the
+ * singletons it depends on are available, holding the per-bean creation claim
+ * of the singleton registry like any other thread. Cycles in the graph are
+ * broken in registration order, leaving such references to be resolved during
+ * creation like other dependencies not known upfront.
+ *
+ * <p>Singletons failing due to a circular reference, e.g. across threads, or
+ * skipped due to such a failed dependency, are created sequentially on the
+ * calling thread once all others are done. Any other failure is rethrown for
+ * the first failed bean in registration order, independent of the timing of
+ * the threads.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see DefaultListableBeanFactory#setBootstrapExecutor
+ */
+final class ParallelSingletonInstantiation {
+
+	private static final Log logger = LogFactory.getLog(ParallelSingletonInstantiation.class);
+
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final Executor executor;
+
+	private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+
+	ParallelSingletonInstantiation(DefaultListableBeanFactory beanFactory, Executor executor) {
+		this.beanFactory = beanFactory;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Pre-instantiate the non-lazy singletons among the given bean names.
+	 * @param beanNames the bean names, in registration order
+	 * @throws BeansException if a singleton could not be created
+	 */
+	public void instantiate(List<String> beanNames) throws BeansException {
+		Map<String, Set<String>> graph = buildDependencyGraph(beanNames);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiating " + graph.size() + " singletons in parallel");
+		}
+
+		Map<String, CompletableFuture<Boolean>> tasks = new LinkedHashMap<>(graph.size() * 2);
+		Set<String> visiting = new HashSet<>();
+		for (String beanName : graph.keySet()) {
+			schedule(beanName, graph, tasks, visiting);
+		}
+		CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture<?>[0])).join();
+
+		// Deterministic outcome: first failure in registration order, if any
+		BeansException failure = null;
+		for (String beanName : graph.keySet()) {
+			Throwable ex = this.failures.get(beanName);
+			if (ex != null && !isCircularReference(ex)) {
+				if (failure == null) {
+					failure = (ex instanceof BeansException ? (BeansException) ex :
+							new BeanCreationException(beanName, "Singleton creation failed", ex));
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		// Remaining singletons, sequentially in registration order
+		for (Map.Entry<String, CompletableFuture<Boolean>> task : tasks.entrySet()) {
+			if (!task.getValue().join()) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Pre-instantiating singleton '" + task.getKey() + "' sequentially");
+				}
+				this.beanFactory.preInstantiateSingleton(task.getKey());
+			}
+		}
+	}
+
+	private Map<String, Set<String>> buildDependencyGraph(List<String> beanNames) {
+		Map<String, Set<String>> graph = new LinkedHashMap<>(beanNames.size() * 2);
+		for (String beanName : beanNames) {
+			RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+			if (!mbd.isAbstract() && mbd.isSingleton() && !mbd.isLazyInit()) {
+				graph.put(beanName, collectDependencies(mbd));
+			}
+		}
+		return graph;
+	}
+
+	private Set<String> collectDependencies(BeanDefinition bd) {
+		Set<String> dependencies = new LinkedHashSet<>();
+		String[] dependsOn = bd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependency : dependsOn) {
+				dependencies.add(this.beanFactory.canonicalName(dependency));
+			}
+		}
+		if (bd.getFactoryBeanName() != null) {
+			dependencies.add(this.beanFactory.canonicalName(bd.getFactoryBeanName()));
+		}
+		collectReferences(bd, dependencies);
+		return dependencies;
+	}
+
+	private void collectReferences(BeanDefinition bd, Set<String> dependencies) {
+		ConstructorArgumentValues argumentValues = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getIndexedArgumentValues().values()) {
+			collectReferences(valueHolder.getValue(), dependencies);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : argumentValues.getGenericArgumentValues()) {
+			collectReferences(valueHolder.getValue(), dependencies);
+		}
+		for (PropertyValue propertyValue : bd.getPropertyValues().getPropertyValueList()) {
+			collectReferences(propertyValue.getValue(), dependencies);
+		}
+	}
+
+	private void collectReferences(@Nullable Object value, Set<String> dependencies) {
+		if (value instanceof BeanReference) {
+			String beanName = ((BeanReference) value).getBeanName();
+			dependencies.add(this.beanFactory.canonicalName(BeanFactoryUtils.transformedBeanName(beanName)));
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectReferences(((BeanDefinitionHolder) value).getBeanDefinition(), dependencies);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectReferences((BeanDefinition) value, dependencies);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectReferences(element, dependencies);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectReferences(entry.getKey(), dependencies);
+				collectReferences(entry.getValue(), dependencies);
+			}
+		}
+	}
+
+	/**
+	 * Schedule the creation of the given singleton after its dependencies,
+	 * ignoring dependencies that close a cycle.
+	 * @return the task for the singleton, or {@code null} in case of a cycle
+	 */
+	@Nullable
+	private CompletableFuture<Boolean> schedule(String beanName, Map<String, Set<String>> graph,
+			Map<String, CompletableFuture<Boolean>> tasks, Set<String> visiting) {
+
+		CompletableFuture<Boolean> task = tasks.get(beanName);
+		if (task != null) {
+			return task;
+		}
+		Set<String> dependencies = graph.get(beanName);
+		if (dependencies == null || !visiting.add(beanName)) {
+			return null;
+		}
+		List<CompletableFuture<Boolean>> dependencyTasks = new ArrayList<>(dependencies.size());
+		for (String dependency : dependencies) {
+			CompletableFuture<Boolean> dependencyTask = schedule(dependency, graph, tasks, visiting);
+			if (dependencyTask != null) {
+				dependencyTasks.add(dependencyTask);
+			}
+		}
+		visiting.remove(beanName);
+		CompletableFuture<?>[] awaited = dependencyTasks.toArray(new CompletableFuture<?>[0]);
+		task = CompletableFuture.allOf(awaited).thenApplyAsync(ignored -> {
+			for (CompletableFuture<Boolean> dependencyTask : dependencyTasks) {
+				if (!dependencyTask.join()) {
+					// Left to sequential creation once the dependency is available
+					return false;
+				}
+			}
+			return instantiate(beanName);
+		}, this.executor).exceptionally(ex -> {
+			// Rejected by the executor
+			this.failures.put(beanName, ex);
+			return false;
+		});
+		tasks.put(beanName, task);
+		return task;
+	}
+
+	private boolean instantiate(String beanName) {
+		try {
+			this.beanFactory.preInstantiateSingleton(beanName);
+			return true;
+		}
+		catch (Throwable ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Failed to pre-instantiate singleton '" + beanName + "' in parallel", ex);
+			}
+			this.failures.put(beanName, ex);
+			return false;
+		}
+	}
+
+	private static boolean isCircularReference(Throwable ex) {
+		Throwable cause = ex;
+		while (cause != null) {
+			if (cause instanceof BeanCurrentlyInCreationException) {
+				return true;
+			}
+			cause = (cause.getCause() != cause ? cause.getCause() : null);
+		}
+		return false;
+	}
+
+}
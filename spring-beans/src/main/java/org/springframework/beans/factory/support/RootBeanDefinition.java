@@ -127,7 +127,7 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 
 	//表明是否被MergedBeanDefinitionPostProcessor处理过
 	/** Package-visible field that indicates MergedBeanDefinitionPostProcessor having been applied. */
-	boolean postProcessed = false;
+	volatile boolean postProcessed = false;
 
 	//在生成代理的时候会使用，表明是否已经生成代理
 	/** Package-visible field that indicates a before-instantiation post-processor having kicked in. */
@@ -417,6 +417,15 @@ public class RootBeanDefinition extends AbstractBeanDefinition {
 		this.isFactoryMethodUnique = false;
 	}
 
+	/**
+	 * Return whether the factory method name refers to a non-overloaded method.
+	 * @since 5.3.24
+	 * @see #setUniqueFactoryMethodName
+	 */
+	public boolean isFactoryMethodUnique() {
+		return this.isFactoryMethodUnique;
+	}
+
 	/**
 	 * Check whether the given candidate qualifies as a factory method.
 	 */
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.beans;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * {@link BeanWrapperImpl} tests with {@link GeneratedBeanPropertyAccessor generated accessors},
+ * including all tests inherited from {@link BeanWrapperTests}.
+ *
+ * @author haozhifeng
+ */
+class GeneratedBeanPropertyAccessorTests extends BeanWrapperTests {
+
+	@Override
+	protected BeanWrapperImpl createAccessor(Object target) {
+		BeanWrapperImpl accessor = new BeanWrapperImpl(target);
+		accessor.setGeneratedAccessors(true);
+		return accessor;
+	}
+
+
+	@Test
+	void generatedAccessorForBeanClass() {
+		GeneratedBeanPropertyAccessor generatedAccessor =
+				CachedIntrospectionResults.forClass(TestBean.class).getGeneratedAccessor();
+		assertThat(generatedAccessor).isNotNull();
+		assertThat(generatedAccessor.getAccessor().getClass().getName())
+				.startsWith(TestBean.class.getName() + "$$BeanPropertyAccessor$$");
+		assertThat(CachedIntrospectionResults.forClass(TestBean.class).getGeneratedAccessor())
+				.isSameAs(generatedAccessor);
+	}
+
+	@Test
+	void generatedAccessorClassReusedForRebuiltIntrospectionResults() {
+		GeneratedBeanPropertyAccessor generatedAccessor =
+				CachedIntrospectionResults.forClass(TestBean.class).getGeneratedAccessor();
+		assertThat(generatedAccessor).isNotNull();
+		CachedIntrospectionResults.clearClassLoader(TestBean.class.getClassLoader());
+
+		GeneratedBeanPropertyAccessor rebuiltAccessor =
+				CachedIntrospectionResults.forClass(TestBean.class).getGeneratedAccessor();
+		assertThat(rebuiltAccessor).isNotNull().isNotSameAs(generatedAccessor);
+		assertThat(rebuiltAccessor.getAccessor().getClass()).isSameAs(generatedAccessor.getAccessor().getClass());
+	}
+
+	@Test
+	void propertyMethodsAreInvokedFromGeneratedAccessor() {
+		StackRecordingBean target = new StackRecordingBean();
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("value", "a");
+		assertThat(accessor.getPropertyValue("value")).isEqualTo("a");
+
+		// Called directly by the generated accessor rather than through reflection
+		assertThat(target.writeStack[1].getClassName())
+				.startsWith(StackRecordingBean.class.getName() + "$$BeanPropertyAccessor$$");
+	}
+
+	@Test
+	void nestedAccessorUsesGeneratedAccessors() {
+		TestBean target = new TestBean();
+		target.setSpouse(new TestBean());
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("spouse.name", "kerry");
+
+		assertThat(target.getSpouse().getName()).isEqualTo("kerry");
+		assertThat(((BeanWrapperImpl) accessor.getPropertyAccessorForPropertyPath("spouse.name"))
+				.isGeneratedAccessors()).isTrue();
+	}
+
+	@Test
+	void exceptionFromWriteMethodIsWrapped() {
+		BeanWrapperImpl accessor = createAccessor(new StackRecordingBean());
+		assertThatExceptionOfType(MethodInvocationException.class)
+				.isThrownBy(() -> accessor.setPropertyValue("value", "fail"))
+				.withCauseInstanceOf(IllegalArgumentException.class)
+				.satisfies(ex -> assertThat(ex.getCause()).hasMessage("fail"));
+	}
+
+	@Test
+	void nullForPrimitivePropertyFailsLikeReflectiveAccess() {
+		BeanWrapperImpl reflective = new BeanWrapperImpl(new TestBean());
+		Class<? extends Throwable> expected = catchThrowableClass(() -> reflective.setPropertyValue("age", null));
+		BeanWrapperImpl generated = createAccessor(new TestBean());
+		assertThat(catchThrowableClass(() -> generated.setPropertyValue("age", null))).isEqualTo(expected);
+	}
+
+	@Test
+	void reflectiveAccessForJdkClass() {
+		Date target = new Date(0);
+		BeanWrapperImpl accessor = createAccessor(target);
+		accessor.setPropertyValue("time", 1000L);
+
+		assertThat(target.getTime()).isEqualTo(1000L);
+		assertThat(CachedIntrospectionResults.forClass(Date.class).getGeneratedAccessor()).isNull();
+	}
+
+	private static Class<? extends Throwable> catchThrowableClass(Runnable runnable) {
+		try {
+			runnable.run();
+			return null;
+		}
+		catch (Throwable ex) {
+			return ex.getClass();
+		}
+	}
+
+
+	public static class StackRecordingBean {
+
+		private String value;
+
+		StackTraceElement[] writeStack;
+
+		public String getValue() {
+			return this.value;
+		}
+
+		public void setValue(String value) {
+			if ("fail".equals(value)) {
+				throw new IllegalArgumentException(value);
+			}
+			this.writeStack = new Throwable().getStackTrace();
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(this.writeStack);
+		}
+	}
+
+}
@@ -60,6 +60,7 @@ import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
 import org.springframework.beans.factory.config.PropertiesFactoryBean;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.AbstractBeanFactory;
@@ -1407,6 +1408,73 @@ class DefaultListableBeanFactoryTests {
 		assertThat(bean.getBeanName()).isEqualTo("bd1");
 	}
 
+	@Test
+	void getBeanNamesForTypeWithLateRegistrationAgainstFrozen() {
+		lbf.registerBeanDefinition("bd1", new RootBeanDefinition(TestBean.class));
+		lbf.registerSingleton("singleton1", new TestBean());
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bd1", "singleton1");
+		assertThat(lbf.getBeanNamesForType(TestBean.class, false, true)).containsExactly("bd1", "singleton1");
+
+		lbf.registerSingleton("singleton2", new TestBean());
+		lbf.registerBeanDefinition("bd2", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("other", new RootBeanDefinition(NestedTestBean.class));
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bd1", "bd2", "singleton1", "singleton2");
+		assertThat(lbf.getBeanNamesForType(TestBean.class, false, true))
+				.containsExactly("bd1", "bd2", "singleton1", "singleton2");
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("other");
+
+		lbf.removeBeanDefinition("bd1");
+		lbf.destroySingleton("singleton1");
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).containsExactly("bd2", "singleton2");
+	}
+
+	@Test
+	void getBeanNamesForGenericTypeWithLateRegistrationAgainstFrozen() {
+		ResolvableType objectFactoryBean = ResolvableType.forClassWithGenerics(FactoryBean.class, Object.class);
+		ResolvableType stringFactoryBean = ResolvableType.forClassWithGenerics(FactoryBean.class, String.class);
+		lbf.registerBeanDefinition("bd1", new RootBeanDefinition(LazyInitFactory.class));
+		lbf.freezeConfiguration();
+		assertThat(lbf.getBeanNamesForType(objectFactoryBean)).containsExactly("&bd1");
+		assertThat(lbf.getBeanNamesForType(stringFactoryBean)).isEmpty();
+
+		lbf.registerSingleton("singleton1", new LazyInitFactory());
+		lbf.registerBeanDefinition("bd2", new RootBeanDefinition(LazyInitFactory.class));
+		assertThat(lbf.getBeanNamesForType(objectFactoryBean)).containsExactly("&bd1", "&bd2", "&singleton1");
+		assertThat(lbf.getBeanNamesForType(
+				ResolvableType.forClassWithGenerics(FactoryBean.class, Object.class), false, true))
+				.containsExactly("&bd1", "&bd2", "&singleton1");
+		assertThat(lbf.getBeanNamesForType(stringFactoryBean)).isEmpty();
+		assertThat(lbf.getBean("&bd1", LazyInitFactory.class).initialized).isFalse();
+	}
+
+	@Test
+	void getBeanNamesForTypeWithRemovalDuringLookupAgainstFrozen() {
+		lbf.registerBeanDefinition("bd1", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition trigger = new RootBeanDefinition(NestedTestBean.class);
+		trigger.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("trigger", trigger);
+		lbf.addBeanPostProcessor(new SmartInstantiationAwareBeanPostProcessor() {
+			private boolean triggered;
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				if (beanName.equals("trigger") && !this.triggered) {
+					this.triggered = true;
+					// Same number of bean definitions as before, while the lookup is still in progress
+					lbf.removeBeanDefinition("bd1");
+					lbf.registerBeanDefinition("bd2", new RootBeanDefinition(NestedTestBean.class));
+				}
+				return null;
+			}
+		});
+		lbf.getBean("bd1");
+		lbf.freezeConfiguration();
+
+		lbf.getBeanNamesForType(TestBean.class);
+		assertThat(lbf.getBeanNamesForType(TestBean.class)).isEmpty();
+		assertThat(lbf.getBeanNamesForType(NestedTestBean.class)).containsExactly("trigger", "bd2");
+	}
+
 	@Test
 	void getBeanByTypeDefinedInParent() {
 		DefaultListableBeanFactory parent = new DefaultListableBeanFactory();
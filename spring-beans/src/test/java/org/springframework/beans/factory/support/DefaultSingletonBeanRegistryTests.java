@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,16 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.testfixture.beans.DerivedTestBean;
 import org.springframework.beans.testfixture.beans.TestBean;
 
@@ -94,4 +102,229 @@ public class DefaultSingletonBeanRegistryTests {
 		assertThat(beanRegistry.isDependent("c", "c")).isTrue();
 	}
 
+	@Test
+	public void testDependentRegistrationAfterDestruction() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+
+		beanRegistry.registerDependentBean("a", "b");
+		beanRegistry.registerDependentBean("a", "c");
+		beanRegistry.registerDependentBean("a", "b");
+		assertThat(beanRegistry.getDependentBeans("a")).containsExactly("b", "c");
+		assertThat(beanRegistry.getDependenciesForBean("b")).containsExactly("a");
+
+		beanRegistry.destroySingleton("c");
+		assertThat(beanRegistry.getDependentBeans("a")).containsExactly("b");
+		beanRegistry.registerDependentBean("a", "c");
+		assertThat(beanRegistry.getDependentBeans("a")).containsExactly("b", "c");
+	}
+
+	@Test
+	public void testSingletonCreationWithinMutexByDefault() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		assertThat(beanRegistry.isConcurrentSingletonCreation()).isFalse();
+		beanRegistry.getSingleton("a", () -> {
+			assertThat(Thread.holdsLock(beanRegistry.getSingletonMutex())).isTrue();
+			return new TestBean();
+		});
+
+		beanRegistry.setConcurrentSingletonCreation(true);
+		beanRegistry.getSingleton("b", () -> {
+			assertThat(Thread.holdsLock(beanRegistry.getSingletonMutex())).isFalse();
+			return new TestBean();
+		});
+	}
+
+	@Test
+	public void testConcurrentCreationOfDifferentSingletons() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		CyclicBarrier barrier = new CyclicBarrier(2);
+
+		CompletableFuture<Object> a = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("a", () -> await(barrier)));
+		Object b = beanRegistry.getSingleton("b", () -> await(barrier));
+		Object aSingleton = a.join();
+		assertThat(beanRegistry.getSingleton("a")).isSameAs(aSingleton);
+		assertThat(beanRegistry.getSingleton("b")).isSameAs(b);
+	}
+
+	@Test
+	public void testConcurrentRequestsForSameSingleton() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		AtomicInteger creations = new AtomicInteger();
+
+		CompletableFuture<Object> first = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					creations.incrementAndGet();
+					started.countDown();
+					await(proceed);
+					return new TestBean();
+				}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(beanRegistry.getSingleton("tb")).isNull();
+
+		CompletableFuture<Object> second = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					creations.incrementAndGet();
+					return new TestBean();
+				}));
+		proceed.countDown();
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+		assertThat(creations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testConcurrentRequestsForSameSingletonPassingWaitCheckTogether() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+			beanRegistry.setConcurrentSingletonCreation(true);
+			AtomicInteger creations = new AtomicInteger();
+			CompletableFuture<Object> first;
+			CompletableFuture<Object> second;
+			// Both threads get past the quick check and enter the wait check one right after the other
+			synchronized (beanRegistry.getSingletonMutex()) {
+				first = requestSingletonBlockedOnMutex(beanRegistry, creations);
+				second = requestSingletonBlockedOnMutex(beanRegistry, creations);
+			}
+			assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+			assertThat(creations.get()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void testDestructionAwaitsConcurrentSingletonCreation() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		AtomicBoolean destroyed = new AtomicBoolean();
+
+		CompletableFuture<Object> creation = CompletableFuture.supplyAsync(() ->
+				beanRegistry.getSingleton("tb", () -> {
+					started.countDown();
+					await(proceed);
+					beanRegistry.registerDisposableBean("tb", () -> destroyed.set(true));
+					return new TestBean();
+				}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Thread destruction = new Thread(beanRegistry::destroySingletons);
+		destruction.start();
+		awaitWaitingOrTerminated(destruction);
+		proceed.countDown();
+		destruction.join(5000);
+		assertThat(destruction.isAlive()).isFalse();
+		assertThat(creation.get(5, TimeUnit.SECONDS)).isInstanceOf(TestBean.class);
+		assertThat(destroyed).isTrue();
+		assertThat(beanRegistry.containsSingleton("tb")).isFalse();
+	}
+
+	@Test
+	public void testConcurrentRequestsForFactoryBeanObjectWhileWaitingForSingleton() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.setConcurrentSingletonCreation(true);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		AtomicInteger objectCreations = new AtomicInteger();
+		beanFactory.registerBeanDefinition("slow", new RootBeanDefinition(TestBean.class, () -> {
+			started.countDown();
+			await(proceed);
+			return new TestBean();
+		}));
+		beanFactory.registerSingleton("factory", new FactoryBean<DerivedTestBean>() {
+			@Override
+			public DerivedTestBean getObject() {
+				objectCreations.incrementAndGet();
+				// Waits for the singleton in creation by another thread, releasing the singleton mutex
+				beanFactory.getBean("slow");
+				return new DerivedTestBean();
+			}
+			@Override
+			public Class<?> getObjectType() {
+				return DerivedTestBean.class;
+			}
+		});
+
+		CompletableFuture<Object> slow = CompletableFuture.supplyAsync(() -> beanFactory.getBean("slow"));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Object> first = requestBeanUntilWaiting(beanFactory, "factory");
+		CompletableFuture<Object> second = requestBeanUntilWaiting(beanFactory, "factory");
+		proceed.countDown();
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+		assertThat(slow.get(5, TimeUnit.SECONDS)).isInstanceOf(TestBean.class);
+		assertThat(objectCreations.get()).isEqualTo(1);
+	}
+
+
+	private static CompletableFuture<Object> requestSingletonBlockedOnMutex(
+			DefaultSingletonBeanRegistry beanRegistry, AtomicInteger creations) throws InterruptedException {
+
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				result.complete(beanRegistry.getSingleton("tb", () -> {
+					creations.incrementAndGet();
+					return new TestBean();
+				}));
+			}
+			catch (Throwable ex) {
+				result.completeExceptionally(ex);
+			}
+		});
+		thread.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.BLOCKED) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(1);
+		}
+		return result;
+	}
+
+	private static CompletableFuture<Object> requestBeanUntilWaiting(
+			DefaultListableBeanFactory beanFactory, String beanName) throws InterruptedException {
+
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				result.complete(beanFactory.getBean(beanName));
+			}
+			catch (Throwable ex) {
+				result.completeExceptionally(ex);
+			}
+		});
+		thread.start();
+		awaitWaitingOrTerminated(thread);
+		return result;
+	}
+
+	private static void awaitWaitingOrTerminated(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	private static Object await(CyclicBarrier barrier) {
+		try {
+			barrier.await(5, TimeUnit.SECONDS);
+			return new TestBean();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 }
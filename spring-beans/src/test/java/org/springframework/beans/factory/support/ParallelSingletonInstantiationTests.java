@@ -0,0 +1,215 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.testfixture.beans.TestBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for parallel pre-instantiation of singletons through
+ * {@link DefaultListableBeanFactory#setBootstrapExecutor}.
+ *
+ * @author haozhifeng
+ */
+class ParallelSingletonInstantiationTests {
+
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private final List<String> created = Collections.synchronizedList(new ArrayList<>());
+
+
+	@BeforeEach
+	void setup() {
+		this.beanFactory.setBootstrapExecutor(this.executor);
+		this.beanFactory.setConcurrentSingletonCreation(true);
+	}
+
+	@AfterEach
+	void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	void independentSingletonsAreCreatedConcurrently() {
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(Object.class, () -> await(barrier)));
+		this.beanFactory.registerBeanDefinition("b", new RootBeanDefinition(Object.class, () -> await(barrier)));
+
+		this.beanFactory.preInstantiateSingletons();
+		assertThat(this.beanFactory.containsSingleton("a")).isTrue();
+		assertThat(this.beanFactory.containsSingleton("b")).isTrue();
+	}
+
+	@Test
+	void dependenciesAreCreatedFirst() {
+		RootBeanDefinition first = new RootBeanDefinition(TestBean.class);
+		first.getPropertyValues().add("spouse", new RuntimeBeanReference("second"));
+		first.setDependsOn("third");
+		this.beanFactory.registerBeanDefinition("first", first);
+		this.beanFactory.registerBeanDefinition("second", new RootBeanDefinition(TestBean.class, () -> record("second")));
+		this.beanFactory.registerBeanDefinition("third", new RootBeanDefinition(TestBean.class, () -> record("third")));
+		this.beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (beanName.equals("first")) {
+					record(beanName);
+				}
+				return bean;
+			}
+		});
+
+		this.beanFactory.preInstantiateSingletons();
+		assertThat(this.created).hasSize(3).endsWith("first");
+	}
+
+	@Test
+	void circularReferenceAcrossThreads() {
+		CountDownLatch latch = new CountDownLatch(2);
+		this.beanFactory.addBeanPostProcessor(new AutowiredAnnotationBeanPostProcessor() {{
+			setBeanFactory(beanFactory);
+		}});
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(A.class, () -> new A(latch)));
+		this.beanFactory.registerBeanDefinition("b", new RootBeanDefinition(B.class, () -> new B(latch)));
+
+		this.beanFactory.preInstantiateSingletons();
+		A a = this.beanFactory.getBean(A.class);
+		B b = this.beanFactory.getBean(B.class);
+		assertThat(a.b).isSameAs(b);
+		assertThat(b.a).isSameAs(a);
+	}
+
+	@Test
+	void firstFailureInRegistrationOrderIsReported() {
+		CountDownLatch latch = new CountDownLatch(1);
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(Object.class, () -> {
+			await(latch);
+			throw new IllegalStateException("a");
+		}));
+		this.beanFactory.registerBeanDefinition("b", new RootBeanDefinition(Object.class, () -> {
+			latch.countDown();
+			throw new IllegalStateException("b");
+		}));
+		this.beanFactory.registerBeanDefinition("c", new RootBeanDefinition(Object.class));
+
+		assertThatExceptionOfType(BeanCreationException.class)
+				.isThrownBy(this.beanFactory::preInstantiateSingletons)
+				.satisfies(ex -> {
+					assertThat(ex.getBeanName()).isEqualTo("a");
+					assertThat(ex.getSuppressed()).hasSize(1);
+				});
+		assertThat(this.beanFactory.containsSingleton("c")).isTrue();
+	}
+
+	@Test
+	void sequentialWithoutConcurrentSingletonCreation() {
+		this.beanFactory.setConcurrentSingletonCreation(false);
+		Thread callingThread = Thread.currentThread();
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(Object.class, () -> {
+			assertThat(Thread.currentThread()).isSameAs(callingThread);
+			return new Object();
+		}));
+
+		this.beanFactory.preInstantiateSingletons();
+		assertThat(this.beanFactory.containsSingleton("a")).isTrue();
+	}
+
+	@Test
+	void rejectedExecutionIsReported() {
+		this.beanFactory.setBootstrapExecutor(task -> {
+			throw new RejectedExecutionException("Expected");
+		});
+		this.beanFactory.registerBeanDefinition("a", new RootBeanDefinition(Object.class));
+
+		assertThatExceptionOfType(BeanCreationException.class)
+				.isThrownBy(this.beanFactory::preInstantiateSingletons)
+				.withRootCauseInstanceOf(RejectedExecutionException.class);
+	}
+
+
+	private TestBean record(String beanName) {
+		this.created.add(beanName);
+		return new TestBean(beanName);
+	}
+
+	private static Object await(CyclicBarrier barrier) {
+		try {
+			barrier.await(5, TimeUnit.SECONDS);
+			return new Object();
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		catch (InterruptedException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+
+	static class A {
+
+		@Autowired
+		B b;
+
+		A(CountDownLatch latch) {
+			latch.countDown();
+			await(latch);
+		}
+	}
+
+
+	static class B {
+
+		@Autowired
+		A a;
+
+		B(CountDownLatch latch) {
+			latch.countDown();
+			await(latch);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,7 +37,9 @@ import javax.lang.model.element.TypeElement;
 
 /**
  * Annotation {@link Processor} that writes a {@link CandidateComponentsMetadata}
- * file for spring components.
+ * file for spring components, along with a details file that records the type
+ * hierarchy, the presence of conditions and the {@code @Bean} methods of each
+ * candidate type.
  *
  * @author Stephane Nicoll
  * @author Juergen Hoeller
@@ -53,6 +55,8 @@ public class CandidateComponentsIndexer implements Processor {
 
 	private List<StereotypesProvider> stereotypesProviders;
 
+	private TypeDetailsProvider typeDetailsProvider;
+
 
 	@Override
 	public Set<String> getSupportedOptions() {
@@ -73,6 +77,7 @@ public class CandidateComponentsIndexer implements Processor {
 	public synchronized void init(ProcessingEnvironment env) {
 		this.stereotypesProviders = getStereotypesProviders(env);
 		this.typeHelper = new TypeHelper(env);
+		this.typeDetailsProvider = new TypeDetailsProvider(this.typeHelper);
 		this.metadataStore = new MetadataStore(env);
 		this.metadataCollector = new MetadataCollector(env, this.metadataStore.readMetadata());
 	}
@@ -113,7 +118,15 @@ public class CandidateComponentsIndexer implements Processor {
 		Set<String> stereotypes = new LinkedHashSet<>();
 		this.stereotypesProviders.forEach(p -> stereotypes.addAll(p.getStereotypes(element)));
 		if (!stereotypes.isEmpty()) {
-			this.metadataCollector.add(new ItemMetadata(this.typeHelper.getType(element), stereotypes));
+			String type = this.typeHelper.getType(element);
+			if (element instanceof TypeElement) {
+				TypeDetailsProvider details = this.typeDetailsProvider;
+				this.metadataCollector.add(new ItemMetadata(type, stereotypes, details.getSuperTypes(element),
+						details.isConditional(element), details.getBeanMethods(element)));
+			}
+			else {
+				this.metadataCollector.add(new ItemMetadata(type, stereotypes));
+			}
 		}
 	}
 
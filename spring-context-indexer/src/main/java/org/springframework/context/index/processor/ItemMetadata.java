@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,10 @@
 
 package org.springframework.context.index.processor;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -25,6 +28,11 @@ import java.util.Set;
  * be used to retrieve the candidates. A typical use case is the presence of a given
  * annotation on the candidate.
  *
+ * <p>An entry for a type may also hold details on the type: its super types,
+ * whether it is subject to conditions and the signatures of its {@code @Bean}
+ * methods. Details are not available for entries of an index that has been
+ * written by a previous version.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -34,10 +42,29 @@ class ItemMetadata {
 
 	private final Set<String> stereotypes;
 
+	private final Set<String> superTypes;
+
+	private final boolean conditional;
+
+	private final List<String> beanMethods;
+
 
 	public ItemMetadata(String type, Set<String> stereotypes) {
 		this.type = type;
 		this.stereotypes = new HashSet<>(stereotypes);
+		this.superTypes = null;
+		this.conditional = false;
+		this.beanMethods = null;
+	}
+
+	public ItemMetadata(String type, Set<String> stereotypes, Set<String> superTypes,
+			boolean conditional, List<String> beanMethods) {
+
+		this.type = type;
+		this.stereotypes = new HashSet<>(stereotypes);
+		this.superTypes = new LinkedHashSet<>(superTypes);
+		this.conditional = conditional;
+		this.beanMethods = new ArrayList<>(beanMethods);
 	}
 
 
@@ -49,4 +76,35 @@ class ItemMetadata {
 		return this.stereotypes;
 	}
 
+	/**
+	 * Return whether this entry holds details on the type.
+	 */
+	public boolean hasDetails() {
+		return (this.superTypes != null);
+	}
+
+	/**
+	 * Return the super classes and interfaces of the type, excluding
+	 * {@code java.lang.Object}, or {@code null} if not known.
+	 */
+	public Set<String> getSuperTypes() {
+		return this.superTypes;
+	}
+
+	/**
+	 * Return whether the type is annotated or meta-annotated with {@code @Conditional}.
+	 */
+	public boolean isConditional() {
+		return this.conditional;
+	}
+
+	/**
+	 * Return the signatures of the {@code @Bean} methods of the type,
+	 * or {@code null} if not known.
+	 * @see TypeDetailsProvider#getBeanMethods
+	 */
+	public List<String> getBeanMethods() {
+		return this.beanMethods;
+	}
+
 }
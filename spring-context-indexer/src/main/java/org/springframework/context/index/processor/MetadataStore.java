@@ -25,7 +25,8 @@ import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 
 /**
- * Store {@link CandidateComponentsMetadata} on the filesystem.
+ * Store {@link CandidateComponentsMetadata} on the filesystem, along with the
+ * details of the candidate types in a separate file.
  *
  * @author Stephane Nicoll
  * @since 5.0
@@ -34,6 +35,8 @@ class MetadataStore {
 
 	static final String METADATA_PATH = "META-INF/spring.components";
 
+	static final String DETAILS_PATH = "META-INF/spring.components.details";
+
 	private final ProcessingEnvironment environment;
 
 
@@ -43,8 +46,16 @@ class MetadataStore {
 
 
 	public CandidateComponentsMetadata readMetadata() {
-		try {
-			return readMetadata(getMetadataResource().openInputStream());
+		try (InputStream in = getResource(METADATA_PATH).openInputStream()) {
+			InputStream detailsIn = openDetails();
+			try {
+				return PropertiesMarshaller.read(in, detailsIn);
+			}
+			finally {
+				if (detailsIn != null) {
+					detailsIn.close();
+				}
+			}
 		}
 		catch (IOException ex) {
 			// Failed to read metadata -> ignore.
@@ -54,28 +65,34 @@ class MetadataStore {
 
 	public void writeMetadata(CandidateComponentsMetadata metadata) throws IOException {
 		if (!metadata.getItems().isEmpty()) {
-			try (OutputStream outputStream = createMetadataResource().openOutputStream()) {
+			try (OutputStream outputStream = createResource(METADATA_PATH).openOutputStream()) {
 				PropertiesMarshaller.write(metadata, outputStream);
 			}
+			if (metadata.getItems().stream().anyMatch(ItemMetadata::hasDetails)) {
+				try (OutputStream outputStream = createResource(DETAILS_PATH).openOutputStream()) {
+					PropertiesMarshaller.writeDetails(metadata, outputStream);
+				}
+			}
 		}
 	}
 
 
-	private CandidateComponentsMetadata readMetadata(InputStream in) throws IOException {
+	private InputStream openDetails() {
 		try {
-			return PropertiesMarshaller.read(in);
+			return getResource(DETAILS_PATH).openInputStream();
 		}
-		finally {
-			in.close();
+		catch (IOException ex) {
+			// Written by a previous version -> no details.
+			return null;
 		}
 	}
 
-	private FileObject getMetadataResource() throws IOException {
-		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+	private FileObject getResource(String path) throws IOException {
+		return this.environment.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
-	private FileObject createMetadataResource() throws IOException {
-		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", METADATA_PATH);
+	private FileObject createResource(String path) throws IOException {
+		return this.environment.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,34 +20,86 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
 /**
  * Marshaller to write {@link CandidateComponentsMetadata} as properties.
  *
+ * <p>The stereotypes of each type are written to the index using the type as
+ * key, while the details of each type are written separately using the type
+ * followed by a suffix for each detail as key, e.g. {@code com.example.Foo#superTypes}.
+ *
  * @author Stephane Nicoll
  * @author Vedran Pavic
  * @since 5.0
  */
 abstract class PropertiesMarshaller {
 
+	static final String SUPER_TYPES_SUFFIX = "#superTypes";
+
+	static final String CONDITIONAL_SUFFIX = "#conditional";
+
+	static final String BEAN_METHODS_SUFFIX = "#beanMethods";
+
+
 	public static void write(CandidateComponentsMetadata metadata, OutputStream out) throws IOException {
 		Properties props = new SortedProperties(true);
 		metadata.getItems().forEach(m -> props.put(m.getType(), String.join(",", m.getStereotypes())));
 		props.store(out, null);
 	}
 
+	public static void writeDetails(CandidateComponentsMetadata metadata, OutputStream out) throws IOException {
+		Properties props = new SortedProperties(true);
+		for (ItemMetadata item : metadata.getItems()) {
+			if (item.hasDetails()) {
+				props.put(item.getType() + SUPER_TYPES_SUFFIX, String.join(",", item.getSuperTypes()));
+				if (item.isConditional()) {
+					props.put(item.getType() + CONDITIONAL_SUFFIX, "true");
+				}
+				if (!item.getBeanMethods().isEmpty()) {
+					props.put(item.getType() + BEAN_METHODS_SUFFIX, String.join(";", item.getBeanMethods()));
+				}
+			}
+		}
+		props.store(out, null);
+	}
+
 	public static CandidateComponentsMetadata read(InputStream in) throws IOException {
+		return read(in, null);
+	}
+
+	public static CandidateComponentsMetadata read(InputStream in, InputStream detailsIn) throws IOException {
 		CandidateComponentsMetadata result = new CandidateComponentsMetadata();
 		Properties props = new Properties();
 		props.load(in);
+		Properties details = new Properties();
+		if (detailsIn != null) {
+			details.load(detailsIn);
+		}
 		props.forEach((type, value) -> {
 			Set<String> candidates = new HashSet<>(Arrays.asList(((String) value).split(",")));
-			result.add(new ItemMetadata((String) type, candidates));
+			String superTypes = details.getProperty(type + SUPER_TYPES_SUFFIX);
+			if (superTypes != null) {
+				result.add(new ItemMetadata((String) type, candidates,
+						new LinkedHashSet<>(split(superTypes, ",")),
+						Boolean.parseBoolean(details.getProperty(type + CONDITIONAL_SUFFIX)),
+						split(details.getProperty(type + BEAN_METHODS_SUFFIX), ";")));
+			}
+			else {
+				result.add(new ItemMetadata((String) type, candidates));
+			}
 		});
 		return result;
 	}
 
+	private static List<String> split(String value, String separator) {
+		return (value != null && !value.isEmpty() ?
+				Arrays.asList(value.split(separator)) : Collections.emptyList());
+	}
+
 }
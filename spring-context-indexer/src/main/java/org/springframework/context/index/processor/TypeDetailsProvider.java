@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * Provide the details of a candidate type that are recorded in addition
+ * to its stereotypes: its type hierarchy, the presence of conditions and
+ * the signatures of its {@code @Bean} methods.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+class TypeDetailsProvider {
+
+	private static final String CONDITIONAL_ANNOTATION = "org.springframework.context.annotation.Conditional";
+
+	private static final String BEAN_ANNOTATION = "org.springframework.context.annotation.Bean";
+
+	private static final String OBJECT_TYPE = "java.lang.Object";
+
+	private final TypeHelper typeHelper;
+
+
+	public TypeDetailsProvider(TypeHelper typeHelper) {
+		this.typeHelper = typeHelper;
+	}
+
+
+	/**
+	 * Return the names of all super classes and interfaces of the specified
+	 * type, excluding {@code java.lang.Object}.
+	 */
+	public Set<String> getSuperTypes(Element type) {
+		Set<String> superTypes = new LinkedHashSet<>();
+		collectSuperTypes(type, superTypes);
+		return superTypes;
+	}
+
+	private void collectSuperTypes(Element type, Set<String> superTypes) {
+		Element superClass = this.typeHelper.getSuperClass(type);
+		if (superClass != null) {
+			String name = this.typeHelper.getType(superClass);
+			if (!OBJECT_TYPE.equals(name) && superTypes.add(name)) {
+				collectSuperTypes(superClass, superTypes);
+			}
+		}
+		for (Element directInterface : this.typeHelper.getDirectInterfaces(type)) {
+			if (superTypes.add(this.typeHelper.getType(directInterface))) {
+				collectSuperTypes(directInterface, superTypes);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the specified type is annotated or meta-annotated with
+	 * {@value #CONDITIONAL_ANNOTATION}, e.g. through {@code @Profile}.
+	 */
+	public boolean isConditional(Element type) {
+		return hasAnnotation(type, CONDITIONAL_ANNOTATION, new HashSet<>());
+	}
+
+	/**
+	 * Return the signatures of the {@value #BEAN_ANNOTATION} methods of the specified
+	 * type and its super classes, in the form {@code name(parameterTypes):returnType}
+	 * using the erasure of each type, e.g. {@code dataSource(java.lang.String):javax.sql.DataSource}.
+	 */
+	public List<String> getBeanMethods(Element type) {
+		List<String> beanMethods = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		Element current = type;
+		while (current != null && !this.typeHelper.getType(current).startsWith("java.")) {
+			for (Element enclosed : current.getEnclosedElements()) {
+				if (enclosed.getKind() == ElementKind.METHOD &&
+						hasAnnotation(enclosed, BEAN_ANNOTATION, new HashSet<>())) {
+					ExecutableElement method = (ExecutableElement) enclosed;
+					StringJoiner parameters = new StringJoiner(",", method.getSimpleName() + "(", ")");
+					for (VariableElement parameter : method.getParameters()) {
+						parameters.add(this.typeHelper.getErasedType(parameter.asType()));
+					}
+					// An overriding method takes precedence over the one it overrides
+					if (seen.add(parameters.toString())) {
+						beanMethods.add(parameters + ":" + this.typeHelper.getErasedType(method.getReturnType()));
+					}
+				}
+			}
+			current = this.typeHelper.getSuperClass(current);
+		}
+		return beanMethods;
+	}
+
+	private boolean hasAnnotation(Element element, String annotationType, Set<Element> seen) {
+		for (AnnotationMirror annotation : this.typeHelper.getAllAnnotationMirrors(element)) {
+			if (annotationType.equals(this.typeHelper.getType(annotation))) {
+				return true;
+			}
+			Element annotationElement = annotation.getAnnotationType().asElement();
+			if (!annotationElement.toString().startsWith("java.lang") && seen.add(annotationElement) &&
+					hasAnnotation(annotationElement, annotationType, seen)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
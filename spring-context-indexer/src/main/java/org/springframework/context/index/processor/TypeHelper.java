@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -73,6 +73,13 @@ class TypeHelper {
 		return type.toString();
 	}
 
+	/**
+	 * Return the name of the erasure of the specified {@link TypeMirror}.
+	 */
+	public String getErasedType(TypeMirror type) {
+		return getType(this.types.erasure(type));
+	}
+
 	private String getQualifiedName(Element element) {
 		if (element instanceof QualifiedNameable) {
 			return ((QualifiedNameable) element).getQualifiedName().toString();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.context.index.processor;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 
 import javax.annotation.ManagedBean;
@@ -47,6 +48,8 @@ import org.springframework.context.index.sample.SampleService;
 import org.springframework.context.index.sample.cdi.SampleManagedBean;
 import org.springframework.context.index.sample.cdi.SampleNamed;
 import org.springframework.context.index.sample.cdi.SampleTransactional;
+import org.springframework.context.index.sample.config.AbstractSampleConfiguration;
+import org.springframework.context.index.sample.config.SampleConfiguration;
 import org.springframework.context.index.sample.jpa.SampleConverter;
 import org.springframework.context.index.sample.jpa.SampleEmbeddable;
 import org.springframework.context.index.sample.jpa.SampleEntity;
@@ -218,6 +221,30 @@ class CandidateComponentsIndexerTests {
 		assertThat(metadata.getItems()).hasSize(0);
 	}
 
+	@Test
+	void typeDetails() {
+		CandidateComponentsMetadata metadata = compile(SampleConfiguration.class);
+		assertThat(metadata.getItems()).hasSize(1);
+		ItemMetadata item = metadata.getItems().get(0);
+		assertThat(item.hasDetails()).isTrue();
+		assertThat(item.getSuperTypes()).containsExactly(
+				AbstractSampleConfiguration.class.getName(), "java.io.Serializable");
+		assertThat(item.isConditional()).isTrue();
+		assertThat(item.getBeanMethods()).containsExactly(
+				"names(java.lang.String,int[]):java.util.List", "name():java.lang.String",
+				"counter():java.lang.Integer");
+	}
+
+	@Test
+	void typeDetailsWithoutHierarchyConditionsAndBeanMethods() {
+		CandidateComponentsMetadata metadata = compile(SampleComponent.class);
+		ItemMetadata item = metadata.getItems().get(0);
+		assertThat(item.hasDetails()).isTrue();
+		assertThat(item.getSuperTypes()).isEmpty();
+		assertThat(item.isConditional()).isFalse();
+		assertThat(item.getBeanMethods()).isEmpty();
+	}
+
 	private void testComponent(Class<?>... classes) {
 		CandidateComponentsMetadata metadata = compile(classes);
 		for (Class<?> c : classes) {
@@ -246,9 +273,11 @@ class CandidateComponentsIndexerTests {
 
 	private CandidateComponentsMetadata readGeneratedMetadata(File outputLocation) {
 		File metadataFile = new File(outputLocation, MetadataStore.METADATA_PATH);
+		File detailsFile = new File(outputLocation, MetadataStore.DETAILS_PATH);
 		if (metadataFile.isFile()) {
-			try (FileInputStream fileInputStream = new FileInputStream(metadataFile)) {
-				CandidateComponentsMetadata metadata = PropertiesMarshaller.read(fileInputStream);
+			try (FileInputStream fileInputStream = new FileInputStream(metadataFile);
+					InputStream detailsInputStream = (detailsFile.isFile() ? new FileInputStream(detailsFile) : null)) {
+				CandidateComponentsMetadata metadata = PropertiesMarshaller.read(fileInputStream, detailsInputStream);
 				return metadata;
 			}
 			catch (IOException ex) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 import org.junit.jupiter.api.Test;
 
@@ -63,6 +65,43 @@ public class PropertiesMarshallerTests {
 		assertThat(contents.split(System.lineSeparator())).containsExactly("com.a=type", "com.b=type", "com.c=type");
 	}
 
+	@Test
+	public void readWriteDetails() throws IOException {
+		CandidateComponentsMetadata metadata = new CandidateComponentsMetadata();
+		metadata.add(new ItemMetadata("com.foo", Collections.singleton("first"),
+				new LinkedHashSet<>(Arrays.asList("com.Base", "com.Api")), true,
+				Arrays.asList("one():com.One", "two(com.One,int):com.Two")));
+		metadata.add(new ItemMetadata("com.bar", Collections.singleton("first"),
+				Collections.emptySet(), false, Collections.emptyList()));
+		metadata.add(createItem("com.baz", "first"));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		PropertiesMarshaller.write(metadata, outputStream);
+		ByteArrayOutputStream detailsOutputStream = new ByteArrayOutputStream();
+		PropertiesMarshaller.writeDetails(metadata, detailsOutputStream);
+		CandidateComponentsMetadata readMetadata = PropertiesMarshaller.read(
+				new ByteArrayInputStream(outputStream.toByteArray()),
+				new ByteArrayInputStream(detailsOutputStream.toByteArray()));
+		assertThat(readMetadata.getItems()).hasSize(3);
+		assertThat(readMetadata.getItems()).anySatisfy(item -> {
+			assertThat(item.getType()).isEqualTo("com.foo");
+			assertThat(item.getSuperTypes()).containsExactly("com.Base", "com.Api");
+			assertThat(item.isConditional()).isTrue();
+			assertThat(item.getBeanMethods()).containsExactly("one():com.One", "two(com.One,int):com.Two");
+		});
+		assertThat(readMetadata.getItems()).anySatisfy(item -> {
+			assertThat(item.getType()).isEqualTo("com.bar");
+			assertThat(item.hasDetails()).isTrue();
+			assertThat(item.getSuperTypes()).isEmpty();
+			assertThat(item.isConditional()).isFalse();
+			assertThat(item.getBeanMethods()).isEmpty();
+		});
+		assertThat(readMetadata.getItems()).anySatisfy(item -> {
+			assertThat(item.getType()).isEqualTo("com.baz");
+			assertThat(item.hasDetails()).isFalse();
+		});
+	}
+
 	private static ItemMetadata createItem(String type, String... stereotypes) {
 		return new ItemMetadata(type, new HashSet<>(Arrays.asList(stereotypes)));
 	}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.context.index.sample.config;
+
+import java.io.Serializable;
+
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Base class declaring {@link Bean @Bean} methods, one of which is overridden.
+ *
+ * @author haozhifeng
+ */
+public abstract class AbstractSampleConfiguration implements Serializable {
+
+	@Bean
+	public String name() {
+		return "base";
+	}
+
+	@Bean
+	public Integer counter() {
+		return 1;
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.context.index.sample.config;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Test candidate for a conditional {@link Configuration} class.
+ *
+ * @author haozhifeng
+ */
+@Configuration
+@Profile("sample")
+public class SampleConfiguration extends AbstractSampleConfiguration {
+
+	@Bean
+	public List<String> names(String name, int[] indexes) {
+		return Collections.singletonList(name);
+	}
+
+	@Override
+	@Bean
+	public String name() {
+		return "sample";
+	}
+
+	public String notABean() {
+		return "none";
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.cache.transaction;
 import java.util.concurrent.Callable;
 
 import org.springframework.cache.Cache;
+import org.springframework.cache.CacheStatistics;
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
@@ -152,4 +153,10 @@ public class TransactionAwareCacheDecorator implements Cache {
 		return this.targetCache.invalidate();
 	}
 
+	@Override
+	@Nullable
+	public CacheStatistics getStatistics() {
+		return this.targetCache.getStatistics();
+	}
+
 }
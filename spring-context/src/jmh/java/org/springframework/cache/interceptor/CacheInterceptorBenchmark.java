@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Method;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Benchmark for the overhead of the {@link CacheInterceptor} on cache hits.
+ * Run with {@code -prof gc} to compare allocation rates, and compare the
+ * {@code keyExpression} case with the {@code keyGenerator} case for the
+ * cost of a SpEL key over a hand-written {@link KeyGenerator}.
+ *
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.Throughput)
+public class CacheInterceptorBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public Service target;
+
+		public Service proxy;
+
+		@Setup
+		public void setup() {
+			CacheInterceptor interceptor = new CacheInterceptor();
+			interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+			interceptor.setCacheManager(new ConcurrentMapCacheManager());
+			StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+			beanFactory.addBean("nameKeyGenerator", new NameKeyGenerator());
+			interceptor.setBeanFactory(beanFactory);
+			interceptor.afterPropertiesSet();
+			interceptor.afterSingletonsInstantiated();
+
+			this.target = new Service();
+			ProxyFactory proxyFactory = new ProxyFactory(this.target);
+			proxyFactory.setProxyTargetClass(true);
+			proxyFactory.addAdvice(interceptor);
+			this.proxy = (Service) proxyFactory.getProxy();
+		}
+	}
+
+	@Benchmark
+	public String direct(BenchmarkState state) {
+		return state.target.singleArgument(42L);
+	}
+
+	@Benchmark
+	public String noArgument(BenchmarkState state) {
+		return state.proxy.noArgument();
+	}
+
+	@Benchmark
+	public String singleArgument(BenchmarkState state) {
+		return state.proxy.singleArgument(42L);
+	}
+
+	@Benchmark
+	public String twoArguments(BenchmarkState state) {
+		return state.proxy.twoArguments(42L, "test");
+	}
+
+	@Benchmark
+	public String keyExpression(BenchmarkState state) {
+		return state.proxy.keyExpression(42L, "test");
+	}
+
+	@Benchmark
+	public String keyGenerator(BenchmarkState state) {
+		return state.proxy.keyGenerator(42L, "test");
+	}
+
+	@Benchmark
+	public String condition(BenchmarkState state) {
+		return state.proxy.condition(42L);
+	}
+
+
+	public static class Service {
+
+		@Cacheable("noArgument")
+		public String noArgument() {
+			return "value";
+		}
+
+		@Cacheable("singleArgument")
+		public String singleArgument(long id) {
+			return "value" + id;
+		}
+
+		@Cacheable("twoArguments")
+		public String twoArguments(long id, String name) {
+			return name + id;
+		}
+
+		@Cacheable(cacheNames = "keyExpression", key = "#name")
+		public String keyExpression(long id, String name) {
+			return name + id;
+		}
+
+		@Cacheable(cacheNames = "keyGenerator", keyGenerator = "nameKeyGenerator")
+		public String keyGenerator(long id, String name) {
+			return name + id;
+		}
+
+		@Cacheable(cacheNames = "condition", condition = "#id > 0")
+		public String condition(long id) {
+			return "value" + id;
+		}
+	}
+
+
+	private static class NameKeyGenerator implements KeyGenerator {
+
+		@Override
+		public Object generate(Object target, Method method, Object... params) {
+			return params[1];
+		}
+	}
+
+}
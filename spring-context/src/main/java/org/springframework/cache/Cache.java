@@ -17,6 +17,8 @@
 package org.springframework.cache;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 
@@ -100,6 +102,67 @@ public interface Cache {
 	@Nullable
 	<T> T get(Object key, Callable<T> valueLoader);
 
+	/**
+	 * Return the value to which this cache maps the specified key, wrapped in
+	 * a {@link CompletableFuture}. This operation must not block but is allowed
+	 * to return a completed {@code CompletableFuture} if the corresponding value
+	 * is immediately available.
+	 * <p>Returns {@code null} if the cache can immediately determine that it
+	 * contains no mapping for this key. Otherwise, the returned future completes
+	 * with a {@link ValueWrapper} holding the cached value (which may be
+	 * {@code null} itself), or with {@code null} in case of a cache miss that is
+	 * only determined late.
+	 * <p>The default implementation delegates to {@link #get(Object)}, returning
+	 * a completed future. Cache providers with a remote or otherwise blocking
+	 * backend are encouraged to implement this method in a non-blocking fashion.
+	 * @param key the key whose associated value is to be returned
+	 * @return the value to which this cache maps the specified key, contained
+	 * within a {@link CompletableFuture}, or {@code null} if the cache contains
+	 * no mapping for this key
+	 * @since 5.3.24
+	 * @see #retrieve(Object, Supplier)
+	 */
+	@Nullable
+	default CompletableFuture<?> retrieve(Object key) {
+		ValueWrapper valueWrapper = get(key);
+		return (valueWrapper != null ? CompletableFuture.completedFuture(valueWrapper) : null);
+	}
+
+	/**
+	 * Return the value to which this cache maps the specified key, obtaining
+	 * that value from {@code valueLoader} if necessary. This method is the
+	 * non-blocking counterpart of {@link #get(Object, Callable)}, where the
+	 * value loader provides a {@link CompletableFuture} for the value, which
+	 * gets stored once it completes.
+	 * <p>If possible, implementations should ensure that the loading operation
+	 * is coalesced so that the specified {@code valueLoader} is only called
+	 * once in case of concurrent access on the same key.
+	 * <p>The default implementation delegates to {@link #retrieve(Object)} and,
+	 * in case of a miss, {@link #put(Object, Object)}, without coalescing.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the provider of a future for the value to cache
+	 * @return a future for the value to which this cache maps the specified key,
+	 * completing exceptionally if the future of the {@code valueLoader} does
+	 * @since 5.3.24
+	 * @see #retrieve(Object)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		CompletableFuture<?> cached = retrieve(key);
+		if (cached == null) {
+			cached = CompletableFuture.completedFuture(null);
+		}
+		return cached.thenCompose(value -> {
+			if (value != null) {
+				return CompletableFuture.completedFuture((T) ((ValueWrapper) value).get());
+			}
+			return valueLoader.get().thenApply(loaded -> {
+				put(key, loaded);
+				return loaded;
+			});
+		});
+	}
+
 	/**
 	 * Associate the specified value with the specified key in this cache.
 	 * <p>If the cache previously contained a mapping for this key, the old
@@ -206,6 +269,18 @@ public interface Cache {
 		return false;
 	}
 
+	/**
+	 * Return a snapshot of the hit, miss and eviction counts of this cache.
+	 * <p>The default implementation returns {@code null}, indicating that the
+	 * cache does not record statistics.
+	 * @return the current statistics, or {@code null} if not supported
+	 * @since 5.3.24
+	 */
+	@Nullable
+	default CacheStatistics getStatistics() {
+		return null;
+	}
+
 
 	/**
 	 * A (wrapper) object representing a cache value.
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Immutable snapshot of the statistics of a {@link Cache}.
+ *
+ * <p>Hits and misses are recorded for lookups, including
+ * {@link Cache#get(Object, java.util.concurrent.Callable)}. Evictions are
+ * entries removed by the cache itself, because of a size bound or an
+ * expiration, as opposed to entries removed through {@link Cache#evict}.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see Cache#getStatistics()
+ */
+public final class CacheStatistics {
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long evictionCount;
+
+
+	/**
+	 * Create a new {@code CacheStatistics} instance.
+	 * @param hitCount the number of lookups that found a cached value
+	 * @param missCount the number of lookups that did not find a cached value
+	 * @param evictionCount the number of entries evicted by the cache
+	 */
+	public CacheStatistics(long hitCount, long missCount, long evictionCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+
+	/**
+	 * Return the number of lookups that found a cached value.
+	 */
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * Return the number of lookups that did not find a cached value.
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Return the number of lookups, i.e. the sum of hits and misses.
+	 */
+	public long getRequestCount() {
+		return this.hitCount + this.missCount;
+	}
+
+	/**
+	 * Return the ratio of lookups that found a cached value, or {@code 1.0}
+	 * if there were no lookups.
+	 */
+	public double getHitRate() {
+		long requestCount = getRequestCount();
+		return (requestCount != 0 ? (double) this.hitCount / requestCount : 1.0);
+	}
+
+	/**
+	 * Return the number of entries evicted by the cache.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CacheStatistics)) {
+			return false;
+		}
+		CacheStatistics otherStatistics = (CacheStatistics) other;
+		return (this.hitCount == otherStatistics.hitCount && this.missCount == otherStatistics.missCount &&
+				this.evictionCount == otherStatistics.evictionCount);
+	}
+
+	@Override
+	public int hashCode() {
+		return (Long.hashCode(this.hitCount) * 31 + Long.hashCode(this.missCount)) * 31 +
+				Long.hashCode(this.evictionCount);
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStatistics[hits=" + this.hitCount + ", misses=" + this.missCount +
+				", evictions=" + this.evictionCount + "]";
+	}
+
+}
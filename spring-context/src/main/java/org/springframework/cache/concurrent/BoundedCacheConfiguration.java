@@ -0,0 +1,271 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongBiFunction;
+
+import org.springframework.util.Assert;
+
+/**
+ * Immutable configuration for a {@link BoundedConcurrentCache}: size or weight
+ * bound, expiration, refresh-ahead and concurrency level. Each configuration
+ * method returns a new instance, starting from {@link #defaultConfig()}.
+ *
+ * <pre class="code">
+ * BoundedCacheConfiguration config = BoundedCacheConfiguration.defaultConfig()
+ *         .maximumSize(10_000)
+ *         .expireAfterWrite(Duration.ofMinutes(10));
+ * </pre>
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BoundedConcurrentCache
+ * @see ConcurrentMapCacheManager#setCacheConfiguration
+ */
+public final class BoundedCacheConfiguration {
+
+	/**
+	 * Constant for an unbounded weight, i.e. no size-based eviction.
+	 */
+	public static final long UNBOUNDED = Long.MAX_VALUE;
+
+	private static final ToLongBiFunction<Object, Object> SINGLETON_WEIGHER = (key, value) -> 1;
+
+	private static final BoundedCacheConfiguration DEFAULT = new BoundedCacheConfiguration(
+			UNBOUNDED, SINGLETON_WEIGHER, Duration.ZERO, Duration.ZERO, Duration.ZERO,
+			ForkJoinPool.commonPool(), 16, Clock.systemUTC());
+
+
+	private final long maximumWeight;
+
+	private final ToLongBiFunction<Object, Object> weigher;
+
+	private final Duration expireAfterWrite;
+
+	private final Duration expireAfterAccess;
+
+	private final Duration refreshAfterWrite;
+
+	private final Executor refreshExecutor;
+
+	private final int concurrencyLevel;
+
+	private final Clock clock;
+
+
+	private BoundedCacheConfiguration(long maximumWeight, ToLongBiFunction<Object, Object> weigher,
+			Duration expireAfterWrite, Duration expireAfterAccess, Duration refreshAfterWrite,
+			Executor refreshExecutor, int concurrencyLevel, Clock clock) {
+
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.expireAfterWrite = expireAfterWrite;
+		this.expireAfterAccess = expireAfterAccess;
+		this.refreshAfterWrite = refreshAfterWrite;
+		this.refreshExecutor = refreshExecutor;
+		this.concurrencyLevel = concurrencyLevel;
+		this.clock = clock;
+	}
+
+
+	/**
+	 * Return the default configuration: no bound, no expiration, no refresh
+	 * and a concurrency level of 16.
+	 */
+	public static BoundedCacheConfiguration defaultConfig() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Limit the number of entries of the cache, evicting the least recently
+	 * used entries once the limit is exceeded.
+	 * @param maximumSize the maximum number of entries
+	 */
+	public BoundedCacheConfiguration maximumSize(long maximumSize) {
+		return maximumWeight(maximumSize, SINGLETON_WEIGHER);
+	}
+
+	/**
+	 * Limit the total weight of the entries of the cache, evicting the least
+	 * recently used entries once the limit is exceeded.
+	 * @param maximumWeight the maximum total weight
+	 * @param weigher the function that computes the weight of an entry from its
+	 * key and its value as stored, i.e. after the {@code null} value conversion
+	 * and serialization of the cache, if any; weights must not be negative
+	 */
+	public BoundedCacheConfiguration maximumWeight(long maximumWeight, ToLongBiFunction<Object, Object> weigher) {
+		Assert.isTrue(maximumWeight >= 0, "Maximum weight must not be negative");
+		Assert.notNull(weigher, "Weigher must not be null");
+		return new BoundedCacheConfiguration(maximumWeight, weigher,
+				this.expireAfterWrite, this.expireAfterAccess, this.refreshAfterWrite,
+				this.refreshExecutor, this.concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Expire entries once the given duration has elapsed since they were
+	 * last written.
+	 * @param expireAfterWrite the time-to-live, or {@link Duration#ZERO}
+	 * for no expiration
+	 */
+	public BoundedCacheConfiguration expireAfterWrite(Duration expireAfterWrite) {
+		Assert.isTrue(!expireAfterWrite.isNegative(), "Expiration must not be negative");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				expireAfterWrite, this.expireAfterAccess, this.refreshAfterWrite,
+				this.refreshExecutor, this.concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Expire entries once the given duration has elapsed since they were
+	 * last written or read.
+	 * @param expireAfterAccess the time-to-idle, or {@link Duration#ZERO}
+	 * for no expiration
+	 */
+	public BoundedCacheConfiguration expireAfterAccess(Duration expireAfterAccess) {
+		Assert.isTrue(!expireAfterAccess.isNegative(), "Expiration must not be negative");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				this.expireAfterWrite, expireAfterAccess, this.refreshAfterWrite,
+				this.refreshExecutor, this.concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Reload entries in the background once the given duration has elapsed
+	 * since they were last written, serving the current value meanwhile.
+	 * <p>Refreshes are triggered by {@link BoundedConcurrentCache#get(Object,
+	 * java.util.concurrent.Callable) get} calls with a value loader, as issued
+	 * for {@code @Cacheable(sync = true)} methods, and run on the
+	 * {@link #refreshExecutor(Executor) refresh executor}, one at a time per key.
+	 * A failed refresh keeps the current value. The duration is typically
+	 * shorter than the {@link #expireAfterWrite(Duration) time-to-live}, so that
+	 * hot entries are reloaded before they expire.
+	 * @param refreshAfterWrite the age of entries to refresh, or
+	 * {@link Duration#ZERO} for no refresh
+	 */
+	public BoundedCacheConfiguration refreshAfterWrite(Duration refreshAfterWrite) {
+		Assert.isTrue(!refreshAfterWrite.isNegative(), "Refresh duration must not be negative");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				this.expireAfterWrite, this.expireAfterAccess, refreshAfterWrite,
+				this.refreshExecutor, this.concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Set the executor to refresh entries with.
+	 * <p>Default is the {@link ForkJoinPool#commonPool() common pool}.
+	 * @param refreshExecutor the executor to use
+	 * @see #refreshAfterWrite(Duration)
+	 */
+	public BoundedCacheConfiguration refreshExecutor(Executor refreshExecutor) {
+		Assert.notNull(refreshExecutor, "Executor must not be null");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				this.expireAfterWrite, this.expireAfterAccess, this.refreshAfterWrite,
+				refreshExecutor, this.concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Set the expected number of threads updating the cache concurrently,
+	 * which determines the number of independently locked segments.
+	 * <p>Default is 16.
+	 * @param concurrencyLevel the concurrency level
+	 */
+	public BoundedCacheConfiguration concurrencyLevel(int concurrencyLevel) {
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				this.expireAfterWrite, this.expireAfterAccess, this.refreshAfterWrite,
+				this.refreshExecutor, concurrencyLevel, this.clock);
+	}
+
+	/**
+	 * Set the clock to determine the expiration of entries with.
+	 * <p>Default is the {@link Clock#systemUTC() system clock}.
+	 * @param clock the clock to use
+	 */
+	public BoundedCacheConfiguration clock(Clock clock) {
+		Assert.notNull(clock, "Clock must not be null");
+		return new BoundedCacheConfiguration(this.maximumWeight, this.weigher,
+				this.expireAfterWrite, this.expireAfterAccess, this.refreshAfterWrite,
+				this.refreshExecutor, this.concurrencyLevel, clock);
+	}
+
+
+	/**
+	 * Return the maximum total weight, or {@link #UNBOUNDED}.
+	 */
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+
+	/**
+	 * Return the function that computes the weight of an entry.
+	 */
+	public ToLongBiFunction<Object, Object> getWeigher() {
+		return this.weigher;
+	}
+
+	/**
+	 * Return the time-to-live of entries, or {@link Duration#ZERO} if none.
+	 */
+	public Duration getExpireAfterWrite() {
+		return this.expireAfterWrite;
+	}
+
+	/**
+	 * Return the time-to-idle of entries, or {@link Duration#ZERO} if none.
+	 */
+	public Duration getExpireAfterAccess() {
+		return this.expireAfterAccess;
+	}
+
+	/**
+	 * Return the age of entries to refresh, or {@link Duration#ZERO} if none.
+	 */
+	public Duration getRefreshAfterWrite() {
+		return this.refreshAfterWrite;
+	}
+
+	/**
+	 * Return the executor to refresh entries with.
+	 */
+	public Executor getRefreshExecutor() {
+		return this.refreshExecutor;
+	}
+
+	/**
+	 * Return the expected number of threads updating the cache concurrently.
+	 */
+	public int getConcurrencyLevel() {
+		return this.concurrencyLevel;
+	}
+
+	/**
+	 * Return the clock to determine the expiration of entries with.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedCacheConfiguration[maximumWeight=" +
+				(this.maximumWeight != UNBOUNDED ? this.maximumWeight : "unbounded") +
+				", expireAfterWrite=" + this.expireAfterWrite + ", expireAfterAccess=" + this.expireAfterAccess +
+				", refreshAfterWrite=" + this.refreshAfterWrite + ", concurrencyLevel=" + this.concurrencyLevel + "]";
+	}
+
+}
@@ -0,0 +1,601 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cache.CacheStatistics;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.CacheLoadCoalescer;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.cache.Cache} implementation with a bounded size
+ * or weight and optional expiration of entries, based on the core JDK
+ * {@code java.util.concurrent} package.
+ *
+ * <p>Entries are spread over independently locked segments, each evicting
+ * its least recently used entries once its share of the maximum weight is
+ * exceeded. Expired entries are removed when looked up, when they reach the
+ * least recently used end of their segment, and through a periodic sweep of
+ * a segment amortized over its writes.
+ *
+ * <p>Hits, misses and evictions are recorded and exposed through
+ * {@link #getStatistics()}.
+ *
+ * <p>Concurrent {@link #get(Object, Callable)} and {@link #retrieve(Object, Supplier)}
+ * calls for the same key share a single invocation of the value loader, which
+ * runs without holding the lock of the segment of the key. If {@link BoundedCacheConfiguration#refreshAfterWrite
+ * refresh-ahead} is configured, such calls also reload entries older than the
+ * refresh duration in the background, returning the current value meanwhile.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BoundedCacheConfiguration
+ * @see ConcurrentMapCacheManager#setCacheConfiguration
+ */
+public class BoundedConcurrentCache extends AbstractValueAdaptingCache {
+
+	private static final int MIN_SEGMENT_WEIGHT = 20;
+
+	private static final int MIN_SWEEP_INTERVAL = 16;
+
+	private static final Log logger = LogFactory.getLog(BoundedConcurrentCache.class);
+
+
+	private final String name;
+
+	private final BoundedCacheConfiguration configuration;
+
+	private final Segment[] segments;
+
+	private final ToLongBiFunction<Object, Object> weigher;
+
+	private final long expireAfterWriteMillis;
+
+	private final long expireAfterAccessMillis;
+
+	private final long refreshAfterWriteMillis;
+
+	private final Executor refreshExecutor;
+
+	private final Clock clock;
+
+	@Nullable
+	private final SerializationDelegate serialization;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	private final CacheLoadCoalescer loads = new CacheLoadCoalescer();
+
+
+	/**
+	 * Create a new BoundedConcurrentCache with the specified name and configuration.
+	 * @param name the name of the cache
+	 * @param configuration the bounds and expiration of the cache
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 */
+	public BoundedConcurrentCache(String name, BoundedCacheConfiguration configuration, boolean allowNullValues) {
+		this(name, configuration, allowNullValues, null);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentCache with the specified name and configuration.
+	 * If the {@link SerializationDelegate} is specified,
+	 * {@link #isStoreByValue() store-by-value} is enabled.
+	 * @param name the name of the cache
+	 * @param configuration the bounds and expiration of the cache
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 * @param serialization the {@link SerializationDelegate} to use
+	 * to serialize cache entry or {@code null} to store the reference
+	 */
+	protected BoundedConcurrentCache(String name, BoundedCacheConfiguration configuration,
+			boolean allowNullValues, @Nullable SerializationDelegate serialization) {
+
+		super(allowNullValues);
+		Assert.notNull(name, "Name must not be null");
+		Assert.notNull(configuration, "BoundedCacheConfiguration must not be null");
+		this.name = name;
+		this.configuration = configuration;
+		this.segments = createSegments(configuration.getMaximumWeight(), configuration.getConcurrencyLevel());
+		this.weigher = configuration.getWeigher();
+		this.expireAfterWriteMillis = configuration.getExpireAfterWrite().toMillis();
+		this.expireAfterAccessMillis = configuration.getExpireAfterAccess().toMillis();
+		this.refreshAfterWriteMillis = configuration.getRefreshAfterWrite().toMillis();
+		this.refreshExecutor = configuration.getRefreshExecutor();
+		this.clock = configuration.getClock();
+		this.serialization = serialization;
+	}
+
+	private static Segment[] createSegments(long maximumWeight, int concurrencyLevel) {
+		int segmentCount = 1;
+		while (segmentCount < concurrencyLevel &&
+				(maximumWeight == BoundedCacheConfiguration.UNBOUNDED ||
+						segmentCount * 2L * MIN_SEGMENT_WEIGHT <= maximumWeight)) {
+			segmentCount <<= 1;
+		}
+		Segment[] segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			long segmentWeight = (maximumWeight == BoundedCacheConfiguration.UNBOUNDED ? maximumWeight :
+					maximumWeight / segmentCount + (i < maximumWeight % segmentCount ? 1 : 0));
+			segments[i] = new Segment(segmentWeight);
+		}
+		return segments;
+	}
+
+
+	/**
+	 * Return the configuration of this cache.
+	 */
+	public final BoundedCacheConfiguration getConfiguration() {
+		return this.configuration;
+	}
+
+	/**
+	 * Return whether this cache stores a copy of each entry ({@code true}) or
+	 * a reference ({@code false}, default). If store by value is enabled, each
+	 * entry in the cache must be serializable.
+	 */
+	public final boolean isStoreByValue() {
+		return (this.serialization != null);
+	}
+
+	@Override
+	public final String getName() {
+		return this.name;
+	}
+
+	@Override
+	public final BoundedConcurrentCache getNativeCache() {
+		return this;
+	}
+
+	/**
+	 * Return the number of entries in this cache, possibly including expired
+	 * entries that have not been removed yet.
+	 */
+	public long size() {
+		long size = 0;
+		for (Segment segment : this.segments) {
+			segment.lock();
+			try {
+				size += segment.entries.size();
+			}
+			finally {
+				segment.unlock();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public CacheStatistics getStatistics() {
+		return new CacheStatistics(this.hitCount.sum(), this.missCount.sum(), this.evictionCount.sum());
+	}
+
+	@Override
+	@Nullable
+	protected Object lookup(Object key) {
+		Segment segment = segmentFor(key);
+		segment.lock();
+		try {
+			Entry entry = getEntry(segment, key, this.clock.millis());
+			return (entry != null ? entry.value : null);
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nullable
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Segment segment = segmentFor(key);
+		Entry entry;
+		long now;
+		segment.lock();
+		try {
+			now = this.clock.millis();
+			entry = getEntry(segment, key, now);
+		}
+		finally {
+			segment.unlock();
+		}
+		Object storeValue;
+		if (entry != null) {
+			if (needsRefresh(entry, now)) {
+				refresh(key, valueLoader);
+			}
+			storeValue = entry.value;
+		}
+		else {
+			try {
+				storeValue = this.loads.load(key, () -> {
+					// A load for the key may have completed since the lookup
+					Entry existing = peekEntry(segment, key);
+					return (existing != null ? existing.value : loadEntry(segment, key, valueLoader).value);
+				});
+			}
+			catch (Throwable ex) {
+				throw new ValueRetrievalException(key, valueLoader, ex);
+			}
+		}
+		return (T) fromStoreValue(storeValue);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		Segment segment = segmentFor(key);
+		Entry entry;
+		segment.lock();
+		try {
+			entry = getEntry(segment, key, this.clock.millis());
+		}
+		finally {
+			segment.unlock();
+		}
+		if (entry != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(entry.value));
+		}
+		return this.loads.loadFuture(key, () -> valueLoader.get().thenApply(loaded -> {
+			Object value = toStoreValue(loaded);
+			segment.lock();
+			try {
+				return putEntry(segment, key, value, this.clock.millis()).value;
+			}
+			finally {
+				segment.unlock();
+			}
+		})).thenApply(value -> (T) fromStoreValue(value));
+	}
+
+	@Override
+	public void put(Object key, @Nullable Object value) {
+		Object storeValue = toStoreValue(value);
+		Segment segment = segmentFor(key);
+		segment.lock();
+		try {
+			putEntry(segment, key, storeValue, this.clock.millis());
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	@Nullable
+	public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+		Object storeValue = toStoreValue(value);
+		Segment segment = segmentFor(key);
+		segment.lock();
+		try {
+			long now = this.clock.millis();
+			Entry existing = segment.entries.get(key);
+			if (existing != null && !isExpired(existing, now)) {
+				existing.accessTime = now;
+				return toValueWrapper(existing.value);
+			}
+			putEntry(segment, key, storeValue, now);
+			return null;
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		evictIfPresent(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		Segment segment = segmentFor(key);
+		segment.lock();
+		try {
+			Entry entry = segment.entries.remove(key);
+			if (entry == null) {
+				return false;
+			}
+			segment.weight -= entry.weight;
+			return !isExpired(entry, this.clock.millis());
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		invalidate();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean notEmpty = false;
+		for (Segment segment : this.segments) {
+			segment.lock();
+			try {
+				notEmpty |= !segment.entries.isEmpty();
+				segment.entries.clear();
+				segment.weight = 0;
+			}
+			finally {
+				segment.unlock();
+			}
+		}
+		return notEmpty;
+	}
+
+	@Override
+	protected Object toStoreValue(@Nullable Object userValue) {
+		Object storeValue = super.toStoreValue(userValue);
+		if (this.serialization != null) {
+			try {
+				return this.serialization.serializeToByteArray(storeValue);
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to serialize cache value '" + userValue +
+						"'. Does it implement Serializable?", ex);
+			}
+		}
+		else {
+			return storeValue;
+		}
+	}
+
+	@Override
+	protected Object fromStoreValue(@Nullable Object storeValue) {
+		if (storeValue != null && this.serialization != null) {
+			try {
+				return super.fromStoreValue(this.serialization.deserializeFromByteArray((byte[]) storeValue));
+			}
+			catch (Throwable ex) {
+				throw new IllegalArgumentException("Failed to deserialize cache value '" + storeValue + "'", ex);
+			}
+		}
+		else {
+			return super.fromStoreValue(storeValue);
+		}
+	}
+
+
+	private Segment segmentFor(Object key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return this.segments[hash & (this.segments.length - 1)];
+	}
+
+	/**
+	 * Get the live entry for the given key, recording a hit or a miss.
+	 * Must be called while holding the segment lock.
+	 */
+	@Nullable
+	private Entry getEntry(Segment segment, Object key, long now) {
+		Entry entry = segment.entries.get(key);
+		if (entry != null && isExpired(entry, now)) {
+			segment.entries.remove(key);
+			segment.weight -= entry.weight;
+			this.evictionCount.increment();
+			entry = null;
+		}
+		if (entry == null) {
+			this.missCount.increment();
+			return null;
+		}
+		entry.accessTime = now;
+		this.hitCount.increment();
+		return entry;
+	}
+
+	/**
+	 * Get the live entry for the given key, without recording a hit or a miss.
+	 */
+	@Nullable
+	private Entry peekEntry(Segment segment, Object key) {
+		segment.lock();
+		try {
+			Entry entry = segment.entries.get(key);
+			return (entry != null && !isExpired(entry, this.clock.millis()) ? entry : null);
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	/**
+	 * Load the value for the given key and store it, without holding the
+	 * segment lock while loading.
+	 */
+	private Entry loadEntry(Segment segment, Object key, Callable<?> valueLoader) throws Exception {
+		Object value = toStoreValue(valueLoader.call());
+		segment.lock();
+		try {
+			return putEntry(segment, key, value, this.clock.millis());
+		}
+		finally {
+			segment.unlock();
+		}
+	}
+
+	private boolean needsRefresh(Entry entry, long now) {
+		return (this.refreshAfterWriteMillis != 0 && now - entry.writeTime >= this.refreshAfterWriteMillis);
+	}
+
+	/**
+	 * Reload the value for the given key in the background, unless a load
+	 * is in progress for that key already.
+	 */
+	private void refresh(Object key, Callable<?> valueLoader) {
+		Segment segment = segmentFor(key);
+		try {
+			this.loads.loadAsync(key, () -> {
+				// Another refresh may have completed since the lookup
+				Entry existing = peekEntry(segment, key);
+				if (existing != null && !needsRefresh(existing, this.clock.millis())) {
+					return existing.value;
+				}
+				try {
+					return loadEntry(segment, key, valueLoader).value;
+				}
+				catch (Exception ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Failed to refresh value for key '" + key + "' in cache '" + this.name + "'", ex);
+					}
+					throw ex;
+				}
+			}, this.refreshExecutor);
+		}
+		catch (RejectedExecutionException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of value for key '" + key + "' in cache '" + this.name + "' rejected", ex);
+			}
+		}
+	}
+
+	/**
+	 * Add an entry and evict entries as necessary.
+	 * Must be called while holding the segment lock.
+	 */
+	private Entry putEntry(Segment segment, Object key, Object value, long now) {
+		long weight = this.weigher.applyAsLong(key, value);
+		Assert.state(weight >= 0, () -> "Negative weight " + weight + " for cache key '" + key + "'");
+		Entry entry = new Entry(value, weight, now);
+		Entry previous = segment.entries.put(key, entry);
+		if (previous != null) {
+			segment.weight -= previous.weight;
+		}
+		segment.weight += weight;
+		expireEntries(segment, now);
+		evictEntries(segment);
+		return entry;
+	}
+
+	private void expireEntries(Segment segment, long now) {
+		if (this.expireAfterWriteMillis == 0 && this.expireAfterAccessMillis == 0) {
+			return;
+		}
+		// Least recently used entries first
+		Iterator<Entry> it = segment.entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (!isExpired(entry, now)) {
+				break;
+			}
+			removeEvicted(segment, it, entry);
+		}
+		// Entries expiring after write may be anywhere: sweep the segment after
+		// as many writes as it had entries at the last sweep
+		if (this.expireAfterWriteMillis != 0 && ++segment.writesSinceSweep >= segment.sweepInterval) {
+			it = segment.entries.values().iterator();
+			while (it.hasNext()) {
+				Entry entry = it.next();
+				if (isExpired(entry, now)) {
+					removeEvicted(segment, it, entry);
+				}
+			}
+			segment.writesSinceSweep = 0;
+			segment.sweepInterval = Math.max(segment.entries.size(), MIN_SWEEP_INTERVAL);
+		}
+	}
+
+	private void evictEntries(Segment segment) {
+		Iterator<Entry> it = segment.entries.values().iterator();
+		while (segment.weight > segment.maximumWeight && it.hasNext()) {
+			removeEvicted(segment, it, it.next());
+		}
+	}
+
+	private void removeEvicted(Segment segment, Iterator<Entry> it, Entry entry) {
+		it.remove();
+		segment.weight -= entry.weight;
+		this.evictionCount.increment();
+	}
+
+	private boolean isExpired(Entry entry, long now) {
+		return ((this.expireAfterWriteMillis != 0 && now - entry.writeTime >= this.expireAfterWriteMillis) ||
+				(this.expireAfterAccessMillis != 0 && now - entry.accessTime >= this.expireAfterAccessMillis));
+	}
+
+
+	/**
+	 * A segment of the cache, holding entries in access order.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Segment extends ReentrantLock {
+
+		final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		final long maximumWeight;
+
+		long weight;
+
+		int writesSinceSweep;
+
+		int sweepInterval = MIN_SWEEP_INTERVAL;
+
+		Segment(long maximumWeight) {
+			this.maximumWeight = maximumWeight;
+		}
+	}
+
+
+	/**
+	 * A cache entry, with its value as stored.
+	 */
+	private static final class Entry {
+
+		final Object value;
+
+		final long weight;
+
+		final long writeTime;
+
+		long accessTime;
+
+		Entry(Object value, long weight, long writeTime) {
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = writeTime;
+			this.accessTime = writeTime;
+		}
+	}
+
+}
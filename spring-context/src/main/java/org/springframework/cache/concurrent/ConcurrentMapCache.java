@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,13 @@
 package org.springframework.cache.concurrent;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.CacheLoadCoalescer;
 import org.springframework.core.serializer.support.SerializationDelegate;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -38,6 +41,10 @@ import org.springframework.util.Assert;
  * them with a predefined internal object. This behavior can be changed through the
  * {@link #ConcurrentMapCache(String, ConcurrentMap, boolean)} constructor.
  *
+ * <p>Concurrent {@link #get(Object, Callable)} and {@link #retrieve(Object, Supplier)}
+ * calls for the same key share a single invocation of the value loader, without
+ * blocking other keys while the value is loading.
+ *
  * @author Costin Leau
  * @author Juergen Hoeller
  * @author Stephane Nicoll
@@ -53,6 +60,8 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Nullable
 	private final SerializationDelegate serialization;
 
+	private final CacheLoadCoalescer loads = new CacheLoadCoalescer();
+
 
 	/**
 	 * Create a new ConcurrentMapCache with the specified name.
@@ -139,14 +148,39 @@ public class ConcurrentMapCache extends AbstractValueAdaptingCache {
 	@Override
 	@Nullable
 	public <T> T get(Object key, Callable<T> valueLoader) {
-		return (T) fromStoreValue(this.store.computeIfAbsent(key, k -> {
+		Object storeValue = this.store.get(key);
+		if (storeValue == null) {
 			try {
-				return toStoreValue(valueLoader.call());
+				storeValue = this.loads.load(key, () -> {
+					// A load for the key may have completed since the lookup
+					Object existing = this.store.get(key);
+					if (existing != null) {
+						return existing;
+					}
+					Object value = toStoreValue(valueLoader.call());
+					existing = this.store.putIfAbsent(key, value);
+					return (existing != null ? existing : value);
+				});
 			}
 			catch (Throwable ex) {
 				throw new ValueRetrievalException(key, valueLoader, ex);
 			}
-		}));
+		}
+		return (T) fromStoreValue(storeValue);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		Object storeValue = this.store.get(key);
+		if (storeValue != null) {
+			return CompletableFuture.completedFuture((T) fromStoreValue(storeValue));
+		}
+		return this.loads.loadFuture(key, () -> valueLoader.get().thenApply(loaded -> {
+			Object value = toStoreValue(loaded);
+			Object existing = this.store.putIfAbsent(key, value);
+			return (existing != null ? existing : value);
+		})).thenApply(value -> (T) fromStoreValue(value));
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,9 +35,14 @@ import org.springframework.lang.Nullable;
  * the set of cache names is pre-defined through {@link #setCacheNames}, with no
  * dynamic creation of further cache regions at runtime.
  *
- * <p>Note: This is by no means a sophisticated CacheManager; it comes with no
- * cache configuration options. However, it may be useful for testing or simple
- * caching scenarios. For advanced local caching needs, consider
+ * <p>Caches are unbounded by default. A {@link BoundedCacheConfiguration} may be
+ * set for all caches or registered for specific cache names, in which case a
+ * {@link BoundedConcurrentCache} with the given size bound and expiration is
+ * created instead.
+ *
+ * <p>Note: This is by no means a sophisticated CacheManager. However, it may be
+ * useful for testing or simple caching scenarios. For advanced local caching
+ * needs, consider
  * {@link org.springframework.cache.jcache.JCacheCacheManager},
  * {@link org.springframework.cache.ehcache.EhCacheCacheManager},
  * {@link org.springframework.cache.caffeine.CaffeineCacheManager}.
@@ -45,6 +50,7 @@ import org.springframework.lang.Nullable;
  * @author Juergen Hoeller
  * @since 3.1
  * @see ConcurrentMapCache
+ * @see BoundedConcurrentCache
  */
 public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderAware {
 
@@ -59,6 +65,11 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 	@Nullable
 	private SerializationDelegate serialization;
 
+	@Nullable
+	private BoundedCacheConfiguration cacheConfiguration;
+
+	private final Map<String, BoundedCacheConfiguration> cacheConfigurations = new ConcurrentHashMap<>(16);
+
 
 	/**
 	 * Construct a dynamic ConcurrentMapCacheManager,
@@ -146,6 +157,47 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 		return this.storeByValue;
 	}
 
+	/**
+	 * Set the {@link BoundedCacheConfiguration} to create all caches with,
+	 * unless a specific configuration has been
+	 * {@link #registerCacheConfiguration registered} for their name.
+	 * <p>Default is none, creating unbounded {@link ConcurrentMapCache} instances.
+	 * <p>Note: A change of the cache configuration will reset all existing caches,
+	 * if any, to reconfigure them with the new configuration.
+	 * @since 5.3.24
+	 * @see BoundedConcurrentCache
+	 */
+	public void setCacheConfiguration(@Nullable BoundedCacheConfiguration cacheConfiguration) {
+		if (cacheConfiguration != this.cacheConfiguration) {
+			this.cacheConfiguration = cacheConfiguration;
+			// Need to recreate all Cache instances with the new configuration...
+			recreateCaches();
+		}
+	}
+
+	/**
+	 * Return the {@link BoundedCacheConfiguration} to create all caches with, if any.
+	 * @since 5.3.24
+	 */
+	@Nullable
+	public BoundedCacheConfiguration getCacheConfiguration() {
+		return this.cacheConfiguration;
+	}
+
+	/**
+	 * Register a {@link BoundedCacheConfiguration} for the cache with the given
+	 * name, overriding the {@link #setCacheConfiguration common configuration}.
+	 * <p>Note: An existing cache with the given name, if any, will be reset to
+	 * reconfigure it with the new configuration.
+	 * @param name the name of the cache
+	 * @param cacheConfiguration the configuration to create the cache with
+	 * @since 5.3.24
+	 */
+	public void registerCacheConfiguration(String name, BoundedCacheConfiguration cacheConfiguration) {
+		this.cacheConfigurations.put(name, cacheConfiguration);
+		this.cacheMap.computeIfPresent(name, (key, cache) -> createConcurrentMapCache(key));
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.serialization = new SerializationDelegate(classLoader);
@@ -184,12 +236,21 @@ public class ConcurrentMapCacheManager implements CacheManager, BeanClassLoaderA
 	}
 
 	/**
-	 * Create a new ConcurrentMapCache instance for the specified cache name.
+	 * Create a new ConcurrentMapCache instance for the specified cache name,
+	 * or a {@link BoundedConcurrentCache} if a {@link BoundedCacheConfiguration}
+	 * applies to it.
 	 * @param name the name of the cache
 	 * @return the ConcurrentMapCache (or a decorator thereof)
 	 */
 	protected Cache createConcurrentMapCache(String name) {
 		SerializationDelegate actualSerialization = (isStoreByValue() ? this.serialization : null);
+		BoundedCacheConfiguration configuration = this.cacheConfigurations.get(name);
+		if (configuration == null) {
+			configuration = this.cacheConfiguration;
+		}
+		if (configuration != null) {
+			return new BoundedConcurrentCache(name, configuration, isAllowNullValues(), actualSerialization);
+		}
 		return new ConcurrentMapCache(name, new ConcurrentHashMap<>(256), isAllowNullValues(), actualSerialization);
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -84,18 +84,25 @@ public abstract class AbstractCacheResolver implements CacheResolver, Initializi
 		if (cacheNames == null) {
 			return Collections.emptyList();
 		}
+		if (cacheNames.size() == 1) {
+			return Collections.singletonList(getCache(cacheNames.iterator().next(), context));
+		}
 		Collection<Cache> result = new ArrayList<>(cacheNames.size());
 		for (String cacheName : cacheNames) {
-			Cache cache = getCacheManager().getCache(cacheName);
-			if (cache == null) {
-				throw new IllegalArgumentException("Cannot find cache named '" +
-						cacheName + "' for " + context.getOperation());
-			}
-			result.add(cache);
+			result.add(getCache(cacheName, context));
 		}
 		return result;
 	}
 
+	private Cache getCache(String cacheName, CacheOperationInvocationContext<?> context) {
+		Cache cache = getCacheManager().getCache(cacheName);
+		if (cache == null) {
+			throw new IllegalArgumentException("Cannot find cache named '" +
+					cacheName + "' for " + context.getOperation());
+		}
+		return cache;
+	}
+
 	/**
 	 * Provide the name of the cache(s) to resolve against the current cache manager.
 	 * <p>It is acceptable to return {@code null} to indicate that no cache could
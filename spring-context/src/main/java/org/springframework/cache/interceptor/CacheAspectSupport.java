@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,14 +21,22 @@ import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.support.AopUtils;
@@ -41,15 +49,17 @@ import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.CacheLoadCoalescer;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -69,6 +79,16 @@ import org.springframework.util.function.SupplierUtils;
  * used for determining caching operations, a {@link KeyGenerator} will build the
  * cache keys, and a {@link CacheResolver} will resolve the actual cache(s) to use.
  *
+ * <p>If {@link #setAsyncCaching asynchronous caching} is enabled, methods
+ * returning a {@link CompletableFuture}, or a reactive type such as Reactor's
+ * {@code Mono} or {@code Flux} if Reactor is present, are cached asynchronously:
+ * the value that the future or publisher resolves to is cached once available
+ * (as a {@code List} for multi-value publishers), and cache lookups go through
+ * the non-blocking {@link Cache#retrieve(Object)} contract. Concurrent
+ * invocations missing the same key of a {@code @Cacheable} method without other
+ * cache operations share a single invocation. By default, the returned future
+ * or publisher itself is cached, like any other return value.
+ *
  * <p>Note: A cache aspect is serializable but does not perform any actual caching
  * after deserialization.
  *
@@ -83,12 +103,31 @@ import org.springframework.util.function.SupplierUtils;
 public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		implements BeanFactoryAware, InitializingBean, SmartInitializingSingleton {
 
+	/**
+	 * System property that instructs Spring to cache the resolved values of
+	 * asynchronous return types by default: "spring.cache.async-caching".
+	 * <p>The default is "false", caching a returned future or publisher as is.
+	 * @since 5.3.24
+	 * @see #setAsyncCaching
+	 */
+	public static final String ASYNC_CACHING_PROPERTY_NAME = "spring.cache.async-caching";
+
+	private static final boolean shouldCacheAsynchronously = SpringProperties.getFlag(ASYNC_CACHING_PROPERTY_NAME);
+
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Mono", CacheAspectSupport.class.getClassLoader());
+
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private final Map<CacheOperationCacheKey, CacheOperationMetadata> metadataCache = new ConcurrentHashMap<>(1024);
 
+	private final Map<Method, MethodCacheOperations> methodCacheOperations = new ConcurrentHashMap<>(256);
+
 	private final CacheOperationExpressionEvaluator evaluator = new CacheOperationExpressionEvaluator();
 
+	private final CacheLoadCoalescer asyncLoads = new CacheLoadCoalescer();
+
 	@Nullable
 	private CacheOperationSource cacheOperationSource;
 
@@ -100,6 +139,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	@Nullable
 	private BeanFactory beanFactory;
 
+	private boolean asyncCaching = shouldCacheAsynchronously;
+
 	private boolean initialized = false;
 
 
@@ -194,6 +235,29 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		this.cacheResolver = SingletonSupplier.of(new SimpleCacheResolver(cacheManager));
 	}
 
+	/**
+	 * Set whether to cache the values that methods returning a {@link CompletableFuture}
+	 * or a reactive type resolve to, rather than the future or publisher itself.
+	 * <p>Default is "false", unless the {@value #ASYNC_CACHING_PROPERTY_NAME}
+	 * property is set to "true". Switching this on changes what gets stored in the
+	 * caches for such methods, so existing cache entries and custom cache
+	 * implementations need to be compatible with the resolved values.
+	 * <p>This must be set before the first invocation of a cached method.
+	 * @since 5.3.24
+	 * @see Cache#retrieve(Object)
+	 */
+	public void setAsyncCaching(boolean asyncCaching) {
+		this.asyncCaching = asyncCaching;
+	}
+
+	/**
+	 * Return whether the values of asynchronous return types are cached.
+	 * @since 5.3.24
+	 */
+	public boolean isAsyncCaching() {
+		return this.asyncCaching;
+	}
+
 	/**
 	 * Set the containing {@link BeanFactory} for {@link CacheManager} and other
 	 * service lookups.
@@ -330,6 +394,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 	 */
 	protected void clearMetadataCache() {
 		this.metadataCache.clear();
+		this.methodCacheOperations.clear();
 		this.evaluator.clear();
 	}
 
@@ -342,8 +407,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			if (cacheOperationSource != null) {
 				Collection<CacheOperation> operations = cacheOperationSource.getCacheOperations(method, targetClass);
 				if (!CollectionUtils.isEmpty(operations)) {
-					return execute(invoker, method,
-							new CacheOperationContexts(operations, method, args, target, targetClass));
+					MethodCacheOperations methodOperations = getMethodCacheOperations(method, targetClass, operations);
+					return execute(invoker, method, new CacheOperationContexts(methodOperations, args, target));
 				}
 			}
 		}
@@ -351,6 +416,36 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return invoker.invoke();
 	}
 
+	/**
+	 * Return the metadata of the given operations of the given method, reusing
+	 * the metadata of a previous invocation if the operations are the same.
+	 */
+	private MethodCacheOperations getMethodCacheOperations(
+			Method method, Class<?> targetClass, Collection<CacheOperation> operations) {
+
+		MethodCacheOperations head = this.methodCacheOperations.get(method);
+		boolean stale = false;
+		for (MethodCacheOperations candidate = head; candidate != null; candidate = candidate.next) {
+			if (candidate.targetClass == targetClass) {
+				if (candidate.operations == operations || candidate.operations.equals(operations)) {
+					return candidate;
+				}
+				stale = true;
+			}
+		}
+		CacheOperationMetadata[] metadata = new CacheOperationMetadata[operations.size()];
+		int i = 0;
+		for (CacheOperation operation : operations) {
+			metadata[i++] = getCacheOperationMetadata(operation, method, targetClass);
+		}
+		// Chained with the metadata for other target classes of the same method
+		MethodCacheOperations methodOperations =
+				new MethodCacheOperations(method, targetClass, operations, metadata, this.asyncCaching,
+						(stale ? null : head));
+		this.methodCacheOperations.put(method, methodOperations);
+		return methodOperations;
+	}
+
 	/**
 	 * Execute the underlying operation (typically in case of cache miss) and return
 	 * the result of the invocation. If an exception occurs it will be wrapped in a
@@ -372,6 +467,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	@Nullable
 	private Object execute(final CacheOperationInvoker invoker, Method method, CacheOperationContexts contexts) {
+		// Asynchronous caching of the resolved value of a future or publisher
+		AsyncResultHandler asyncResultHandler = contexts.getAsyncResultHandler();
+		if (asyncResultHandler != null) {
+			return executeAsync(invoker, contexts, asyncResultHandler);
+		}
+
 		// Special handling of synchronized invocation
 		if (contexts.isSynchronized()) {
 			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
@@ -452,6 +553,115 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		return result;
 	}
 
+	@Nullable
+	private Object executeAsync(CacheOperationInvoker invoker, CacheOperationContexts contexts,
+			AsyncResultHandler handler) {
+
+		if (contexts.isSynchronized()) {
+			CacheOperationContext context = contexts.get(CacheableOperation.class).iterator().next();
+			if (isConditionPassing(context, CacheOperationExpressionEvaluator.NO_RESULT)) {
+				Object key = generateKey(context, CacheOperationExpressionEvaluator.NO_RESULT);
+				Cache cache = context.getCaches().iterator().next();
+				return handler.fromFuture(() -> cache.retrieve(key, () -> invokeAsync(invoker, handler)));
+			}
+			else {
+				// No caching required, only call the underlying method
+				return invokeOperation(invoker);
+			}
+		}
+		return handler.fromFuture(() -> evaluateAsync(invoker, contexts, handler));
+	}
+
+	private CompletableFuture<Object> evaluateAsync(CacheOperationInvoker invoker, CacheOperationContexts contexts,
+			AsyncResultHandler handler) {
+
+		// Process any early evictions
+		processCacheEvicts(contexts.get(CacheEvictOperation.class), true,
+				CacheOperationExpressionEvaluator.NO_RESULT);
+
+		// Keys of the @Cacheable operations to look up, and to put in case of a miss
+		List<CachePutRequest> cacheableRequests = new ArrayList<>();
+		collectPutRequests(contexts.get(CacheableOperation.class),
+				CacheOperationExpressionEvaluator.NO_RESULT, cacheableRequests);
+
+		return findCachedItemAsync(cacheableRequests, 0).thenCompose(cacheHit -> {
+			CompletableFuture<Object> result;
+			if (cacheHit != null && !hasCachePut(contexts)) {
+				// If there are no put requests, just use the cache hit
+				result = CompletableFuture.completedFuture(cacheHit.get());
+			}
+			else if (cacheHit == null && !cacheableRequests.isEmpty() &&
+					contexts.get(CachePutOperation.class).isEmpty() &&
+					contexts.get(CacheEvictOperation.class).isEmpty()) {
+				// Share the invocation with concurrent misses of the same key
+				CachePutRequest request = cacheableRequests.get(0);
+				Object loadKey = new AsyncLoadKey(request.context.getCaches().iterator().next(), request.key);
+				result = this.asyncLoads.loadFuture(loadKey, () -> invokeAsync(invoker, handler));
+			}
+			else {
+				result = invokeAsync(invoker, handler);
+			}
+			return result.thenApply(cacheValue -> {
+				List<CachePutRequest> cachePutRequests =
+						(cacheHit == null ? cacheableRequests : new ArrayList<>());
+				collectPutRequests(contexts.get(CachePutOperation.class), cacheValue, cachePutRequests);
+				for (CachePutRequest cachePutRequest : cachePutRequests) {
+					cachePutRequest.apply(cacheValue);
+				}
+				processCacheEvicts(contexts.get(CacheEvictOperation.class), false, cacheValue);
+				return cacheValue;
+			});
+		});
+	}
+
+	private CompletableFuture<Object> invokeAsync(CacheOperationInvoker invoker, AsyncResultHandler handler) {
+		try {
+			return handler.toFuture(invokeOperation(invoker));
+		}
+		catch (CacheOperationInvoker.ThrowableWrapper ex) {
+			CompletableFuture<Object> future = new CompletableFuture<>();
+			future.completeExceptionally(ex.getOriginal());
+			return future;
+		}
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> findCachedItemAsync(List<CachePutRequest> requests, int index) {
+		if (index == requests.size()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		CachePutRequest request = requests.get(index);
+		return findInCachesAsync(request.key, request.context.getCaches().iterator()).thenCompose(cached -> {
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached);
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("No cache entry for key '" + request.key + "' in cache(s) " +
+						request.context.getCacheNames());
+			}
+			return findCachedItemAsync(requests, index + 1);
+		});
+	}
+
+	private CompletableFuture<Cache.ValueWrapper> findInCachesAsync(Object key, Iterator<? extends Cache> caches) {
+		if (!caches.hasNext()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Cache cache = caches.next();
+		CompletableFuture<?> cached = doRetrieve(cache, key);
+		if (cached == null) {
+			return findInCachesAsync(key, caches);
+		}
+		return cached.thenCompose(wrapper -> {
+			if (wrapper != null) {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Cache entry for key '" + key + "' found in cache '" + cache.getName() + "'");
+				}
+				return CompletableFuture.completedFuture((Cache.ValueWrapper) wrapper);
+			}
+			return findInCachesAsync(key, caches);
+		});
+	}
+
 	@Nullable
 	private Object wrapCacheValue(Method method, @Nullable Object cacheValue) {
 		if (method.getReturnType() == Optional.class &&
@@ -603,63 +813,156 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 	private class CacheOperationContexts {
 
-		private final MultiValueMap<Class<? extends CacheOperation>, CacheOperationContext> contexts;
+		private final List<CacheOperationContext> cacheableContexts;
+
+		private final List<CacheOperationContext> cachePutContexts;
+
+		private final List<CacheOperationContext> cacheEvictContexts;
 
 		private final boolean sync;
 
-		public CacheOperationContexts(Collection<? extends CacheOperation> operations, Method method,
-				Object[] args, Object target, Class<?> targetClass) {
+		@Nullable
+		private final AsyncResultHandler asyncResultHandler;
+
+		public CacheOperationContexts(MethodCacheOperations methodOperations, Object[] args, Object target) {
+			this.cacheableContexts = createContexts(methodOperations, CacheableOperation.class,
+					methodOperations.cacheableCount, args, target);
+			this.cachePutContexts = createContexts(methodOperations, CachePutOperation.class,
+					methodOperations.cachePutCount, args, target);
+			this.cacheEvictContexts = createContexts(methodOperations, CacheEvictOperation.class,
+					methodOperations.cacheEvictCount, args, target);
+			if (methodOperations.sync) {
+				CacheOperationContext cacheOperationContext = this.cacheableContexts.get(0);
+				if (cacheOperationContext.getCaches().size() > 1) {
+					throw new IllegalStateException("@Cacheable(sync=true) only allows a single cache on '" +
+							cacheOperationContext.getOperation() + "'");
+				}
+			}
+			this.sync = methodOperations.sync;
+			this.asyncResultHandler = methodOperations.asyncResultHandler;
+		}
 
-			this.contexts = new LinkedMultiValueMap<>(operations.size());
-			for (CacheOperation op : operations) {
-				this.contexts.add(op.getClass(), getOperationContext(op, method, args, target, targetClass));
+		private List<CacheOperationContext> createContexts(MethodCacheOperations methodOperations,
+				Class<? extends CacheOperation> operationClass, int count, Object[] args, Object target) {
+
+			if (count == 0) {
+				return Collections.emptyList();
 			}
-			this.sync = determineSyncFlag(method);
+			List<CacheOperationContext> contexts = null;
+			for (CacheOperationMetadata metadata : methodOperations.metadata) {
+				if (metadata.operation.getClass() == operationClass) {
+					CacheOperationContext context = new CacheOperationContext(metadata, args, target);
+					if (count == 1) {
+						return Collections.singletonList(context);
+					}
+					if (contexts == null) {
+						contexts = new ArrayList<>(count);
+					}
+					contexts.add(context);
+				}
+			}
+			return (contexts != null ? contexts : Collections.emptyList());
 		}
 
 		public Collection<CacheOperationContext> get(Class<? extends CacheOperation> operationClass) {
-			Collection<CacheOperationContext> result = this.contexts.get(operationClass);
-			return (result != null ? result : Collections.emptyList());
+			if (operationClass == CacheableOperation.class) {
+				return this.cacheableContexts;
+			}
+			else if (operationClass == CachePutOperation.class) {
+				return this.cachePutContexts;
+			}
+			else if (operationClass == CacheEvictOperation.class) {
+				return this.cacheEvictContexts;
+			}
+			return Collections.emptyList();
 		}
 
 		public boolean isSynchronized() {
 			return this.sync;
 		}
 
-		private boolean determineSyncFlag(Method method) {
-			List<CacheOperationContext> cacheOperationContexts = this.contexts.get(CacheableOperation.class);
-			if (cacheOperationContexts == null) {  // no @Cacheable operation at all
-				return false;
-			}
-			boolean syncEnabled = false;
-			for (CacheOperationContext cacheOperationContext : cacheOperationContexts) {
-				if (((CacheableOperation) cacheOperationContext.getOperation()).isSync()) {
-					syncEnabled = true;
-					break;
+		@Nullable
+		public AsyncResultHandler getAsyncResultHandler() {
+			return this.asyncResultHandler;
+		}
+	}
+
+
+	/**
+	 * Metadata of all cache operations of a method on a particular target class,
+	 * cached per method so that an invocation neither needs to look up the
+	 * metadata of each operation nor to validate the operations again.
+	 */
+	private static final class MethodCacheOperations {
+
+		private final Class<?> targetClass;
+
+		private final Collection<CacheOperation> operations;
+
+		private final CacheOperationMetadata[] metadata;
+
+		private final int cacheableCount;
+
+		private final int cachePutCount;
+
+		private final int cacheEvictCount;
+
+		private final boolean sync;
+
+		@Nullable
+		private final AsyncResultHandler asyncResultHandler;
+
+		@Nullable
+		private final MethodCacheOperations next;
+
+		MethodCacheOperations(Method method, Class<?> targetClass, Collection<CacheOperation> operations,
+				CacheOperationMetadata[] metadata, boolean asyncCaching, @Nullable MethodCacheOperations next) {
+
+			this.targetClass = targetClass;
+			this.operations = operations;
+			this.metadata = metadata;
+			this.next = next;
+			int cacheableCount = 0;
+			int cachePutCount = 0;
+			int cacheEvictCount = 0;
+			Set<Class<?>> operationClasses = new HashSet<>(4);
+			CacheableOperation syncOperation = null;
+			for (CacheOperationMetadata operationMetadata : metadata) {
+				Class<?> operationClass = operationMetadata.operation.getClass();
+				operationClasses.add(operationClass);
+				if (operationClass == CacheableOperation.class) {
+					cacheableCount++;
+					CacheableOperation operation = (CacheableOperation) operationMetadata.operation;
+					if (operation.isSync() && syncOperation == null) {
+						syncOperation = operation;
+					}
+				}
+				else if (operationClass == CachePutOperation.class) {
+					cachePutCount++;
+				}
+				else if (operationClass == CacheEvictOperation.class) {
+					cacheEvictCount++;
 				}
 			}
-			if (syncEnabled) {
-				if (this.contexts.size() > 1) {
+			if (syncOperation != null) {
+				if (operationClasses.size() > 1) {
 					throw new IllegalStateException(
 							"@Cacheable(sync=true) cannot be combined with other cache operations on '" + method + "'");
 				}
-				if (cacheOperationContexts.size() > 1) {
+				if (cacheableCount > 1) {
 					throw new IllegalStateException(
 							"Only one @Cacheable(sync=true) entry is allowed on '" + method + "'");
 				}
-				CacheOperationContext cacheOperationContext = cacheOperationContexts.iterator().next();
-				CacheableOperation operation = (CacheableOperation) cacheOperationContext.getOperation();
-				if (cacheOperationContext.getCaches().size() > 1) {
-					throw new IllegalStateException(
-							"@Cacheable(sync=true) only allows a single cache on '" + operation + "'");
-				}
-				if (StringUtils.hasText(operation.getUnless())) {
+				if (StringUtils.hasText(syncOperation.getUnless())) {
 					throw new IllegalStateException(
-							"@Cacheable(sync=true) does not support unless attribute on '" + operation + "'");
+							"@Cacheable(sync=true) does not support unless attribute on '" + syncOperation + "'");
 				}
-				return true;
 			}
-			return false;
+			this.cacheableCount = cacheableCount;
+			this.cachePutCount = cachePutCount;
+			this.cacheEvictCount = cacheEvictCount;
+			this.sync = (syncOperation != null);
+			this.asyncResultHandler = (asyncCaching && metadata.length > 0 ? metadata[0].asyncResultHandler : null);
 		}
 	}
 
@@ -684,6 +987,16 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final CacheResolver cacheResolver;
 
+		@Nullable
+		private final AsyncResultHandler asyncResultHandler;
+
+		private final boolean hasCondition;
+
+		private final boolean hasKey;
+
+		@Nullable
+		private final String unless;
+
 		public CacheOperationMetadata(CacheOperation operation, Method method, Class<?> targetClass,
 				KeyGenerator keyGenerator, CacheResolver cacheResolver) {
 
@@ -695,6 +1008,17 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 			this.methodKey = new AnnotatedElementKey(this.targetMethod, targetClass);
 			this.keyGenerator = keyGenerator;
 			this.cacheResolver = cacheResolver;
+			this.asyncResultHandler = AsyncResultHandler.forReturnType(this.method.getReturnType());
+			this.hasCondition = StringUtils.hasText(operation.getCondition());
+			this.hasKey = StringUtils.hasText(operation.getKey());
+			String unless = null;
+			if (operation instanceof CacheableOperation) {
+				unless = ((CacheableOperation) operation).getUnless();
+			}
+			else if (operation instanceof CachePutOperation) {
+				unless = ((CachePutOperation) operation).getUnless();
+			}
+			this.unless = (StringUtils.hasText(unless) ? unless : null);
 		}
 	}
 
@@ -712,17 +1036,23 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		private final Collection<? extends Cache> caches;
 
-		private final Collection<String> cacheNames;
+		@Nullable
+		private Collection<String> cacheNames;
 
 		@Nullable
 		private Boolean conditionPassing;
 
+		@Nullable
+		private EvaluationContext evaluationContext;
+
+		@Nullable
+		private Object evaluationResult;
+
 		public CacheOperationContext(CacheOperationMetadata metadata, Object[] args, Object target) {
 			this.metadata = metadata;
 			this.args = extractArgs(metadata.method, args);
 			this.target = target;
 			this.caches = CacheAspectSupport.this.getCaches(this, metadata.cacheResolver);
-			this.cacheNames = createCacheNames(this.caches);
 		}
 
 		@Override
@@ -758,7 +1088,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 
 		protected boolean isConditionPassing(@Nullable Object result) {
 			if (this.conditionPassing == null) {
-				if (StringUtils.hasText(this.metadata.operation.getCondition())) {
+				if (this.metadata.hasCondition) {
 					EvaluationContext evaluationContext = createEvaluationContext(result);
 					this.conditionPassing = evaluator.condition(this.metadata.operation.getCondition(),
 							this.metadata.methodKey, evaluationContext);
@@ -771,14 +1101,8 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 		protected boolean canPutToCache(@Nullable Object value) {
-			String unless = "";
-			if (this.metadata.operation instanceof CacheableOperation) {
-				unless = ((CacheableOperation) this.metadata.operation).getUnless();
-			}
-			else if (this.metadata.operation instanceof CachePutOperation) {
-				unless = ((CachePutOperation) this.metadata.operation).getUnless();
-			}
-			if (StringUtils.hasText(unless)) {
+			String unless = this.metadata.unless;
+			if (unless != null) {
 				EvaluationContext evaluationContext = createEvaluationContext(value);
 				return !evaluator.unless(unless, this.metadata.methodKey, evaluationContext);
 			}
@@ -790,7 +1114,7 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		 */
 		@Nullable
 		protected Object generateKey(@Nullable Object result) {
-			if (StringUtils.hasText(this.metadata.operation.getKey())) {
+			if (this.metadata.hasKey) {
 				EvaluationContext evaluationContext = createEvaluationContext(result);
 				return evaluator.key(this.metadata.operation.getKey(), this.metadata.methodKey, evaluationContext);
 			}
@@ -798,8 +1122,15 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 		private EvaluationContext createEvaluationContext(@Nullable Object result) {
-			return evaluator.createEvaluationContext(this.caches, this.metadata.method, this.args,
-					this.target, this.metadata.targetClass, this.metadata.targetMethod, result, beanFactory);
+			// Shared by the expressions of this operation that are evaluated against the same result
+			EvaluationContext evaluationContext = this.evaluationContext;
+			if (evaluationContext == null || this.evaluationResult != result) {
+				evaluationContext = evaluator.createEvaluationContext(this.caches, this.metadata.method, this.args,
+						this.target, this.metadata.targetClass, this.metadata.targetMethod, result, beanFactory);
+				this.evaluationContext = evaluationContext;
+				this.evaluationResult = result;
+			}
+			return evaluationContext;
 		}
 
 		protected Collection<? extends Cache> getCaches() {
@@ -807,7 +1138,12 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 
 		protected Collection<String> getCacheNames() {
-			return this.cacheNames;
+			Collection<String> cacheNames = this.cacheNames;
+			if (cacheNames == null) {
+				cacheNames = createCacheNames(this.caches);
+				this.cacheNames = cacheNames;
+			}
+			return cacheNames;
 		}
 
 		private Collection<String> createCacheNames(Collection<? extends Cache> caches) {
@@ -885,6 +1221,104 @@ public abstract class CacheAspectSupport extends AbstractCacheInvoker
 		}
 	}
 
+	/**
+	 * Key of an asynchronous invocation shared by concurrent cache misses.
+	 */
+	private static final class AsyncLoadKey {
+
+		private final Cache cache;
+
+		private final Object key;
+
+		AsyncLoadKey(Cache cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof AsyncLoadKey)) {
+				return false;
+			}
+			AsyncLoadKey otherKey = (AsyncLoadKey) other;
+			return (this.cache == otherKey.cache && this.key.equals(otherKey.key));
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(this.cache) * 31 + this.key.hashCode());
+		}
+	}
+
+
+	/**
+	 * Adapts a {@link CompletableFuture} return value to and from a future of
+	 * the value to cache, with subclasses for other asynchronous return types.
+	 */
+	private static class AsyncResultHandler {
+
+		private static final AsyncResultHandler COMPLETABLE_FUTURE = new AsyncResultHandler();
+
+		@Nullable
+		static AsyncResultHandler forReturnType(Class<?> returnType) {
+			if (returnType == CompletableFuture.class || returnType == CompletionStage.class) {
+				return COMPLETABLE_FUTURE;
+			}
+			if (reactorPresent) {
+				return ReactiveResultHandler.forReturnType(returnType);
+			}
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Object> toFuture(@Nullable Object returnValue) {
+			return (returnValue != null ? ((CompletionStage<Object>) returnValue).toCompletableFuture() :
+					CompletableFuture.completedFuture(null));
+		}
+
+		Object fromFuture(Supplier<CompletableFuture<Object>> futureSupplier) {
+			return futureSupplier.get();
+		}
+	}
+
+
+	/**
+	 * Adapts a reactive return value to and from a future of the value to cache:
+	 * the single value, or the {@code List} of values of a multi-value publisher.
+	 */
+	private static final class ReactiveResultHandler extends AsyncResultHandler {
+
+		private final ReactiveAdapter adapter;
+
+		private ReactiveResultHandler(ReactiveAdapter adapter) {
+			this.adapter = adapter;
+		}
+
+		@Nullable
+		static AsyncResultHandler forReturnType(Class<?> returnType) {
+			ReactiveAdapter adapter = ReactiveAdapterRegistry.getSharedInstance().getAdapter(returnType);
+			return (adapter != null && !adapter.isNoValue() ? new ReactiveResultHandler(adapter) : null);
+		}
+
+		@Override
+		CompletableFuture<Object> toFuture(@Nullable Object returnValue) {
+			Publisher<?> publisher = this.adapter.toPublisher(returnValue);
+			return (this.adapter.isMultiValue() ? Flux.from(publisher).collectList().<Object>map(list -> list) :
+					Mono.from(publisher).<Object>map(value -> value)).toFuture();
+		}
+
+		@Override
+		Object fromFuture(Supplier<CompletableFuture<Object>> futureSupplier) {
+			Mono<Object> mono = Mono.defer(() -> Mono.fromFuture(futureSupplier.get()));
+			return this.adapter.fromPublisher(this.adapter.isMultiValue() ?
+					mono.flatMapIterable(value -> (Iterable<?>) value) : mono);
+		}
+	}
+
+
 	/**
 	 * Internal holder class for recording that a cache method was invoked.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,18 +17,28 @@
 package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Cache specific evaluation context that adds a method parameters as SpEL
  * variables, in a lazy manner. The lazy nature eliminates unneeded
  * parsing of classes byte code for parameter discovery.
  *
+ * <p>If the {@link ArgumentNames} of the method are given, the parameters are
+ * resolved from the arguments by index on each access instead, so that neither
+ * parameter names have to be discovered nor variables registered per context.
+ * As with lazily loaded arguments, parameters take precedence over variables
+ * of the same name.
+ *
  * <p>Also define a set of "unavailable variables" (i.e. variables that should
  * lead to an exception right the way when they are accessed). This can be useful
  * to verify a condition does not match even when not all potential variables
@@ -44,13 +54,27 @@ import org.springframework.lang.Nullable;
  */
 class CacheEvaluationContext extends MethodBasedEvaluationContext {
 
-	private final Set<String> unavailableVariables = new HashSet<>(1);
+	@Nullable
+	private Set<String> unavailableVariables;
+
+	private final Object[] arguments;
+
+	@Nullable
+	private final ArgumentNames argumentNames;
 
 
 	CacheEvaluationContext(Object rootObject, Method method, Object[] arguments,
 			ParameterNameDiscoverer parameterNameDiscoverer) {
 
+		this(rootObject, method, arguments, parameterNameDiscoverer, null);
+	}
+
+	CacheEvaluationContext(Object rootObject, Method method, Object[] arguments,
+			ParameterNameDiscoverer parameterNameDiscoverer, @Nullable ArgumentNames argumentNames) {
+
 		super(rootObject, method, arguments, parameterNameDiscoverer);
+		this.arguments = arguments;
+		this.argumentNames = argumentNames;
 	}
 
 
@@ -62,6 +86,9 @@ class CacheEvaluationContext extends MethodBasedEvaluationContext {
 	 * trying to use that variable should therefore fail to evaluate.
 	 */
 	public void addUnavailableVariable(String name) {
+		if (this.unavailableVariables == null) {
+			this.unavailableVariables = new HashSet<>(1);
+		}
 		this.unavailableVariables.add(name);
 	}
 
@@ -72,10 +99,67 @@ class CacheEvaluationContext extends MethodBasedEvaluationContext {
 	@Override
 	@Nullable
 	public Object lookupVariable(String name) {
-		if (this.unavailableVariables.contains(name)) {
+		if (this.unavailableVariables != null && this.unavailableVariables.contains(name)) {
 			throw new VariableNotAvailableException(name);
 		}
+		if (this.argumentNames != null && !ObjectUtils.isEmpty(this.arguments) &&
+				this.argumentNames.isArgument(name)) {
+			// Parameters take precedence, like lazily loaded arguments overriding variables
+			return this.argumentNames.getArgument(name, this.arguments);
+		}
 		return super.lookupVariable(name);
 	}
 
+	@Override
+	protected void lazyLoadArguments() {
+		if (this.argumentNames == null) {
+			super.lazyLoadArguments();
+		}
+	}
+
+
+	/**
+	 * The names under which the arguments of a method are exposed as variables,
+	 * discovered once per method: {@code pX} and {@code aX} where X is the index
+	 * of the argument, as well as the name of the parameter if discoverable.
+	 */
+	static final class ArgumentNames {
+
+		private final Map<String, Integer> indexes;
+
+		private final int parameterCount;
+
+		ArgumentNames(Method method, ParameterNameDiscoverer parameterNameDiscoverer) {
+			String[] paramNames = parameterNameDiscoverer.getParameterNames(method);
+			this.parameterCount = (paramNames != null ? paramNames.length : method.getParameterCount());
+			this.indexes = new HashMap<>(this.parameterCount * 4);
+			for (int i = 0; i < this.parameterCount; i++) {
+				this.indexes.put("a" + i, i);
+				this.indexes.put("p" + i, i);
+				if (paramNames != null && paramNames[i] != null) {
+					this.indexes.put(paramNames[i], i);
+				}
+			}
+		}
+
+		boolean isArgument(String name) {
+			return this.indexes.containsKey(name);
+		}
+
+		@Nullable
+		Object getArgument(String name, Object[] arguments) {
+			Integer index = this.indexes.get(name);
+			if (index == null) {
+				return null;
+			}
+			int i = index;
+			int argsCount = arguments.length;
+			if (argsCount > this.parameterCount && i == this.parameterCount - 1) {
+				// Expose remaining arguments as vararg array for last parameter
+				return Arrays.copyOfRange(arguments, i, argsCount);
+			}
+			return (argsCount > i ? arguments[i] : null);
+		}
+	}
+
 }
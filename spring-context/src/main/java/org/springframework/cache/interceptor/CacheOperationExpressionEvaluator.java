@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,8 +26,12 @@ import org.springframework.cache.Cache;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.CachedExpressionEvaluator;
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.lang.Nullable;
 
 /**
@@ -37,6 +41,12 @@ import org.springframework.lang.Nullable;
  * <p>Performs internal caching for performance reasons
  * using {@link AnnotatedElementKey}.
  *
+ * <p>Expressions are compiled in {@link SpelCompilerMode#MIXED mixed} mode
+ * unless the compiler mode is set explicitly through the
+ * {@value SpelParserConfiguration#SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME}
+ * property. Method arguments are resolved by index from names discovered
+ * once per method.
+ *
  * @author Costin Leau
  * @author Phillip Webb
  * @author Sam Brannen
@@ -67,6 +77,19 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 
 	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<>(64);
 
+	private final Map<Method, CacheEvaluationContext.ArgumentNames> argumentNamesCache = new ConcurrentHashMap<>(64);
+
+
+	/**
+	 * Create a new instance with a {@link SpelExpressionParser} compiling
+	 * expressions in mixed mode, unless configured otherwise.
+	 */
+	public CacheOperationExpressionEvaluator() {
+		super(new SpelExpressionParser(new SpelParserConfiguration(
+				SpringProperties.getProperty(SpelParserConfiguration.SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME) != null ?
+						null : SpelCompilerMode.MIXED, null)));
+	}
+
 
 	/**
 	 * Create an {@link EvaluationContext}.
@@ -86,7 +109,7 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		CacheExpressionRootObject rootObject = new CacheExpressionRootObject(
 				caches, method, args, target, targetClass);
 		CacheEvaluationContext evaluationContext = new CacheEvaluationContext(
-				rootObject, targetMethod, args, getParameterNameDiscoverer());
+				rootObject, targetMethod, args, getParameterNameDiscoverer(), getArgumentNames(targetMethod));
 		if (result == RESULT_UNAVAILABLE) {
 			evaluationContext.addUnavailableVariable(RESULT_VARIABLE);
 		}
@@ -99,6 +122,15 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		return evaluationContext;
 	}
 
+	private CacheEvaluationContext.ArgumentNames getArgumentNames(Method method) {
+		CacheEvaluationContext.ArgumentNames argumentNames = this.argumentNamesCache.get(method);
+		if (argumentNames == null) {
+			argumentNames = new CacheEvaluationContext.ArgumentNames(method, getParameterNameDiscoverer());
+			this.argumentNamesCache.put(method, argumentNames);
+		}
+		return argumentNames;
+	}
+
 	@Nullable
 	public Object key(String keyExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
 		return getExpression(this.keyCache, methodKey, keyExpression).getValue(evalContext);
@@ -121,6 +153,7 @@ class CacheOperationExpressionEvaluator extends CachedExpressionEvaluator {
 		this.keyCache.clear();
 		this.conditionCache.clear();
 		this.unlessCache.clear();
+		this.argumentNamesCache.clear();
 	}
 
 }
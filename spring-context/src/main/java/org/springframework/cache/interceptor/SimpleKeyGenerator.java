@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,6 +36,9 @@ import java.lang.reflect.Method;
  */
 public class SimpleKeyGenerator implements KeyGenerator {
 
+	private static final SimpleKey NULL_KEY = new SimpleKey((Object) null);
+
+
 	@Override
 	public Object generate(Object target, Method method, Object... params) {
 		return generateKey(params);
@@ -50,7 +53,10 @@ public class SimpleKeyGenerator implements KeyGenerator {
 		}
 		if (params.length == 1) {
 			Object param = params[0];
-			if (param != null && !param.getClass().isArray()) {
+			if (param == null) {
+				return NULL_KEY;
+			}
+			if (!param.getClass().isArray()) {
 				return param;
 			}
 		}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Coalesces concurrent loads of cache values per key: the first caller for
+ * a key runs its loader, while concurrent callers for the same key wait for
+ * the in-flight load and share its result, or its failure.
+ *
+ * <p>Intended for {@link org.springframework.cache.Cache#get(Object, Callable)}
+ * implementations that would otherwise hold a lock, such as a hash bin of a
+ * {@code ConcurrentHashMap} or a segment of a cache, while loading a value,
+ * blocking unrelated keys meanwhile. The loader is expected to store the
+ * value in the cache before returning it, so that callers arriving after
+ * the load find the value in the cache.
+ *
+ * <p>Loads may also be asynchronous through {@link #loadFuture}, as for
+ * {@link org.springframework.cache.Cache#retrieve(Object, Supplier)}, sharing
+ * the in-flight future of the key with blocking and non-blocking callers alike.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+public class CacheLoadCoalescer {
+
+	private final ConcurrentMap<Object, Load> loads = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Load the value for the given key with the given loader, or wait for the
+	 * load that is in progress for that key already.
+	 * @param key the key to load the value for
+	 * @param loader the loader to use if no load is in progress for the key
+	 * @return the loaded value
+	 * @throws Exception the exception thrown by the loader, either the given
+	 * one or the one of the load in progress
+	 * @throws IllegalStateException if the current thread is loading the value
+	 * for the given key already, i.e. in case of a recursive load
+	 */
+	@Nullable
+	public Object load(Object key, Callable<?> loader) throws Exception {
+		Load load = new Load();
+		Load existing = this.loads.putIfAbsent(key, load);
+		if (existing != null) {
+			return existing.await(key);
+		}
+		return run(key, load, loader);
+	}
+
+	/**
+	 * Load the value for the given key with the given loader in the background,
+	 * unless a load is in progress for that key already.
+	 * <p>Failures of the loader are not propagated: callers of {@link #load}
+	 * waiting for the background load get the exception.
+	 * @param key the key to load the value for
+	 * @param loader the loader to use
+	 * @param executor the executor to run the loader with
+	 * @return {@code true} if a load has been started, {@code false} if a
+	 * load was in progress for the key already
+	 * @throws RejectedExecutionException if the executor rejected the load
+	 */
+	public boolean loadAsync(Object key, Callable<?> loader, Executor executor) {
+		Load load = new Load();
+		if (this.loads.putIfAbsent(key, load) != null) {
+			return false;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					run(key, load, loader);
+				}
+				catch (Exception ex) {
+					// Propagated to the waiting callers, if any
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			load.future.completeExceptionally(ex);
+			this.loads.remove(key, load);
+			throw ex;
+		}
+		return true;
+	}
+
+	/**
+	 * Load the value for the given key with the given asynchronous loader, or
+	 * share the load that is in progress for that key already, without blocking.
+	 * @param key the key to load the value for
+	 * @param loader the loader to use if no load is in progress for the key
+	 * @return a future for the loaded value
+	 */
+	public CompletableFuture<Object> loadFuture(Object key, Supplier<? extends CompletableFuture<?>> loader) {
+		Load load = new Load();
+		Load existing = this.loads.putIfAbsent(key, load);
+		if (existing != null) {
+			return existing.future.thenApply(value -> value);
+		}
+		CompletableFuture<?> future;
+		try {
+			future = loader.get();
+		}
+		catch (Throwable ex) {
+			future = new CompletableFuture<>();
+			((CompletableFuture<?>) future).completeExceptionally(ex);
+		}
+		future.whenComplete((value, ex) -> {
+			this.loads.remove(key, load);
+			if (ex != null) {
+				load.future.completeExceptionally(
+						ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+			}
+			else {
+				load.future.complete(value);
+			}
+		});
+		return load.future.thenApply(value -> value);
+	}
+
+	/**
+	 * Return whether a load is in progress for the given key.
+	 */
+	public boolean isLoading(Object key) {
+		return this.loads.containsKey(key);
+	}
+
+	@Nullable
+	private Object run(Object key, Load load, Callable<?> loader) throws Exception {
+		load.thread = Thread.currentThread();
+		try {
+			Object value = loader.call();
+			load.future.complete(value);
+			return value;
+		}
+		catch (Throwable ex) {
+			load.future.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.loads.remove(key, load);
+		}
+	}
+
+
+	/**
+	 * A load in progress.
+	 */
+	private static final class Load {
+
+		final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		// Only set for loads running in a thread, as opposed to future loads
+		@Nullable
+		volatile Thread thread;
+
+		@Nullable
+		Object await(Object key) throws Exception {
+			if (this.thread == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive load of cache value for key '" + key + "'");
+			}
+			try {
+				return this.future.get();
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				if (cause instanceof Exception) {
+					throw (Exception) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw ex;
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -94,6 +94,16 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	String APPLICATION_STARTUP_BEAN_NAME = "applicationStartup";
 
+	/**
+	 * Name of the bootstrap {@link java.util.concurrent.Executor} bean in the factory.
+	 * If such a bean is supplied, non-lazy singletons are pre-instantiated in
+	 * parallel on it, with concurrent singleton creation turned on for the factory.
+	 * @since 5.3.24
+	 * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setBootstrapExecutor
+	 * @see org.springframework.beans.factory.support.DefaultSingletonBeanRegistry#setConcurrentSingletonCreation
+	 */
+	String BOOTSTRAP_EXECUTOR_BEAN_NAME = "bootstrapExecutor";
+
 	/**
 	 * {@link Thread#getName() Name} of the {@linkplain #registerShutdownHook()
 	 * shutdown hook} thread: {@value}.
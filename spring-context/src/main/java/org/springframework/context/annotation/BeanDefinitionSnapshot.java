@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+/**
+ * Format of a bean definition snapshot, as written by
+ * {@link BeanDefinitionSnapshotWriter} and read by {@link BeanDefinitionSnapshotReader}.
+ *
+ * <p>A snapshot is a binary stream starting with {@link #MAGIC} and
+ * {@link #VERSION}, followed by the bean definitions in registration order
+ * along with their aliases, the importing classes of imported configuration
+ * classes, and the processed {@code @PropertySource} declarations.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+abstract class BeanDefinitionSnapshot {
+
+	static final int MAGIC = 0x53424453;
+
+	static final int VERSION = 1;
+
+
+	// Bean definition types
+
+	static final byte ROOT_BEAN_DEFINITION = 1;
+
+	static final byte GENERIC_BEAN_DEFINITION = 2;
+
+	static final byte BEAN_METHOD_DEFINITION = 3;
+
+
+	// Value types
+
+	static final byte NULL = 0;
+
+	static final byte STRING = 1;
+
+	static final byte BOOLEAN = 2;
+
+	static final byte INTEGER = 3;
+
+	static final byte LONG = 4;
+
+	static final byte DOUBLE = 5;
+
+	static final byte CLASS = 6;
+
+	static final byte ENUM = 7;
+
+	static final byte STRING_ARRAY = 8;
+
+	static final byte BEAN_REFERENCE = 9;
+
+	static final byte BEAN_NAME_REFERENCE = 10;
+
+	static final byte TYPED_STRING_VALUE = 11;
+
+	static final byte BEAN_DEFINITION = 12;
+
+	static final byte BEAN_DEFINITION_HOLDER = 13;
+
+	static final byte MANAGED_ARRAY = 14;
+
+	static final byte MANAGED_LIST = 15;
+
+	static final byte MANAGED_SET = 16;
+
+	static final byte MANAGED_MAP = 17;
+
+	static final byte MANAGED_PROPERTIES = 18;
+
+	static final byte LIST = 19;
+
+	static final byte SET = 20;
+
+	static final byte MAP = 21;
+
+	static final byte PROPERTIES = 22;
+
+}
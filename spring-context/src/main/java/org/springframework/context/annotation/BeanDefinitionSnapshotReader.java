@@ -0,0 +1,454 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinitionReader;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Bean definition reader for snapshots written by a {@link BeanDefinitionSnapshotWriter},
+ * registering the bean definitions as processed at the time of writing.
+ *
+ * <p>Instead of a {@link ConfigurationClassPostProcessor}, a post-processor that
+ * only applies the runtime part of configuration class processing is registered:
+ * adding the {@link PropertySource @PropertySource} declarations to the
+ * {@link org.springframework.core.env.Environment}, enhancing
+ * {@link Configuration @Configuration} classes, and exposing the importing class
+ * metadata to {@link ImportAware} beans. Configuration classes are neither parsed
+ * nor scanned for, and their conditions are not evaluated again.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BeanDefinitionSnapshotWriter
+ * @see SnapshotApplicationContext
+ */
+public class BeanDefinitionSnapshotReader extends AbstractBeanDefinitionReader {
+
+	@Nullable
+	private SnapshotConfigurationClassPostProcessor postProcessor;
+
+
+	/**
+	 * Create a new BeanDefinitionSnapshotReader for the given bean factory.
+	 * @param registry the BeanFactory to load bean definitions into,
+	 * in the form of a BeanDefinitionRegistry
+	 */
+	public BeanDefinitionSnapshotReader(BeanDefinitionRegistry registry) {
+		super(registry);
+	}
+
+
+	/**
+	 * Load bean definitions from the specified snapshot.
+	 * @param resource the resource descriptor for the snapshot
+	 * @return the number of bean definitions found
+	 * @throws BeanDefinitionStoreException in case of loading or parsing errors
+	 */
+	@Override
+	public int loadBeanDefinitions(Resource resource) throws BeanDefinitionStoreException {
+		if (logger.isTraceEnabled()) {
+			logger.trace("Loading bean definition snapshot from " + resource);
+		}
+		try (InputStream inputStream = resource.getInputStream()) {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+			if (input.readInt() != BeanDefinitionSnapshot.MAGIC) {
+				throw new BeanDefinitionStoreException(resource.getDescription(), "Not a bean definition snapshot");
+			}
+			int version = input.readInt();
+			if (version != BeanDefinitionSnapshot.VERSION) {
+				throw new BeanDefinitionStoreException(resource.getDescription(),
+						"Unsupported bean definition snapshot version " + version);
+			}
+			return loadBeanDefinitions(input, resource);
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("IOException reading bean definition snapshot from " + resource, ex);
+		}
+		catch (ClassNotFoundException ex) {
+			throw new BeanDefinitionStoreException(resource.getDescription(),
+					"Class referenced in bean definition snapshot not found", ex);
+		}
+	}
+
+	private int loadBeanDefinitions(DataInputStream input, Resource resource)
+			throws IOException, ClassNotFoundException {
+
+		BeanDefinitionRegistry registry = getRegistry();
+		int count = input.readInt();
+		for (int i = 0; i < count; i++) {
+			BeanDefinitionHolder holder = readBeanDefinitionHolder(input);
+			registry.registerBeanDefinition(holder.getBeanName(), holder.getBeanDefinition());
+			for (String alias : holder.getAliases()) {
+				registry.registerAlias(holder.getBeanName(), alias);
+			}
+		}
+
+		SnapshotConfigurationClassPostProcessor postProcessor = this.postProcessor;
+		if (postProcessor == null) {
+			postProcessor = new SnapshotConfigurationClassPostProcessor();
+			registerPostProcessor(registry, postProcessor);
+			this.postProcessor = postProcessor;
+		}
+		int importCount = input.readInt();
+		for (int i = 0; i < importCount; i++) {
+			postProcessor.addImportingClass(readRequiredString(input), readRequiredString(input));
+		}
+		int propertySourceCount = input.readInt();
+		for (int i = 0; i < propertySourceCount; i++) {
+			AnnotationAttributes propertySource = new AnnotationAttributes(PropertySource.class);
+			propertySource.put("name", readString(input));
+			propertySource.put("value", readStringArray(input));
+			propertySource.put("ignoreResourceNotFound", input.readBoolean());
+			propertySource.put("encoding", readString(input));
+			propertySource.put("factory", ClassUtils.forName(readRequiredString(input), getBeanClassLoader()));
+			postProcessor.addPropertySource(propertySource);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded " + count + " bean definitions from snapshot " + resource);
+		}
+		return count;
+	}
+
+	private void registerPostProcessor(BeanDefinitionRegistry registry, SnapshotConfigurationClassPostProcessor postProcessor) {
+		RootBeanDefinition def = new RootBeanDefinition(
+				SnapshotConfigurationClassPostProcessor.class, () -> postProcessor);
+		def.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+		registry.registerBeanDefinition(AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME, def);
+		// Applies the bean factory settings for annotation config, keeping the snapshot's processors
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(registry);
+	}
+
+	private BeanDefinitionHolder readBeanDefinitionHolder(DataInputStream input) throws IOException {
+		String beanName = readRequiredString(input);
+		String[] aliases = readStringArray(input);
+		return new BeanDefinitionHolder(readBeanDefinition(input), beanName, aliases);
+	}
+
+	private AbstractBeanDefinition readBeanDefinition(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		AbstractBeanDefinition bd;
+		switch (type) {
+			case BeanDefinitionSnapshot.ROOT_BEAN_DEFINITION:
+				bd = new RootBeanDefinition();
+				break;
+			case BeanDefinitionSnapshot.GENERIC_BEAN_DEFINITION:
+				bd = new GenericBeanDefinition();
+				break;
+			case BeanDefinitionSnapshot.BEAN_METHOD_DEFINITION:
+				bd = new BeanMethodDefinition(readRequiredString(input));
+				break;
+			default:
+				throw new IOException("Unknown bean definition type in bean definition snapshot: " + type);
+		}
+		String parentName = readString(input);
+		if (parentName != null) {
+			bd.setParentName(parentName);
+		}
+		bd.setBeanClassName(readString(input));
+		bd.setScope(readString(input));
+		bd.setAbstract(input.readBoolean());
+		byte lazyInit = input.readByte();
+		if (lazyInit != 0) {
+			bd.setLazyInit(lazyInit == 2);
+		}
+		bd.setAutowireMode(input.readInt());
+		bd.setDependencyCheck(input.readInt());
+		bd.setDependsOn(readStringArray(input));
+		bd.setAutowireCandidate(input.readBoolean());
+		bd.setPrimary(input.readBoolean());
+		int qualifierCount = input.readInt();
+		for (int i = 0; i < qualifierCount; i++) {
+			AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(readRequiredString(input));
+			int attributeCount = input.readInt();
+			for (int j = 0; j < attributeCount; j++) {
+				qualifier.setAttribute(readRequiredString(input), readValue(input));
+			}
+			bd.addQualifier(qualifier);
+		}
+		bd.setNonPublicAccessAllowed(input.readBoolean());
+		bd.setLenientConstructorResolution(input.readBoolean());
+		bd.setFactoryBeanName(readString(input));
+		String factoryMethodName = readString(input);
+
+		ConstructorArgumentValues argumentValues = bd.getConstructorArgumentValues();
+		int indexedCount = input.readInt();
+		for (int i = 0; i < indexedCount; i++) {
+			argumentValues.addIndexedArgumentValue(input.readInt(), readValueHolder(input));
+		}
+		int genericCount = input.readInt();
+		for (int i = 0; i < genericCount; i++) {
+			argumentValues.addGenericArgumentValue(readValueHolder(input));
+		}
+		MutablePropertyValues propertyValues = bd.getPropertyValues();
+		int propertyCount = input.readInt();
+		for (int i = 0; i < propertyCount; i++) {
+			PropertyValue propertyValue = new PropertyValue(readRequiredString(input), readValue(input));
+			propertyValue.setOptional(input.readBoolean());
+			propertyValues.addPropertyValue(propertyValue);
+		}
+
+		bd.setInitMethodName(readString(input));
+		bd.setEnforceInitMethod(input.readBoolean());
+		bd.setDestroyMethodName(readString(input));
+		bd.setEnforceDestroyMethod(input.readBoolean());
+		bd.setSynthetic(input.readBoolean());
+		bd.setRole(input.readInt());
+		bd.setDescription(readString(input));
+		bd.setResourceDescription(readString(input));
+		int attributeCount = input.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			bd.setAttribute(readRequiredString(input), readValue(input));
+		}
+
+		if (bd instanceof RootBeanDefinition) {
+			RootBeanDefinition rbd = (RootBeanDefinition) bd;
+			boolean factoryMethodUnique = input.readBoolean();
+			if (factoryMethodName != null) {
+				if (factoryMethodUnique) {
+					rbd.setUniqueFactoryMethodName(factoryMethodName);
+				}
+				else {
+					rbd.setNonUniqueFactoryMethodName(factoryMethodName);
+				}
+			}
+			String targetType = readString(input);
+			if (targetType != null) {
+				rbd.setTargetType(resolveClass(targetType));
+			}
+			if (input.readBoolean()) {
+				rbd.setDecoratedDefinition(readBeanDefinitionHolder(input));
+			}
+		}
+		else {
+			bd.setFactoryMethodName(factoryMethodName);
+		}
+		return bd;
+	}
+
+	private ConstructorArgumentValues.ValueHolder readValueHolder(DataInputStream input) throws IOException {
+		Object value = readValue(input);
+		return new ConstructorArgumentValues.ValueHolder(value, readString(input), readString(input));
+	}
+
+	@Nullable
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private Object readValue(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case BeanDefinitionSnapshot.NULL:
+				return null;
+			case BeanDefinitionSnapshot.STRING:
+				return readString(input);
+			case BeanDefinitionSnapshot.BOOLEAN:
+				return input.readBoolean();
+			case BeanDefinitionSnapshot.INTEGER:
+				return input.readInt();
+			case BeanDefinitionSnapshot.LONG:
+				return input.readLong();
+			case BeanDefinitionSnapshot.DOUBLE:
+				return input.readDouble();
+			case BeanDefinitionSnapshot.CLASS:
+				return resolveClass(readRequiredString(input));
+			case BeanDefinitionSnapshot.ENUM:
+				Class enumType = resolveClass(readRequiredString(input));
+				return Enum.valueOf(enumType, readRequiredString(input));
+			case BeanDefinitionSnapshot.STRING_ARRAY:
+				return readStringArray(input);
+			case BeanDefinitionSnapshot.BEAN_REFERENCE:
+				return new RuntimeBeanReference(readRequiredString(input), input.readBoolean());
+			case BeanDefinitionSnapshot.BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(readRequiredString(input));
+			case BeanDefinitionSnapshot.TYPED_STRING_VALUE:
+				TypedStringValue typedStringValue = new TypedStringValue(readString(input), readString(input));
+				if (input.readBoolean()) {
+					typedStringValue.setDynamic();
+				}
+				return typedStringValue;
+			case BeanDefinitionSnapshot.BEAN_DEFINITION:
+				return readBeanDefinition(input);
+			case BeanDefinitionSnapshot.BEAN_DEFINITION_HOLDER:
+				return readBeanDefinitionHolder(input);
+			case BeanDefinitionSnapshot.MANAGED_ARRAY:
+				String arrayElementTypeName = readRequiredString(input);
+				boolean arrayMergeEnabled = input.readBoolean();
+				int arraySize = input.readInt();
+				ManagedArray array = new ManagedArray(arrayElementTypeName, arraySize);
+				array.setMergeEnabled(arrayMergeEnabled);
+				return readElements(input, arraySize, array);
+			case BeanDefinitionSnapshot.MANAGED_LIST:
+				ManagedList<Object> list = new ManagedList<>();
+				list.setElementTypeName(readString(input));
+				list.setMergeEnabled(input.readBoolean());
+				return readElements(input, input.readInt(), list);
+			case BeanDefinitionSnapshot.MANAGED_SET:
+				ManagedSet<Object> set = new ManagedSet<>();
+				set.setElementTypeName(readString(input));
+				set.setMergeEnabled(input.readBoolean());
+				return readElements(input, input.readInt(), set);
+			case BeanDefinitionSnapshot.MANAGED_MAP:
+				ManagedMap<Object, Object> map = new ManagedMap<>();
+				map.setKeyTypeName(readString(input));
+				map.setValueTypeName(readString(input));
+				map.setMergeEnabled(input.readBoolean());
+				return readEntries(input, map);
+			case BeanDefinitionSnapshot.MANAGED_PROPERTIES:
+				ManagedProperties managedProperties = new ManagedProperties();
+				managedProperties.setMergeEnabled(input.readBoolean());
+				return readEntries(input, managedProperties);
+			case BeanDefinitionSnapshot.PROPERTIES:
+				return readEntries(input, new Properties());
+			case BeanDefinitionSnapshot.LIST:
+				return readElements(input, input.readInt(), new ArrayList<>());
+			case BeanDefinitionSnapshot.SET:
+				return readElements(input, input.readInt(), new LinkedHashSet<>());
+			case BeanDefinitionSnapshot.MAP:
+				return readEntries(input, new LinkedHashMap<>());
+			default:
+				throw new IOException("Unknown value type in bean definition snapshot: " + type);
+		}
+	}
+
+	private <C extends Collection<Object>> C readElements(DataInputStream input, int size, C elements)
+			throws IOException {
+
+		for (int i = 0; i < size; i++) {
+			elements.add(readValue(input));
+		}
+		return elements;
+	}
+
+	private <M extends Map<Object, Object>> M readEntries(DataInputStream input, M entries) throws IOException {
+		int size = input.readInt();
+		for (int i = 0; i < size; i++) {
+			entries.put(readValue(input), readValue(input));
+		}
+		return entries;
+	}
+
+	private Class<?> resolveClass(String className) throws IOException {
+		try {
+			return ClassUtils.forName(className, getBeanClassLoader());
+		}
+		catch (ClassNotFoundException | LinkageError ex) {
+			throw new IOException("Class referenced in bean definition snapshot not found: " + className, ex);
+		}
+	}
+
+	private static String readRequiredString(DataInputStream input) throws IOException {
+		String value = readString(input);
+		if (value == null) {
+			throw new IOException("Unexpected null value in bean definition snapshot");
+		}
+		return value;
+	}
+
+	@Nullable
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Nullable
+	private static String[] readStringArray(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readString(input);
+		}
+		return values;
+	}
+
+
+	/**
+	 * {@link RootBeanDefinition} restored for a {@link Bean @Bean} method, only
+	 * accepting {@code @Bean} methods with the same derived bean name as factory
+	 * methods, like the definition registered by configuration class processing.
+	 * Keeps overloaded {@code @Bean} methods with different bean names, or plain
+	 * overloads of a {@code @Bean} method, from being considered.
+	 */
+	@SuppressWarnings("serial")
+	private static class BeanMethodDefinition extends RootBeanDefinition {
+
+		private final String derivedBeanName;
+
+		BeanMethodDefinition(String derivedBeanName) {
+			this.derivedBeanName = derivedBeanName;
+		}
+
+		private BeanMethodDefinition(BeanMethodDefinition original) {
+			super(original);
+			this.derivedBeanName = original.derivedBeanName;
+		}
+
+		@Override
+		public boolean isFactoryMethod(Method candidate) {
+			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate) &&
+					BeanAnnotationHelper.determineBeanNameFor(candidate).equals(this.derivedBeanName));
+		}
+
+		@Override
+		public BeanMethodDefinition cloneBeanDefinition() {
+			return new BeanMethodDefinition(this);
+		}
+	}
+
+}
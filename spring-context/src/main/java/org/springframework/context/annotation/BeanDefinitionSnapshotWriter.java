@@ -0,0 +1,470 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Writes a snapshot of the bean definitions of an application context after
+ * processing its {@link Configuration @Configuration} classes, typically at
+ * build time: including component scanning, {@link Conditional @Conditional}
+ * evaluation and {@link Bean @Bean} methods, along with {@link ImportAware}
+ * metadata and {@link PropertySource @PropertySource} declarations.
+ *
+ * <p>The snapshot can be loaded by a {@link BeanDefinitionSnapshotReader}
+ * or a {@link SnapshotApplicationContext}, skipping configuration class
+ * parsing and classpath scanning at runtime. Note that conditions are
+ * evaluated against the {@link org.springframework.core.env.Environment}
+ * of the given context at the time of writing, e.g. its active profiles;
+ * placeholders in bean definitions and property source locations are
+ * resolved at runtime as usual.
+ *
+ * <p>Bean definitions with an instance supplier, with method overrides, or
+ * with values other than the common bean metadata elements (references,
+ * typed strings, nested bean definitions, managed collections, and simple
+ * values) are not supported and lead to an {@link IllegalStateException}.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BeanDefinitionSnapshotReader
+ * @see SnapshotApplicationContext
+ */
+public class BeanDefinitionSnapshotWriter {
+
+	private final GenericApplicationContext context;
+
+
+	/**
+	 * Create a new BeanDefinitionSnapshotWriter for the given application context.
+	 * @param context the application context with registered component classes,
+	 * e.g. an {@link AnnotationConfigApplicationContext}; not refreshed yet
+	 */
+	public BeanDefinitionSnapshotWriter(GenericApplicationContext context) {
+		Assert.notNull(context, "ApplicationContext must not be null");
+		this.context = context;
+	}
+
+
+	/**
+	 * Process the configuration classes of the application context and write
+	 * the resulting bean definitions to the given stream.
+	 * @param out the stream to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 * @throws IllegalStateException if a bean definition cannot be written
+	 */
+	public void write(OutputStream out) throws IOException {
+		Assert.state(!this.context.isActive(), "ApplicationContext must not have been refreshed");
+		DefaultListableBeanFactory beanFactory = this.context.getDefaultListableBeanFactory();
+		ConfigurationClassPostProcessor postProcessor = new ConfigurationClassPostProcessor();
+		postProcessor.setEnvironment(this.context.getEnvironment());
+		postProcessor.setResourceLoader(this.context);
+		postProcessor.setApplicationStartup(this.context.getApplicationStartup());
+		ClassLoader classLoader = beanFactory.getBeanClassLoader();
+		if (classLoader != null) {
+			postProcessor.setBeanClassLoader(classLoader);
+		}
+		postProcessor.postProcessBeanDefinitionRegistry(beanFactory);
+
+		// The configuration classes have been processed: the runtime counterpart
+		// of ConfigurationClassPostProcessor is registered by the reader instead.
+		List<String> beanNames = new ArrayList<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			if (!AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME.equals(beanName)) {
+				beanNames.add(beanName);
+			}
+		}
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+		output.writeInt(BeanDefinitionSnapshot.MAGIC);
+		output.writeInt(BeanDefinitionSnapshot.VERSION);
+		output.writeInt(beanNames.size());
+		for (String beanName : beanNames) {
+			writeString(output, beanName);
+			writeStringArray(output, beanFactory.getAliases(beanName));
+			writeBeanDefinition(output, beanName, beanFactory.getBeanDefinition(beanName));
+		}
+
+		Map<String, String> importingClasses = new LinkedHashMap<>();
+		Object importRegistry = beanFactory.getSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME);
+		if (importRegistry instanceof ImportRegistry) {
+			for (String beanName : beanNames) {
+				String className = beanFactory.getBeanDefinition(beanName).getBeanClassName();
+				if (className != null && !importingClasses.containsKey(className)) {
+					AnnotationMetadata importingClass = ((ImportRegistry) importRegistry).getImportingClassFor(className);
+					if (importingClass != null) {
+						importingClasses.put(className, importingClass.getClassName());
+					}
+				}
+			}
+		}
+		output.writeInt(importingClasses.size());
+		for (Map.Entry<String, String> entry : importingClasses.entrySet()) {
+			writeString(output, entry.getKey());
+			writeString(output, entry.getValue());
+		}
+
+		List<AnnotationAttributes> propertySources = postProcessor.getPropertySourceAttributes();
+		output.writeInt(propertySources.size());
+		for (AnnotationAttributes propertySource : propertySources) {
+			writeString(output, propertySource.getString("name"));
+			writeStringArray(output, propertySource.getStringArray("value"));
+			output.writeBoolean(propertySource.getBoolean("ignoreResourceNotFound"));
+			writeString(output, propertySource.getString("encoding"));
+			Object factory = propertySource.get("factory");
+			writeString(output, factory instanceof Class ? ((Class<?>) factory).getName() : String.valueOf(factory));
+		}
+		output.flush();
+	}
+
+	private void writeBeanDefinition(DataOutputStream output, String beanName, BeanDefinition bd) throws IOException {
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw unsupported(beanName, "not an AbstractBeanDefinition: " + bd.getClass().getName());
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd.getInstanceSupplier() != null) {
+			throw unsupported(beanName, "instance supplier");
+		}
+		if (abd.hasMethodOverrides()) {
+			throw unsupported(beanName, "method overrides");
+		}
+
+		RootBeanDefinition rbd = (abd instanceof RootBeanDefinition ? (RootBeanDefinition) abd : null);
+		if (abd instanceof ConfigurationClassBeanDefinitionReader.ConfigurationClassBeanDefinition) {
+			// Keeps @Bean method overloads apart when resolving the factory method
+			output.writeByte(BeanDefinitionSnapshot.BEAN_METHOD_DEFINITION);
+			writeString(output, ((ConfigurationClassBeanDefinitionReader.ConfigurationClassBeanDefinition) abd)
+					.getDerivedBeanName());
+		}
+		else {
+			output.writeByte(rbd != null ?
+					BeanDefinitionSnapshot.ROOT_BEAN_DEFINITION : BeanDefinitionSnapshot.GENERIC_BEAN_DEFINITION);
+		}
+		writeString(output, abd.getParentName());
+		writeString(output, abd.getBeanClassName());
+		writeString(output, abd.getScope());
+		output.writeBoolean(abd.isAbstract());
+		Boolean lazyInit = abd.getLazyInit();
+		output.writeByte(lazyInit == null ? 0 : (lazyInit ? 2 : 1));
+		output.writeInt(abd.getAutowireMode());
+		output.writeInt(abd.getDependencyCheck());
+		writeStringArray(output, abd.getDependsOn());
+		output.writeBoolean(abd.isAutowireCandidate());
+		output.writeBoolean(abd.isPrimary());
+		Set<AutowireCandidateQualifier> qualifiers = abd.getQualifiers();
+		output.writeInt(qualifiers.size());
+		for (AutowireCandidateQualifier qualifier : qualifiers) {
+			writeString(output, qualifier.getTypeName());
+			String[] attributeNames = qualifier.attributeNames();
+			output.writeInt(attributeNames.length);
+			for (String attributeName : attributeNames) {
+				writeString(output, attributeName);
+				writeValue(output, beanName, qualifier.getAttribute(attributeName));
+			}
+		}
+		output.writeBoolean(abd.isNonPublicAccessAllowed());
+		output.writeBoolean(abd.isLenientConstructorResolution());
+		writeString(output, abd.getFactoryBeanName());
+		writeString(output, abd.getFactoryMethodName());
+
+		ConstructorArgumentValues argumentValues = abd.getConstructorArgumentValues();
+		Map<Integer, ConstructorArgumentValues.ValueHolder> indexedArgumentValues = argumentValues.getIndexedArgumentValues();
+		output.writeInt(indexedArgumentValues.size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry : indexedArgumentValues.entrySet()) {
+			output.writeInt(entry.getKey());
+			writeValueHolder(output, beanName, entry.getValue());
+		}
+		List<ConstructorArgumentValues.ValueHolder> genericArgumentValues = argumentValues.getGenericArgumentValues();
+		output.writeInt(genericArgumentValues.size());
+		for (ConstructorArgumentValues.ValueHolder valueHolder : genericArgumentValues) {
+			writeValueHolder(output, beanName, valueHolder);
+		}
+		List<PropertyValue> propertyValues = abd.getPropertyValues().getPropertyValueList();
+		output.writeInt(propertyValues.size());
+		for (PropertyValue propertyValue : propertyValues) {
+			writeString(output, propertyValue.getName());
+			writeValue(output, beanName, propertyValue.getValue());
+			output.writeBoolean(propertyValue.isOptional());
+		}
+
+		writeString(output, abd.getInitMethodName());
+		output.writeBoolean(abd.isEnforceInitMethod());
+		writeString(output, abd.getDestroyMethodName());
+		output.writeBoolean(abd.isEnforceDestroyMethod());
+		output.writeBoolean(abd.isSynthetic());
+		output.writeInt(abd.getRole());
+		writeString(output, abd.getDescription());
+		writeString(output, abd.getResourceDescription());
+		String[] attributeNames = abd.attributeNames();
+		output.writeInt(attributeNames.length);
+		for (String attributeName : attributeNames) {
+			writeString(output, attributeName);
+			writeValue(output, beanName, abd.getAttribute(attributeName));
+		}
+
+		if (rbd != null) {
+			output.writeBoolean(rbd.isFactoryMethodUnique());
+			Class<?> targetType = rbd.getTargetType();
+			if (targetType != null && rbd.getResolvableType().hasGenerics()) {
+				throw unsupported(beanName, "generic target type " + rbd.getResolvableType());
+			}
+			writeString(output, targetType != null ? targetType.getName() : null);
+			BeanDefinitionHolder decoratedDefinition = rbd.getDecoratedDefinition();
+			output.writeBoolean(decoratedDefinition != null);
+			if (decoratedDefinition != null) {
+				writeBeanDefinitionHolder(output, decoratedDefinition);
+			}
+		}
+	}
+
+	private void writeBeanDefinitionHolder(DataOutputStream output, BeanDefinitionHolder holder) throws IOException {
+		writeString(output, holder.getBeanName());
+		writeStringArray(output, holder.getAliases());
+		writeBeanDefinition(output, holder.getBeanName(), holder.getBeanDefinition());
+	}
+
+	private void writeValueHolder(DataOutputStream output, String beanName,
+			ConstructorArgumentValues.ValueHolder valueHolder) throws IOException {
+
+		writeValue(output, beanName, valueHolder.getValue());
+		writeString(output, valueHolder.getType());
+		writeString(output, valueHolder.getName());
+	}
+
+	private void writeValue(DataOutputStream output, String beanName, @Nullable Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(BeanDefinitionSnapshot.NULL);
+		}
+		else if (value instanceof String) {
+			output.writeByte(BeanDefinitionSnapshot.STRING);
+			writeString(output, (String) value);
+		}
+		else if (value instanceof Boolean) {
+			output.writeByte(BeanDefinitionSnapshot.BOOLEAN);
+			output.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			output.writeByte(BeanDefinitionSnapshot.INTEGER);
+			output.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			output.writeByte(BeanDefinitionSnapshot.LONG);
+			output.writeLong((Long) value);
+		}
+		else if (value instanceof Double) {
+			output.writeByte(BeanDefinitionSnapshot.DOUBLE);
+			output.writeDouble((Double) value);
+		}
+		else if (value instanceof Class) {
+			output.writeByte(BeanDefinitionSnapshot.CLASS);
+			writeString(output, ((Class<?>) value).getName());
+		}
+		else if (value instanceof Enum) {
+			output.writeByte(BeanDefinitionSnapshot.ENUM);
+			writeString(output, ((Enum<?>) value).getDeclaringClass().getName());
+			writeString(output, ((Enum<?>) value).name());
+		}
+		else if (value instanceof String[]) {
+			output.writeByte(BeanDefinitionSnapshot.STRING_ARRAY);
+			writeStringArray(output, (String[]) value);
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			if (reference.getBeanType() != null) {
+				throw unsupported(beanName, "bean reference by type " + reference.getBeanType().getName());
+			}
+			output.writeByte(BeanDefinitionSnapshot.BEAN_REFERENCE);
+			writeString(output, reference.getBeanName());
+			output.writeBoolean(reference.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			output.writeByte(BeanDefinitionSnapshot.BEAN_NAME_REFERENCE);
+			writeString(output, ((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedStringValue = (TypedStringValue) value;
+			output.writeByte(BeanDefinitionSnapshot.TYPED_STRING_VALUE);
+			writeString(output, typedStringValue.getValue());
+			writeString(output, typedStringValue.getTargetTypeName());
+			output.writeBoolean(typedStringValue.isDynamic());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			output.writeByte(BeanDefinitionSnapshot.BEAN_DEFINITION_HOLDER);
+			writeBeanDefinitionHolder(output, (BeanDefinitionHolder) value);
+		}
+		else if (value instanceof BeanDefinition) {
+			output.writeByte(BeanDefinitionSnapshot.BEAN_DEFINITION);
+			writeBeanDefinition(output, beanName, (BeanDefinition) value);
+		}
+		else if (value instanceof ManagedArray) {
+			ManagedArray array = (ManagedArray) value;
+			output.writeByte(BeanDefinitionSnapshot.MANAGED_ARRAY);
+			writeString(output, array.getElementTypeName());
+			output.writeBoolean(array.isMergeEnabled());
+			writeElements(output, beanName, array);
+		}
+		else if (value instanceof ManagedList) {
+			ManagedList<?> list = (ManagedList<?>) value;
+			output.writeByte(BeanDefinitionSnapshot.MANAGED_LIST);
+			writeString(output, list.getElementTypeName());
+			output.writeBoolean(list.isMergeEnabled());
+			writeElements(output, beanName, list);
+		}
+		else if (value instanceof ManagedSet) {
+			ManagedSet<?> set = (ManagedSet<?>) value;
+			output.writeByte(BeanDefinitionSnapshot.MANAGED_SET);
+			writeString(output, set.getElementTypeName());
+			output.writeBoolean(set.isMergeEnabled());
+			writeElements(output, beanName, set);
+		}
+		else if (value instanceof ManagedMap) {
+			ManagedMap<?, ?> map = (ManagedMap<?, ?>) value;
+			output.writeByte(BeanDefinitionSnapshot.MANAGED_MAP);
+			writeString(output, map.getKeyTypeName());
+			writeString(output, map.getValueTypeName());
+			output.writeBoolean(map.isMergeEnabled());
+			writeEntries(output, beanName, map);
+		}
+		else if (value instanceof ManagedProperties) {
+			ManagedProperties properties = (ManagedProperties) value;
+			output.writeByte(BeanDefinitionSnapshot.MANAGED_PROPERTIES);
+			output.writeBoolean(properties.isMergeEnabled());
+			writeEntries(output, beanName, properties);
+		}
+		else if (value instanceof Properties) {
+			output.writeByte(BeanDefinitionSnapshot.PROPERTIES);
+			writeEntries(output, beanName, (Properties) value);
+		}
+		else if (value instanceof List) {
+			output.writeByte(BeanDefinitionSnapshot.LIST);
+			writeElements(output, beanName, (List<?>) value);
+		}
+		else if (value instanceof Set) {
+			output.writeByte(BeanDefinitionSnapshot.SET);
+			writeElements(output, beanName, (Set<?>) value);
+		}
+		else if (value instanceof Map) {
+			output.writeByte(BeanDefinitionSnapshot.MAP);
+			writeEntries(output, beanName, (Map<?, ?>) value);
+		}
+		else {
+			throw unsupported(beanName, "value of type " + value.getClass().getName());
+		}
+	}
+
+	private void writeElements(DataOutputStream output, String beanName, Collection<?> elements) throws IOException {
+		output.writeInt(elements.size());
+		for (Object element : elements) {
+			writeValue(output, beanName, element);
+		}
+	}
+
+	private void writeEntries(DataOutputStream output, String beanName, Map<?, ?> entries) throws IOException {
+		output.writeInt(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			writeValue(output, beanName, entry.getKey());
+			writeValue(output, beanName, entry.getValue());
+		}
+	}
+
+	private static void writeString(DataOutputStream output, @Nullable String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+		}
+		else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	private static void writeStringArray(DataOutputStream output, @Nullable String[] values) throws IOException {
+		if (values == null) {
+			output.writeInt(-1);
+		}
+		else {
+			output.writeInt(values.length);
+			for (String value : values) {
+				writeString(output, value);
+			}
+		}
+	}
+
+	private static IllegalStateException unsupported(String beanName, String reason) {
+		return new IllegalStateException(
+				"Cannot write bean definition '" + beanName + "' to snapshot: unsupported " + reason);
+	}
+
+
+	/**
+	 * Write a snapshot for the given component classes to the given file,
+	 * e.g. as part of a build: {@code <output file> <component class>...}.
+	 * <p>Active profiles and other properties are taken from the system
+	 * properties and environment variables of the current JVM.
+	 * @param args the output file, followed by the component classes
+	 * @throws Exception if the snapshot could not be written
+	 */
+	public static void main(String[] args) throws Exception {
+		Assert.isTrue(args.length > 1, "Usage: BeanDefinitionSnapshotWriter <output file> <component class>...");
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		Class<?>[] componentClasses = new Class<?>[args.length - 1];
+		for (int i = 1; i < args.length; i++) {
+			componentClasses[i - 1] = ClassUtils.forName(args[i], classLoader);
+		}
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(componentClasses);
+		try (OutputStream out = Files.newOutputStream(Paths.get(args[0]))) {
+			new BeanDefinitionSnapshotWriter(context).write(out);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,10 +20,13 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +39,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.index.CandidateComponentsIndex;
 import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -89,6 +93,15 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	private static final boolean shouldScanInParallel =
+			SpringProperties.getFlag(PathMatchingResourcePatternResolver.PARALLEL_SCANNING_PROPERTY_NAME);
+
+	private static final boolean shouldUsePartialIndex =
+			SpringProperties.getFlag(CandidateComponentsIndexLoader.PARTIAL_INDEX);
+
+	/** Number of candidate classes below which a scan task is not split further. */
+	private static final int PARALLEL_SCAN_THRESHOLD = 16;
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -113,6 +126,11 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	private boolean scanUnindexedLocations = shouldUsePartialIndex;
+
+	@Nullable
+	private ForkJoinPool forkJoinPool = (shouldScanInParallel ? ForkJoinPool.commonPool() : null);
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -307,6 +325,39 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return this.metadataReaderFactory;
 	}
 
+	/**
+	 * Set a {@link ForkJoinPool} for reading and evaluating candidate classes
+	 * in parallel when scanning the class path.
+	 * <p>Candidate components are returned in the same order as in sequential
+	 * mode, and a failure is reported for the first failing class in that order.
+	 * The {@link MetadataReaderFactory}, the include and exclude filters, and
+	 * any {@link Conditional @Conditional} conditions need to be thread-safe.
+	 * <p>Default is none, unless the
+	 * {@link PathMatchingResourcePatternResolver#PARALLEL_SCANNING_PROPERTY_NAME}
+	 * flag is set, in which case the common pool is used. For searching the class
+	 * path in parallel as well, see {@link PathMatchingResourcePatternResolver#setForkJoinPool}.
+	 * @since 5.3.24
+	 */
+	public void setForkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Set whether to scan the locations of the class path that are not covered by
+	 * the components index, if an index is used. Candidate components of indexed
+	 * locations are taken from the index while classes of other locations, e.g.
+	 * jar files that have been built without {@code spring-context-indexer}, are
+	 * scanned.
+	 * <p>Default is "false", i.e. the index is assumed to cover the whole class
+	 * path, unless the {@link CandidateComponentsIndexLoader#PARTIAL_INDEX} flag
+	 * is set.
+	 * @since 5.3.24
+	 * @see CandidateComponentsIndex#isIndexed(Resource)
+	 */
+	public void setScanUnindexedLocations(boolean scanUnindexedLocations) {
+		this.scanUnindexedLocations = scanUnindexedLocations;
+	}
+
 
 	/**
 	 * Scan the class path for candidate components.
@@ -315,10 +366,13 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 */
 	public Set<BeanDefinition> findCandidateComponents(String basePackage) {
 		if (this.componentsIndex != null && indexSupportsIncludeFilters()) {
+			if (this.scanUnindexedLocations) {
+				return addCandidateComponentsFromPartialIndex(this.componentsIndex, basePackage);
+			}
 			return addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
 		}
 		else {
-			return scanCandidateComponents(basePackage);
+			return scanCandidateComponents(basePackage, null);
 		}
 	}
 
@@ -418,50 +472,53 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
-	private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
+	private Set<BeanDefinition> addCandidateComponentsFromPartialIndex(CandidateComponentsIndex index, String basePackage) {
+		Set<BeanDefinition> candidates = addCandidateComponentsFromIndex(index, basePackage);
+		Set<String> indexedTypes = new HashSet<>();
+		candidates.forEach(candidate -> indexedTypes.add(candidate.getBeanClassName()));
+		for (BeanDefinition candidate : scanCandidateComponents(basePackage, index)) {
+			// Guard against an index whose location is not known
+			if (!indexedTypes.contains(candidate.getBeanClassName())) {
+				candidates.add(candidate);
+			}
+		}
+		return candidates;
+	}
+
+	private Set<BeanDefinition> scanCandidateComponents(String basePackage, @Nullable CandidateComponentsIndex index) {
 		Set<BeanDefinition> candidates = new LinkedHashSet<>();
 		try {
 			String packageSearchPath = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
 					resolveBasePackage(basePackage) + '/' + this.resourcePattern;
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
-			boolean traceEnabled = logger.isTraceEnabled();
-			boolean debugEnabled = logger.isDebugEnabled();
-			for (Resource resource : resources) {
-				if (traceEnabled) {
-					logger.trace("Scanning " + resource);
-				}
-				try {
-					MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
-					if (isCandidateComponent(metadataReader)) {
-						ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
-						sbd.setSource(resource);
-						if (isCandidateComponent(sbd)) {
-							if (debugEnabled) {
-								logger.debug("Identified candidate component class: " + resource);
-							}
-							candidates.add(sbd);
-						}
-						else {
-							if (debugEnabled) {
-								logger.debug("Ignored because not a concrete top-level class: " + resource);
-							}
-						}
+			if (index != null) {
+				// Only scan the locations that are not covered by the index
+				resources = Arrays.stream(resources).filter(resource -> !index.isIndexed(resource))
+						.toArray(Resource[]::new);
+			}
+			ForkJoinPool forkJoinPool = this.forkJoinPool;
+			if (forkJoinPool != null && resources.length > PARALLEL_SCAN_THRESHOLD) {
+				// Resolve lazily initialized state before scanning concurrently
+				getMetadataReaderFactory();
+				getConditionEvaluator();
+				Object[] results = new Object[resources.length];
+				forkJoinPool.invoke(new ScanTask(resources, results, 0, resources.length));
+				for (Object result : results) {
+					if (result instanceof BeanDefinitionStoreException) {
+						throw (BeanDefinitionStoreException) result;
 					}
-					else {
-						if (traceEnabled) {
-							logger.trace("Ignored because not matching any filter: " + resource);
-						}
+					if (result != null) {
+						candidates.add((BeanDefinition) result);
 					}
 				}
-				catch (FileNotFoundException ex) {
-					if (traceEnabled) {
-						logger.trace("Ignored non-readable " + resource + ": " + ex.getMessage());
+			}
+			else {
+				for (Resource resource : resources) {
+					ScannedGenericBeanDefinition candidate = scanCandidateComponent(resource);
+					if (candidate != null) {
+						candidates.add(candidate);
 					}
 				}
-				catch (Throwable ex) {
-					throw new BeanDefinitionStoreException(
-							"Failed to read candidate component class: " + resource, ex);
-				}
 			}
 		}
 		catch (IOException ex) {
@@ -470,6 +527,48 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	@Nullable
+	private ScannedGenericBeanDefinition scanCandidateComponent(Resource resource) {
+		boolean traceEnabled = logger.isTraceEnabled();
+		boolean debugEnabled = logger.isDebugEnabled();
+		if (traceEnabled) {
+			logger.trace("Scanning " + resource);
+		}
+		try {
+			MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
+			if (isCandidateComponent(metadataReader)) {
+				ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
+				sbd.setSource(resource);
+				if (isCandidateComponent(sbd)) {
+					if (debugEnabled) {
+						logger.debug("Identified candidate component class: " + resource);
+					}
+					return sbd;
+				}
+				else {
+					if (debugEnabled) {
+						logger.debug("Ignored because not a concrete top-level class: " + resource);
+					}
+				}
+			}
+			else {
+				if (traceEnabled) {
+					logger.trace("Ignored because not matching any filter: " + resource);
+				}
+			}
+		}
+		catch (FileNotFoundException ex) {
+			if (traceEnabled) {
+				logger.trace("Ignored non-readable " + resource + ": " + ex.getMessage());
+			}
+		}
+		catch (Throwable ex) {
+			throw new BeanDefinitionStoreException(
+					"Failed to read candidate component class: " + resource, ex);
+		}
+		return null;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -510,11 +609,15 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	 * @return whether the class qualifies as a candidate component
 	 */
 	private boolean isConditionMatch(MetadataReader metadataReader) {
+		return !getConditionEvaluator().shouldSkip(metadataReader.getAnnotationMetadata());
+	}
+
+	private ConditionEvaluator getConditionEvaluator() {
 		if (this.conditionEvaluator == null) {
 			this.conditionEvaluator =
 					new ConditionEvaluator(getRegistry(), this.environment, this.resourcePatternResolver);
 		}
-		return !this.conditionEvaluator.shouldSkip(metadataReader.getAnnotationMetadata());
+		return this.conditionEvaluator;
 	}
 
 	/**
@@ -543,4 +646,47 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		}
 	}
 
+
+	/**
+	 * Task scanning a range of resources, splitting it for parallel execution.
+	 * Stores the candidate component or the failure for each resource.
+	 */
+	@SuppressWarnings("serial")
+	private class ScanTask extends RecursiveAction {
+
+		private final Resource[] resources;
+
+		private final Object[] results;
+
+		private final int from;
+
+		private final int to;
+
+		ScanTask(Resource[] resources, Object[] results, int from, int to) {
+			this.resources = resources;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > PARALLEL_SCAN_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ScanTask(this.resources, this.results, this.from, middle),
+						new ScanTask(this.resources, this.results, middle, this.to));
+			}
+			else {
+				for (int i = this.from; i < this.to; i++) {
+					try {
+						this.results[i] = scanCandidateComponent(this.resources[i]);
+					}
+					catch (BeanDefinitionStoreException ex) {
+						this.results[i] = ex;
+					}
+				}
+			}
+		}
+	}
+
 }
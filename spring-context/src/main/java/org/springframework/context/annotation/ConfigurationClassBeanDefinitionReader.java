@@ -404,7 +404,7 @@ class ConfigurationClassBeanDefinitionReader {
 	 * definition was created externally.
 	 */
 	@SuppressWarnings("serial")
-	private static class ConfigurationClassBeanDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
+	static class ConfigurationClassBeanDefinition extends RootBeanDefinition implements AnnotatedBeanDefinition {
 
 		private final AnnotationMetadata annotationMetadata;
 
@@ -448,6 +448,14 @@ class ConfigurationClassBeanDefinitionReader {
 			return this.factoryMethodMetadata;
 		}
 
+		/**
+		 * Return the bean name derived from the {@code @Bean} method,
+		 * identifying the factory method candidates for this definition.
+		 */
+		public String getDerivedBeanName() {
+			return this.derivedBeanName;
+		}
+
 		@Override
 		public boolean isFactoryMethod(Method candidate) {
 			return (super.isFactoryMethod(candidate) && BeanAnnotationHelper.isBeanAnnotated(candidate) &&
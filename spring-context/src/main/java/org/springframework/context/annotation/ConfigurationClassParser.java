@@ -140,6 +140,8 @@ class ConfigurationClassParser {
 
 	private final List<String> propertySourceNames = new ArrayList<>();
 
+	private final List<AnnotationAttributes> propertySourceAttributes = new ArrayList<>();
+
 	private final ImportStack importStack = new ImportStack();
 
 	private final DeferredImportSelectorHandler deferredImportSelectorHandler = new DeferredImportSelectorHandler();
@@ -166,6 +168,15 @@ class ConfigurationClassParser {
 	}
 
 
+	/**
+	 * Use the {@link MetadataReaderFactory} of this parser for component scanning
+	 * as well, rather than a default one for the {@link ResourceLoader}.
+	 */
+	void useMetadataReaderFactoryForComponentScanning() {
+		this.componentScanParser.setMetadataReaderFactory(this.metadataReaderFactory);
+	}
+
+
 	public void parse(Set<BeanDefinitionHolder> configCandidates) {
 		// 根据BeanDefinition类型的不同，调用parse()不同的重载方法
 		// 实际上最终都是调用processConfigurationClass()方法
@@ -514,7 +525,8 @@ class ConfigurationClassParser {
 	 * @param propertySource metadata for the <code>@PropertySource</code> annotation found
 	 * @throws IOException if loading a property source failed
 	 */
-	private void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+	void processPropertySource(AnnotationAttributes propertySource) throws IOException {
+		this.propertySourceAttributes.add(propertySource);
 		String name = propertySource.getString("name");
 		if (!StringUtils.hasLength(name)) {
 			name = null;
@@ -724,6 +736,15 @@ class ConfigurationClassParser {
 		return this.importStack;
 	}
 
+	/**
+	 * Return the metadata of all <code>@PropertySource</code> annotations
+	 * processed so far, in processing order.
+	 * @since 5.3.24
+	 */
+	List<AnnotationAttributes> getPropertySourceAttributes() {
+		return this.propertySourceAttributes;
+	}
+
 
 	/**
 	 * Factory method to obtain a {@link SourceClass} from a {@link ConfigurationClass}.
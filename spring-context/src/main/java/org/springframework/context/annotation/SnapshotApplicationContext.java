@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.Resource;
+
+/**
+ * Application context that loads its bean definitions from snapshots written
+ * at build time by a {@link BeanDefinitionSnapshotWriter}, skipping the parsing
+ * of configuration classes and classpath scanning on startup. To be configured
+ * via {@link #load} with an eventual {@link #refresh()} call activating the
+ * context, or through one of the loading constructors.
+ *
+ * <p>Conditions have been evaluated when the snapshot was written: profiles
+ * and properties that {@code @Conditional} declarations depend on need to match
+ * between build time and runtime. {@code @PropertySource} declarations are
+ * applied to the runtime environment as usual.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see #load
+ * @see BeanDefinitionSnapshotReader
+ * @see AnnotationConfigApplicationContext
+ */
+public class SnapshotApplicationContext extends GenericApplicationContext {
+
+	private final BeanDefinitionSnapshotReader reader = new BeanDefinitionSnapshotReader(this);
+
+
+	/**
+	 * Create a new SnapshotApplicationContext that needs to be
+	 * {@link #load loaded} and then manually {@link #refresh refreshed}.
+	 */
+	public SnapshotApplicationContext() {
+	}
+
+	/**
+	 * Create a new SnapshotApplicationContext, loading bean definitions
+	 * from the given snapshots and automatically refreshing the context.
+	 * @param resources the snapshots to load from
+	 */
+	public SnapshotApplicationContext(Resource... resources) {
+		load(resources);
+		refresh();
+	}
+
+	/**
+	 * Create a new SnapshotApplicationContext, loading bean definitions
+	 * from the given snapshot locations and automatically refreshing the context.
+	 * @param resourceLocations the snapshots to load from
+	 */
+	public SnapshotApplicationContext(String... resourceLocations) {
+		load(resourceLocations);
+		refresh();
+	}
+
+
+	/**
+	 * Exposes the underlying {@link BeanDefinitionSnapshotReader} for additional
+	 * configuration facilities and {@code loadBeanDefinition} variations.
+	 */
+	public final BeanDefinitionSnapshotReader getReader() {
+		return this.reader;
+	}
+
+	/**
+	 * Delegates the given environment to underlying {@link BeanDefinitionSnapshotReader}.
+	 * Should be called before any call to {@code #load}.
+	 */
+	@Override
+	public void setEnvironment(ConfigurableEnvironment environment) {
+		super.setEnvironment(environment);
+		this.reader.setEnvironment(getEnvironment());
+	}
+
+
+	/**
+	 * Load bean definitions from the given snapshots.
+	 * @param resources one or more snapshots to load from
+	 */
+	public void load(Resource... resources) {
+		this.reader.loadBeanDefinitions(resources);
+	}
+
+	/**
+	 * Load bean definitions from the given snapshots.
+	 * @param resourceLocations one or more snapshot locations to load from
+	 */
+	public void load(String... resourceLocations) {
+		this.reader.loadBeanDefinitions(resourceLocations);
+	}
+
+}
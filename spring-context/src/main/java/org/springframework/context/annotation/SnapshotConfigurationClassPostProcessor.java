@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.beans.factory.parsing.FailFastProblemReporter;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Runtime counterpart of {@link ConfigurationClassPostProcessor} for bean
+ * definitions loaded from a snapshot: applies the recorded {@code @PropertySource}
+ * declarations, enhances {@code @Configuration} classes and exposes the recorded
+ * importing classes to {@link ImportAware} beans, without parsing any
+ * configuration class.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BeanDefinitionSnapshotReader
+ */
+final class SnapshotConfigurationClassPostProcessor implements BeanDefinitionRegistryPostProcessor,
+		PriorityOrdered, EnvironmentAware, ResourceLoaderAware, BeanClassLoaderAware {
+
+	private final List<AnnotationAttributes> propertySources = new ArrayList<>();
+
+	private final SnapshotImportRegistry importRegistry = new SnapshotImportRegistry();
+
+	@Nullable
+	private Environment environment;
+
+	private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+	@Nullable
+	private ClassLoader beanClassLoader = ClassUtils.getDefaultClassLoader();
+
+
+	void addPropertySource(AnnotationAttributes propertySource) {
+		this.propertySources.add(propertySource);
+	}
+
+	void addImportingClass(String importedClass, String importingClass) {
+		this.importRegistry.importingClasses.put(importedClass, importingClass);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;  // within PriorityOrdered, like ConfigurationClassPostProcessor
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void setResourceLoader(ResourceLoader resourceLoader) {
+		this.resourceLoader = resourceLoader;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader beanClassLoader) {
+		this.beanClassLoader = beanClassLoader;
+		this.importRegistry.classLoader = beanClassLoader;
+	}
+
+
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+		if (!this.propertySources.isEmpty()) {
+			Environment environment = (this.environment != null ? this.environment : new StandardEnvironment());
+			ConfigurationClassParser parser = new ConfigurationClassParser(
+					new SimpleMetadataReaderFactory(this.resourceLoader), new FailFastProblemReporter(),
+					environment, this.resourceLoader, AnnotationBeanNameGenerator.INSTANCE, registry);
+			for (AnnotationAttributes propertySource : this.propertySources) {
+				try {
+					parser.processPropertySource(propertySource);
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException(
+							"Failed to process @PropertySource " + propertySource + " from snapshot", ex);
+				}
+			}
+		}
+		if (registry instanceof SingletonBeanRegistry) {
+			SingletonBeanRegistry sbr = (SingletonBeanRegistry) registry;
+			if (!sbr.containsSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME)) {
+				sbr.registerSingleton(ConfigurationClassPostProcessor.IMPORT_REGISTRY_BEAN_NAME, this.importRegistry);
+			}
+		}
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		ConfigurationClassPostProcessor delegate = new ConfigurationClassPostProcessor();
+		if (this.beanClassLoader != null) {
+			delegate.setBeanClassLoader(this.beanClassLoader);
+		}
+		delegate.enhanceConfigurationClasses(beanFactory);
+		beanFactory.addBeanPostProcessor(new ConfigurationClassPostProcessor.ImportAwareBeanPostProcessor(beanFactory));
+	}
+
+
+	/**
+	 * {@link ImportRegistry} backed by the class names recorded in the snapshot,
+	 * introspecting an importing class on first access only.
+	 */
+	private static class SnapshotImportRegistry implements ImportRegistry {
+
+		final Map<String, String> importingClasses = new ConcurrentHashMap<>();
+
+		private final Map<String, AnnotationMetadata> metadataCache = new ConcurrentHashMap<>();
+
+		@Nullable
+		volatile ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+		@Override
+		@Nullable
+		public AnnotationMetadata getImportingClassFor(String importedClass) {
+			String importingClass = this.importingClasses.get(importedClass);
+			if (importingClass == null) {
+				return null;
+			}
+			return this.metadataCache.computeIfAbsent(importingClass, className -> {
+				try {
+					return AnnotationMetadata.introspect(ClassUtils.forName(className, this.classLoader));
+				}
+				catch (ClassNotFoundException ex) {
+					throw new IllegalStateException("Importing class [" + className + "] not found", ex);
+				}
+			});
+		}
+
+		@Override
+		public void removeImportingClass(String importingClass) {
+			this.importingClasses.values().removeIf(importingClass::equals);
+			this.metadataCache.remove(importingClass);
+		}
+	}
+
+}
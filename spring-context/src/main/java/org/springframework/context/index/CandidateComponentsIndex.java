@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,24 @@
 
 package org.springframework.context.index;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 
 /**
  * Provide access to the candidates that are defined in {@code META-INF/spring.components}.
@@ -43,6 +51,12 @@ import org.springframework.util.MultiValueMap;
  * not a rule. Similarly, the {@code stereotype} is usually the fully qualified name of
  * a target type but it can be any marker really.
  *
+ * <p>An index written by a recent version of {@code spring-context-indexer} also
+ * provides details on each candidate type, see {@link #getSuperTypes(String)},
+ * {@link #isConditional(String)} and {@link #getBeanMethods(String)}. The index
+ * knows about the locations of the classpath it has been built for as well, see
+ * {@link #isIndexed(Resource)}.
+ *
  * @author Stephane Nicoll
  * @since 5.0
  */
@@ -50,11 +64,35 @@ public class CandidateComponentsIndex {
 
 	private static final AntPathMatcher pathMatcher = new AntPathMatcher(".");
 
+	private static final String SUPER_TYPES_SUFFIX = "#superTypes";
+
+	private static final String CONDITIONAL_SUFFIX = "#conditional";
+
+	private static final String BEAN_METHODS_SUFFIX = "#beanMethods";
+
+
 	private final MultiValueMap<String, Entry> index;
 
+	private final Map<String, TypeDetails> details;
+
+	private final List<String> locations;
+
 
 	CandidateComponentsIndex(List<Properties> content) {
+		this(content, Collections.emptyList(), Collections.emptyList());
+	}
+
+	/**
+	 * Create a new index.
+	 * @param content the content of each index
+	 * @param details the details of the candidate types of each index, if any
+	 * @param locations the locations of the classpath that the indexes have been
+	 * built for, as external form of their URL
+	 */
+	CandidateComponentsIndex(List<Properties> content, List<Properties> details, List<String> locations) {
 		this.index = parseIndex(content);
+		this.details = parseDetails(details);
+		this.locations = locations;
 	}
 
 	private static MultiValueMap<String, Entry> parseIndex(List<Properties> content) {
@@ -70,6 +108,29 @@ public class CandidateComponentsIndex {
 		return index;
 	}
 
+	private static Map<String, TypeDetails> parseDetails(List<Properties> content) {
+		Map<String, TypeDetails> details = new HashMap<>();
+		for (Properties entry : content) {
+			entry.forEach((key, value) -> {
+				String name = (String) key;
+				if (name.endsWith(SUPER_TYPES_SUFFIX)) {
+					String type = name.substring(0, name.length() - SUPER_TYPES_SUFFIX.length());
+					// The first index that provides a type wins, as for class loading
+					details.putIfAbsent(type, new TypeDetails(
+							new LinkedHashSet<>(split((String) value, ",")),
+							Boolean.parseBoolean(entry.getProperty(type + CONDITIONAL_SUFFIX)),
+							split(entry.getProperty(type + BEAN_METHODS_SUFFIX), ";")));
+				}
+			});
+		}
+		return details;
+	}
+
+	private static List<String> split(@Nullable String value, String separator) {
+		return (StringUtils.hasLength(value) ?
+				Collections.unmodifiableList(Arrays.asList(value.split(separator))) : Collections.emptyList());
+	}
+
 
 	/**
 	 * Return the candidate types that are associated with the specified stereotype.
@@ -89,6 +150,88 @@ public class CandidateComponentsIndex {
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Determine whether details are available for the specified candidate type,
+	 * i.e. whether it has been indexed by a version of {@code spring-context-indexer}
+	 * that records them.
+	 * @param type the candidate type
+	 * @since 5.3.24
+	 */
+	public boolean hasDetails(String type) {
+		return this.details.containsKey(type);
+	}
+
+	/**
+	 * Return the super classes and interfaces of the specified candidate type,
+	 * excluding {@code java.lang.Object}.
+	 * @param type the candidate type
+	 * @return the names of the super types or an empty set if none or if no
+	 * details are available for the specified {@code type}
+	 * @since 5.3.24
+	 * @see #hasDetails(String)
+	 */
+	public Set<String> getSuperTypes(String type) {
+		TypeDetails typeDetails = this.details.get(type);
+		return (typeDetails != null ? typeDetails.superTypes : Collections.emptySet());
+	}
+
+	/**
+	 * Determine whether the specified candidate type is annotated or
+	 * meta-annotated with {@link org.springframework.context.annotation.Conditional
+	 * @Conditional}, e.g. through {@code @Profile}.
+	 * @param type the candidate type
+	 * @return whether the type is conditional, {@code true} if no details are
+	 * available for the specified {@code type}
+	 * @since 5.3.24
+	 * @see #hasDetails(String)
+	 */
+	public boolean isConditional(String type) {
+		TypeDetails typeDetails = this.details.get(type);
+		return (typeDetails == null || typeDetails.conditional);
+	}
+
+	/**
+	 * Return the signatures of the {@link org.springframework.context.annotation.Bean
+	 * @Bean} methods declared by the specified candidate type and its super classes,
+	 * in the form {@code name(parameterTypes):returnType} using erased types.
+	 * @param type the candidate type
+	 * @return the method signatures or an empty list if none or if no details
+	 * are available for the specified {@code type}
+	 * @since 5.3.24
+	 * @see #hasDetails(String)
+	 */
+	public List<String> getBeanMethods(String type) {
+		TypeDetails typeDetails = this.details.get(type);
+		return (typeDetails != null ? typeDetails.beanMethods : Collections.emptyList());
+	}
+
+	/**
+	 * Determine whether the specified resource belongs to a location of the
+	 * classpath that has been indexed, that is a jar file or a directory that
+	 * provides a {@value CandidateComponentsIndexLoader#COMPONENTS_RESOURCE_LOCATION}
+	 * file. Classes of other locations are unknown to this index.
+	 * @param resource the resource to check, usually a class file
+	 * @since 5.3.24
+	 */
+	public boolean isIndexed(Resource resource) {
+		if (this.locations.isEmpty()) {
+			return false;
+		}
+		String url;
+		try {
+			url = resource.getURL().toExternalForm();
+		}
+		catch (IOException ex) {
+			return false;
+		}
+		for (String location : this.locations) {
+			if (url.startsWith(location)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 
 	private static class Entry {
 
@@ -111,4 +254,20 @@ public class CandidateComponentsIndex {
 		}
 	}
 
+
+	private static class TypeDetails {
+
+		private final Set<String> superTypes;
+
+		private final boolean conditional;
+
+		private final List<String> beanMethods;
+
+		TypeDetails(Set<String> superTypes, boolean conditional, List<String> beanMethods) {
+			this.superTypes = Collections.unmodifiableSet(superTypes);
+			this.conditional = conditional;
+			this.beanMethods = beanMethods;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,15 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
 
+	/**
+	 * The location to look for details on the candidate types of the
+	 * {@value #COMPONENTS_RESOURCE_LOCATION} file next to it.
+	 * <p>Written by {@code spring-context-indexer} along with the components index.
+	 * @since 5.3.24
+	 * @see CandidateComponentsIndex#hasDetails(String)
+	 */
+	public static final String DETAILS_RESOURCE_LOCATION = "META-INF/spring.components.details";
+
 	/**
 	 * System property that instructs Spring to ignore the components index, i.e.
 	 * to always return {@code null} from {@link #loadIndex(ClassLoader)}.
@@ -58,6 +67,16 @@ public final class CandidateComponentsIndexLoader {
 	 */
 	public static final String IGNORE_INDEX = "spring.index.ignore";
 
+	/**
+	 * System property that instructs Spring to use the components index for the
+	 * locations of the classpath it is available for, scanning the other locations.
+	 * <p>The default is "false", i.e. if any location provides an index, the
+	 * index is assumed to cover the whole application.
+	 * @since 5.3.24
+	 * @see CandidateComponentsIndex#isIndexed(org.springframework.core.io.Resource)
+	 */
+	public static final String PARTIAL_INDEX = "spring.index.partial";
+
 
 	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
 
@@ -101,16 +120,28 @@ public final class CandidateComponentsIndexLoader {
 				return null;
 			}
 			List<Properties> result = new ArrayList<>();
+			List<Properties> details = new ArrayList<>();
+			List<String> locations = new ArrayList<>();
 			while (urls.hasMoreElements()) {
 				URL url = urls.nextElement();
 				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(url));
 				result.add(properties);
+				String externalForm = url.toExternalForm();
+				if (externalForm.endsWith(COMPONENTS_RESOURCE_LOCATION)) {
+					String location = externalForm.substring(
+							0, externalForm.length() - COMPONENTS_RESOURCE_LOCATION.length());
+					UrlResource detailsResource = new UrlResource(location + DETAILS_RESOURCE_LOCATION);
+					if (detailsResource.exists()) {
+						details.add(PropertiesLoaderUtils.loadProperties(detailsResource));
+					}
+					locations.add(location);
+				}
 			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("Loaded " + result.size() + " index(es)");
 			}
 			int totalCount = result.stream().mapToInt(Properties::size).sum();
-			return (totalCount > 0 ? new CandidateComponentsIndex(result) : null);
+			return (totalCount > 0 ? new CandidateComponentsIndex(result, details, locations) : null);
 		}
 		catch (IOException ex) {
 			throw new IllegalStateException("Unable to load indexes from location [" +
@@ -347,6 +347,25 @@ public abstract class AbstractAopProxyTests {
 		assertThat(di.getCount()).as("3 more invocations via AOP as the first call was reentrant through the proxy").isEqualTo(4);
 	}
 
+	@Test
+	public void testTargetCanGetProxyWhenFrozen() {
+		NopInterceptor di = new NopInterceptor();
+		INeedsToSeeProxy target = new TargetChecker();
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setExposeProxy(true);
+		proxyFactory.addAdvice(0, di);
+		proxyFactory.setFrozen(true);
+
+		INeedsToSeeProxy proxied = (INeedsToSeeProxy) createProxy(proxyFactory);
+		proxied.incrementViaThis();
+		assertThat(target.getCount()).isEqualTo(1);
+		assertThat(di.getCount()).isEqualTo(1);
+		proxied.incrementViaProxy();
+		assertThat(target.getCount()).isEqualTo(2);
+		assertThat(di.getCount()).isEqualTo(3);
+		assertThatIllegalStateException().isThrownBy(AopContext::currentProxy);
+	}
+
 	@Test
 	// Should fail to get proxy as exposeProxy wasn't set to true
 	public void testTargetCantGetProxyByDefault() {
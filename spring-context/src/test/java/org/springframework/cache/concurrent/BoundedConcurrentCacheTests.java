@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cache.CacheStatistics;
+import org.springframework.context.testfixture.cache.AbstractValueAdaptingCacheTests;
+import org.springframework.core.serializer.support.SerializationDelegate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BoundedConcurrentCache}.
+ *
+ * @author haozhifeng
+ */
+public class BoundedConcurrentCacheTests extends AbstractValueAdaptingCacheTests<BoundedConcurrentCache> {
+
+	private final TestClock clock = new TestClock();
+
+	protected BoundedConcurrentCache cache;
+
+	protected BoundedConcurrentCache cacheNoNull;
+
+
+	@BeforeEach
+	public void setup() {
+		BoundedCacheConfiguration configuration = BoundedCacheConfiguration.defaultConfig().maximumSize(1000);
+		this.cache = new BoundedConcurrentCache(CACHE_NAME, configuration, true);
+		this.cacheNoNull = new BoundedConcurrentCache(CACHE_NAME_NO_NULL, configuration, false);
+	}
+
+	@Override
+	protected BoundedConcurrentCache getCache() {
+		return getCache(true);
+	}
+
+	@Override
+	protected BoundedConcurrentCache getCache(boolean allowNull) {
+		return allowNull ? this.cache : this.cacheNoNull;
+	}
+
+	@Override
+	protected Object getNativeCache() {
+		return this.cache;
+	}
+
+
+	@Test
+	public void maximumSize() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.maximumSize(3).concurrencyLevel(1));
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.put("c", "3");
+		cache.get("a");
+		cache.put("d", "4");
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("a")).isNotNull();
+		assertThat(cache.get("c")).isNotNull();
+		assertThat(cache.get("d")).isNotNull();
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void maximumSizeIsSpreadOverSegments() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig().maximumSize(1000));
+		for (int i = 0; i < 10_000; i++) {
+			cache.put(i, i);
+		}
+		assertThat(cache.size()).isEqualTo(1000);
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(9000);
+	}
+
+	@Test
+	public void maximumWeight() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.maximumWeight(10, (key, value) -> ((String) value).length()).concurrencyLevel(1));
+		cache.put("a", "12345");
+		cache.put("b", "1234");
+		cache.put("c", "12");
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isNotNull();
+		assertThat(cache.get("c")).isNotNull();
+
+		cache.put("b", "1234567890");
+		assertThat(cache.get("b")).isNotNull();
+		assertThat(cache.get("c")).isNull();
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void expireAfterWrite() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.expireAfterWrite(Duration.ofSeconds(10)));
+		cache.put("a", "1");
+		this.clock.advance(Duration.ofSeconds(5));
+		assertThat(cache.get("a")).isNotNull();
+		this.clock.advance(Duration.ofSeconds(5));
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getStatistics()).isEqualTo(new CacheStatistics(1, 1, 1));
+	}
+
+	@Test
+	public void expireAfterWriteSweepsUnreadEntries() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.expireAfterWrite(Duration.ofSeconds(10)).concurrencyLevel(1));
+		cache.put("a", "1");
+		this.clock.advance(Duration.ofSeconds(5));
+		cache.put("b", "2");
+		cache.get("a");
+		this.clock.advance(Duration.ofSeconds(5));
+		for (int i = 0; i < 20; i++) {
+			cache.put(i, i);
+		}
+
+		assertThat(cache.size()).isEqualTo(21);
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void expireAfterAccess() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.expireAfterAccess(Duration.ofSeconds(10)).concurrencyLevel(1));
+		cache.put("a", "1");
+		cache.put("b", "2");
+		this.clock.advance(Duration.ofSeconds(6));
+		assertThat(cache.get("a")).isNotNull();
+		this.clock.advance(Duration.ofSeconds(6));
+		assertThat(cache.get("a")).isNotNull();
+
+		cache.put("c", "3");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("b")).isNull();
+	}
+
+	@Test
+	public void getWithValueLoaderRecordsStatistics() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig());
+		assertThat(cache.get("a", () -> "1")).isEqualTo("1");
+		assertThat(cache.get("a", () -> "2")).isEqualTo("1");
+		assertThat(cache.get("b")).isNull();
+
+		CacheStatistics statistics = cache.getStatistics();
+		assertThat(statistics.getHitCount()).isEqualTo(1);
+		assertThat(statistics.getMissCount()).isEqualTo(2);
+		assertThat(statistics.getRequestCount()).isEqualTo(3);
+		assertThat(statistics.getHitRate()).isEqualTo(1.0 / 3);
+		assertThat(statistics.getEvictionCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void refreshAfterWrite() {
+		List<Runnable> refreshes = new ArrayList<>();
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.expireAfterWrite(Duration.ofSeconds(10)).refreshAfterWrite(Duration.ofSeconds(5))
+				.refreshExecutor(refreshes::add));
+		AtomicInteger counter = new AtomicInteger();
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(1);
+		this.clock.advance(Duration.ofSeconds(4));
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(1);
+		assertThat(refreshes).isEmpty();
+
+		this.clock.advance(Duration.ofSeconds(2));
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(1);
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(1);
+		assertThat(refreshes).hasSize(1);
+		refreshes.get(0).run();
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(2);
+
+		this.clock.advance(Duration.ofSeconds(9));
+		assertThat(cache.get("a", counter::incrementAndGet)).isEqualTo(2);
+		assertThat(refreshes).hasSize(2);
+	}
+
+	@Test
+	public void refreshFailureKeepsCurrentValue() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig()
+				.refreshAfterWrite(Duration.ofSeconds(5)).refreshExecutor(Runnable::run));
+		cache.put("a", "1");
+		this.clock.advance(Duration.ofSeconds(5));
+		Object value = cache.get("a", () -> {
+			throw new IllegalStateException("Expected exception");
+		});
+		assertThat(value).isEqualTo("1");
+		assertThat(cache.get("a", () -> "2")).isEqualTo("1");
+		assertThat(cache.get("a", () -> "3")).isEqualTo("2");
+	}
+
+	@Test
+	public void loadDoesNotBlockSegment() throws Exception {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig().concurrencyLevel(1));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch loading = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<Object> slow = executor.submit(() -> cache.get("slow", () -> {
+				loading.countDown();
+				release.await();
+				return "1";
+			}));
+			assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+			cache.put("a", "2");
+			assertThat(cache.get("b", () -> "3")).isEqualTo("3");
+			release.countDown();
+			assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("1");
+			assertThat(cache.get("slow", () -> "4")).isEqualTo("1");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void explicitEvictionIsNotCounted() {
+		BoundedConcurrentCache cache = createCache(BoundedCacheConfiguration.defaultConfig());
+		cache.put("a", "1");
+		assertThat(cache.evictIfPresent("a")).isTrue();
+		assertThat(cache.evictIfPresent("a")).isFalse();
+		cache.put("b", "2");
+		assertThat(cache.invalidate()).isTrue();
+		assertThat(cache.invalidate()).isFalse();
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(0);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void serializer() {
+		BoundedConcurrentCache serializeCache = new BoundedConcurrentCache(CACHE_NAME,
+				BoundedCacheConfiguration.defaultConfig(), true,
+				new SerializationDelegate(BoundedConcurrentCacheTests.class.getClassLoader()));
+		assertThat(serializeCache.isStoreByValue()).isTrue();
+
+		Object key = createRandomKey();
+		List<String> content = new ArrayList<>(Arrays.asList("one", "two", "three"));
+		serializeCache.put(key, content);
+		content.remove(0);
+		List<String> entry = (List<String>) serializeCache.get(key).get();
+		assertThat(entry).containsExactly("one", "two", "three");
+	}
+
+
+	private BoundedConcurrentCache createCache(BoundedCacheConfiguration configuration) {
+		return new BoundedConcurrentCache(CACHE_NAME, configuration.clock(this.clock), true);
+	}
+
+
+	private static class TestClock extends Clock {
+
+		private Instant instant = Instant.EPOCH;
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -131,4 +131,28 @@ public class ConcurrentMapCacheManagerTests {
 		assertThat(cache1x.get("key")).isNull();
 	}
 
+	@Test
+	public void testCacheConfiguration() {
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager("c1", "c2");
+		Cache cache1 = cm.getCache("c1");
+		assertThat(cache1 instanceof ConcurrentMapCache).isTrue();
+		assertThat(cache1.getStatistics()).isNull();
+
+		BoundedCacheConfiguration configuration = BoundedCacheConfiguration.defaultConfig().maximumSize(100);
+		cm.setCacheConfiguration(configuration);
+		Cache cache1x = cm.getCache("c1");
+		assertThat(cache1x instanceof BoundedConcurrentCache).isTrue();
+		assertThat(((BoundedConcurrentCache) cache1x).getConfiguration()).isSameAs(configuration);
+		assertThat(cache1x.getStatistics()).isNotNull();
+
+		BoundedCacheConfiguration configuration2 = BoundedCacheConfiguration.defaultConfig().maximumSize(10);
+		cm.registerCacheConfiguration("c2", configuration2);
+		assertThat(((BoundedConcurrentCache) cm.getCache("c1")).getConfiguration()).isSameAs(configuration);
+		assertThat(((BoundedConcurrentCache) cm.getCache("c2")).getConfiguration()).isSameAs(configuration2);
+
+		cm.setCacheConfiguration(null);
+		assertThat(cm.getCache("c1") instanceof ConcurrentMapCache).isTrue();
+		assertThat(cm.getCache("c2") instanceof BoundedConcurrentCache).isTrue();
+	}
+
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for caching methods returning a {@link CompletableFuture} or a
+ * reactive type, with {@link CacheAspectSupport#setAsyncCaching asynchronous caching}.
+ *
+ * @author haozhifeng
+ */
+public class AsyncCachingTests {
+
+	private AnnotationConfigApplicationContext context;
+
+	private Cache cache;
+
+	private AsyncService service;
+
+
+	@BeforeEach
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.context.getBean(CacheInterceptor.class).setAsyncCaching(true);
+		this.cache = this.context.getBean(CacheManager.class).getCache("test");
+		this.service = this.context.getBean(AsyncService.class);
+	}
+
+	@AfterEach
+	public void close() {
+		this.context.close();
+	}
+
+
+	@Test
+	public void completableFutureCachesResolvedValue() throws Exception {
+		CompletableFuture<Long> first = this.service.future("a");
+		assertThat(first.get()).isEqualTo(1L);
+		assertThat(this.cache.get("a").get()).isEqualTo(1L);
+
+		CompletableFuture<Long> second = this.service.future("a");
+		assertThat(second.get()).isEqualTo(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void futureCachedAsIsWithoutAsyncCaching() {
+		this.context.getBean(CacheInterceptor.class).setAsyncCaching(false);
+		CompletableFuture<Long> first = this.service.future("a");
+		assertThat(this.cache.get("a").get()).isSameAs(first);
+		assertThat(this.service.future("a")).isSameAs(first);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void completableFutureFailureIsNotCached() {
+		this.service.setFailure(new IllegalStateException("Expected exception"));
+		CompletableFuture<Long> failed = this.service.future("a");
+		assertThatIllegalStateException().isThrownBy(() -> {
+			try {
+				failed.join();
+			}
+			catch (RuntimeException ex) {
+				throw (RuntimeException) ex.getCause();
+			}
+		});
+		assertThat(this.cache.get("a")).isNull();
+
+		this.service.setFailure(null);
+		assertThat(this.service.future("a").join()).isEqualTo(2L);
+	}
+
+	@Test
+	public void concurrentMissesShareInvocation() {
+		CompletableFuture<Long> pending = new CompletableFuture<>();
+		this.service.setPending(pending);
+		CompletableFuture<Long> first = this.service.future("a");
+		CompletableFuture<Long> second = this.service.future("a");
+		assertThat(first.isDone()).isFalse();
+		assertThat(second.isDone()).isFalse();
+
+		pending.complete(42L);
+		assertThat(first.join()).isEqualTo(42L);
+		assertThat(second.join()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThat(this.cache.get("a").get()).isEqualTo(42L);
+	}
+
+	@Test
+	public void synchronizedCompletableFuture() {
+		CompletableFuture<Long> pending = new CompletableFuture<>();
+		this.service.setPending(pending);
+		CompletableFuture<Long> first = this.service.syncFuture("a");
+		CompletableFuture<Long> second = this.service.syncFuture("a");
+
+		pending.complete(42L);
+		assertThat(first.join()).isEqualTo(42L);
+		assertThat(second.join()).isEqualTo(42L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+		assertThat(this.cache.get("a").get()).isEqualTo(42L);
+	}
+
+	@Test
+	public void monoIsCachedOnSubscription() {
+		Mono<Long> mono = this.service.mono("a");
+		assertThat(this.service.getInvocations()).isEqualTo(0);
+		assertThat(mono.block(Duration.ofSeconds(5))).isEqualTo(1L);
+		assertThat(this.cache.get("a").get()).isEqualTo(1L);
+
+		assertThat(this.service.mono("a").block(Duration.ofSeconds(5))).isEqualTo(1L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void emptyMonoIsCachedAsNull() {
+		assertThat(this.service.emptyMono("a").block(Duration.ofSeconds(5))).isNull();
+		assertThat(this.cache.get("a").get()).isNull();
+		assertThat(this.service.emptyMono("a").block(Duration.ofSeconds(5))).isNull();
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void fluxIsCachedAsList() {
+		assertThat(this.service.flux("a").collectList().block(Duration.ofSeconds(5))).containsExactly(1L, 2L);
+		assertThat(this.cache.get("a").get()).isEqualTo(Arrays.asList(1L, 2L));
+
+		assertThat(this.service.flux("a").collectList().block(Duration.ofSeconds(5))).containsExactly(1L, 2L);
+		assertThat(this.service.getInvocations()).isEqualTo(1);
+	}
+
+	@Test
+	public void evictAfterCompletion() {
+		this.cache.put("a", 1L);
+		CompletableFuture<Long> pending = new CompletableFuture<>();
+		this.service.setPending(pending);
+		CompletableFuture<Long> result = this.service.evict("a");
+		assertThat(this.cache.get("a")).isNotNull();
+
+		pending.complete(2L);
+		assertThat(result.join()).isEqualTo(2L);
+		assertThat(this.cache.get("a")).isNull();
+	}
+
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager("test");
+		}
+
+		@Bean
+		public AsyncService asyncService() {
+			return new AsyncService();
+		}
+	}
+
+
+	public static class AsyncService {
+
+		private final AtomicInteger invocations = new AtomicInteger();
+
+		private volatile CompletableFuture<Long> pending;
+
+		private volatile RuntimeException failure;
+
+		public int getInvocations() {
+			return this.invocations.get();
+		}
+
+		public void setPending(CompletableFuture<Long> pending) {
+			this.pending = pending;
+		}
+
+		public void setFailure(RuntimeException failure) {
+			this.failure = failure;
+		}
+
+		@Cacheable("test")
+		public CompletableFuture<Long> future(String key) {
+			long count = this.invocations.incrementAndGet();
+			if (this.failure != null) {
+				CompletableFuture<Long> future = new CompletableFuture<>();
+				future.completeExceptionally(this.failure);
+				return future;
+			}
+			return (this.pending != null ? this.pending : CompletableFuture.completedFuture(count));
+		}
+
+		@Cacheable(cacheNames = "test", sync = true)
+		public CompletableFuture<Long> syncFuture(String key) {
+			return future(key);
+		}
+
+		@Cacheable("test")
+		public Mono<Long> mono(String key) {
+			return Mono.just((long) this.invocations.incrementAndGet());
+		}
+
+		@Cacheable("test")
+		public Mono<Long> emptyMono(String key) {
+			this.invocations.incrementAndGet();
+			return Mono.empty();
+		}
+
+		@Cacheable("test")
+		public Flux<Long> flux(String key) {
+			List<Long> values = Arrays.asList((long) this.invocations.incrementAndGet(), 2L);
+			return Flux.fromIterable(values);
+		}
+
+		@CacheEvict("test")
+		public CompletableFuture<Long> evict(String key) {
+			return this.pending;
+		}
+	}
+
+}
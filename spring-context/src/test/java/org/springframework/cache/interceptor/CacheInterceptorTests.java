@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for the per-method cache operation metadata held by {@link CacheInterceptor}.
+ *
+ * @author haozhifeng
+ */
+class CacheInterceptorTests {
+
+	private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+	private final TestCacheOperationSource cacheOperationSource = new TestCacheOperationSource();
+
+	private final MetadataCountingCacheInterceptor cacheInterceptor = new MetadataCountingCacheInterceptor();
+
+
+	@BeforeEach
+	void setup() {
+		this.cacheInterceptor.setCacheManager(this.cacheManager);
+		this.cacheInterceptor.setCacheOperationSources(this.cacheOperationSource);
+		this.cacheInterceptor.afterPropertiesSet();
+		this.cacheInterceptor.afterSingletonsInstantiated();
+	}
+
+
+	@Test
+	void metadataReusedPerTargetClass() {
+		this.cacheOperationSource.setOperations(cacheable("counters"));
+		Counter counter = proxy(new SimpleCounter());
+		Counter otherCounter = proxy(new OtherCounter());
+
+		assertThat(counter.next("a")).isEqualTo(1);
+		assertThat(counter.next("a")).isEqualTo(1);
+		assertThat(counter.next("b")).isEqualTo(2);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(1);
+
+		assertThat(otherCounter.next("c")).isEqualTo(-1);
+		assertThat(otherCounter.next("c")).isEqualTo(-1);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(2);
+
+		assertThat(counter.next("a")).isEqualTo(1);
+		assertThat(otherCounter.next("d")).isEqualTo(-2);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(2);
+	}
+
+	@Test
+	void metadataReplacedForDifferentOperations() {
+		this.cacheOperationSource.setOperations(cacheable("counters"));
+		Counter counter = proxy(new SimpleCounter());
+		Counter otherCounter = proxy(new OtherCounter());
+
+		assertThat(counter.next("a")).isEqualTo(1);
+		assertThat(otherCounter.next("b")).isEqualTo(-1);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(2);
+
+		this.cacheOperationSource.setOperations(cacheable("otherCounters"));
+		assertThat(counter.next("a")).isEqualTo(2);
+		assertThat(counter.next("a")).isEqualTo(2);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(3);
+		assertThat(this.cacheManager.getCache("otherCounters").get("a", Integer.class)).isEqualTo(2);
+
+		// Equal operations from a new collection: no need to look up the metadata again
+		this.cacheOperationSource.setOperations(cacheable("otherCounters"));
+		assertThat(counter.next("a")).isEqualTo(2);
+		assertThat(otherCounter.next("b")).isEqualTo(-2);
+		assertThat(this.cacheInterceptor.metadataLookups).hasValue(4);
+	}
+
+	@Test
+	void syncValidationOnEveryInvocation() {
+		CacheableOperation.Builder builder = new CacheableOperation.Builder();
+		builder.setCacheName("counters");
+		builder.setSync(true);
+		builder.setUnless("#result == null");
+		this.cacheOperationSource.setOperations(builder.build());
+		Counter counter = proxy(new SimpleCounter());
+
+		for (int i = 0; i < 2; i++) {
+			assertThatIllegalStateException().isThrownBy(() -> counter.next("a"))
+					.withMessageContaining("@Cacheable(sync=true) does not support unless attribute");
+		}
+	}
+
+
+	private Counter proxy(Counter target) {
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.addAdvice(this.cacheInterceptor);
+		return (Counter) proxyFactory.getProxy();
+	}
+
+	private static CacheOperation cacheable(String cacheName) {
+		CacheableOperation.Builder builder = new CacheableOperation.Builder();
+		builder.setCacheName(cacheName);
+		return builder.build();
+	}
+
+
+	private static class TestCacheOperationSource implements CacheOperationSource {
+
+		private volatile List<CacheOperation> operations = Collections.emptyList();
+
+		void setOperations(CacheOperation... operations) {
+			List<CacheOperation> list = new ArrayList<>(operations.length);
+			Collections.addAll(list, operations);
+			this.operations = list;
+		}
+
+		@Override
+		@Nullable
+		public Collection<CacheOperation> getCacheOperations(Method method, @Nullable Class<?> targetClass) {
+			return this.operations;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class MetadataCountingCacheInterceptor extends CacheInterceptor {
+
+		private final AtomicInteger metadataLookups = new AtomicInteger();
+
+		@Override
+		protected CacheOperationMetadata getCacheOperationMetadata(
+				CacheOperation operation, Method method, Class<?> targetClass) {
+
+			this.metadataLookups.incrementAndGet();
+			return super.getCacheOperationMetadata(operation, method, targetClass);
+		}
+	}
+
+
+	interface Counter {
+
+		int next(String name);
+	}
+
+
+	private static class SimpleCounter implements Counter {
+
+		private int count;
+
+		@Override
+		public int next(String name) {
+			return ++this.count;
+		}
+	}
+
+
+	private static class OtherCounter implements Counter {
+
+		private int count;
+
+		@Override
+		public int next(String name) {
+			return --this.count;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -95,6 +95,51 @@ public class ExpressionEvaluatorTests {
 		assertThat(keyB).isEqualTo(args[1]);
 	}
 
+	@Test
+	public void argumentsByIndexAndName() {
+		AnnotatedClass target = new AnnotatedClass();
+		Method method = ReflectionUtils.findMethod(
+				AnnotatedClass.class, "multipleCaching", Object.class, Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		Collection<ConcurrentMapCache> caches = Collections.singleton(new ConcurrentMapCache("test"));
+
+		// Beyond the compilation threshold, with a change of argument type on the way
+		for (int i = 0; i < 200; i++) {
+			Object[] args = new Object[] {(i < 150 ? "a" + i : i), "b" + i};
+			EvaluationContext evalCtx = this.eval.createEvaluationContext(caches, method, args,
+					target, target.getClass(), method, CacheOperationExpressionEvaluator.NO_RESULT, null);
+			assertThat(this.eval.key("#p0", key, evalCtx)).isEqualTo(args[0]);
+			assertThat(this.eval.key("#a1", key, evalCtx)).isEqualTo(args[1]);
+			assertThat(this.eval.key("#b", key, evalCtx)).isEqualTo(args[1]);
+			assertThat(this.eval.key("#p2", key, evalCtx)).isNull();
+		}
+	}
+
+	@Test
+	public void varargsArguments() {
+		AnnotatedClass target = new AnnotatedClass();
+		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "varargs", Object.class, Object[].class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		Object[] args = new Object[] {"a", "b", "c"};
+		EvaluationContext evalCtx = this.eval.createEvaluationContext(Collections.emptyList(), method, args,
+				target, target.getClass(), method, CacheOperationExpressionEvaluator.NO_RESULT, null);
+
+		assertThat(this.eval.key("#first", key, evalCtx)).isEqualTo("a");
+		assertThat(this.eval.key("#others", key, evalCtx)).isEqualTo(new Object[] {"b", "c"});
+	}
+
+	@Test
+	public void argumentsTakePrecedenceOverVariables() {
+		AnnotatedClass target = new AnnotatedClass();
+		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "resultParameter", Object.class);
+		AnnotatedElementKey key = new AnnotatedElementKey(method, AnnotatedClass.class);
+		Object[] args = new Object[] {"theArgument"};
+		EvaluationContext evalCtx = this.eval.createEvaluationContext(Collections.emptyList(), method, args,
+				target, target.getClass(), method, "theResult", null);
+
+		assertThat(this.eval.key("#p0 + '-' + #result", key, evalCtx)).isEqualTo("theArgument-theArgument");
+	}
+
 	@Test
 	public void withReturnValue() {
 		EvaluationContext context = createEvaluationContext("theResult");
@@ -156,6 +201,12 @@ public class ExpressionEvaluatorTests {
 		@Caching(cacheable = { @Cacheable(value = "test", key = "#a"), @Cacheable(value = "test", key = "#b") })
 		public void multipleCaching(Object a, Object b) {
 		}
+
+		public void varargs(Object first, Object... others) {
+		}
+
+		public void resultParameter(Object result) {
+		}
 	}
 
 }
@@ -78,6 +78,9 @@ public class SimpleKeyGeneratorTests {
 		assertThat(k1).isEqualTo(k2);
 		assertThat(k1).isNotEqualTo(k3);
 		assertThat(k1).isInstanceOf(SimpleKey.class);
+		assertThat(k1).isSameAs(k2);
+		assertThat(k1).isEqualTo(new SimpleKey((Object) null));
+		assertThat(k1).isNotEqualTo(SimpleKey.EMPTY);
 	}
 
 	@Test
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link CacheLoadCoalescer}.
+ *
+ * @author haozhifeng
+ */
+class CacheLoadCoalescerTests {
+
+	private final CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+
+	@AfterEach
+	void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+
+	@Test
+	void concurrentLoadsShareSingleInvocation() throws Exception {
+		AtomicInteger invocations = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<Object>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(this.executor.submit(() -> this.coalescer.load("key", () -> {
+				release.await();
+				return invocations.incrementAndGet();
+			})));
+		}
+		awaitLoading("key");
+		Thread.sleep(50);
+		release.countDown();
+
+		for (Future<Object> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+		}
+		assertThat(invocations.get()).isEqualTo(1);
+		assertThat(this.coalescer.isLoading("key")).isFalse();
+	}
+
+	@Test
+	void loadsOfDifferentKeysDoNotBlockEachOther() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Object> blocked = this.executor.submit(() -> this.coalescer.load("slow", () -> {
+			release.await();
+			return "slow";
+		}));
+		awaitLoading("slow");
+
+		assertThat(this.coalescer.load("fast", () -> "fast")).isEqualTo("fast");
+		release.countDown();
+		assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+	}
+
+	@Test
+	void failureIsPropagatedToWaitingCallers() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Object> leader = this.executor.submit(() -> this.coalescer.load("key", () -> {
+			release.await();
+			throw new UnsupportedOperationException("Expected exception");
+		}));
+		awaitLoading("key");
+		Future<Object> follower = this.executor.submit(() -> this.coalescer.load("key", () -> "unused"));
+		Thread.sleep(50);
+		release.countDown();
+
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(UnsupportedOperationException.class);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+				.withCauseInstanceOf(UnsupportedOperationException.class);
+		assertThat(this.coalescer.load("key", () -> "retry")).isEqualTo("retry");
+	}
+
+	@Test
+	void recursiveLoadIsRejected() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.coalescer.load("key", () -> this.coalescer.load("key", () -> "value")))
+				.withMessageContaining("Recursive load");
+		assertThat(this.coalescer.isLoading("key")).isFalse();
+	}
+
+	@Test
+	void loadAsyncIsSharedWithLoad() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		assertThat(this.coalescer.loadAsync("key", () -> {
+			release.await();
+			return "async";
+		}, this.executor)).isTrue();
+		assertThat(this.coalescer.loadAsync("key", () -> "other", this.executor)).isFalse();
+
+		CompletableFuture<Object> result = CompletableFuture.supplyAsync(() -> {
+			try {
+				return this.coalescer.load("key", () -> "sync");
+			}
+			catch (Exception ex) {
+				throw new IllegalStateException(ex);
+			}
+		}, this.executor);
+		Thread.sleep(50);
+		release.countDown();
+		assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("async");
+	}
+
+	@Test
+	void loadAsyncRejected() {
+		assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() ->
+				this.coalescer.loadAsync("key", () -> "value", task -> {
+					throw new RejectedExecutionException();
+				}));
+		assertThat(this.coalescer.isLoading("key")).isFalse();
+	}
+
+
+	private void awaitLoading(Object key) throws InterruptedException {
+		for (int i = 0; i < 500 && !this.coalescer.isLoading(key); i++) {
+			Thread.sleep(10);
+		}
+		assertThat(this.coalescer.isLoading(key)).isTrue();
+	}
+
+}
@@ -16,10 +16,21 @@
 
 package org.springframework.context.annotation;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import example.gh24375.AnnotatedComponent;
 import example.profilescan.DevComponent;
@@ -42,6 +53,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
@@ -102,6 +114,47 @@ class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates);
 	}
 
+	@Test
+	void defaultsWithPartialIndexOfOtherLocation() throws IOException {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(partialIndex("file:/other/", NamedComponent.class)));
+		provider.setScanUnindexedLocations(true);
+		testDefault(provider);
+	}
+
+	@Test
+	void defaultsWithPartialIndexOfScannedLocation() throws IOException {
+		String classFile = NamedComponent.class.getName().replace('.', '/') + ".class";
+		String url = new ClassPathResource(classFile).getURL().toExternalForm();
+		String location = url.substring(0, url.length() - classFile.length());
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(partialIndex(location, NamedComponent.class)));
+		provider.setScanUnindexedLocations(true);
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertThat(candidates).extracting(BeanDefinition::getBeanClassName).containsExactly(NamedComponent.class.getName());
+		assertBeanDefinitionType(candidates);
+	}
+
+	private ClassLoader partialIndex(String location, Class<?> component) throws IOException {
+		byte[] content = (component.getName() + "=" + Component.class.getName()).getBytes(StandardCharsets.ISO_8859_1);
+		URL url = new URL(null, location + CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION, new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL u) {
+				return new URLConnection(u) {
+					@Override
+					public void connect() {
+					}
+					@Override
+					public InputStream getInputStream() {
+						return new ByteArrayInputStream(content);
+					}
+				};
+			}
+		});
+		return new CandidateComponentsTestClassLoader(getClass().getClassLoader(),
+				Collections.enumeration(Collections.singletonList(url)));
+	}
+
 	@Test
 	void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
@@ -514,6 +567,29 @@ class ClassPathScanningCandidateComponentProviderTests {
 		assertThat(components.iterator().next().getBeanClassName()).isEqualTo(AnnotatedComponent.class.getName());
 	}
 
+	@Test
+	void parallelScanFindsCandidatesInSameOrderAsSequentialScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setForkJoinPool(null);
+		List<String> expected = provider.findCandidateComponents("example").stream()
+				.map(BeanDefinition::getBeanClassName).collect(Collectors.toList());
+		assertThat(expected).contains(NamedComponent.class.getName(), BarComponent.class.getName());
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			provider.setForkJoinPool(pool);
+			provider.clearCache();
+			Set<BeanDefinition> candidates = provider.findCandidateComponents("example");
+			assertThat(candidates).extracting(BeanDefinition::getBeanClassName).containsExactlyElementsOf(expected);
+			assertBeanDefinitionType(candidates);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
 
 	private boolean containsBeanClass(Set<BeanDefinition> candidates, Class<?> beanClass) {
 		for (BeanDefinition candidate : candidates) {
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.testfixture.beans.TestBean;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.stereotype.Component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Tests for {@link SnapshotApplicationContext}, {@link BeanDefinitionSnapshotWriter}
+ * and {@link BeanDefinitionSnapshotReader}.
+ *
+ * @author haozhifeng
+ */
+class SnapshotApplicationContextTests {
+
+	@Test
+	void loadSnapshotOfConfigurationClasses() throws IOException {
+		SnapshotApplicationContext context = new SnapshotApplicationContext(snapshot(SnapshotConfig.class));
+
+		assertThat(context.getBeanFactory().getBeanDefinition(
+				AnnotationConfigUtils.CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME).getBeanClassName())
+				.isEqualTo(SnapshotConfigurationClassPostProcessor.class.getName());
+		assertThat(context.getBean(ScannedComponent.class).name).isEqualTo("p1Value");
+		assertThat(context.containsBean("skipped")).isFalse();
+		assertThat(context.getBean(SnapshotConfig.class).getClass().getName()).contains("$$EnhancerBySpringCGLIB");
+		TestBean testBean = context.getBean("testBean", TestBean.class);
+		assertThat(testBean.getName()).isEqualTo("p1TestBean");
+		assertThat(context.getBean("spouse", TestBean.class).getSpouse()).isSameAs(testBean);
+		assertThat(context.getBean(ImportedConfig.class).importMetadata.getClassName())
+				.isEqualTo(SnapshotConfig.class.getName());
+		context.close();
+	}
+
+	@Test
+	void loadSnapshotWithLaterRefresh() throws IOException {
+		SnapshotApplicationContext context = new SnapshotApplicationContext();
+		context.load(snapshot(SnapshotConfig.class));
+		context.registerBean("extra", TestBean.class);
+		context.refresh();
+
+		assertThat(context.getBean("testBean", TestBean.class).getName()).isEqualTo("p1TestBean");
+		assertThat(context.getBean("extra", TestBean.class)).isNotNull();
+		context.close();
+	}
+
+	@Test
+	void loadSnapshotWithOverloadedBeanMethods() throws IOException {
+		SnapshotApplicationContext context = new SnapshotApplicationContext(snapshot(OverloadedBeanMethodConfig.class));
+
+		assertThat(context.getBean("greeting")).isEqualTo("hello");
+		assertThat(context.getBean("farewell")).isEqualTo("bye 3");
+		assertThat(context.getBean("welcome")).isEqualTo("welcome 3");
+		assertThat(((RootBeanDefinition) context.getBeanFactory().getBeanDefinition("greeting"))
+				.isFactoryMethodUnique()).isTrue();
+		assertThat(((RootBeanDefinition) context.getBeanFactory().getBeanDefinition("welcome"))
+				.isFactoryMethodUnique()).isFalse();
+		context.close();
+	}
+
+	@Test
+	void writeWithInstanceSupplier() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.registerBean("supplied", TestBean.class, () -> new TestBean());
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> new BeanDefinitionSnapshotWriter(context).write(new ByteArrayOutputStream()))
+				.withMessageContaining("'supplied'");
+	}
+
+	@Test
+	void writeWithRefreshedContext() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> new BeanDefinitionSnapshotWriter(context).write(new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void loadInvalidSnapshot() {
+		SnapshotApplicationContext context = new SnapshotApplicationContext();
+
+		assertThatExceptionOfType(BeanDefinitionStoreException.class)
+				.isThrownBy(() -> context.load(new ByteArrayResource(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})))
+				.withMessageContaining("Not a bean definition snapshot");
+	}
+
+
+	private static ByteArrayResource snapshot(Class<?>... componentClasses) throws IOException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(componentClasses);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BeanDefinitionSnapshotWriter(context).write(out);
+		return new ByteArrayResource(out.toByteArray());
+	}
+
+
+	@Configuration
+	@ComponentScan(basePackageClasses = SnapshotApplicationContextTests.class, useDefaultFilters = false,
+			includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ScannedComponent.class))
+	@PropertySource("classpath:org/springframework/context/annotation/p1.properties")
+	@Import(ImportedConfig.class)
+	static class SnapshotConfig {
+
+		@Bean
+		public TestBean testBean(@Value("${testbean.name}") String name) {
+			return new TestBean(name);
+		}
+
+		@Bean
+		public TestBean spouse() {
+			TestBean spouse = new TestBean("spouse");
+			spouse.setSpouse(testBean(null));
+			return spouse;
+		}
+
+		@Bean
+		@Conditional(NeverCondition.class)
+		public TestBean skipped() {
+			return new TestBean("skipped");
+		}
+	}
+
+
+	@Configuration
+	static class OverloadedBeanMethodConfig {
+
+		@Bean
+		public Integer count() {
+			return 3;
+		}
+
+		@Bean
+		public String greeting() {
+			return "hello";
+		}
+
+		@Bean("farewell")
+		public String greeting(Integer count) {
+			return "bye " + count;
+		}
+
+		public String greeting(Integer count, Integer other) {
+			return "not a bean";
+		}
+
+		@Bean
+		public String welcome() {
+			return "welcome";
+		}
+
+		@Bean
+		public String welcome(Integer count) {
+			return "welcome " + count;
+		}
+	}
+
+
+	@Configuration
+	static class ImportedConfig implements ImportAware {
+
+		AnnotationMetadata importMetadata;
+
+		@Override
+		public void setImportMetadata(AnnotationMetadata importMetadata) {
+			this.importMetadata = importMetadata;
+		}
+	}
+
+
+	@Component
+	static class ScannedComponent {
+
+		@Value("${from.p1}")
+		String name;
+	}
+
+
+	static class NeverCondition implements Condition {
+
+		@Override
+		public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+			return false;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,19 @@
 package org.springframework.context.index;
 
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.context.testfixture.index.CandidateComponentsTestClassLoader;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
@@ -94,6 +101,22 @@ public class CandidateComponentsIndexLoaderTests {
 		assertThat(index).isNull();
 	}
 
+	@Test
+	public void loadIndexWithDetails(@TempDir Path tempDir) throws IOException {
+		Path indexFile = tempDir.resolve(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+		Files.createDirectories(indexFile.getParent());
+		Files.write(indexFile, "com.example.Foo=foo".getBytes(StandardCharsets.ISO_8859_1));
+		Files.write(tempDir.resolve(CandidateComponentsIndexLoader.DETAILS_RESOURCE_LOCATION),
+				"com.example.Foo#superTypes=com.example.Bar".getBytes(StandardCharsets.ISO_8859_1));
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {tempDir.toUri().toURL()}, null)) {
+			CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+			assertThat(index.getCandidateTypes("com.example", "foo")).containsExactly("com.example.Foo");
+			assertThat(index.getSuperTypes("com.example.Foo")).containsExactly("com.example.Bar");
+			assertThat(index.isIndexed(new FileSystemResource(tempDir.resolve("com/example/Foo.class")))).isTrue();
+			assertThat(index.isIndexed(new ClassPathResource("spring.components", getClass()))).isFalse();
+		}
+	}
+
 	@Test
 	public void loadIndexWithException() {
 		final IOException cause = new IOException("test exception");
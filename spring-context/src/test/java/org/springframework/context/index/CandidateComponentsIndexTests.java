@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.context.index;
 
+import java.net.MalformedURLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Properties;
@@ -23,6 +24,8 @@ import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.core.io.UrlResource;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -76,6 +79,43 @@ public class CandidateComponentsIndexTests {
 				.contains("com.example.Foo");
 	}
 
+	@Test
+	public void getTypeDetails() {
+		Properties details = new Properties();
+		details.put("com.example.service.One#superTypes", "com.example.service.Base,com.example.Api");
+		details.put("com.example.service.One#conditional", "true");
+		details.put("com.example.service.One#beanMethods", "one():com.example.One;two(com.example.One,int):java.util.List");
+		details.put("com.example.service.sub.Two#superTypes", "");
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()), Collections.singletonList(details),
+				Collections.emptyList());
+
+		assertThat(index.hasDetails("com.example.service.One")).isTrue();
+		assertThat(index.getSuperTypes("com.example.service.One"))
+				.containsExactly("com.example.service.Base", "com.example.Api");
+		assertThat(index.isConditional("com.example.service.One")).isTrue();
+		assertThat(index.getBeanMethods("com.example.service.One"))
+				.containsExactly("one():com.example.One", "two(com.example.One,int):java.util.List");
+
+		assertThat(index.hasDetails("com.example.service.sub.Two")).isTrue();
+		assertThat(index.getSuperTypes("com.example.service.sub.Two")).isEmpty();
+		assertThat(index.isConditional("com.example.service.sub.Two")).isFalse();
+		assertThat(index.getBeanMethods("com.example.service.sub.Two")).isEmpty();
+
+		assertThat(index.hasDetails("com.example.service.Three")).isFalse();
+		assertThat(index.isConditional("com.example.service.Three")).isTrue();
+	}
+
+	@Test
+	public void isIndexed() throws MalformedURLException {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()), Collections.emptyList(),
+				Arrays.asList("jar:file:/app/lib/service.jar!/", "file:/app/classes/"));
+		assertThat(index.isIndexed(new UrlResource("jar:file:/app/lib/service.jar!/com/example/service/One.class"))).isTrue();
+		assertThat(index.isIndexed(new UrlResource("file:/app/classes/com/example/domain/Four.class"))).isTrue();
+		assertThat(index.isIndexed(new UrlResource("jar:file:/app/lib/other.jar!/com/example/Other.class"))).isFalse();
+	}
+
 	private static Properties createProperties(String key, String stereotypes) {
 		Properties properties = new Properties();
 		properties.put(key, String.join(",", stereotypes));
@@ -17,6 +17,7 @@
 package org.springframework.context.support;
 
 import java.nio.file.InvalidPathException;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,9 @@ import org.springframework.core.io.ProtocolResolver;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.metrics.jfr.FlightRecorderApplicationStartup;
+import org.springframework.core.metrics.recording.RecordingApplicationStartup;
+import org.springframework.core.metrics.recording.StartupReport;
+import org.springframework.core.metrics.recording.StartupReport.BeanTiming;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -225,6 +229,42 @@ class GenericApplicationContextTests {
 		assertThat(context.getBeanFactory().getApplicationStartup()).isEqualTo(applicationStartup);
 	}
 
+	@Test
+	void recordBeanCreationWithRecordingApplicationStartup() {
+		RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup();
+		context.setApplicationStartup(applicationStartup);
+		context.registerBean("a", BeanA.class);
+		context.registerBean("b", BeanB.class);
+		context.registerBean("c", BeanC.class);
+		context.refresh();
+
+		StartupReport report = applicationStartup.getReport();
+		assertThat(report.getBeanTimings()).extracting(BeanTiming::getBeanName).containsExactlyInAnyOrder("a", "b", "c");
+		List<BeanTiming> criticalPath = report.getCriticalPath();
+		assertThat(criticalPath).hasSize(2);
+		BeanTiming a = criticalPath.get(0);
+		assertThat(a.getBeanName()).isEqualTo("a");
+		assertThat(a.getDependencies()).extracting(BeanTiming::getBeanName).containsExactly("b", "c");
+		assertThat(a.getPhases()).containsOnlyKeys("create-instance", "post-process-merged-definition",
+				"populate", "post-process-before-initialization", "init-methods", "post-process-after-initialization");
+		assertThat(a.getSelfDuration()).isLessThanOrEqualTo(a.getDuration());
+	}
+
+	@Test
+	void recordBeanCreationWithoutFineGrainedSteps() {
+		RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup();
+		applicationStartup.setFineGrainedSteps(false);
+		context.setApplicationStartup(applicationStartup);
+		context.registerBean("a", BeanA.class);
+		context.registerBean("b", BeanB.class);
+		context.registerBean("c", BeanC.class);
+		context.refresh();
+
+		StartupReport report = applicationStartup.getReport();
+		assertThat(report.getBeanTimings()).extracting(BeanTiming::getBeanName).containsExactlyInAnyOrder("a", "b", "c");
+		assertThat(report.getBeanTimings()).allSatisfy(timing -> assertThat(timing.getPhases()).isEmpty());
+	}
+
 	@Test
 	void getResourceWithDefaultResourceLoader() {
 		assertGetResourceSemantics(null, ClassPathResource.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.context.testfixture.cache;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -208,6 +209,44 @@ public abstract class AbstractCacheTests<T extends Cache> {
 		results.forEach(r -> assertThat(r).isEqualTo(1)); // Only one method got invoked
 	}
 
+	@Test
+	public void testCacheRetrieve() throws Exception {
+		T cache = getCache();
+
+		String key = createRandomKey();
+		CompletableFuture<?> miss = cache.retrieve(key);
+		assertThat(miss == null || miss.get() == null).isTrue();
+
+		cache.put(key, "value");
+		CompletableFuture<?> hit = cache.retrieve(key);
+		assertThat(hit).isNotNull();
+		assertThat(((Cache.ValueWrapper) hit.get()).get()).isEqualTo("value");
+	}
+
+	@Test
+	public void testCacheRetrieveWithValueLoader() throws Exception {
+		T cache = getCache();
+		AtomicInteger counter = new AtomicInteger();
+		CompletableFuture<Integer> pending = new CompletableFuture<>();
+
+		String key = createRandomKey();
+		CompletableFuture<Integer> first = cache.retrieve(key, () -> {
+			counter.incrementAndGet();
+			return pending;
+		});
+		assertThat(first.isDone()).isFalse();
+		pending.complete(42);
+		assertThat(first.get()).isEqualTo(42);
+
+		CompletableFuture<Integer> second = cache.retrieve(key, () -> {
+			counter.incrementAndGet();
+			return CompletableFuture.completedFuture(43);
+		});
+		assertThat(second.get()).isEqualTo(42);
+		assertThat(counter.get()).isEqualTo(1);
+		assertThat((Object) cache.get(key, Integer.class)).isEqualTo(42);
+	}
+
 	protected String createRandomKey() {
 		return UUID.randomUUID().toString();
 	}
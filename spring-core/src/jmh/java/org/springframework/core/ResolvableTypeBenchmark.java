@@ -0,0 +1,157 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link ResolvableType} queries on container hot paths.
+ *
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ResolvableTypeBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+
+		public final Object event = new OrderCreatedEvent();
+
+		public final Object payloadEvent = new PayloadEvent<>("payload");
+
+		public ResolvableType listenerType;
+
+		public ResolvableType payloadListenerType;
+
+		public ResolvableType dependencyType;
+
+		public ResolvableType factoryMethodReturnType;
+
+		public ResolvableType rawDependencyType;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			this.listenerType = ResolvableType.forClass(DomainEvent.class);
+			this.payloadListenerType = ResolvableType.forClassWithGenerics(PayloadEvent.class, String.class);
+			Method method = BenchmarkState.class.getDeclaredMethod("inject", List.class, Serializable.class);
+			this.dependencyType = ResolvableType.forMethodParameter(method, 0);
+			this.rawDependencyType = ResolvableType.forMethodParameter(method, 1);
+			this.factoryMethodReturnType = ResolvableType.forMethodReturnType(
+					BenchmarkState.class.getDeclaredMethod("names"));
+		}
+
+		void inject(List<String> names, Serializable serializable) {
+		}
+
+		ArrayList<String> names() {
+			return new ArrayList<>();
+		}
+	}
+
+
+	/**
+	 * Listener matching for a plain event, as performed for each multicast event.
+	 */
+	@Benchmark
+	public boolean eventTypeMatching(BenchmarkState state) {
+		return state.listenerType.isAssignableFrom(ResolvableType.forInstance(state.event));
+	}
+
+	/**
+	 * Listener matching for a generic payload event, resolving the event type from
+	 * the event class and the payload like {@code PayloadApplicationEvent} does.
+	 */
+	@Benchmark
+	public boolean payloadEventTypeMatching(BenchmarkState state) {
+		PayloadEvent<?> event = (PayloadEvent<?>) state.payloadEvent;
+		ResolvableType eventType = ResolvableType.forClassWithGenerics(
+				event.getClass(), ResolvableType.forInstance(event.payload));
+		return state.payloadListenerType.isAssignableFrom(eventType);
+	}
+
+	/**
+	 * Autowire candidate check of a generic injection point against
+	 * the return type of a factory method.
+	 */
+	@Benchmark
+	public boolean genericCandidateMatching(BenchmarkState state) {
+		return state.dependencyType.isAssignableFrom(state.factoryMethodReturnType);
+	}
+
+	/**
+	 * Autowire candidate check of a generic injection point against a bean class.
+	 */
+	@Benchmark
+	public boolean genericCandidateClassMatching(BenchmarkState state) {
+		return state.dependencyType.isAssignableFrom(ResolvableType.forClass(StringList.class));
+	}
+
+	/**
+	 * Autowire candidate check of a non-generic injection point against a bean class.
+	 */
+	@Benchmark
+	public boolean rawCandidateClassMatching(BenchmarkState state) {
+		return state.rawDependencyType.isAssignableFrom(Map.class);
+	}
+
+	/**
+	 * Resolution of a generic of a bean class through its supertype.
+	 */
+	@Benchmark
+	public Class<?> resolveGenericThroughSupertype() {
+		return ResolvableType.forClass(StringList.class).as(List.class).resolveGeneric(0);
+	}
+
+
+	@SuppressWarnings("serial")
+	static class DomainEvent implements Serializable {
+	}
+
+
+	@SuppressWarnings("serial")
+	static class OrderCreatedEvent extends DomainEvent {
+	}
+
+
+	static class PayloadEvent<T> {
+
+		final T payload;
+
+		PayloadEvent(T payload) {
+			this.payload = payload;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	static class StringList extends ArrayList<String> {
+	}
+
+}
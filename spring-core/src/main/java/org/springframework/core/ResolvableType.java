@@ -83,6 +83,9 @@ import org.springframework.util.StringUtils;
 @SuppressWarnings("serial")
 public class ResolvableType implements Serializable {
 
+	// Keeps the value computed for previous versions: the lazily resolved fields are transient now
+	private static final long serialVersionUID = -1883904831920384438L;
+
 	/**
 	 * {@code ResolvableType} returned when no value is available. {@code NONE} is used
 	 * in preference to {@code null} so that multiple method calls can be safely chained.
@@ -94,6 +97,9 @@ public class ResolvableType implements Serializable {
 	private static final ConcurrentReferenceHashMap<ResolvableType, ResolvableType> cache =
 			new ConcurrentReferenceHashMap<>(256);
 
+	private static final ConcurrentReferenceHashMap<Class<?>, ResolvableType> classCache =
+			new ConcurrentReferenceHashMap<>(256);
+
 
 	/**
 	 * The underlying Java type being managed.
@@ -125,13 +131,13 @@ public class ResolvableType implements Serializable {
 	private Class<?> resolved;
 
 	@Nullable
-	private volatile ResolvableType superType;
+	private transient volatile ResolvableType superType;
 
 	@Nullable
-	private volatile ResolvableType[] interfaces;
+	private transient volatile ResolvableType[] interfaces;
 
 	@Nullable
-	private volatile ResolvableType[] generics;
+	private transient volatile ResolvableType[] generics;
 
 
 	/**
@@ -259,7 +265,10 @@ public class ResolvableType implements Serializable {
 	 * @see #isAssignableFrom(ResolvableType)
 	 */
 	public boolean isAssignableFrom(Class<?> other) {
-		return isAssignableFrom(forClass(other), null);
+		if (isPlainClass()) {
+			return ClassUtils.isAssignable((Class<?>) this.type, other);
+		}
+		return isAssignableFrom(forClass(other), false, null);
 	}
 
 	/**
@@ -274,10 +283,17 @@ public class ResolvableType implements Serializable {
 	 * {@code ResolvableType}; {@code false} otherwise
 	 */
 	public boolean isAssignableFrom(ResolvableType other) {
-		return isAssignableFrom(other, null);
+		return isAssignableFrom(other, false, null);
 	}
 
-	private boolean isAssignableFrom(ResolvableType other, @Nullable Map<Type, Type> matchedBefore) {
+	/**
+	 * Determine whether this type is assignable from the given other type.
+	 * @param other the type to be checked against
+	 * @param strict whether an exact match is required, as for nested generics
+	 * @param matchedBefore pairs of types matched on the enclosing levels, if any
+	 * (lazily created once nested generics themselves have generics)
+	 */
+	private boolean isAssignableFrom(ResolvableType other, boolean strict, @Nullable Map<Type, Type> matchedBefore) {
 		Assert.notNull(other, "ResolvableType must not be null");
 
 		// If we cannot resolve types, we are not assignable
@@ -285,6 +301,13 @@ public class ResolvableType implements Serializable {
 			return false;
 		}
 
+		// Fast path for a non-generic class: only its resolved class matters,
+		// unless the other type may resolve to wildcard bounds
+		if (isPlainClass() && (other.type instanceof Class || other.type instanceof ParameterizedType)) {
+			Class<?> otherResolved = other.toClass();
+			return (strict ? this.type.equals(otherResolved) : ClassUtils.isAssignable((Class<?>) this.type, otherResolved));
+		}
+
 		// Deal with array by delegating to the component type
 		if (isArray()) {
 			return (other.isArray() && getComponentType().isAssignableFrom(other.getComponentType()));
@@ -310,7 +333,7 @@ public class ResolvableType implements Serializable {
 		}
 
 		// Main assignability check about to follow
-		boolean exactMatch = (matchedBefore != null);  // We're checking nested generic variables now...
+		boolean exactMatch = strict;  // We're checking nested generic variables now...
 		boolean checkGenerics = true;
 		Class<?> ourResolved = null;
 		if (this.type instanceof TypeVariable) {
@@ -355,12 +378,17 @@ public class ResolvableType implements Serializable {
 			if (ourGenerics.length != typeGenerics.length) {
 				return false;
 			}
-			if (matchedBefore == null) {
-				matchedBefore = new IdentityHashMap<>(1);
+			if (matchedBefore != null) {
+				matchedBefore.put(this.type, other.type);
 			}
-			matchedBefore.put(this.type, other.type);
 			for (int i = 0; i < ourGenerics.length; i++) {
-				if (!ourGenerics[i].isAssignableFrom(typeGenerics[i], matchedBefore)) {
+				ResolvableType ourGeneric = ourGenerics[i];
+				if (!ourGeneric.isPlainClass() && matchedBefore == null) {
+					// Only needed for nested generics with generics of their own
+					matchedBefore = new IdentityHashMap<>(1);
+					matchedBefore.put(this.type, other.type);
+				}
+				if (!ourGeneric.isAssignableFrom(typeGenerics[i], true, matchedBefore)) {
 					return false;
 				}
 			}
@@ -369,6 +397,15 @@ public class ResolvableType implements Serializable {
 		return true;
 	}
 
+	/**
+	 * Determine whether this type is a non-array {@code Class} without type
+	 * parameters, for which assignability is determined by the class alone.
+	 */
+	private boolean isPlainClass() {
+		return (this.type instanceof Class && getClass() == ResolvableType.class &&
+				!((Class<?>) this.type).isArray() && getGenerics().length == 0);
+	}
+
 	/**
 	 * Return {@code true} if this type resolves to a Class that represents an array.
 	 * @see #getComponentType()
@@ -462,6 +499,10 @@ public class ResolvableType implements Serializable {
 	 * @see #getInterfaces()
 	 */
 	public ResolvableType getSuperType() {
+		ResolvableType superType = this.superType;
+		if (superType != null) {
+			return superType;
+		}
 		Class<?> resolved = resolve();
 		if (resolved == null) {
 			return NONE;
@@ -471,11 +512,8 @@ public class ResolvableType implements Serializable {
 			if (superclass == null) {
 				return NONE;
 			}
-			ResolvableType superType = this.superType;
-			if (superType == null) {
-				superType = forType(superclass, this);
-				this.superType = superType;
-			}
+			superType = forType(superclass, this);
+			this.superType = superType;
 			return superType;
 		}
 		catch (TypeNotPresentException ex) {
@@ -1006,7 +1044,16 @@ public class ResolvableType implements Serializable {
 	 * @see #forClassWithGenerics(Class, Class...)
 	 */
 	public static ResolvableType forClass(@Nullable Class<?> clazz) {
-		return new ResolvableType(clazz);
+		Class<?> key = (clazz != null ? clazz : Object.class);
+		ResolvableType resolvableType = classCache.get(key);
+		if (resolvableType == null) {
+			resolvableType = new ResolvableType(key);
+			ResolvableType existing = classCache.putIfAbsent(key, resolvableType);
+			if (existing != null) {
+				resolvableType = existing;
+			}
+		}
+		return resolvableType;
 	}
 
 	/**
@@ -1424,8 +1471,11 @@ public class ResolvableType implements Serializable {
 		}
 
 		// For simple Class references, build the wrapper right away -
-		// no expensive resolution necessary, so not worth caching...
+		// no expensive resolution necessary, so only the plain class is interned...
 		if (type instanceof Class) {
+			if (typeProvider == null && variableResolver == null) {
+				return forClass((Class<?>) type);
+			}
 			return new ResolvableType(type, typeProvider, variableResolver, (ResolvableType) null);
 		}
 
@@ -1435,10 +1485,18 @@ public class ResolvableType implements Serializable {
 		// Check the cache - we may have a ResolvableType which has been resolved before...
 		ResolvableType resultType = new ResolvableType(type, typeProvider, variableResolver);
 		ResolvableType cachedType = cache.get(resultType);
-		if (cachedType == null) {
+		boolean internable = (typeProvider == null && !(type instanceof SerializableTypeWrapper.SerializableTypeProxy));
+		if (cachedType == null ||
+				(internable && cachedType.type instanceof SerializableTypeWrapper.SerializableTypeProxy)) {
 			cachedType = new ResolvableType(type, typeProvider, variableResolver, resultType.hash);
 			cache.put(cachedType, cachedType);
 		}
+		if (internable) {
+			// Interned instance, sharing lazily resolved supertypes, interfaces and generics
+			return cachedType;
+		}
+		// The type provider determines the source of the returned instance,
+		// and a serializable type wrapper needs to be retained as given
 		resultType.resolved = cachedType.resolved;
 		return resultType;
 	}
@@ -1449,6 +1507,7 @@ public class ResolvableType implements Serializable {
 	 */
 	public static void clearCache() {
 		cache.clear();
+		classCache.clear();
 		SerializableTypeWrapper.cache.clear();
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.core.io.support;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
@@ -27,12 +28,18 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipException;
@@ -40,6 +47,7 @@ import java.util.zip.ZipException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -182,6 +190,20 @@ import org.springframework.util.StringUtils;
  */
 public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
 
+	/**
+	 * System property that instructs Spring to resolve location patterns and to
+	 * scan for candidate components in parallel on the
+	 * {@linkplain ForkJoinPool#commonPool() common ForkJoinPool}:
+	 * {@code "spring.scanning.parallel"}.
+	 * <p>The default is "false". Switching this flag to {@code true} is a
+	 * shortcut for {@link #setForkJoinPool} on every resolver, as well as for
+	 * the corresponding setting on classpath scanning component providers.
+	 * @since 5.3.24
+	 */
+	public static final String PARALLEL_SCANNING_PROPERTY_NAME = "spring.scanning.parallel";
+
+	private static final boolean shouldScanInParallel = SpringProperties.getFlag(PARALLEL_SCANNING_PROPERTY_NAME);
+
 	private static final Log logger = LogFactory.getLog(PathMatchingResourcePatternResolver.class);
 
 	@Nullable
@@ -205,6 +227,9 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private ForkJoinPool forkJoinPool = (shouldScanInParallel ? ForkJoinPool.commonPool() : null);
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +293,31 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Set a {@link ForkJoinPool} for resolving location patterns in parallel:
+	 * root directories in different class path locations (typically jar files)
+	 * are searched concurrently, as well as subdirectories within a directory tree.
+	 * <p>The matching resources are returned in the same order as in sequential
+	 * mode. Note that {@link #doRetrieveMatchingFiles} is not called in parallel
+	 * mode; subclasses may customize the traversal through {@link #listDirectory}.
+	 * <p>Default is none, unless the {@link #PARALLEL_SCANNING_PROPERTY_NAME}
+	 * flag is set, in which case the common pool is used.
+	 * @since 5.3.24
+	 * @see ForkJoinPool#commonPool()
+	 */
+	public void setForkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Return the {@link ForkJoinPool} for resolving location patterns in parallel, if any.
+	 * @since 5.3.24
+	 */
+	@Nullable
+	public ForkJoinPool getForkJoinPool() {
+		return this.forkJoinPool;
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -496,24 +546,27 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		String subPattern = locationPattern.substring(rootDirPath.length());
 		Resource[] rootDirResources = getResources(rootDirPath);
 		Set<Resource> result = new LinkedHashSet<>(16);
-		for (Resource rootDirResource : rootDirResources) {
-			rootDirResource = resolveRootDirResource(rootDirResource);
-			URL rootDirUrl = rootDirResource.getURL();
-			if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
-				URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
-				if (resolvedUrl != null) {
-					rootDirUrl = resolvedUrl;
+		ForkJoinPool forkJoinPool = this.forkJoinPool;
+		if (forkJoinPool != null && rootDirResources.length > 1) {
+			// Search all root directories concurrently, merging their results in order
+			List<ForkJoinTask<Set<Resource>>> tasks = new ArrayList<>(rootDirResources.length);
+			try {
+				for (Resource rootDirResource : rootDirResources) {
+					tasks.add(forkJoinPool.submit(() -> doFindPathMatchingResources(rootDirResource, subPattern)));
+				}
+				for (ForkJoinTask<Set<Resource>> task : tasks) {
+					result.addAll(join(task));
 				}
-				rootDirResource = new UrlResource(rootDirUrl);
-			}
-			if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
-				result.addAll(VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher()));
 			}
-			else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
-				result.addAll(doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern));
+			finally {
+				for (ForkJoinTask<Set<Resource>> task : tasks) {
+					task.cancel(false);
+				}
 			}
-			else {
-				result.addAll(doFindPathMatchingFileResources(rootDirResource, subPattern));
+		}
+		else {
+			for (Resource rootDirResource : rootDirResources) {
+				result.addAll(doFindPathMatchingResources(rootDirResource, subPattern));
 			}
 		}
 		if (logger.isTraceEnabled()) {
@@ -522,6 +575,50 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return result.toArray(new Resource[0]);
 	}
 
+	private Set<Resource> doFindPathMatchingResources(Resource rootDirResource, String subPattern) throws IOException {
+		rootDirResource = resolveRootDirResource(rootDirResource);
+		URL rootDirUrl = rootDirResource.getURL();
+		if (equinoxResolveMethod != null && rootDirUrl.getProtocol().startsWith("bundle")) {
+			URL resolvedUrl = (URL) ReflectionUtils.invokeMethod(equinoxResolveMethod, null, rootDirUrl);
+			if (resolvedUrl != null) {
+				rootDirUrl = resolvedUrl;
+			}
+			rootDirResource = new UrlResource(rootDirUrl);
+		}
+		if (rootDirUrl.getProtocol().startsWith(ResourceUtils.URL_PROTOCOL_VFS)) {
+			return VfsResourceMatchingDelegate.findMatchingResources(rootDirUrl, subPattern, getPathMatcher());
+		}
+		else if (ResourceUtils.isJarURL(rootDirUrl) || isJarResource(rootDirResource)) {
+			return doFindPathMatchingJarResources(rootDirResource, rootDirUrl, subPattern);
+		}
+		else {
+			return doFindPathMatchingFileResources(rootDirResource, subPattern);
+		}
+	}
+
+	private static <T> T join(ForkJoinTask<T> task) throws IOException {
+		try {
+			return task.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while resolving location pattern");
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	/**
 	 * Determine the root directory for the given location.
 	 * <p>Used for determining the starting point for file matching,
@@ -776,6 +873,10 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 			fullPattern += "/";
 		}
 		fullPattern = fullPattern + StringUtils.replace(pattern, File.separator, "/");
+		ForkJoinPool forkJoinPool = this.forkJoinPool;
+		if (forkJoinPool != null) {
+			return new LinkedHashSet<>(forkJoinPool.invoke(new MatchingFilesTask(fullPattern, rootDir)));
+		}
 		Set<File> result = new LinkedHashSet<>(8);
 		doRetrieveMatchingFiles(fullPattern, rootDir, result);
 		return result;
@@ -834,6 +935,62 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 	}
 
 
+	/**
+	 * Task retrieving the files that match a pattern in a directory tree,
+	 * forking a subtask per subdirectory. Files are returned in the same
+	 * order as from {@link #doRetrieveMatchingFiles}.
+	 */
+	@SuppressWarnings("serial")
+	private class MatchingFilesTask extends RecursiveTask<List<File>> {
+
+		private final String fullPattern;
+
+		private final File dir;
+
+		MatchingFilesTask(String fullPattern, File dir) {
+			this.fullPattern = fullPattern;
+			this.dir = dir;
+		}
+
+		@Override
+		protected List<File> compute() {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Searching directory [" + this.dir.getAbsolutePath() +
+						"] for files matching pattern [" + this.fullPattern + "]");
+			}
+			// Either matching files or forked tasks for subdirectories, in traversal order
+			List<Object> results = new ArrayList<>();
+			for (File content : listDirectory(this.dir)) {
+				String currPath = StringUtils.replace(content.getAbsolutePath(), File.separator, "/");
+				if (content.isDirectory() && getPathMatcher().matchStart(this.fullPattern, currPath + "/")) {
+					if (!content.canRead()) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Skipping subdirectory [" + this.dir.getAbsolutePath() +
+									"] because the application is not allowed to read the directory");
+						}
+					}
+					else {
+						results.add(new MatchingFilesTask(this.fullPattern, content).fork());
+					}
+				}
+				if (getPathMatcher().match(this.fullPattern, currPath)) {
+					results.add(content);
+				}
+			}
+			List<File> files = new ArrayList<>(results.size());
+			for (Object result : results) {
+				if (result instanceof File) {
+					files.add((File) result);
+				}
+				else {
+					files.addAll(((MatchingFilesTask) result).join());
+				}
+			}
+			return files;
+		}
+	}
+
+
 	/**
 	 * Inner delegate class, avoiding a hard JBoss VFS API dependency at runtime.
 	 */
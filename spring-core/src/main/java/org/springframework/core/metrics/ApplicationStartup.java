@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,4 +42,15 @@ public interface ApplicationStartup {
 	 */
 	StartupStep start(String name);
 
+	/**
+	 * Whether this {@code ApplicationStartup} asks for fine-grained steps in
+	 * addition to the standard ones, e.g. for each phase of the creation of a
+	 * bean within its "spring.beans.instantiate" step.
+	 * <p>The default is {@code false}: components only mark their standard steps.
+	 * @since 5.3.24
+	 */
+	default boolean supportsFineGrainedSteps() {
+		return false;
+	}
+
 }
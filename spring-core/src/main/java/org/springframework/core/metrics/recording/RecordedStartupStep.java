@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.metrics.recording;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link StartupStep} recorded by a {@link RecordingApplicationStartup}.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+public final class RecordedStartupStep implements StartupStep {
+
+	private final RecordingApplicationStartup applicationStartup;
+
+	private final long id;
+
+	private final String name;
+
+	@Nullable
+	private final RecordedStartupStep parent;
+
+	private final long threadId;
+
+	private final String threadName;
+
+	private final long startTime;
+
+	@Nullable
+	private final RecordingApplicationStartup.AllocationCounter allocationCounter;
+
+	private final long startAllocatedBytes;
+
+	private final RecordedTags tags = new RecordedTags();
+
+	private volatile long endTime = -1;
+
+	private volatile long allocatedBytes = -1;
+
+
+	RecordedStartupStep(RecordingApplicationStartup applicationStartup, long id, String name,
+			@Nullable RecordedStartupStep parent, Thread thread, long startTime,
+			@Nullable RecordingApplicationStartup.AllocationCounter allocationCounter) {
+
+		this.applicationStartup = applicationStartup;
+		this.id = id;
+		this.name = name;
+		this.parent = parent;
+		this.threadId = thread.getId();
+		this.threadName = thread.getName();
+		this.startTime = startTime;
+		this.allocationCounter = allocationCounter;
+		this.startAllocatedBytes = (allocationCounter != null ? allocationCounter.getAllocatedBytes() : -1);
+	}
+
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public long getId() {
+		return this.id;
+	}
+
+	@Override
+	@Nullable
+	public Long getParentId() {
+		return (this.parent != null ? this.parent.id : null);
+	}
+
+	@Nullable
+	RecordedStartupStep getParent() {
+		return this.parent;
+	}
+
+	long getThreadId() {
+		return this.threadId;
+	}
+
+	/**
+	 * Return the name of the thread that started this step.
+	 */
+	public String getThreadName() {
+		return this.threadName;
+	}
+
+	@Override
+	public StartupStep tag(String key, String value) {
+		Assert.state(this.endTime == -1, "StartupStep has already ended");
+		this.tags.add(key, value);
+		return this;
+	}
+
+	@Override
+	public StartupStep tag(String key, Supplier<String> value) {
+		return tag(key, value.get());
+	}
+
+	@Override
+	public Tags getTags() {
+		return this.tags;
+	}
+
+	/**
+	 * Return the value of the tag with the given key, if any.
+	 * @param key the tag key
+	 */
+	@Nullable
+	public String getTag(String key) {
+		for (Tag tag : this.tags) {
+			if (tag.getKey().equals(key)) {
+				return tag.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the time this step has been started at, relative to the
+	 * creation of the {@link RecordingApplicationStartup}.
+	 */
+	public Duration getStartTime() {
+		return Duration.ofNanos(this.startTime);
+	}
+
+	/**
+	 * Return the duration of this step, including the duration of nested steps,
+	 * or {@link Duration#ZERO} if it has not ended yet.
+	 */
+	public Duration getDuration() {
+		return Duration.ofNanos(getDurationNanos());
+	}
+
+	long getDurationNanos() {
+		long endTime = this.endTime;
+		return (endTime != -1 ? endTime - this.startTime : 0);
+	}
+
+	/**
+	 * Return the number of bytes allocated by the thread during this step,
+	 * including allocations in nested steps, or {@code -1} if allocations are
+	 * not tracked or the step has not ended yet.
+	 * @see RecordingApplicationStartup#setTrackAllocations
+	 */
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	@Override
+	public void end() {
+		Assert.state(this.endTime == -1, "StartupStep has already ended");
+		if (this.allocationCounter != null && this.threadId == Thread.currentThread().getId()) {
+			this.allocatedBytes = this.allocationCounter.getAllocatedBytes() - this.startAllocatedBytes;
+		}
+		this.endTime = this.applicationStartup.currentTime();
+		this.applicationStartup.record(this);
+	}
+
+	@Override
+	public String toString() {
+		return "StartupStep '" + this.name + "' (" + this.id + ")";
+	}
+
+
+	private static final class RecordedTags implements Tags {
+
+		private final List<Tag> tags = Collections.synchronizedList(new ArrayList<>(2));
+
+		void add(String key, String value) {
+			this.tags.add(new RecordedTag(key, value));
+		}
+
+		@Override
+		public Iterator<Tag> iterator() {
+			return Collections.unmodifiableList(new ArrayList<>(this.tags)).iterator();
+		}
+	}
+
+
+	private static final class RecordedTag implements Tag {
+
+		private final String key;
+
+		private final String value;
+
+		RecordedTag(String key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.key + "=" + this.value;
+		}
+	}
+
+}
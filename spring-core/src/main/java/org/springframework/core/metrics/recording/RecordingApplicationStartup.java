@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.metrics.recording;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link ApplicationStartup} implementation that records {@link StartupStep steps}
+ * in memory, for analyzing them once the application context has been refreshed.
+ *
+ * <p>The parent of a step is the step most recently started, and not ended yet,
+ * on the same thread. In combination with the steps the bean factory is
+ * instrumented with, this allows for breaking down the time spent in the
+ * creation of each bean into its phases and the creation of its dependencies:
+ * see {@link #getReport()}.
+ *
+ * <p>Optionally, the bytes allocated by the current thread during each step are
+ * recorded as well, provided that the JVM supports measuring them through
+ * {@code com.sun.management.ThreadMXBean}.
+ *
+ * <p>Steps are recorded when they end, up to the given capacity; steps ending
+ * once the capacity has been reached are discarded.
+ *
+ * <pre class="code">
+ * RecordingApplicationStartup startup = new RecordingApplicationStartup();
+ * AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+ * context.setApplicationStartup(startup);
+ * context.register(AppConfig.class);
+ * context.refresh();
+ * startup.getReport().writeJson(writer);
+ * </pre>
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see StartupReport
+ */
+public class RecordingApplicationStartup implements ApplicationStartup {
+
+	/**
+	 * The default number of steps to record.
+	 */
+	public static final int DEFAULT_CAPACITY = 100_000;
+
+	private static final boolean allocationCounterPresent = ClassUtils.isPresent(
+			"com.sun.management.ThreadMXBean", RecordingApplicationStartup.class.getClassLoader());
+
+
+	private final int capacity;
+
+	private final long startTime = System.nanoTime();
+
+	private final AtomicLong idGenerator = new AtomicLong();
+
+	private final AtomicInteger stepCount = new AtomicInteger();
+
+	private final Queue<RecordedStartupStep> recordedSteps = new ConcurrentLinkedQueue<>();
+
+	private final ThreadLocal<RecordedStartupStep> currentStep = new NamedThreadLocal<>("Current startup step");
+
+	private volatile boolean fineGrainedSteps = true;
+
+	@Nullable
+	private volatile AllocationCounter allocationCounter;
+
+
+	/**
+	 * Create a new RecordingApplicationStartup with the
+	 * {@link #DEFAULT_CAPACITY default capacity}.
+	 */
+	public RecordingApplicationStartup() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new RecordingApplicationStartup.
+	 * @param capacity the maximum number of steps to record
+	 */
+	public RecordingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	/**
+	 * Specify whether to ask for fine-grained steps, such as the phases of the
+	 * creation of each bean. Default is "true".
+	 * <p>Switch this off to record the standard steps only, at the expense of
+	 * the breakdown of bean creations into phases in the {@link #getReport() report}.
+	 * @see ApplicationStartup#supportsFineGrainedSteps()
+	 */
+	public void setFineGrainedSteps(boolean fineGrainedSteps) {
+		this.fineGrainedSteps = fineGrainedSteps;
+	}
+
+	@Override
+	public boolean supportsFineGrainedSteps() {
+		return this.fineGrainedSteps;
+	}
+
+	/**
+	 * Specify whether to record the bytes allocated by the current thread
+	 * during each step. Default is "false".
+	 * <p>This setting is ignored if the JVM does not support measuring
+	 * thread allocations; check {@link #isTrackingAllocations()}.
+	 */
+	public void setTrackAllocations(boolean trackAllocations) {
+		this.allocationCounter = (trackAllocations && allocationCounterPresent ? AllocationCounter.create() : null);
+	}
+
+	/**
+	 * Return whether the bytes allocated during each step are recorded.
+	 */
+	public boolean isTrackingAllocations() {
+		return (this.allocationCounter != null);
+	}
+
+	@Override
+	public RecordedStartupStep start(String name) {
+		RecordedStartupStep parent = this.currentStep.get();
+		AllocationCounter allocationCounter = this.allocationCounter;
+		RecordedStartupStep step = new RecordedStartupStep(this, this.idGenerator.incrementAndGet(), name, parent,
+				Thread.currentThread(), System.nanoTime() - this.startTime, allocationCounter);
+		this.currentStep.set(step);
+		return step;
+	}
+
+	/**
+	 * Callback from {@link RecordedStartupStep#end()}.
+	 */
+	void record(RecordedStartupStep step) {
+		if (step.getThreadId() == Thread.currentThread().getId()) {
+			// Also restores the parent if a nested step has not been ended
+			RecordedStartupStep parent = step.getParent();
+			if (parent != null) {
+				this.currentStep.set(parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		if (this.stepCount.incrementAndGet() <= this.capacity) {
+			this.recordedSteps.add(step);
+		}
+	}
+
+	long currentTime() {
+		return System.nanoTime() - this.startTime;
+	}
+
+	/**
+	 * Return the steps recorded so far, in the order they have been started.
+	 */
+	public List<RecordedStartupStep> getRecordedSteps() {
+		List<RecordedStartupStep> steps = new ArrayList<>(this.recordedSteps);
+		steps.sort(Comparator.comparingLong(RecordedStartupStep::getId));
+		return steps;
+	}
+
+	/**
+	 * Create a report on the steps recorded so far.
+	 */
+	public StartupReport getReport() {
+		return new StartupReport(getRecordedSteps());
+	}
+
+	/**
+	 * Discard the steps recorded so far.
+	 * <p>Steps started before but ending after this call will be recorded.
+	 */
+	public void clear() {
+		this.recordedSteps.clear();
+		this.stepCount.set(0);
+	}
+
+
+	/**
+	 * Measures the bytes allocated by the current thread through the
+	 * {@code com.sun.management.ThreadMXBean} extension.
+	 */
+	static final class AllocationCounter {
+
+		private final com.sun.management.ThreadMXBean threadMXBean;
+
+		private AllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+			this.threadMXBean = threadMXBean;
+		}
+
+		long getAllocatedBytes() {
+			return this.threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		@Nullable
+		static AllocationCounter create() {
+			ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean extension = (com.sun.management.ThreadMXBean) threadMXBean;
+				if (extension.isThreadAllocatedMemorySupported()) {
+					if (!extension.isThreadAllocatedMemoryEnabled()) {
+						extension.setThreadAllocatedMemoryEnabled(true);
+					}
+					return new AllocationCounter(extension);
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.metrics.recording;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.Nullable;
+
+/**
+ * Report on the steps recorded by a {@link RecordingApplicationStartup},
+ * breaking down the creation of each bean.
+ *
+ * <p>Bean creation is identified by the {@value #BEAN_INSTANTIATION_STEP} steps
+ * of the bean factory: the {@link BeanTiming#getPhases() phases} of a bean are
+ * nested steps prefixed with {@value #BEAN_INSTANTIATION_STEP}{@code .}, whereas
+ * nested {@value #BEAN_INSTANTIATION_STEP} steps are the creation of its
+ * {@link BeanTiming#getDependencies() dependencies}.
+ *
+ * <p>A report can be written as JSON through {@link #writeJson}, or in the
+ * "collapsed stacks" format consumed by flame graph tools through
+ * {@link #writeCollapsedStacks}.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see RecordingApplicationStartup#getReport()
+ */
+public final class StartupReport {
+
+	/**
+	 * The name of the step that the bean factory records the creation of a bean as.
+	 */
+	public static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+	private static final String BEAN_NAME_TAG = "beanName";
+
+	private static final String PHASE_PREFIX = BEAN_INSTANTIATION_STEP + ".";
+
+
+	private final List<RecordedStartupStep> steps;
+
+	private final List<RecordedStartupStep> rootSteps = new ArrayList<>();
+
+	private final Map<Long, List<RecordedStartupStep>> nestedSteps = new HashMap<>();
+
+	private final List<BeanTiming> rootBeanTimings = new ArrayList<>();
+
+	private final List<BeanTiming> beanTimings = new ArrayList<>();
+
+
+	StartupReport(List<RecordedStartupStep> steps) {
+		this.steps = Collections.unmodifiableList(steps);
+		Map<Long, RecordedStartupStep> stepsById = new HashMap<>(steps.size());
+		for (RecordedStartupStep step : steps) {
+			stepsById.put(step.getId(), step);
+		}
+		for (RecordedStartupStep step : steps) {
+			Long parentId = step.getParentId();
+			if (parentId != null && stepsById.containsKey(parentId)) {
+				this.nestedSteps.computeIfAbsent(parentId, id -> new ArrayList<>()).add(step);
+			}
+			else {
+				this.rootSteps.add(step);
+			}
+		}
+		for (RecordedStartupStep step : this.rootSteps) {
+			collectBeanTimings(step, this.rootBeanTimings);
+		}
+		this.beanTimings.sort(Comparator.comparing(BeanTiming::getSelfDuration).reversed());
+	}
+
+	private void collectBeanTimings(RecordedStartupStep step, List<BeanTiming> result) {
+		if (isBeanInstantiation(step)) {
+			List<BeanTiming> dependencies = new ArrayList<>();
+			Map<String, Duration> phases = new LinkedHashMap<>();
+			long nestedBeanNanos = 0;
+			long nestedBeanAllocatedBytes = 0;
+			for (RecordedStartupStep nested : getNestedSteps(step)) {
+				int dependencyCount = dependencies.size();
+				collectBeanTimings(nested, dependencies);
+				long phaseNanos = nested.getDurationNanos();
+				for (BeanTiming dependency : dependencies.subList(dependencyCount, dependencies.size())) {
+					phaseNanos -= dependency.getDuration().toNanos();
+					nestedBeanNanos += dependency.getDuration().toNanos();
+					nestedBeanAllocatedBytes += Math.max(dependency.getAllocatedBytes(), 0);
+				}
+				if (nested.getName().startsWith(PHASE_PREFIX)) {
+					phases.merge(nested.getName().substring(PHASE_PREFIX.length()),
+							Duration.ofNanos(phaseNanos), Duration::plus);
+				}
+			}
+			long allocatedBytes = step.getAllocatedBytes();
+			BeanTiming beanTiming = new BeanTiming(step, phases, dependencies,
+					Duration.ofNanos(step.getDurationNanos() - nestedBeanNanos),
+					(allocatedBytes != -1 ? allocatedBytes - nestedBeanAllocatedBytes : -1));
+			result.add(beanTiming);
+			this.beanTimings.add(beanTiming);
+		}
+		else {
+			for (RecordedStartupStep nested : getNestedSteps(step)) {
+				collectBeanTimings(nested, result);
+			}
+		}
+	}
+
+	private List<RecordedStartupStep> getNestedSteps(RecordedStartupStep step) {
+		return this.nestedSteps.getOrDefault(step.getId(), Collections.emptyList());
+	}
+
+	private static boolean isBeanInstantiation(RecordedStartupStep step) {
+		return (step.getName().equals(BEAN_INSTANTIATION_STEP) && step.getTag(BEAN_NAME_TAG) != null);
+	}
+
+
+	/**
+	 * Return all recorded steps, in the order they have been started.
+	 */
+	public List<RecordedStartupStep> getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * Return the timings of all recorded bean creations, ordered by
+	 * {@link BeanTiming#getSelfDuration() self duration}, slowest first.
+	 */
+	public List<BeanTiming> getBeanTimings() {
+		return Collections.unmodifiableList(this.beanTimings);
+	}
+
+	/**
+	 * Return the timings of the given number of slowest bean creations,
+	 * by {@link BeanTiming#getSelfDuration() self duration}.
+	 * @param count the maximum number of bean timings to return
+	 */
+	public List<BeanTiming> getSlowestBeans(int count) {
+		return getBeanTimings().subList(0, Math.min(count, this.beanTimings.size()));
+	}
+
+	/**
+	 * Return the critical path of bean creation: starting with the slowest bean
+	 * that has not been created as a dependency of another bean, each further
+	 * element is the slowest dependency created during the creation of the
+	 * previous element.
+	 * <p>Speeding up the creation of a bean that is not on the critical path
+	 * does not reduce the duration of the slowest bean creation.
+	 */
+	public List<BeanTiming> getCriticalPath() {
+		List<BeanTiming> criticalPath = new ArrayList<>();
+		BeanTiming current = slowest(this.rootBeanTimings);
+		while (current != null) {
+			criticalPath.add(current);
+			current = slowest(current.getDependencies());
+		}
+		return criticalPath;
+	}
+
+	@Nullable
+	private static BeanTiming slowest(List<BeanTiming> beanTimings) {
+		return beanTimings.stream().max(Comparator.comparing(BeanTiming::getDuration)).orElse(null);
+	}
+
+	/**
+	 * Write this report as a JSON document with the recorded {@code steps},
+	 * the {@code beans} ordered as {@link #getBeanTimings()} and the
+	 * {@code criticalPath} as array of bean names.
+	 * <p>All times are written in nanoseconds, and allocated bytes as {@code -1}
+	 * if they have not been tracked.
+	 * @param writer the writer to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\n  \"steps\": [");
+		String separator = "\n";
+		for (RecordedStartupStep step : this.steps) {
+			writer.write(separator);
+			writer.write("    {\"id\": " + step.getId() + ", \"parentId\": " + step.getParentId() + ", \"name\": ");
+			writeJsonString(writer, step.getName());
+			writer.write(", \"thread\": ");
+			writeJsonString(writer, step.getThreadName());
+			writer.write(", \"startTime\": " + step.getStartTime().toNanos() +
+					", \"duration\": " + step.getDurationNanos() +
+					", \"allocatedBytes\": " + step.getAllocatedBytes() + ", \"tags\": {");
+			String tagSeparator = "";
+			for (StartupStep.Tag tag : step.getTags()) {
+				writer.write(tagSeparator);
+				writeJsonString(writer, tag.getKey());
+				writer.write(": ");
+				writeJsonString(writer, tag.getValue());
+				tagSeparator = ", ";
+			}
+			writer.write("}}");
+			separator = ",\n";
+		}
+		writer.write("\n  ],\n  \"beans\": [");
+		separator = "\n";
+		for (BeanTiming beanTiming : this.beanTimings) {
+			writer.write(separator);
+			writer.write("    {\"name\": ");
+			writeJsonString(writer, beanTiming.getBeanName());
+			writer.write(", \"thread\": ");
+			writeJsonString(writer, beanTiming.getThreadName());
+			writer.write(", \"duration\": " + beanTiming.getDuration().toNanos() +
+					", \"selfDuration\": " + beanTiming.getSelfDuration().toNanos() +
+					", \"allocatedBytes\": " + beanTiming.getAllocatedBytes() +
+					", \"selfAllocatedBytes\": " + beanTiming.getSelfAllocatedBytes() + ", \"phases\": {");
+			String phaseSeparator = "";
+			for (Map.Entry<String, Duration> phase : beanTiming.getPhases().entrySet()) {
+				writer.write(phaseSeparator);
+				writeJsonString(writer, phase.getKey());
+				writer.write(": " + phase.getValue().toNanos());
+				phaseSeparator = ", ";
+			}
+			writer.write("}, \"dependencies\": ");
+			writeJsonBeanNames(writer, beanTiming.getDependencies());
+			writer.write("}");
+			separator = ",\n";
+		}
+		writer.write("\n  ],\n  \"criticalPath\": ");
+		writeJsonBeanNames(writer, getCriticalPath());
+		writer.write("\n}\n");
+		writer.flush();
+	}
+
+	private static void writeJsonBeanNames(Writer writer, List<BeanTiming> beanTimings) throws IOException {
+		writer.write("[");
+		String separator = "";
+		for (BeanTiming beanTiming : beanTimings) {
+			writer.write(separator);
+			writeJsonString(writer, beanTiming.getBeanName());
+			separator = ", ";
+		}
+		writer.write("]");
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			if (ch == '"' || ch == '\\') {
+				writer.write('\\');
+				writer.write(ch);
+			}
+			else if (ch < 0x20) {
+				writer.write(String.format("\\u%04x", (int) ch));
+			}
+			else {
+				writer.write(ch);
+			}
+		}
+		writer.write('"');
+	}
+
+	/**
+	 * Write this report in the "collapsed stacks" format of flame graph tools:
+	 * one line per step with its stack of frames, separated by {@code ';'},
+	 * followed by the time spent in the step itself in microseconds.
+	 * <p>The root frame is the name of the thread that started the steps, and
+	 * the frame of a step is its name, with the bean name for bean creations.
+	 * @param writer the writer to write to
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeCollapsedStacks(Writer writer) throws IOException {
+		for (RecordedStartupStep step : this.rootSteps) {
+			writeCollapsedStacks(writer, frame(step.getThreadName()), step);
+		}
+		writer.flush();
+	}
+
+	private void writeCollapsedStacks(Writer writer, String stack, RecordedStartupStep step) throws IOException {
+		String frame = step.getName();
+		String beanName = step.getTag(BEAN_NAME_TAG);
+		if (beanName != null) {
+			frame = frame + "[" + beanName + "]";
+		}
+		stack = stack + ";" + frame(frame);
+		long selfNanos = step.getDurationNanos();
+		for (RecordedStartupStep nested : getNestedSteps(step)) {
+			selfNanos -= nested.getDurationNanos();
+			writeCollapsedStacks(writer, stack, nested);
+		}
+		long selfMicros = selfNanos / 1000;
+		if (selfMicros > 0) {
+			writer.write(stack + " " + selfMicros + "\n");
+		}
+	}
+
+	private static String frame(String name) {
+		return name.replace(';', '_').replace(' ', '_').replace('\n', '_');
+	}
+
+
+	/**
+	 * Timing of the creation of a bean.
+	 */
+	public static final class BeanTiming {
+
+		private final RecordedStartupStep step;
+
+		private final Map<String, Duration> phases;
+
+		private final List<BeanTiming> dependencies;
+
+		private final Duration selfDuration;
+
+		private final long selfAllocatedBytes;
+
+		BeanTiming(RecordedStartupStep step, Map<String, Duration> phases, List<BeanTiming> dependencies,
+				Duration selfDuration, long selfAllocatedBytes) {
+
+			this.step = step;
+			this.phases = Collections.unmodifiableMap(phases);
+			this.dependencies = Collections.unmodifiableList(dependencies);
+			this.selfDuration = selfDuration;
+			this.selfAllocatedBytes = selfAllocatedBytes;
+		}
+
+		/**
+		 * Return the name of the bean.
+		 */
+		public String getBeanName() {
+			String beanName = this.step.getTag(BEAN_NAME_TAG);
+			return (beanName != null ? beanName : "");
+		}
+
+		/**
+		 * Return the name of the thread that created the bean.
+		 */
+		public String getThreadName() {
+			return this.step.getThreadName();
+		}
+
+		/**
+		 * Return the step that the creation of the bean has been recorded as.
+		 */
+		public RecordedStartupStep getStep() {
+			return this.step;
+		}
+
+		/**
+		 * Return the duration of the creation of the bean,
+		 * including the creation of its dependencies.
+		 */
+		public Duration getDuration() {
+			return this.step.getDuration();
+		}
+
+		/**
+		 * Return the duration of the creation of the bean,
+		 * excluding the creation of its dependencies.
+		 */
+		public Duration getSelfDuration() {
+			return this.selfDuration;
+		}
+
+		/**
+		 * Return the bytes allocated during the creation of the bean,
+		 * including its dependencies, or {@code -1} if not tracked.
+		 */
+		public long getAllocatedBytes() {
+			return this.step.getAllocatedBytes();
+		}
+
+		/**
+		 * Return the bytes allocated during the creation of the bean,
+		 * excluding its dependencies, or {@code -1} if not tracked.
+		 */
+		public long getSelfAllocatedBytes() {
+			return this.selfAllocatedBytes;
+		}
+
+		/**
+		 * Return the duration of each phase of the creation of the bean,
+		 * excluding the creation of dependencies during that phase, keyed
+		 * by phase name: e.g. "create-instance", "populate" or "init-methods".
+		 */
+		public Map<String, Duration> getPhases() {
+			return this.phases;
+		}
+
+		/**
+		 * Return the timings of the beans created as dependencies
+		 * during the creation of the bean, in creation order.
+		 */
+		public List<BeanTiming> getDependencies() {
+			return this.dependencies;
+		}
+
+		@Override
+		public String toString() {
+			return "Bean '" + getBeanName() + "' created in " + getDuration().toMillis() + " ms (" +
+					this.selfDuration.toMillis() + " ms excluding dependencies)";
+		}
+	}
+
+}
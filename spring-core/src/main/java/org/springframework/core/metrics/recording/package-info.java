@@ -0,0 +1,10 @@
+/**
+ * Support package for recording startup steps in memory and reporting
+ * on per-bean creation timings.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.core.metrics.recording;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * {@link CachingMetadataReaderFactory} that persists the class metadata it reads
+ * to a cache file, so that subsequent processes (e.g. warm restarts or test
+ * suites creating many application contexts) do not have to parse the same
+ * ".class" files again.
+ *
+ * <p>Entries are keyed by the URL of the class file and validated against its
+ * size and CRC-32 checksum on every cache miss of the in-memory cache: the CRC
+ * recorded in the central directory for a jar entry, or the CRC of the content
+ * for a class file in a directory. An entry for a changed class file is never
+ * served but replaced once the class file has been read again. Class files that
+ * are neither in a jar nor in the file system are always read.
+ *
+ * <p>Entries are written to the cache file on {@link #saveCache()}, as well as on
+ * {@link #clearCache()} which is invoked at the end of configuration class
+ * processing. Entries loaded from an existing cache file are retained, so a
+ * cache file may be shared by different application contexts or processes.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+public class PersistentMetadataReaderFactory extends CachingMetadataReaderFactory {
+
+	private static final int MAGIC = 0x534d4443;
+
+	private static final int VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(PersistentMetadataReaderFactory.class);
+
+
+	private final Path cacheFile;
+
+	private final Map<String, CacheEntry> cacheEntries = new ConcurrentHashMap<>(256);
+
+	private volatile boolean modified;
+
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the default class loader,
+	 * loading existing entries from the given cache file.
+	 * @param cacheFile the cache file to use (does not need to exist)
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile) {
+		super();
+		this.cacheFile = cacheFile;
+		loadCache();
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given {@link ClassLoader},
+	 * loading existing entries from the given cache file.
+	 * @param cacheFile the cache file to use (does not need to exist)
+	 * @param classLoader the ClassLoader to use
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile, @Nullable ClassLoader classLoader) {
+		super(classLoader);
+		this.cacheFile = cacheFile;
+		loadCache();
+	}
+
+	/**
+	 * Create a new PersistentMetadataReaderFactory for the given {@link ResourceLoader},
+	 * loading existing entries from the given cache file.
+	 * @param cacheFile the cache file to use (does not need to exist)
+	 * @param resourceLoader the Spring ResourceLoader to use
+	 * (also determines the ClassLoader to use)
+	 */
+	public PersistentMetadataReaderFactory(Path cacheFile, @Nullable ResourceLoader resourceLoader) {
+		super(resourceLoader);
+		this.cacheFile = cacheFile;
+		loadCache();
+	}
+
+
+	/**
+	 * Return the cache file that this factory reads from and writes to.
+	 */
+	public final Path getCacheFile() {
+		return this.cacheFile;
+	}
+
+	@Override
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
+		URL url;
+		try {
+			url = resource.getURL();
+		}
+		catch (IOException ex) {
+			// Not resolvable as URL, e.g. a ByteArrayResource
+			return super.createMetadataReader(resource);
+		}
+
+		if (ResourceUtils.isJarURL(url)) {
+			URLConnection con = url.openConnection();
+			if (con instanceof JarURLConnection) {
+				JarURLConnection jarCon = (JarURLConnection) con;
+				ResourceUtils.useCachesIfNecessary(jarCon);
+				JarEntry jarEntry = jarCon.getJarEntry();
+				long size = jarEntry.getSize();
+				long crc = jarEntry.getCrc();
+				if (!jarCon.getUseCaches()) {
+					jarCon.getJarFile().close();
+				}
+				if (size != -1 && crc != -1) {
+					return createMetadataReader(resource, url.toExternalForm(), size, crc, null);
+				}
+			}
+		}
+		else if (ResourceUtils.isFileURL(url)) {
+			// Compute the checksum from the content that is going to be parsed on a miss
+			byte[] content;
+			try (InputStream is = resource.getInputStream()) {
+				content = FileCopyUtils.copyToByteArray(is);
+			}
+			CRC32 crc = new CRC32();
+			crc.update(content, 0, content.length);
+			return createMetadataReader(resource, url.toExternalForm(), content.length, crc.getValue(), content);
+		}
+		return super.createMetadataReader(resource);
+	}
+
+	private MetadataReader createMetadataReader(Resource resource, String key, long size, long crc,
+			@Nullable byte[] content) throws IOException {
+
+		ClassLoader classLoader = getResourceLoader().getClassLoader();
+		CacheEntry cacheEntry = this.cacheEntries.get(key);
+		if (cacheEntry != null && cacheEntry.size == size && cacheEntry.crc == crc) {
+			SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
+			try {
+				RecordingClassVisitor.replay(cacheEntry.events, visitor);
+				return new SimpleMetadataReader(resource, visitor.getMetadata());
+			}
+			catch (IOException ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring malformed metadata cache entry for " + resource, ex);
+				}
+			}
+		}
+
+		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
+		RecordingClassVisitor recorder = new RecordingClassVisitor(visitor);
+		if (content != null) {
+			SimpleMetadataReader.getClassReader(new ByteArrayInputStream(content), resource)
+					.accept(recorder, SimpleMetadataReader.PARSING_OPTIONS);
+		}
+		else {
+			SimpleMetadataReader.getClassReader(resource).accept(recorder, SimpleMetadataReader.PARSING_OPTIONS);
+		}
+		byte[] events = recorder.getEvents();
+		if (events != null) {
+			this.cacheEntries.put(key, new CacheEntry(size, crc, events));
+			this.modified = true;
+		}
+		return new SimpleMetadataReader(resource, visitor.getMetadata());
+	}
+
+	/**
+	 * Clear the in-memory MetadataReader cache and write new entries
+	 * to the cache file, logging a warning if it cannot be written.
+	 * @see #saveCache()
+	 */
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		try {
+			saveCache();
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to write metadata cache file " + this.cacheFile, ex);
+		}
+	}
+
+	/**
+	 * Write the cache file if entries have been added since it has been
+	 * loaded or written, merging entries written by other factories meanwhile.
+	 * <p>The cache file is replaced atomically where supported by the file system.
+	 * @throws IOException in case of I/O errors
+	 */
+	public synchronized void saveCache() throws IOException {
+		if (!this.modified) {
+			return;
+		}
+		this.modified = false;
+		readCacheFile(true);
+
+		Path directory = this.cacheFile.toAbsolutePath().getParent();
+		Assert.state(directory != null, "Cache file must have a parent directory");
+		Files.createDirectories(directory);
+		Path tempFile = Files.createTempFile(directory, this.cacheFile.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				Map<String, CacheEntry> cacheEntries = new LinkedHashMap<>(this.cacheEntries);
+				output.writeInt(cacheEntries.size());
+				for (Map.Entry<String, CacheEntry> entry : cacheEntries.entrySet()) {
+					CacheEntry cacheEntry = entry.getValue();
+					output.writeUTF(entry.getKey());
+					output.writeLong(cacheEntry.size);
+					output.writeLong(cacheEntry.crc);
+					output.writeInt(cacheEntry.events.length);
+					output.write(cacheEntry.events);
+				}
+			}
+			try {
+				Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException ex) {
+			this.modified = true;
+			Files.deleteIfExists(tempFile);
+			throw ex;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Wrote " + this.cacheEntries.size() + " entries to metadata cache file " + this.cacheFile);
+		}
+	}
+
+	private void loadCache() {
+		readCacheFile(false);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Loaded " + this.cacheEntries.size() + " entries from metadata cache file " + this.cacheFile);
+		}
+	}
+
+	/**
+	 * Read the entries of the cache file, if any.
+	 * @param merge whether to only add entries that are not present yet
+	 */
+	private void readCacheFile(boolean merge) {
+		if (!Files.isRegularFile(this.cacheFile)) {
+			return;
+		}
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(this.cacheFile)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				logger.debug("Ignoring metadata cache file " + this.cacheFile + " in unsupported format");
+				return;
+			}
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = input.readUTF();
+				long size = input.readLong();
+				long crc = input.readLong();
+				byte[] events = new byte[input.readInt()];
+				input.readFully(events);
+				CacheEntry cacheEntry = new CacheEntry(size, crc, events);
+				if (merge) {
+					this.cacheEntries.putIfAbsent(key, cacheEntry);
+				}
+				else {
+					this.cacheEntries.put(key, cacheEntry);
+				}
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			// Entries read so far are complete and remain subject to validation
+			if (logger.isDebugEnabled()) {
+				logger.debug("Ignoring unreadable metadata cache file " + this.cacheFile, ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Recorded class file events along with the size and CRC-32 checksum
+	 * of the class file they have been recorded from.
+	 */
+	private static final class CacheEntry {
+
+		final long size;
+
+		final long crc;
+
+		final byte[] events;
+
+		CacheEntry(long size, long crc, byte[] events) {
+			this.size = size;
+			this.crc = crc;
+			this.events = events;
+		}
+	}
+
+}
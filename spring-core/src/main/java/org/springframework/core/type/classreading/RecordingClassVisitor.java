@@ -0,0 +1,643 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.lang.Nullable;
+
+/**
+ * ASM class visitor that records the events relevant for
+ * {@link SimpleAnnotationMetadataReadingVisitor} in a compact binary form
+ * while passing them on to a delegate visitor, so that they can be
+ * {@linkplain #replay replayed} later on without reading the class file again.
+ *
+ * <p>Class loading and annotation type resolution happen in the visitor the
+ * events are replayed to, so a recording does not depend on the class loader
+ * it has been made with.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see PersistentMetadataReaderFactory
+ */
+final class RecordingClassVisitor extends ClassVisitor {
+
+	private static final byte END = 0;
+
+	private static final byte CLASS = 1;
+
+	private static final byte OUTER_CLASS = 2;
+
+	private static final byte INNER_CLASS = 3;
+
+	private static final byte ANNOTATION = 4;
+
+	private static final byte METHOD = 5;
+
+	private static final byte VALUE = 6;
+
+	private static final byte ENUM = 7;
+
+	private static final byte ARRAY = 8;
+
+
+	private static final byte BYTE = 1;
+
+	private static final byte BOOLEAN = 2;
+
+	private static final byte CHAR = 3;
+
+	private static final byte SHORT = 4;
+
+	private static final byte INT = 5;
+
+	private static final byte LONG = 6;
+
+	private static final byte FLOAT = 7;
+
+	private static final byte DOUBLE = 8;
+
+	private static final byte STRING = 9;
+
+	private static final byte TYPE = 10;
+
+	private static final byte BYTE_ARRAY = 11;
+
+	private static final byte BOOLEAN_ARRAY = 12;
+
+	private static final byte CHAR_ARRAY = 13;
+
+	private static final byte SHORT_ARRAY = 14;
+
+	private static final byte INT_ARRAY = 15;
+
+	private static final byte LONG_ARRAY = 16;
+
+	private static final byte FLOAT_ARRAY = 17;
+
+	private static final byte DOUBLE_ARRAY = 18;
+
+
+	private final Recording recording = new Recording();
+
+
+	RecordingClassVisitor(ClassVisitor classVisitor) {
+		super(SpringAsmInfo.ASM_VERSION, classVisitor);
+	}
+
+
+	@Override
+	public void visit(int version, int access, String name, @Nullable String signature,
+			@Nullable String superName, @Nullable String[] interfaces) {
+
+		this.recording.writeByte(CLASS);
+		this.recording.writeInt(version);
+		this.recording.writeInt(access);
+		this.recording.writeString(name);
+		this.recording.writeString(signature);
+		this.recording.writeString(superName);
+		this.recording.writeStringArray(interfaces);
+		super.visit(version, access, name, signature, superName, interfaces);
+	}
+
+	@Override
+	public void visitOuterClass(String owner, @Nullable String name, @Nullable String descriptor) {
+		this.recording.writeByte(OUTER_CLASS);
+		this.recording.writeString(owner);
+		this.recording.writeString(name);
+		this.recording.writeString(descriptor);
+		super.visitOuterClass(owner, name, descriptor);
+	}
+
+	@Override
+	public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int access) {
+		this.recording.writeByte(INNER_CLASS);
+		this.recording.writeString(name);
+		this.recording.writeString(outerName);
+		this.recording.writeString(innerName);
+		this.recording.writeInt(access);
+		super.visitInnerClass(name, outerName, innerName, access);
+	}
+
+	@Override
+	@Nullable
+	public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+		AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+		if (!visible) {
+			// Invisible annotations are not exposed as metadata
+			return annotationVisitor;
+		}
+		this.recording.writeByte(ANNOTATION);
+		this.recording.writeString(descriptor);
+		return new RecordingAnnotationVisitor(this.recording, annotationVisitor);
+	}
+
+	@Override
+	@Nullable
+	public MethodVisitor visitMethod(int access, String name, String descriptor,
+			@Nullable String signature, @Nullable String[] exceptions) {
+
+		MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+		if ((access & Opcodes.ACC_BRIDGE) != 0) {
+			return methodVisitor;
+		}
+		return new RecordingMethodVisitor(access, name, descriptor, signature, exceptions, methodVisitor);
+	}
+
+	@Override
+	public void visitEnd() {
+		this.recording.writeByte(END);
+		super.visitEnd();
+	}
+
+	/**
+	 * Return the recorded events, or {@code null} if the visited class
+	 * cannot be recorded, e.g. due to an oversized string constant.
+	 */
+	@Nullable
+	public byte[] getEvents() {
+		return this.recording.toByteArray();
+	}
+
+
+	/**
+	 * Replay recorded events to the given class visitor.
+	 * @param events the events as returned by {@link #getEvents()}
+	 * @param classVisitor the class visitor to replay the events to
+	 * @throws IOException if the given events are malformed
+	 */
+	static void replay(byte[] events, ClassVisitor classVisitor) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(events));
+		byte event;
+		while ((event = input.readByte()) != END) {
+			switch (event) {
+				case CLASS:
+					classVisitor.visit(input.readInt(), input.readInt(), readString(input),
+							readString(input), readString(input), readStringArray(input));
+					break;
+				case OUTER_CLASS:
+					classVisitor.visitOuterClass(readString(input), readString(input), readString(input));
+					break;
+				case INNER_CLASS:
+					classVisitor.visitInnerClass(readString(input), readString(input), readString(input),
+							input.readInt());
+					break;
+				case ANNOTATION:
+					replayAnnotation(input, classVisitor.visitAnnotation(readString(input), true));
+					break;
+				case METHOD:
+					MethodVisitor methodVisitor = classVisitor.visitMethod(input.readInt(), readString(input),
+							readString(input), readString(input), readStringArray(input));
+					while ((event = input.readByte()) != END) {
+						if (event != ANNOTATION) {
+							throw new IOException("Unexpected method event " + event);
+						}
+						String descriptor = readString(input);
+						replayAnnotation(input, methodVisitor != null ? methodVisitor.visitAnnotation(descriptor, true) : null);
+					}
+					if (methodVisitor != null) {
+						methodVisitor.visitEnd();
+					}
+					break;
+				default:
+					throw new IOException("Unexpected class event " + event);
+			}
+		}
+		classVisitor.visitEnd();
+	}
+
+	private static void replayAnnotation(DataInputStream input, @Nullable AnnotationVisitor annotationVisitor)
+			throws IOException {
+
+		byte event;
+		while ((event = input.readByte()) != END) {
+			String name = readString(input);
+			switch (event) {
+				case VALUE:
+					Object value = readValue(input);
+					if (annotationVisitor != null) {
+						annotationVisitor.visit(name, value);
+					}
+					break;
+				case ENUM:
+					String descriptor = readString(input);
+					String enumValue = readString(input);
+					if (annotationVisitor != null) {
+						annotationVisitor.visitEnum(name, descriptor, enumValue);
+					}
+					break;
+				case ANNOTATION:
+					String annotationDescriptor = readString(input);
+					replayAnnotation(input, annotationVisitor != null ?
+							annotationVisitor.visitAnnotation(name, annotationDescriptor) : null);
+					break;
+				case ARRAY:
+					replayAnnotation(input, annotationVisitor != null ? annotationVisitor.visitArray(name) : null);
+					break;
+				default:
+					throw new IOException("Unexpected annotation event " + event);
+			}
+		}
+		if (annotationVisitor != null) {
+			annotationVisitor.visitEnd();
+		}
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case BYTE:
+				return input.readByte();
+			case BOOLEAN:
+				return input.readBoolean();
+			case CHAR:
+				return input.readChar();
+			case SHORT:
+				return input.readShort();
+			case INT:
+				return input.readInt();
+			case LONG:
+				return input.readLong();
+			case FLOAT:
+				return Float.intBitsToFloat(input.readInt());
+			case DOUBLE:
+				return Double.longBitsToDouble(input.readLong());
+			case STRING:
+				return input.readUTF();
+			case TYPE:
+				return Type.getType(input.readUTF());
+			case BYTE_ARRAY:
+				byte[] bytes = new byte[input.readInt()];
+				input.readFully(bytes);
+				return bytes;
+			case BOOLEAN_ARRAY:
+				boolean[] booleans = new boolean[input.readInt()];
+				for (int i = 0; i < booleans.length; i++) {
+					booleans[i] = input.readBoolean();
+				}
+				return booleans;
+			case CHAR_ARRAY:
+				char[] chars = new char[input.readInt()];
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = input.readChar();
+				}
+				return chars;
+			case SHORT_ARRAY:
+				short[] shorts = new short[input.readInt()];
+				for (int i = 0; i < shorts.length; i++) {
+					shorts[i] = input.readShort();
+				}
+				return shorts;
+			case INT_ARRAY:
+				int[] ints = new int[input.readInt()];
+				for (int i = 0; i < ints.length; i++) {
+					ints[i] = input.readInt();
+				}
+				return ints;
+			case LONG_ARRAY:
+				long[] longs = new long[input.readInt()];
+				for (int i = 0; i < longs.length; i++) {
+					longs[i] = input.readLong();
+				}
+				return longs;
+			case FLOAT_ARRAY:
+				float[] floats = new float[input.readInt()];
+				for (int i = 0; i < floats.length; i++) {
+					floats[i] = Float.intBitsToFloat(input.readInt());
+				}
+				return floats;
+			case DOUBLE_ARRAY:
+				double[] doubles = new double[input.readInt()];
+				for (int i = 0; i < doubles.length; i++) {
+					doubles[i] = Double.longBitsToDouble(input.readLong());
+				}
+				return doubles;
+			default:
+				throw new IOException("Unexpected value type " + type);
+		}
+	}
+
+	@Nullable
+	private static String readString(DataInputStream input) throws IOException {
+		return (input.readBoolean() ? input.readUTF() : null);
+	}
+
+	@Nullable
+	private static String[] readStringArray(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readString(input);
+		}
+		return values;
+	}
+
+
+	/**
+	 * Binary event recording that turns write failures into an
+	 * unrecordable state rather than propagating them.
+	 */
+	private static class Recording {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+		private final DataOutputStream output = new DataOutputStream(this.bytes);
+
+		private boolean failed;
+
+		void writeByte(int value) {
+			try {
+				this.output.writeByte(value);
+			}
+			catch (IOException ex) {
+				this.failed = true;
+			}
+		}
+
+		void writeInt(int value) {
+			try {
+				this.output.writeInt(value);
+			}
+			catch (IOException ex) {
+				this.failed = true;
+			}
+		}
+
+		void writeString(@Nullable String value) {
+			try {
+				this.output.writeBoolean(value != null);
+				if (value != null) {
+					// Modified UTF-8: lossless, but limited to 65535 bytes
+					this.output.writeUTF(value);
+				}
+			}
+			catch (IOException ex) {
+				this.failed = true;
+			}
+		}
+
+		void writeStringArray(@Nullable String[] values) {
+			writeInt(values != null ? values.length : -1);
+			if (values != null) {
+				for (String value : values) {
+					writeString(value);
+				}
+			}
+		}
+
+		void writeValue(Object value) {
+			try {
+				DataOutputStream output = this.output;
+				if (value instanceof Byte) {
+					output.writeByte(BYTE);
+					output.writeByte((Byte) value);
+				}
+				else if (value instanceof Boolean) {
+					output.writeByte(BOOLEAN);
+					output.writeBoolean((Boolean) value);
+				}
+				else if (value instanceof Character) {
+					output.writeByte(CHAR);
+					output.writeChar((Character) value);
+				}
+				else if (value instanceof Short) {
+					output.writeByte(SHORT);
+					output.writeShort((Short) value);
+				}
+				else if (value instanceof Integer) {
+					output.writeByte(INT);
+					output.writeInt((Integer) value);
+				}
+				else if (value instanceof Long) {
+					output.writeByte(LONG);
+					output.writeLong((Long) value);
+				}
+				else if (value instanceof Float) {
+					output.writeByte(FLOAT);
+					output.writeInt(Float.floatToRawIntBits((Float) value));
+				}
+				else if (value instanceof Double) {
+					output.writeByte(DOUBLE);
+					output.writeLong(Double.doubleToRawLongBits((Double) value));
+				}
+				else if (value instanceof String) {
+					output.writeByte(STRING);
+					output.writeUTF((String) value);
+				}
+				else if (value instanceof Type) {
+					output.writeByte(TYPE);
+					output.writeUTF(((Type) value).getDescriptor());
+				}
+				else if (value instanceof byte[]) {
+					byte[] array = (byte[]) value;
+					output.writeByte(BYTE_ARRAY);
+					output.writeInt(array.length);
+					output.write(array);
+				}
+				else if (value instanceof boolean[]) {
+					boolean[] array = (boolean[]) value;
+					output.writeByte(BOOLEAN_ARRAY);
+					output.writeInt(array.length);
+					for (boolean element : array) {
+						output.writeBoolean(element);
+					}
+				}
+				else if (value instanceof char[]) {
+					char[] array = (char[]) value;
+					output.writeByte(CHAR_ARRAY);
+					output.writeInt(array.length);
+					for (char element : array) {
+						output.writeChar(element);
+					}
+				}
+				else if (value instanceof short[]) {
+					short[] array = (short[]) value;
+					output.writeByte(SHORT_ARRAY);
+					output.writeInt(array.length);
+					for (short element : array) {
+						output.writeShort(element);
+					}
+				}
+				else if (value instanceof int[]) {
+					int[] array = (int[]) value;
+					output.writeByte(INT_ARRAY);
+					output.writeInt(array.length);
+					for (int element : array) {
+						output.writeInt(element);
+					}
+				}
+				else if (value instanceof long[]) {
+					long[] array = (long[]) value;
+					output.writeByte(LONG_ARRAY);
+					output.writeInt(array.length);
+					for (long element : array) {
+						output.writeLong(element);
+					}
+				}
+				else if (value instanceof float[]) {
+					float[] array = (float[]) value;
+					output.writeByte(FLOAT_ARRAY);
+					output.writeInt(array.length);
+					for (float element : array) {
+						output.writeInt(Float.floatToRawIntBits(element));
+					}
+				}
+				else if (value instanceof double[]) {
+					double[] array = (double[]) value;
+					output.writeByte(DOUBLE_ARRAY);
+					output.writeInt(array.length);
+					for (double element : array) {
+						output.writeLong(Double.doubleToRawLongBits(element));
+					}
+				}
+				else {
+					this.failed = true;
+				}
+			}
+			catch (IOException ex) {
+				this.failed = true;
+			}
+		}
+
+		void write(Recording recording) {
+			try {
+				recording.bytes.writeTo(this.output);
+			}
+			catch (IOException ex) {
+				this.failed = true;
+			}
+			this.failed |= recording.failed;
+		}
+
+		@Nullable
+		byte[] toByteArray() {
+			return (this.failed ? null : this.bytes.toByteArray());
+		}
+	}
+
+
+	/**
+	 * Records the events of an annotation, including nested annotations and arrays.
+	 */
+	private static class RecordingAnnotationVisitor extends AnnotationVisitor {
+
+		private final Recording recording;
+
+		RecordingAnnotationVisitor(Recording recording, @Nullable AnnotationVisitor annotationVisitor) {
+			super(SpringAsmInfo.ASM_VERSION, annotationVisitor);
+			this.recording = recording;
+		}
+
+		@Override
+		public void visit(@Nullable String name, Object value) {
+			this.recording.writeByte(VALUE);
+			this.recording.writeString(name);
+			this.recording.writeValue(value);
+			super.visit(name, value);
+		}
+
+		@Override
+		public void visitEnum(@Nullable String name, String descriptor, String value) {
+			this.recording.writeByte(ENUM);
+			this.recording.writeString(name);
+			this.recording.writeString(descriptor);
+			this.recording.writeString(value);
+			super.visitEnum(name, descriptor, value);
+		}
+
+		@Override
+		public AnnotationVisitor visitAnnotation(@Nullable String name, String descriptor) {
+			this.recording.writeByte(ANNOTATION);
+			this.recording.writeString(name);
+			this.recording.writeString(descriptor);
+			return new RecordingAnnotationVisitor(this.recording, super.visitAnnotation(name, descriptor));
+		}
+
+		@Override
+		public AnnotationVisitor visitArray(@Nullable String name) {
+			this.recording.writeByte(ARRAY);
+			this.recording.writeString(name);
+			return new RecordingAnnotationVisitor(this.recording, super.visitArray(name));
+		}
+
+		@Override
+		public void visitEnd() {
+			this.recording.writeByte(END);
+			super.visitEnd();
+		}
+	}
+
+
+	/**
+	 * Records a method along with its visible annotations, omitting
+	 * methods without any since these do not contribute metadata.
+	 */
+	private class RecordingMethodVisitor extends MethodVisitor {
+
+		private final Recording recording = new Recording();
+
+		private boolean annotated;
+
+		RecordingMethodVisitor(int access, String name, String descriptor, @Nullable String signature,
+				@Nullable String[] exceptions, @Nullable MethodVisitor methodVisitor) {
+
+			super(SpringAsmInfo.ASM_VERSION, methodVisitor);
+			this.recording.writeByte(METHOD);
+			this.recording.writeInt(access);
+			this.recording.writeString(name);
+			this.recording.writeString(descriptor);
+			this.recording.writeString(signature);
+			this.recording.writeStringArray(exceptions);
+		}
+
+		@Override
+		@Nullable
+		public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+			AnnotationVisitor annotationVisitor = super.visitAnnotation(descriptor, visible);
+			if (!visible) {
+				return annotationVisitor;
+			}
+			this.annotated = true;
+			this.recording.writeByte(ANNOTATION);
+			this.recording.writeString(descriptor);
+			return new RecordingAnnotationVisitor(this.recording, annotationVisitor);
+		}
+
+		@Override
+		public void visitEnd() {
+			if (this.annotated) {
+				this.recording.writeByte(END);
+				RecordingClassVisitor.this.recording.write(this.recording);
+			}
+			super.visitEnd();
+		}
+	}
+
+}
@@ -35,7 +35,7 @@ import org.springframework.lang.Nullable;
  */
 final class SimpleMetadataReader implements MetadataReader {
 
-	private static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG
+	static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG
 			| ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES;
 
 	private final Resource resource;
@@ -50,16 +50,25 @@ final class SimpleMetadataReader implements MetadataReader {
 		this.annotationMetadata = visitor.getMetadata();
 	}
 
-	@SuppressWarnings("deprecation")
-	private static ClassReader getClassReader(Resource resource) throws IOException {
+	SimpleMetadataReader(Resource resource, AnnotationMetadata annotationMetadata) {
+		this.resource = resource;
+		this.annotationMetadata = annotationMetadata;
+	}
+
+	static ClassReader getClassReader(Resource resource) throws IOException {
 		try (InputStream is = resource.getInputStream()) {
-			try {
-				return new ClassReader(is);
-			}
-			catch (IllegalArgumentException ex) {
-				throw new org.springframework.core.NestedIOException("ASM ClassReader failed to parse class file - " +
-						"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
-			}
+			return getClassReader(is, resource);
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	static ClassReader getClassReader(InputStream is, Resource resource) throws IOException {
+		try {
+			return new ClassReader(is);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new org.springframework.core.NestedIOException("ASM ClassReader failed to parse class file - " +
+					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
 		}
 	}
 
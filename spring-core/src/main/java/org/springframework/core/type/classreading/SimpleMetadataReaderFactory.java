@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -100,6 +100,20 @@ public class SimpleMetadataReaderFactory implements MetadataReaderFactory {
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return createMetadataReader(resource);
+	}
+
+	/**
+	 * Create a new {@link MetadataReader} for the given resource,
+	 * reading its class file.
+	 * <p>Invoked for every {@link #getMetadataReader} call on this factory and
+	 * for every cache miss in a {@link CachingMetadataReaderFactory}.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @return the MetadataReader instance
+	 * @throws IOException in case of I/O failure
+	 * @since 5.3.24
+	 */
+	protected MetadataReader createMetadataReader(Resource resource) throws IOException {
 		return new SimpleMetadataReader(resource, this.resourceLoader.getClassLoader());
 	}
 
@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -1009,6 +1010,43 @@ class ResolvableTypeTests {
 		assertThatResolvableType(unresolvableVariable).isAssignableFrom(objectType);
 	}
 
+	@Test
+	void forClassIsInterned() throws Exception {
+		ResolvableType type = ResolvableType.forClass(ArrayList.class);
+		assertThat(ResolvableType.forClass(ArrayList.class)).isSameAs(type);
+		assertThat(ResolvableType.forType(ArrayList.class)).isSameAs(type);
+		assertThat(ResolvableType.forClass(null)).isSameAs(ResolvableType.forClass(Object.class));
+		ResolvableType owner = ResolvableType.forField(Fields.class.getField("stringList"));
+		assertThat(ResolvableType.forType(ArrayList.class, owner)).isNotSameAs(type);
+	}
+
+	@Test
+	void forTypeWithoutProviderReturnsCachedInstance() throws Exception {
+		Type type = Fields.class.getField("stringList").getGenericType();
+		ResolvableType resolvableType = ResolvableType.forType(type);
+		assertThat(ResolvableType.forType(type)).isSameAs(resolvableType);
+		assertThat(resolvableType.getGeneric().resolve()).isEqualTo(String.class);
+		assertThat(ResolvableType.forField(Fields.class.getField("stringList"))).isNotSameAs(resolvableType);
+	}
+
+	@Test
+	void isAssignableFromForNestedGenericsWithClasses() throws Exception {
+		ResolvableType mapType = ResolvableType.forClassWithGenerics(Map.class,
+				ResolvableType.forClass(String.class), ResolvableType.forClassWithGenerics(List.class, Integer.class));
+		ResolvableType sameMapType = ResolvableType.forClassWithGenerics(HashMap.class,
+				ResolvableType.forClass(String.class), ResolvableType.forClassWithGenerics(List.class, Integer.class));
+		ResolvableType otherMapType = ResolvableType.forClassWithGenerics(HashMap.class,
+				ResolvableType.forClass(String.class), ResolvableType.forClassWithGenerics(List.class, Number.class));
+		ResolvableType subtypeKeyMapType = ResolvableType.forClassWithGenerics(HashMap.class,
+				ResolvableType.forClass(Object.class), ResolvableType.forClassWithGenerics(List.class, Integer.class));
+
+		assertThatResolvableType(mapType).isAssignableFrom(sameMapType).isNotAssignableFrom(otherMapType, subtypeKeyMapType);
+		assertThat(ResolvableType.forClassWithGenerics(List.class, CharSequence.class).isAssignableFrom(
+				ResolvableType.forClassWithGenerics(List.class, String.class))).isFalse();
+		assertThat(ResolvableType.forRawClass(List.class).isAssignableFrom(
+				ResolvableType.forClassWithGenerics(ArrayList.class, String.class))).isTrue();
+	}
+
 	@Test
 	void isAssignableFromForClassAndSimpleVariable() throws Exception {
 		ResolvableType objectType = ResolvableType.forClass(Object.class);
@@ -1245,6 +1283,12 @@ class ResolvableTypeTests {
 		assertThat(deserializedNone).isSameAs(ResolvableType.NONE);
 	}
 
+	@Test
+	void serialVersionUidCompatibleWithPreviousVersions() {
+		assertThat(ObjectStreamClass.lookup(ResolvableType.class).getSerialVersionUID())
+				.isEqualTo(-1883904831920384438L);
+	}
+
 	@Test
 	void canResolveVoid() throws Exception {
 		ResolvableType type = ResolvableType.forClass(void.class);
@@ -23,6 +23,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Nested;
@@ -244,6 +245,37 @@ class PathMatchingResourcePatternResolverTests {
 	}
 
 
+	@Nested
+	class ParallelScanning {
+
+		@Test
+		void directoryTreeInSameOrderAsSequential() throws IOException {
+			assertSameResourcesAsSequential("classpath*:org/springframework/core/**/*.class");
+		}
+
+		@Test
+		void multipleRootsInSameOrderAsSequential() throws IOException {
+			assertSameResourcesAsSequential("classpath*:**/annotation/*.class");
+		}
+
+		private void assertSameResourcesAsSequential(String pattern) throws IOException {
+			PathMatchingResourcePatternResolver sequentialResolver = new PathMatchingResourcePatternResolver();
+			sequentialResolver.setForkJoinPool(null);
+			PathMatchingResourcePatternResolver parallelResolver = new PathMatchingResourcePatternResolver();
+			ForkJoinPool pool = new ForkJoinPool(4);
+			try {
+				parallelResolver.setForkJoinPool(pool);
+				Resource[] expected = sequentialResolver.getResources(pattern);
+				assertThat(expected).isNotEmpty();
+				assertThat(parallelResolver.getResources(pattern)).containsExactly(expected);
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+
 	private void assertFilenames(String pattern, String... filenames) {
 		assertFilenames(pattern, false, filenames);
 	}
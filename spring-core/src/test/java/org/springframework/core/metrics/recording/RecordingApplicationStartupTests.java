@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.metrics.recording;
+
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.recording.StartupReport.BeanTiming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for {@link RecordingApplicationStartup} and {@link StartupReport}.
+ *
+ * @author haozhifeng
+ */
+class RecordingApplicationStartupTests {
+
+	private final RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup();
+
+
+	@Test
+	void parentIsCurrentStepOfSameThread() throws InterruptedException {
+		StartupStep outer = this.applicationStartup.start("outer");
+		StartupStep inner = this.applicationStartup.start("inner");
+		AtomicReference<StartupStep> otherThread = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			StartupStep step = this.applicationStartup.start("other");
+			step.end();
+			otherThread.set(step);
+		});
+		thread.start();
+		thread.join();
+		inner.end();
+		StartupStep next = this.applicationStartup.start("next");
+		next.end();
+		outer.end();
+
+		assertThat(outer.getParentId()).isNull();
+		assertThat(inner.getParentId()).isEqualTo(outer.getId());
+		assertThat(next.getParentId()).isEqualTo(outer.getId());
+		assertThat(otherThread.get().getParentId()).isNull();
+		assertThat(this.applicationStartup.getRecordedSteps()).extracting(StartupStep::getName)
+				.containsExactly("outer", "inner", "other", "next");
+		assertThat(this.applicationStartup.start("root").getParentId()).isNull();
+	}
+
+	@Test
+	void stepsAreRecordedUpToCapacity() {
+		RecordingApplicationStartup applicationStartup = new RecordingApplicationStartup(2);
+		for (int i = 0; i < 3; i++) {
+			applicationStartup.start("step" + i).end();
+		}
+		assertThat(applicationStartup.getRecordedSteps()).extracting(StartupStep::getName)
+				.containsExactly("step0", "step1");
+
+		applicationStartup.clear();
+		applicationStartup.start("step3").end();
+		assertThat(applicationStartup.getRecordedSteps()).extracting(StartupStep::getName).containsExactly("step3");
+	}
+
+	@Test
+	void stepCannotBeChangedOnceEnded() {
+		RecordedStartupStep step = this.applicationStartup.start("step");
+		step.tag("key", "value").end();
+
+		assertThat(step.getTag("key")).isEqualTo("value");
+		assertThat(step.getDuration().isNegative()).isFalse();
+		assertThat(step.getAllocatedBytes()).isEqualTo(-1);
+		assertThatIllegalStateException().isThrownBy(() -> step.tag("other", "value"));
+		assertThatIllegalStateException().isThrownBy(step::end);
+	}
+
+	@Test
+	void allocationsAreTracked() {
+		this.applicationStartup.setTrackAllocations(true);
+		assumeTrue(this.applicationStartup.isTrackingAllocations());
+		RecordedStartupStep step = this.applicationStartup.start("step");
+		byte[] bytes = new byte[1024 * 1024];
+		step.tag("length", String.valueOf(bytes.length)).end();
+
+		assertThat(step.getAllocatedBytes()).isGreaterThanOrEqualTo(1024 * 1024);
+	}
+
+	@Test
+	void reportBreaksDownBeanCreation() throws Exception {
+		recordBeanCreation();
+		StartupReport report = this.applicationStartup.getReport();
+
+		assertThat(report.getSteps()).hasSize(6);
+		assertThat(report.getBeanTimings()).extracting(BeanTiming::getBeanName).containsExactlyInAnyOrder("a", "b");
+		assertThat(report.getSlowestBeans(1)).hasSize(1);
+		assertThat(report.getCriticalPath()).extracting(BeanTiming::getBeanName).containsExactly("a", "b");
+		BeanTiming a = report.getCriticalPath().get(0);
+		BeanTiming b = a.getDependencies().get(0);
+		assertThat(a.getPhases()).containsOnlyKeys("populate", "init-methods");
+		assertThat(a.getSelfDuration()).isEqualTo(a.getDuration().minus(b.getDuration()));
+		RecordedStartupStep populate = report.getSteps().get(2);
+		assertThat(a.getPhases().get("populate")).isEqualTo(populate.getDuration().minus(b.getDuration()));
+		assertThat(b.getPhases()).containsOnlyKeys("create-instance");
+		assertThat(b.getDependencies()).isEmpty();
+		assertThat(b.getSelfDuration()).isEqualTo(b.getDuration());
+		assertThat(b.getThreadName()).isEqualTo(Thread.currentThread().getName());
+	}
+
+	@Test
+	void writeJson() throws Exception {
+		recordBeanCreation();
+		StringWriter writer = new StringWriter();
+		this.applicationStartup.getReport().writeJson(writer);
+
+		String json = writer.toString();
+		assertThat(json).contains("\"name\": \"spring.context.refresh\"");
+		assertThat(json).contains("\"tags\": {\"beanName\": \"b\", \"beanType\": \"\\\"quoted\\\"\"}");
+		assertThat(json).contains("\"phases\": {\"populate\": ");
+		assertThat(json).contains("\"dependencies\": [\"b\"]");
+		assertThat(json).contains("\"criticalPath\": [\"a\", \"b\"]");
+	}
+
+	@Test
+	void writeCollapsedStacks() throws Exception {
+		recordBeanCreation();
+		StringWriter writer = new StringWriter();
+		this.applicationStartup.getReport().writeCollapsedStacks(writer);
+
+		String thread = Thread.currentThread().getName().replace(' ', '_');
+		assertThat(writer.toString()).contains(thread + ";spring.context.refresh;spring.beans.instantiate[a];" +
+				"spring.beans.instantiate.populate;spring.beans.instantiate[b];spring.beans.instantiate.create-instance ");
+	}
+
+	private void recordBeanCreation() throws InterruptedException {
+		StartupStep refresh = this.applicationStartup.start("spring.context.refresh");
+		StartupStep a = this.applicationStartup.start("spring.beans.instantiate").tag("beanName", "a");
+		StartupStep populate = this.applicationStartup.start("spring.beans.instantiate.populate");
+		StartupStep b = this.applicationStartup.start("spring.beans.instantiate")
+				.tag("beanName", "b").tag("beanType", "\"quoted\"");
+		StartupStep createInstance = this.applicationStartup.start("spring.beans.instantiate.create-instance");
+		Thread.sleep(2);
+		createInstance.end();
+		b.end();
+		populate.end();
+		this.applicationStartup.start("spring.beans.instantiate.init-methods").end();
+		a.end();
+		refresh.end();
+	}
+
+}
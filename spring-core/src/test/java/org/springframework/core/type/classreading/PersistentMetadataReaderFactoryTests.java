@@ -0,0 +1,226 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.type.AbstractAnnotationMetadataTests;
+import org.springframework.core.type.AbstractMethodMetadataTests;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PersistentMetadataReaderFactory}.
+ *
+ * @author haozhifeng
+ */
+class PersistentMetadataReaderFactoryTests {
+
+	@TempDir
+	Path tempDir;
+
+
+	@Test
+	void metadataFromCacheFile() throws IOException {
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		Resource resource = new ClassPathResource(classFile(SampleA.class));
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata parsed = factory.getMetadataReader(resource).getAnnotationMetadata();
+		factory.saveCache();
+		assertThat(cacheFile).exists();
+
+		PersistentMetadataReaderFactory cachedFactory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata cached = cachedFactory.getMetadataReader(resource).getAnnotationMetadata();
+		assertThat(cached.getClassName()).isEqualTo(parsed.getClassName());
+		assertThat(cached.getAnnotationTypes()).isEqualTo(parsed.getAnnotationTypes());
+		Map<String, Object> attributes = cached.getAnnotationAttributes(Sample.class.getName());
+		assertThat(attributes).containsEntry("value", "a").containsEntry("state", Thread.State.BLOCKED);
+		assertThat((int[]) attributes.get("numbers")).containsExactly(1, 2);
+		assertThat((Class<?>[]) attributes.get("types")).containsExactly(String.class);
+		assertThat(cached.getAnnotatedMethods(Sample.class.getName())).hasSize(1);
+		assertThat(cached.getMemberClassNames()).isEqualTo(parsed.getMemberClassNames());
+		assertNotModified(cachedFactory);
+	}
+
+	@Test
+	void metadataFromCacheFileForJarEntry() throws IOException {
+		Path jarFile = this.tempDir.resolve("sample.jar");
+		try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile))) {
+			jar.putNextEntry(new ZipEntry("Sample.class"));
+			copyClassFile(SampleA.class, jar);
+			jar.closeEntry();
+		}
+		Resource resource = new UrlResource("jar:" + jarFile.toUri() + "!/Sample.class");
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		factory.getMetadataReader(resource);
+		factory.saveCache();
+
+		PersistentMetadataReaderFactory cachedFactory = new PersistentMetadataReaderFactory(cacheFile);
+		assertThat(cachedFactory.getMetadataReader(resource).getAnnotationMetadata().getClassName())
+				.isEqualTo(SampleA.class.getName());
+		assertNotModified(cachedFactory);
+	}
+
+	@Test
+	void changedClassFileIsReadAgain() throws IOException {
+		Path classFile = this.tempDir.resolve("Sample.class");
+		try (OutputStream out = Files.newOutputStream(classFile)) {
+			copyClassFile(SampleA.class, out);
+		}
+		Resource resource = new FileSystemResource(classFile);
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		assertThat(factory.getMetadataReader(resource).getClassMetadata().getClassName())
+				.isEqualTo(SampleA.class.getName());
+		factory.saveCache();
+
+		try (OutputStream out = Files.newOutputStream(classFile)) {
+			copyClassFile(SampleB.class, out);
+		}
+		PersistentMetadataReaderFactory cachedFactory = new PersistentMetadataReaderFactory(cacheFile);
+		AnnotationMetadata metadata = cachedFactory.getMetadataReader(resource).getAnnotationMetadata();
+		assertThat(metadata.getClassName()).isEqualTo(SampleB.class.getName());
+		assertThat(metadata.hasAnnotation(Sample.class.getName())).isFalse();
+	}
+
+	@Test
+	void unreadableCacheFileIsIgnored() throws IOException {
+		Path cacheFile = this.tempDir.resolve("metadata.cache");
+		Files.write(cacheFile, new byte[] {1, 2, 3});
+		PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+		Resource resource = new ClassPathResource(classFile(SampleA.class));
+		assertThat(factory.getMetadataReader(resource).getClassMetadata().getClassName())
+				.isEqualTo(SampleA.class.getName());
+		factory.clearCache();
+
+		PersistentMetadataReaderFactory cachedFactory = new PersistentMetadataReaderFactory(cacheFile);
+		cachedFactory.getMetadataReader(resource);
+		assertNotModified(cachedFactory);
+	}
+
+
+	private void assertNotModified(PersistentMetadataReaderFactory factory) throws IOException {
+		// Only written if entries have been added, i.e. on a cache miss
+		Files.delete(factory.getCacheFile());
+		factory.saveCache();
+		assertThat(factory.getCacheFile()).doesNotExist();
+	}
+
+	private static String classFile(Class<?> clazz) {
+		return ClassUtils.convertClassNameToResourcePath(clazz.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+	}
+
+	private static void copyClassFile(Class<?> clazz, OutputStream out) throws IOException {
+		try (InputStream in = new ClassPathResource(classFile(clazz)).getInputStream()) {
+			out.write(FileCopyUtils.copyToByteArray(in));
+		}
+	}
+
+	private static AnnotationMetadata getFromCacheFile(Class<?> source) {
+		try {
+			Path cacheFile = Files.createTempFile("metadata", ".cache");
+			try {
+				Resource resource = new ClassPathResource(classFile(source), source.getClassLoader());
+				PersistentMetadataReaderFactory factory = new PersistentMetadataReaderFactory(cacheFile);
+				factory.getMetadataReader(resource);
+				factory.saveCache();
+				return new PersistentMetadataReaderFactory(cacheFile, source.getClassLoader())
+						.getMetadataReader(resource).getAnnotationMetadata();
+			}
+			finally {
+				Files.delete(cacheFile);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+
+	@Nested
+	class CachedAnnotationMetadataTests extends AbstractAnnotationMetadataTests {
+
+		@Override
+		protected AnnotationMetadata get(Class<?> source) {
+			return getFromCacheFile(source);
+		}
+	}
+
+
+	@Nested
+	class CachedMethodMetadataTests extends AbstractMethodMetadataTests {
+
+		@Override
+		protected AnnotationMetadata get(Class<?> source) {
+			return getFromCacheFile(source);
+		}
+	}
+
+
+	@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+	@interface Sample {
+
+		String value() default "";
+
+		int[] numbers() default {};
+
+		Class<?>[] types() default {};
+
+		Thread.State state() default Thread.State.NEW;
+	}
+
+
+	@Sample(value = "a", numbers = {1, 2}, types = String.class, state = Thread.State.BLOCKED)
+	static class SampleA {
+
+		@Sample
+		public String sample() {
+			return "";
+		}
+
+		public void plain() {
+		}
+
+
+		static class Member {
+		}
+	}
+
+
+	static class SampleB {
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,24 @@
 
 package org.springframework.expression.spel;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionCache;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
@@ -103,4 +109,117 @@ public class SpelBenchmark {
 		return data.expression.getValue(data.context);
 	}
 
+	@State(Scope.Benchmark)
+	public static class CompilationBenchmarkData {
+
+		@Param({"OFF", "IMMEDIATE"})
+		public SpelCompilerMode compilerMode;
+
+		public OrderBook orderBook = new OrderBook();
+
+		public Expression selectionExpression;
+
+		public Expression mapSelectionExpression;
+
+		public Expression projectionExpression;
+
+		public Expression concatenationExpression;
+
+		@Setup
+		public void setup() {
+			ExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(this.compilerMode, getClass().getClassLoader()));
+			this.selectionExpression = parser.parseExpression("orders.?[amount > 100]");
+			this.mapSelectionExpression = parser.parseExpression("limits.?[value > 10]");
+			this.projectionExpression = parser.parseExpression("orders.![id]");
+			this.concatenationExpression = parser.parseExpression("name + ':' + orders.size()");
+		}
+	}
+
+	@Benchmark
+	public Object selection(CompilationBenchmarkData data) {
+		return data.selectionExpression.getValue(data.orderBook);
+	}
+
+	@Benchmark
+	public Object mapSelection(CompilationBenchmarkData data) {
+		return data.mapSelectionExpression.getValue(data.orderBook);
+	}
+
+	@Benchmark
+	public Object projection(CompilationBenchmarkData data) {
+		return data.projectionExpression.getValue(data.orderBook);
+	}
+
+	@Benchmark
+	public Object stringConcatenation(CompilationBenchmarkData data) {
+		return data.concatenationExpression.getValue(data.orderBook);
+	}
+
+	@State(Scope.Benchmark)
+	public static class SharedCacheBenchmarkData {
+
+		@Param({"0", "256"})
+		public int cacheLimit;
+
+		public SpelParserConfiguration configuration =
+				new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader());
+
+		public OrderBook orderBook = new OrderBook();
+
+		@Setup
+		public void setup() {
+			SpelExpressionCache.setCacheLimit(this.cacheLimit);
+		}
+
+		@TearDown
+		public void tearDown() {
+			SpelExpressionCache.setCacheLimit(0);
+		}
+	}
+
+	@Benchmark
+	public Object parseAndExecutionPerParser(SharedCacheBenchmarkData data) {
+		ExpressionParser parser = new SpelExpressionParser(data.configuration);
+		return parser.parseExpression("orders.?[amount > 100]").getValue(data.orderBook);
+	}
+
+
+	public static class OrderBook {
+
+		public String name = "book";
+
+		public List<Order> orders = new ArrayList<>();
+
+		public Map<String, Integer> limits = new HashMap<>();
+
+		public OrderBook() {
+			for (int i = 0; i < 20; i++) {
+				this.orders.add(new Order("order" + i, i * 10));
+				this.limits.put("limit" + i, i);
+			}
+		}
+	}
+
+
+	public static class Order {
+
+		private final String id;
+
+		private final int amount;
+
+		public Order(String id, int amount) {
+			this.id = id;
+			this.amount = amount;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public int getAmount() {
+			return this.amount;
+		}
+	}
+
 }
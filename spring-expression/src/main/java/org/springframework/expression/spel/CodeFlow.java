@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -60,6 +60,13 @@ public class CodeFlow implements Opcodes {
 	 */
 	private final Deque<List<String>> compilationScopes;
 
+	/**
+	 * Record the local variables holding the currently active context objects, e.g.
+	 * the current element while generating the code for the criteria of a collection
+	 * selection. If empty, the target passed to the compiled expression is active.
+	 */
+	private final Deque<Integer> activeContextVariables = new ArrayDeque<>();
+
 	/**
 	 * As SpEL ast nodes are called to generate code for the main evaluation method
 	 * they can register to add a field to this class. Any registered FieldAdders
@@ -85,9 +92,10 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * When code generation requires an intermediate variable within a method,
-	 * this method records the next available variable (variable 0 is 'this').
+	 * this method records the next available variable (variable 0 is 'this', followed
+	 * by the target and the EvaluationContext passed to the main evaluation method).
 	 */
-	private int nextFreeVariableId = 1;
+	private int nextFreeVariableId = 3;
 
 
 	/**
@@ -105,13 +113,57 @@ public class CodeFlow implements Opcodes {
 
 	/**
 	 * Push the byte code to load the target (i.e. what was passed as the first argument
-	 * to CompiledExpression.getValue(target, context))
+	 * to CompiledExpression.getValue(target, context)), or the currently active context
+	 * object if one has been registered via {@link #pushActiveContextVariable(int)}.
 	 * @param mv the visitor into which the load instruction should be inserted
 	 */
 	public void loadTarget(MethodVisitor mv) {
+		Integer variable = this.activeContextVariables.peek();
+		mv.visitVarInsn(ALOAD, (variable != null ? variable : 1));
+	}
+
+	/**
+	 * Push the byte code to load the root object (i.e. what was passed as the first
+	 * argument to CompiledExpression.getValue(target, context)), independent of the
+	 * currently active context object.
+	 * @param mv the visitor into which the load instruction should be inserted
+	 * @since 5.3.24
+	 */
+	public void loadRootObject(MethodVisitor mv) {
 		mv.visitVarInsn(ALOAD, 1);
 	}
 
+	/**
+	 * Register the local variable holding the active context object for the code
+	 * generated until the corresponding {@link #popActiveContextVariable()} call,
+	 * for example the current element while iterating over a collection.
+	 * @param variable the index of the local variable holding the context object
+	 * @since 5.3.24
+	 * @see #loadTarget(MethodVisitor)
+	 */
+	public void pushActiveContextVariable(int variable) {
+		this.activeContextVariables.push(variable);
+	}
+
+	/**
+	 * Make the root object the active context object for the code generated until
+	 * the corresponding {@link #popActiveContextVariable()} call, for example for
+	 * an index expression which is always evaluated against the root object.
+	 * @since 5.3.24
+	 */
+	public void pushRootContextVariable() {
+		this.activeContextVariables.push(1);
+	}
+
+	/**
+	 * Restore the previously active context object.
+	 * @since 5.3.24
+	 * @see #pushActiveContextVariable(int)
+	 */
+	public void popActiveContextVariable() {
+		this.activeContextVariables.pop();
+	}
+
 	/**
 	 * Push the bytecode to load the EvaluationContext (the second parameter passed to
 	 * the compiled expression method).
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.math.BigInteger;
 
 import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypeConverter;
@@ -127,11 +128,17 @@ public class OpPlus extends Operator {
 		}
 
 		if (leftOperand instanceof String) {
+			if (isStringDescriptor(leftOp.exitTypeDescriptor) && isPlainTypedValue(operandTwoValue)) {
+				this.exitTypeDescriptor = "Ljava/lang/String";
+			}
 			return new TypedValue(
 					leftOperand + (rightOperand == null ? "null" : convertTypedValueToString(operandTwoValue, state)));
 		}
 
 		if (rightOperand instanceof String) {
+			if (isStringDescriptor(getRightOperand().exitTypeDescriptor) && isPlainTypedValue(operandOneValue)) {
+				this.exitTypeDescriptor = "Ljava/lang/String";
+			}
 			return new TypedValue(
 					(leftOperand == null ? "null" : convertTypedValueToString(operandOneValue, state)) + rightOperand);
 		}
@@ -163,13 +170,50 @@ public class OpPlus extends Operator {
 	 * @return {@code TypedValue} instance converted to {@code String}
 	 */
 	private static String convertTypedValueToString(TypedValue value, ExpressionState state) {
-		TypeConverter typeConverter = state.getEvaluationContext().getTypeConverter();
+		return convertToString(state.getEvaluationContext().getTypeConverter(),
+				value.getValue(), value.getTypeDescriptor());
+	}
+
+	/**
+	 * Convert the given operand value to a {@code String} for concatenation
+	 * with a {@code String} operand, using the registered converter if possible.
+	 * <p>This method is not just used for interpreted evaluation but also from
+	 * compiled expression code, which is why it needs to be declared as
+	 * {@code public static} here.
+	 * @param context the current evaluation context
+	 * @param value the operand value to convert
+	 * @return the {@code String} representation of the operand value
+	 * @since 5.3.24
+	 */
+	public static String convertToString(EvaluationContext context, @Nullable Object value) {
+		if (value == null) {
+			return "null";
+		}
+		return convertToString(context.getTypeConverter(), value, TypeDescriptor.forObject(value));
+	}
+
+	private static String convertToString(
+			TypeConverter typeConverter, @Nullable Object value, @Nullable TypeDescriptor sourceType) {
+
 		TypeDescriptor typeDescriptor = TypeDescriptor.valueOf(String.class);
-		if (typeConverter.canConvert(value.getTypeDescriptor(), typeDescriptor)) {
-			return String.valueOf(typeConverter.convertValue(value.getValue(),
-					value.getTypeDescriptor(), typeDescriptor));
+		if (typeConverter.canConvert(sourceType, typeDescriptor)) {
+			return String.valueOf(typeConverter.convertValue(value, sourceType, typeDescriptor));
 		}
-		return String.valueOf(value.getValue());
+		return String.valueOf(value);
+	}
+
+	private static boolean isStringDescriptor(@Nullable String descriptor) {
+		return "Ljava/lang/String".equals(descriptor);
+	}
+
+	/**
+	 * Determine whether compiled code converts the given operand value to a
+	 * {@code String} the same way, i.e. whether its type descriptor does not
+	 * carry annotations that a converter might take into account.
+	 */
+	private static boolean isPlainTypedValue(TypedValue value) {
+		TypeDescriptor typeDescriptor = value.getTypeDescriptor();
+		return (typeDescriptor == null || typeDescriptor.getAnnotations().length == 0);
 	}
 
 	@Override
@@ -187,23 +231,39 @@ public class OpPlus extends Operator {
 
 	/**
 	 * Walk through a possible tree of nodes that combine strings and append
-	 * them all to the same (on stack) StringBuilder.
+	 * them all to the same (on stack) StringBuilder. Operands which are not
+	 * strings themselves get converted when concatenated with a string.
 	 */
-	private void walk(MethodVisitor mv, CodeFlow cf, @Nullable SpelNodeImpl operand) {
-		if (operand instanceof OpPlus) {
-			OpPlus plus = (OpPlus)operand;
-			walk(mv, cf, plus.getLeftOperand());
-			walk(mv, cf, plus.getRightOperand());
-		}
-		else if (operand != null) {
-			cf.enterCompilationScope();
-			operand.generateCode(mv,cf);
-			if (!"Ljava/lang/String".equals(cf.lastDescriptor())) {
-				mv.visitTypeInsn(CHECKCAST, "java/lang/String");
-			}
-			cf.exitCompilationScope();
-			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+	private void walk(MethodVisitor mv, CodeFlow cf) {
+		SpelNodeImpl leftOperand = getLeftOperand();
+		SpelNodeImpl rightOperand = getRightOperand();
+		walk(mv, cf, leftOperand, isStringDescriptor(rightOperand.exitTypeDescriptor));
+		walk(mv, cf, rightOperand, isStringDescriptor(leftOperand.exitTypeDescriptor));
+	}
+
+	private void walk(MethodVisitor mv, CodeFlow cf, SpelNodeImpl operand, boolean convertToString) {
+		if (operand instanceof OpPlus && isStringDescriptor(operand.exitTypeDescriptor)) {
+			((OpPlus) operand).walk(mv, cf);
+			return;
+		}
+		boolean convert = (convertToString && !isStringDescriptor(operand.exitTypeDescriptor));
+		if (convert) {
+			cf.loadEvaluationContext(mv);
+		}
+		cf.enterCompilationScope();
+		operand.generateCode(mv,cf);
+		String descriptor = cf.lastDescriptor();
+		cf.exitCompilationScope();
+		if (convert) {
+			CodeFlow.insertBoxIfNecessary(mv, descriptor);
+			String evaluationContextClassName = EvaluationContext.class.getName().replace('.', '/');
+			mv.visitMethodInsn(INVOKESTATIC, OpPlus.class.getName().replace('.', '/'), "convertToString",
+					"(L" + evaluationContextClassName + ";Ljava/lang/Object;)Ljava/lang/String;", false);
+		}
+		else if (!isStringDescriptor(descriptor)) {
+			mv.visitTypeInsn(CHECKCAST, "java/lang/String");
 		}
+		mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
 	}
 
 	@Override
@@ -212,8 +272,7 @@ public class OpPlus extends Operator {
 			mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
 			mv.visitInsn(DUP);
 			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V", false);
-			walk(mv, cf, getLeftOperand());
-			walk(mv, cf, getRightOperand());
+			walk(mv, cf);
 			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
 		}
 		else {
@@ -18,6 +18,9 @@ package org.springframework.expression.spel.standard;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -27,6 +30,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.asm.ClassWriter;
 import org.springframework.asm.MethodVisitor;
 import org.springframework.asm.Opcodes;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.CompiledExpression;
@@ -61,6 +65,8 @@ import org.springframework.util.StringUtils;
  * object), it is not on by default.
  *
  * <p>Individual expressions can be compiled by calling {@code SpelCompiler.compile(expression)}.
+ * A set of expressions can be compiled ahead of their actual use, e.g. at startup, through
+ * {@link #compile(Collection, EvaluationContext)}.
  *
  * @author Andy Clement
  * @author Juergen Hoeller
@@ -255,6 +261,33 @@ public final class SpelCompiler implements Opcodes {
 		return (expression instanceof SpelExpression && ((SpelExpression) expression).compileExpression());
 	}
 
+	/**
+	 * Eagerly compile the given expressions, e.g. at application startup.
+	 * <p>Each expression is evaluated once against the given evaluation context,
+	 * which needs to provide representative data (typically through its root object
+	 * and variables), for the types involved to be known to the compiler. Expressions
+	 * obtained through the {@link SpelExpressionCache} share their compiled form with
+	 * all other expressions subsequently parsed for the same expression string, each
+	 * adopting it after its first interpreted evaluation.
+	 * @param expressions the expressions to compile
+	 * @param context the evaluation context to evaluate the expressions against
+	 * @return the expressions that could not be compiled (never {@code null})
+	 * @throws org.springframework.expression.EvaluationException if the evaluation
+	 * of an expression failed
+	 * @since 5.3.24
+	 * @see #compile(Expression)
+	 */
+	public static List<Expression> compile(Collection<? extends Expression> expressions, EvaluationContext context) {
+		List<Expression> notCompiled = new ArrayList<>();
+		for (Expression expression : expressions) {
+			expression.getValue(context);
+			if (!compile(expression)) {
+				notCompiled.add(expression);
+			}
+		}
+		return notCompiled;
+	}
+
 	/**
 	 * Request to revert to the interpreter for expression evaluation.
 	 * Any compiled form is discarded but can be recreated by later recompiling again.
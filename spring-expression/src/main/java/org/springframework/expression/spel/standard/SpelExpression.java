@@ -17,6 +17,7 @@
 package org.springframework.expression.spel.standard;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationContext;
@@ -72,11 +73,16 @@ public class SpelExpression implements Expression {
 
 	// Count of many times as the expression been interpreted - can trigger compilation
 	// when certain limit reached
-	private final AtomicInteger interpretedCount = new AtomicInteger();
+	private final AtomicInteger interpretedCount;
 
 	// The number of times compilation was attempted and failed - enables us to eventually
 	// give up trying to compile it when it just doesn't seem to be possible.
-	private final AtomicInteger failedAttempts = new AtomicInteger();
+	private final AtomicInteger failedAttempts;
+
+	// Holds the compiled form shared with other expressions for the same AST
+	// (if the expression has been obtained from the SpelExpressionCache)
+	@Nullable
+	private final AtomicReference<CompiledExpression> sharedCompiledAst;
 
 
 	/**
@@ -86,6 +92,26 @@ public class SpelExpression implements Expression {
 		this.expression = expression;
 		this.ast = ast;
 		this.configuration = configuration;
+		this.interpretedCount = new AtomicInteger();
+		this.failedAttempts = new AtomicInteger();
+		this.sharedCompiledAst = null;
+	}
+
+	/**
+	 * Construct an expression sharing its AST and compilation state with other
+	 * expressions, only used by the {@link SpelExpressionCache}.
+	 * <p>The shared compiled form is only adopted after an interpreted evaluation
+	 * of this expression, within the evaluation context given to it.
+	 */
+	SpelExpression(String expression, SpelNodeImpl ast, SpelParserConfiguration configuration,
+			SharedCompilationState sharedState) {
+
+		this.expression = expression;
+		this.ast = ast;
+		this.configuration = configuration;
+		this.interpretedCount = sharedState.interpretedCount;
+		this.failedAttempts = sharedState.failedAttempts;
+		this.sharedCompiledAst = sharedState.compiledAst;
 	}
 
 
@@ -128,8 +154,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -164,8 +189,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -192,8 +216,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -228,8 +251,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -259,8 +281,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -295,8 +316,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -324,8 +344,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -362,8 +381,7 @@ public class SpelExpression implements Expression {
 			catch (Throwable ex) {
 				// If running in mixed mode, revert to interpreted
 				if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
-					this.compiledAst = null;
-					this.interpretedCount.set(0);
+					revertToInterpreted(compiledAst);
 				}
 				else {
 					// Running in SpelCompilerMode.immediate mode - propagate exception to caller
@@ -487,7 +505,12 @@ public class SpelExpression implements Expression {
 		this.interpretedCount.incrementAndGet();
 		SpelCompilerMode compilerMode = expressionState.getConfiguration().getCompilerMode();
 		if (compilerMode != SpelCompilerMode.OFF) {
-			if (compilerMode == SpelCompilerMode.IMMEDIATE) {
+			if (this.sharedCompiledAst != null && this.sharedCompiledAst.get() != null) {
+				// Compiled by another expression for the same AST already: adopted
+				// once evaluated successfully within this expression's own context
+				compileExpression();
+			}
+			else if (compilerMode == SpelCompilerMode.IMMEDIATE) {
 				if (this.interpretedCount.get() > 1) {
 					compileExpression();
 				}
@@ -523,12 +546,23 @@ public class SpelExpression implements Expression {
 				// Compiled by another thread before this thread got into the sync block
 				return true;
 			}
+			if (this.sharedCompiledAst != null) {
+				compiledAst = this.sharedCompiledAst.get();
+				if (compiledAst != null) {
+					// Compiled by another expression for the same AST
+					this.compiledAst = compiledAst;
+					return true;
+				}
+			}
 			try {
 				SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
 				compiledAst = compiler.compile(this.ast);
 				if (compiledAst != null) {
 					// Successfully compiled
 					this.compiledAst = compiledAst;
+					if (this.sharedCompiledAst != null) {
+						this.sharedCompiledAst.set(compiledAst);
+					}
 					return true;
 				}
 				else {
@@ -561,11 +595,28 @@ public class SpelExpression implements Expression {
 	 * longer considered compilable if it cannot be compiled after 100 attempts).
 	 */
 	public void revertToInterpreted() {
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null && this.sharedCompiledAst != null) {
+			this.sharedCompiledAst.compareAndSet(compiledAst, null);
+		}
 		this.compiledAst = null;
 		this.interpretedCount.set(0);
 		this.failedAttempts.set(0);
 	}
 
+	/**
+	 * Revert to being interpreted after the given compiled form failed,
+	 * also discarding it as compiled form shared with other expressions.
+	 * @param failedAst the compiled form that failed
+	 */
+	private void revertToInterpreted(CompiledExpression failedAst) {
+		this.compiledAst = null;
+		this.interpretedCount.set(0);
+		if (this.sharedCompiledAst != null) {
+			this.sharedCompiledAst.compareAndSet(failedAst, null);
+		}
+	}
+
 	/**
 	 * Return the Abstract Syntax Tree for the expression.
 	 */
@@ -587,4 +638,19 @@ public class SpelExpression implements Expression {
 		return (object != null ? new TypedValue(object) : TypedValue.NULL);
 	}
 
+
+	/**
+	 * Compilation state shared by all expressions for the same AST: the compiled
+	 * form along with the counters that trigger compilation, so that expressions
+	 * evaluated only a few times each still get compiled eventually.
+	 */
+	static final class SharedCompilationState {
+
+		final AtomicReference<CompiledExpression> compiledAst = new AtomicReference<>();
+
+		final AtomicInteger interpretedCount = new AtomicInteger();
+
+		final AtomicInteger failedAttempts = new AtomicInteger();
+	}
+
 }
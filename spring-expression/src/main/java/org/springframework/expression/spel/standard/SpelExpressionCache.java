@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.standard.SpelExpression.SharedCompilationState;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Process-wide cache of parsed SpEL expressions, keyed by expression string and
+ * {@link SpelParserConfiguration}, used by every {@link SpelExpressionParser}
+ * once a {@linkplain #setCacheLimit cache limit} has been set.
+ *
+ * <p>Each parse call still returns a new {@link SpelExpression} instance with its
+ * own default evaluation context. However, expressions parsed for the same expression
+ * string and configuration share their AST as well as their compiled form: once one
+ * of them has been compiled, the others adopt the same compiled class after their
+ * first interpreted evaluation rather than going through compilation on their own.
+ * Expressions may also be {@linkplain SpelCompiler#compile(java.util.Collection, org.springframework.expression.EvaluationContext)
+ * compiled eagerly}, e.g. at startup, for later parse calls to pick up that way.
+ *
+ * <p>Note that sharing assumes that expressions for the same expression string and
+ * configuration get evaluated within the same kind of evaluation context. The compiled
+ * form reflects the property accessors, method resolvers and type locator of the
+ * context that it has been compiled for, not consulting those of the context given
+ * to a later evaluation. Each expression only adopts the shared compiled form after
+ * a successful interpreted evaluation within its own context, so a more restricted
+ * context such as a {@link org.springframework.expression.spel.support.SimpleEvaluationContext}
+ * still rejects an expression that it does not support. Beyond that, the shared
+ * cache is not meant for the same expressions being evaluated within contexts of
+ * varying capabilities.
+ *
+ * <p>Also, the compiled form of an expression is based on the types seen during
+ * its interpreted evaluation. For expressions which get evaluated against varying
+ * types through the shared cache, {@link SpelCompilerMode#MIXED} is recommended,
+ * reverting to interpreted evaluation whenever the compiled form does not apply.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see SpelExpressionParser
+ * @see SpelCompiler#compile(java.util.Collection, org.springframework.expression.EvaluationContext)
+ */
+public final class SpelExpressionCache {
+
+	/**
+	 * System property that specifies the maximum number of parsed expressions held
+	 * by the shared expression cache: "spring.expression.cache.limit".
+	 * <p>The default is 0, not caching parsed expressions at all.
+	 * @see #setCacheLimit
+	 */
+	public static final String CACHE_LIMIT_PROPERTY_NAME = "spring.expression.cache.limit";
+
+
+	@Nullable
+	private static volatile ConcurrentLruCache<CacheKey, CachedExpression> cache = createCache(initCacheLimit());
+
+
+	private SpelExpressionCache() {
+	}
+
+
+	/**
+	 * Specify the maximum number of parsed expressions to hold, replacing the
+	 * currently cached expressions. A limit of 0 turns off the shared cache.
+	 * <p>Default is 0, unless the {@link #CACHE_LIMIT_PROPERTY_NAME} system
+	 * property is set.
+	 */
+	public static void setCacheLimit(int cacheLimit) {
+		cache = createCache(cacheLimit);
+	}
+
+	/**
+	 * Return the maximum number of parsed expressions to hold, with 0 indicating
+	 * that the shared cache is turned off.
+	 */
+	public static int getCacheLimit() {
+		ConcurrentLruCache<CacheKey, CachedExpression> cache = SpelExpressionCache.cache;
+		return (cache != null ? cache.sizeLimit() : 0);
+	}
+
+	/**
+	 * Return the current number of cached expressions.
+	 */
+	public static int size() {
+		ConcurrentLruCache<CacheKey, CachedExpression> cache = SpelExpressionCache.cache;
+		return (cache != null ? cache.size() : 0);
+	}
+
+	/**
+	 * Remove all cached expressions, e.g. for releasing the ClassLoaders
+	 * referenced by their configuration and their compiled form.
+	 */
+	public static void clear() {
+		ConcurrentLruCache<CacheKey, CachedExpression> cache = SpelExpressionCache.cache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Obtain an expression for the given expression string and configuration,
+	 * sharing its AST and compiled form with previously obtained expressions.
+	 * @return the expression, or {@code null} if the shared cache is turned off
+	 */
+	@Nullable
+	static SpelExpression getExpression(String expressionString, SpelParserConfiguration configuration) {
+		ConcurrentLruCache<CacheKey, CachedExpression> cache = SpelExpressionCache.cache;
+		if (cache == null) {
+			return null;
+		}
+		return cache.get(new CacheKey(expressionString, configuration)).createExpression();
+	}
+
+	@Nullable
+	private static ConcurrentLruCache<CacheKey, CachedExpression> createCache(int cacheLimit) {
+		return (cacheLimit > 0 ? new ConcurrentLruCache<>(cacheLimit, CachedExpression::new) : null);
+	}
+
+	private static int initCacheLimit() {
+		String cacheLimit = SpringProperties.getProperty(CACHE_LIMIT_PROPERTY_NAME);
+		if (cacheLimit == null) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(cacheLimit.trim());
+		}
+		catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Invalid value '" + cacheLimit + "' for property '" +
+					CACHE_LIMIT_PROPERTY_NAME + "': an integer expected", ex);
+		}
+	}
+
+
+	private static final class CacheKey {
+
+		private final String expressionString;
+
+		private final SpelParserConfiguration configuration;
+
+		CacheKey(String expressionString, SpelParserConfiguration configuration) {
+			this.expressionString = expressionString;
+			this.configuration = configuration;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey otherKey = (CacheKey) other;
+			return (this.expressionString.equals(otherKey.expressionString) &&
+					this.configuration.equals(otherKey.configuration));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.expressionString.hashCode() * 31 + this.configuration.hashCode();
+		}
+	}
+
+
+	/**
+	 * A parsed expression, with the compilation state shared by all
+	 * {@link SpelExpression} instances created for it.
+	 */
+	private static final class CachedExpression {
+
+		private final String expressionString;
+
+		private final SpelParserConfiguration configuration;
+
+		private final SpelNodeImpl ast;
+
+		private final SharedCompilationState compilationState = new SharedCompilationState();
+
+		CachedExpression(CacheKey key) {
+			this.expressionString = key.expressionString;
+			this.configuration = key.configuration;
+			SpelExpression expression = new InternalSpelExpressionParser(this.configuration)
+					.doParseExpression(this.expressionString, null);
+			this.ast = (SpelNodeImpl) expression.getAST();
+		}
+
+		SpelExpression createExpression() {
+			return new SpelExpression(this.expressionString, this.ast, this.configuration, this.compilationState);
+		}
+	}
+
+}
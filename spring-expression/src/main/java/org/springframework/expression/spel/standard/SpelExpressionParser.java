@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,9 @@ import org.springframework.util.Assert;
 /**
  * SpEL parser. Instances are reusable and thread-safe.
  *
+ * <p>Parsed expressions are shared through the {@link SpelExpressionCache}
+ * if a cache limit has been set for it.
+ *
  * @author Andy Clement
  * @author Juergen Hoeller
  * @since 3.0
@@ -58,6 +61,10 @@ public class SpelExpressionParser extends TemplateAwareExpressionParser {
 
 	@Override
 	protected SpelExpression doParseExpression(String expressionString, @Nullable ParserContext context) throws ParseException {
+		SpelExpression expression = SpelExpressionCache.getExpression(expressionString, this.configuration);
+		if (expression != null) {
+			return expression;
+		}
 		return new InternalSpelExpressionParser(this.configuration).doParseExpression(expressionString, context);
 	}
 
@@ -20,9 +20,11 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +33,7 @@ import java.util.StringTokenizer;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.asm.MethodVisitor;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
@@ -43,6 +46,7 @@ import org.springframework.expression.spel.standard.SpelCompiler;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeConverter;
 import org.springframework.expression.spel.testdata.PersonInOtherPackage;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -108,6 +112,8 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * FunctionReference
 	 * InlineList
 	 * OpModulus
+	 * Projection (of maps and collections)
+	 * Selection (of maps, collections and object arrays)
 	 *
 	 * Not yet compiled (some may never need to be):
 	 * Assign
@@ -118,9 +124,7 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	 * OpMatches
 	 * OpPower
 	 * OpInc
-	 * Projection
 	 * QualifiedId
-	 * Selection
 	 */
 
 
@@ -1030,7 +1034,7 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 
 		expression = parser.parseExpression("#negate(#ints.?[#this<2][0])");
 		assertThat(expression.getValue(context, Integer.class).toString()).isEqualTo("-1");
-		// Selection isn't compilable.
+		// Selection over a primitive array isn't compilable.
 		assertThat(((SpelNodeImpl)((SpelExpression) expression).getAST()).isCompilable()).isFalse();
 	}
 
@@ -2367,10 +2371,11 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertCanCompile(expression);
 		assertThat(expression.getValue(new Greeter())).isEqualTo("helloworld spring");
 
-		// Three strings, optimal bytecode would only use one StringBuilder
+		// Number concatenated with strings, converted through the TypeConverter
 		expression = parse("'hello' + 3 + ' spring'");
 		assertThat(expression.getValue(new Greeter())).isEqualTo("hello3 spring");
-		assertCantCompile(expression);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(new Greeter())).isEqualTo("hello3 spring");
 
 		expression = parse("object + 'a'");
 		assertThat(expression.getValue(new Greeter())).isEqualTo("objecta");
@@ -2398,6 +2403,57 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(expression.getValue(new Greeter())).isEqualTo("objectobject");
 	}
 
+	@Test
+	void opPlusStringWithNonStringOperands() {
+		OrderBook book = new OrderBook();
+
+		expression = parse("'count: ' + count");
+		assertThat(expression.getValue(book)).isEqualTo("count: 3");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("count: 3");
+
+		expression = parse("count + ' orders'");
+		assertThat(expression.getValue(book)).isEqualTo("3 orders");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("3 orders");
+
+		expression = parse("name + ':' + count + ':' + total + ':' + flag + ':' + initial");
+		assertThat(expression.getValue(book)).isEqualTo("book:3:42:true:b");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("book:3:42:true:b");
+
+		// Numeric addition nested in a concatenation
+		expression = parse("'sum: ' + (count + 2)");
+		assertThat(expression.getValue(book)).isEqualTo("sum: 5");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("sum: 5");
+
+		expression = parse("count + 2 + ' items'");
+		assertThat(expression.getValue(book)).isEqualTo("5 items");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("5 items");
+
+		expression = parse("'none: ' + null");
+		assertThat(expression.getValue(book)).isEqualTo("none: null");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo("none: null");
+
+		// Conversion through the TypeConverter as for interpreted evaluation
+		DefaultConversionService conversionService = new DefaultConversionService();
+		conversionService.addConverter(Integer.class, String.class, source -> "#" + source);
+		StandardEvaluationContext context = new StandardEvaluationContext(book);
+		context.setTypeConverter(new StandardTypeConverter(conversionService));
+		expression = parse("'count: ' + count");
+		assertThat(expression.getValue(context)).isEqualTo("count: #3");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo("count: #3");
+
+		// String operand not known to be a String: concatenation not guaranteed
+		expression = parse("object + 3");
+		assertThat(expression.getValue(new Greeter())).isEqualTo("object3");
+		assertCantCompile(expression);
+	}
+
 	@Test
 	public void opMinus() throws Exception {
 		expression = parse("2-2");
@@ -4792,6 +4848,186 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 		assertThat(expression.getValue(root)).isEqualTo(3);
 	}
 
+	@Test
+	void indexerMapWithNonLiteralKey() {
+		OrderBook book = new OrderBook();
+		StandardEvaluationContext context = new StandardEvaluationContext(book);
+		context.setVariable("key", "b");
+
+		expression = parse("limits[#root.name]");
+		assertThat(expression.getValue(context)).isEqualTo(2);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(2);
+
+		expression = parse("limits[#key]");
+		assertThat(expression.getValue(context)).isEqualTo(20);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(20);
+
+		expression = parse("limits[name.substring(0, 1)]");
+		assertThat(expression.getValue(context)).isEqualTo(20);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo(20);
+
+		// Primitive key boxed for the lookup
+		expression = parse("orderIds[#root.count]");
+		assertThat(expression.getValue(context)).isEqualTo("o3");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context)).isEqualTo("o3");
+
+		// Key converted to the key type of the map: not compilable
+		expression = parse("orderIds['3']");
+		assertThat(expression.getValue(context)).isEqualTo("o3");
+		assertCantCompile(expression);
+
+		// Key evaluated against the root object, also within a selection
+		expression = parse("orders.?[#root.limits[name.substring(0, 1)] != null]");
+		assertThat(expression.getValue(context, List.class)).hasSize(5);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(context, List.class)).hasSize(5);
+	}
+
+	@Test
+	void selection() {
+		OrderBook book = new OrderBook();
+
+		expression = parse("orders.?[amount > 100]");
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+		assertCanCompile(expression);
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+		assertThat(expression.getValue(book)).isInstanceOf(ArrayList.class);
+
+		expression = parse("orders.^[amount > 50]");
+		assertThat(expression.getValue(book)).hasToString("o2");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).hasToString("o2");
+
+		expression = parse("orders.$[amount > 50]");
+		assertThat(expression.getValue(book)).hasToString("o4");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).hasToString("o4");
+
+		expression = parse("orders.^[amount > 1000]");
+		assertThat(expression.getValue(book)).isNull();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isNull();
+
+		expression = parse("orders.$[amount > 1000]");
+		assertThat(expression.getValue(book)).isNull();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isNull();
+
+		// Boxed boolean criteria, chained selection and method invocation
+		expression = parse("orders.?[express].?[id.endsWith('4')].size()");
+		assertThat(expression.getValue(book)).isEqualTo(1);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(1);
+
+		// #this and #root
+		expression = parse("orders.?[#this.amount < #root.count * 10]");
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o0");
+		assertCanCompile(expression);
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o0");
+
+		// Selection as first node, against the root object
+		expression = parse("?[#this > 2]");
+		assertThat(expression.getValue(Arrays.asList(1, 2, 3, 4))).isEqualTo(Arrays.asList(3, 4));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(Arrays.asList(1, 2, 3, 4))).isEqualTo(Arrays.asList(3, 4));
+
+		// Object arrays keep their component type
+		expression = parse("orderArray.?[amount > 100]");
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isInstanceOf(Order[].class);
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+
+		expression = parse("orderArray.$[amount < 100]");
+		assertThat(expression.getValue(book)).hasToString("o2");
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).hasToString("o2");
+
+		// Maps
+		expression = parse("limits.?[value > 5]");
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("b", 20));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("b", 20));
+
+		expression = parse("limits.^[value < 5]");
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("book", 2));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("book", 2));
+
+		expression = parse("limits.$[key.length() == 1]");
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("b", 20));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Collections.singletonMap("b", 20));
+
+		expression = parse("limits.^[value > 100]");
+		assertThat(expression.getValue(book)).isNull();
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isNull();
+
+		// Null-safe selection
+		expression = parse("missing?.?[amount > 100]");
+		assertThat(expression.getValue(book)).isNull();
+		book.missing = book.orders;
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+		assertCanCompile(expression);
+		assertThat(stringify(expression.getValue(book))).isEqualTo("o3 o4");
+		book.missing = null;
+		assertThat(expression.getValue(book)).isNull();
+
+		// Primitive arrays are not compiled
+		expression = parse("?[#this > 1]");
+		assertThat(expression.getValue(new int[] {1, 2, 3})).isEqualTo(new Integer[] {2, 3});
+		assertCantCompile(expression);
+
+		// Non-boolean criteria are not compiled
+		expression = parse("orders.?[amount]");
+		assertThatExceptionOfType(SpelEvaluationException.class).isThrownBy(() -> expression.getValue(book));
+		assertCantCompile(expression);
+	}
+
+	@Test
+	void projection() {
+		OrderBook book = new OrderBook();
+
+		expression = parse("orders.![amount]");
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList(0, 40, 80, 120, 160));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList(0, 40, 80, 120, 160));
+
+		expression = parse("orders.?[amount > 100].![id + '=' + amount]");
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList("o3=120", "o4=160"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList("o3=120", "o4=160"));
+
+		expression = parse("orders.![#this]");
+		assertThat(expression.getValue(book)).isEqualTo(book.orders);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(book.orders);
+
+		expression = parse("limits.![key + '=' + value]");
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList("book=2", "b=20"));
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book)).isEqualTo(Arrays.asList("book=2", "b=20"));
+
+		expression = parse("missing?.![amount]");
+		assertThat(expression.getValue(book)).isNull();
+		book.missing = book.orders;
+		assertThat(expression.getValue(book, List.class)).hasSize(5);
+		assertCanCompile(expression);
+		assertThat(expression.getValue(book, List.class)).hasSize(5);
+		book.missing = null;
+		assertThat(expression.getValue(book)).isNull();
+
+		// The component type of a projected array depends on the projected values
+		expression = parse("orderArray.![amount]");
+		assertThat(expression.getValue(book)).isEqualTo(new Integer[] {0, 40, 80, 120, 160});
+		assertCantCompile(expression);
+	}
+
 	@Test
 	void elvisOperator_SPR15192() {
 		SpelParserConfiguration configuration = new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null);
@@ -6197,6 +6433,74 @@ public class SpelCompilationCoverageTests extends AbstractExpressionTests {
 	}
 
 
+	public static class OrderBook {
+
+		public String name = "book";
+
+		public int count = 3;
+
+		public long total = 42L;
+
+		public boolean flag = true;
+
+		public char initial = 'b';
+
+		public List<Order> orders = new ArrayList<>();
+
+		public List<Order> missing;
+
+		public Order[] orderArray;
+
+		public Map<String, Integer> limits = new LinkedHashMap<>();
+
+		public Map<Integer, String> orderIds = new HashMap<>();
+
+		public OrderBook() {
+			for (int i = 0; i < 5; i++) {
+				Order order = new Order("o" + i, i * 40, (i % 2 == 0));
+				this.orders.add(order);
+				this.orderIds.put(i, order.getId());
+			}
+			this.orderArray = this.orders.toArray(new Order[0]);
+			this.limits.put("book", 2);
+			this.limits.put("b", 20);
+		}
+	}
+
+
+	public static class Order {
+
+		private final String id;
+
+		private final int amount;
+
+		private final Boolean express;
+
+		public Order(String id, int amount, Boolean express) {
+			this.id = id;
+			this.amount = amount;
+			this.express = express;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public int getAmount() {
+			return this.amount;
+		}
+
+		public Boolean getExpress() {
+			return this.express;
+		}
+
+		@Override
+		public String toString() {
+			return this.id;
+		}
+	}
+
+
 	public class Reg {
 
 		private Integer _value,_value2;
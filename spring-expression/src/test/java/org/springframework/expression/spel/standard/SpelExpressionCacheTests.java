@@ -0,0 +1,230 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link SpelExpressionCache}.
+ *
+ * @author haozhifeng
+ */
+class SpelExpressionCacheTests {
+
+	private final SpelExpressionParser immediateParser =
+			new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+
+
+	@AfterEach
+	void resetCacheLimit() {
+		SpelExpressionCache.setCacheLimit(0);
+	}
+
+
+	@Test
+	void cacheTurnedOffByDefault() {
+		assertThat(SpelExpressionCache.getCacheLimit()).isZero();
+		SpelExpression expression1 = parse(this.immediateParser, "name");
+		SpelExpression expression2 = parse(this.immediateParser, "name");
+		assertThat(expression2.getAST()).isNotSameAs(expression1.getAST());
+		assertThat(SpelExpressionCache.size()).isZero();
+	}
+
+	@Test
+	void expressionsShareAstAndCompiledForm() {
+		SpelExpressionCache.setCacheLimit(10);
+		SpelExpression expression1 = parse(this.immediateParser, "name");
+		SpelExpression expression2 = parse(this.immediateParser, "name");
+		assertThat(expression2).isNotSameAs(expression1);
+		assertThat(expression2.getEvaluationContext()).isNotSameAs(expression1.getEvaluationContext());
+		assertThat(expression2.getAST()).isSameAs(expression1.getAST());
+
+		assertThat(expression1.getValue(new Person("joe"))).isEqualTo("joe");
+		assertThat(expression1.getValue(new Person("jane"))).isEqualTo("jane");
+		assertThat(compiledAst(expression1)).isNotNull();
+
+		SpelExpression expression3 = parse(this.immediateParser, "name");
+		assertThat(compiledAst(expression3)).isNull();
+		assertThat(expression3.getValue(new Person("jim"))).isEqualTo("jim");
+		assertThat(compiledAst(expression3)).isSameAs(compiledAst(expression1));
+		assertThat(expression2.getValue(new Person("jack"))).isEqualTo("jack");
+		assertThat(compiledAst(expression2)).isSameAs(compiledAst(expression1));
+		assertThat(SpelExpressionCache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void expressionsEvaluatedOnceEachGetCompiled() {
+		SpelExpressionCache.setCacheLimit(10);
+		SpelExpression expression1 = parse(this.immediateParser, "name");
+		assertThat(expression1.getValue(new Person("joe"))).isEqualTo("joe");
+		SpelExpression expression2 = parse(this.immediateParser, "name");
+		assertThat(expression2.getValue(new Person("jane"))).isEqualTo("jane");
+		assertThat(compiledAst(expression2)).isNotNull();
+		SpelExpression expression3 = parse(this.immediateParser, "name");
+		assertThat(expression3.getValue(new Person("jim"))).isEqualTo("jim");
+		assertThat(compiledAst(expression3)).isSameAs(compiledAst(expression2));
+	}
+
+	@Test
+	void sharedCompiledFormAdoptedAfterEvaluationWithinOwnContext() {
+		SpelExpressionCache.setCacheLimit(10);
+		StandardEvaluationContext standardContext = new StandardEvaluationContext();
+		SpelExpression expression1 = parse(this.immediateParser, "name.length()");
+		assertThat(expression1.getValue(standardContext, new Person("joe"))).isEqualTo(3);
+		assertThat(expression1.getValue(standardContext, new Person("jane"))).isEqualTo(4);
+		assertThat(compiledAst(expression1)).isNotNull();
+
+		// No method resolvers: rejected despite the compiled form being available
+		SpelExpressionParser otherParser =
+				new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+		SpelExpression expression2 = parse(otherParser, "name.length()");
+		assertThat(compiledAst(expression2)).isNull();
+		EvaluationContext restrictedContext = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+		assertThatExceptionOfType(SpelEvaluationException.class)
+				.isThrownBy(() -> expression2.getValue(restrictedContext, new Person("jim")));
+		assertThat(compiledAst(expression2)).isNull();
+	}
+
+	@Test
+	void differentConfigurationsUseSeparateEntries() {
+		SpelExpressionCache.setCacheLimit(10);
+		SpelExpressionParser offParser = new SpelExpressionParser();
+		SpelExpressionParser otherImmediateParser =
+				new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+		SpelExpressionParser autoGrowParser =
+				new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null, true, true, 10));
+
+		SpelExpression expression = parse(this.immediateParser, "name");
+		assertThat(parse(otherImmediateParser, "name").getAST()).isSameAs(expression.getAST());
+		assertThat(parse(offParser, "name").getAST()).isNotSameAs(expression.getAST());
+		assertThat(parse(autoGrowParser, "name").getAST()).isNotSameAs(expression.getAST());
+		assertThat(parse(this.immediateParser, "name.length()").getAST()).isNotSameAs(expression.getAST());
+		assertThat(SpelExpressionCache.size()).isEqualTo(4);
+	}
+
+	@Test
+	void cacheIsBounded() {
+		SpelExpressionCache.setCacheLimit(2);
+		parse(this.immediateParser, "name");
+		parse(this.immediateParser, "name.length()");
+		parse(this.immediateParser, "name.isEmpty()");
+		assertThat(SpelExpressionCache.getCacheLimit()).isEqualTo(2);
+		assertThat(SpelExpressionCache.size()).isEqualTo(2);
+
+		SpelExpressionCache.clear();
+		assertThat(SpelExpressionCache.size()).isZero();
+	}
+
+	@Test
+	void mixedModeRevertsSharedCompiledForm() {
+		SpelExpressionCache.setCacheLimit(10);
+		SpelExpressionParser mixedParser =
+				new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+		SpelExpression expression1 = parse(mixedParser, "name");
+		assertThat(expression1.getValue(new Person("joe"))).isEqualTo("joe");
+		assertThat(SpelCompiler.compile(expression1)).isTrue();
+		SpelExpression expression2 = parse(mixedParser, "name");
+		assertThat(expression2.getValue(new Person("jane"))).isEqualTo("jane");
+		assertThat(compiledAst(expression2)).isSameAs(compiledAst(expression1));
+
+		// The compiled form expects a Person: reverts to interpreted evaluation
+		assertThat(expression2.getValue(new Pet("rex"))).isEqualTo("rex");
+		assertThat(compiledAst(expression2)).isNull();
+		SpelExpression expression3 = parse(mixedParser, "name");
+		assertThat(expression3.getValue(new Pet("rex"))).isEqualTo("rex");
+		assertThat(compiledAst(expression3)).isNull();
+	}
+
+	@Test
+	void eagerCompilation() {
+		SpelExpressionCache.setCacheLimit(10);
+		StandardEvaluationContext context = new StandardEvaluationContext(new Person("joe"));
+		context.setVariable("suffix", "!");
+		Expression compilable = parse(this.immediateParser, "name + #suffix");
+		Expression notCompilable = parse(this.immediateParser, "name = 'jane'");
+
+		List<Expression> notCompiled = SpelCompiler.compile(Arrays.asList(compilable, notCompilable), context);
+		assertThat(notCompiled).containsExactly(notCompilable);
+		assertThat(compiledAst(compilable)).isNotNull();
+
+		SpelExpression expression = parse(this.immediateParser, "name + #suffix");
+		assertThat(expression.getValue(context)).isEqualTo("jane!");
+		assertThat(compiledAst(expression)).isSameAs(compiledAst(compilable));
+	}
+
+
+	private static SpelExpression parse(SpelExpressionParser parser, String expressionString) {
+		return (SpelExpression) parser.parseExpression(expressionString);
+	}
+
+	private static CompiledExpression compiledAst(Expression expression) {
+		Field field = ReflectionUtils.findField(SpelExpression.class, "compiledAst");
+		ReflectionUtils.makeAccessible(field);
+		return (CompiledExpression) ReflectionUtils.getField(field, expression);
+	}
+
+
+	public static class Person {
+
+		private String name;
+
+		public Person(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+
+	public static class Pet {
+
+		private final String name;
+
+		public Pet(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+}
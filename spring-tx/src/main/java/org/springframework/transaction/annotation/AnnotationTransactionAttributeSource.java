@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -207,4 +207,10 @@ public class AnnotationTransactionAttributeSource extends AbstractFallbackTransa
 		return this.annotationParsers.hashCode();
 	}
 
+	@Override
+	public String toString() {
+		return getClass().getName() + ": publicMethodsOnly=" + this.publicMethodsOnly +
+				", annotationParsers=" + this.annotationParsers;
+	}
+
 }
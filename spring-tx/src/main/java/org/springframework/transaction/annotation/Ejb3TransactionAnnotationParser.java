@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -69,6 +69,11 @@ public class Ejb3TransactionAnnotationParser implements TransactionAnnotationPar
 		return Ejb3TransactionAnnotationParser.class.hashCode();
 	}
 
+	@Override
+	public String toString() {
+		return getClass().getName();
+	}
+
 
 	/**
 	 * EJB3-specific TransactionAttribute, implementing EJB3's rollback rules
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -90,4 +90,9 @@ public class JtaTransactionAnnotationParser implements TransactionAnnotationPars
 		return JtaTransactionAnnotationParser.class.hashCode();
 	}
 
+	@Override
+	public String toString() {
+		return getClass().getName();
+	}
+
 }
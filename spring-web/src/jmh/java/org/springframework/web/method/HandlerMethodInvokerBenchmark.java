@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+/**
+ * Benchmarks for invoking handler methods reflectively compared to
+ * invokers generated by {@link BytecodeHandlerMethodInvokerFactory}.
+ * @author haozhifeng
+ */
+@BenchmarkMode(Mode.Throughput)
+public class HandlerMethodInvokerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkData {
+
+		@Param({"reflective", "bytecode"})
+		public String invoker;
+
+		public InvocableHandlerMethod handlerMethod;
+
+		public NativeWebRequest request;
+
+		public Object[] providedArgs = {"spring", 42L};
+
+		@Setup(Level.Trial)
+		public void setup() {
+			Method method = ClassUtils.getMethod(TestController.class, "handle", String.class, Long.class);
+			HandlerMethod handlerMethod = new HandlerMethod(new TestController(), method);
+			if ("bytecode".equals(this.invoker)) {
+				handlerMethod = handlerMethod.createWithInvoker(new BytecodeHandlerMethodInvokerFactory());
+			}
+			this.handlerMethod = new InvocableHandlerMethod(handlerMethod);
+			this.request = new ServletWebRequest(new MockHttpServletRequest());
+		}
+	}
+
+	@Benchmark
+	public Object invokeForRequest(BenchmarkData data) throws Exception {
+		return data.handlerMethod.invokeForRequest(data.request, null, data.providedArgs);
+	}
+
+
+	public static class TestController {
+
+		public String handle(String name, Long id) {
+			return name;
+		}
+	}
+
+}
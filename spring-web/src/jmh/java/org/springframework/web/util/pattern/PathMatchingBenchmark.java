@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -74,6 +74,60 @@ public class PathMatchingBenchmark {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class AllRoutesPatternIndex extends PatternParserData {
+
+		PathPatternIndex<PathPattern> index = new PathPatternIndex<>();
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.allRoutes());
+			for (PathPattern pattern : this.patterns) {
+				this.index.add(pattern, Collections.singleton(pattern));
+			}
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortAllRoutesWithPathPatternIndex(AllRoutesPatternIndex data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			List<PathPattern> matches = new ArrayList<>();
+			for (PathPattern pattern : data.index.getCandidates(path)) {
+				if (pattern.matches(path)) {
+					matches.add(pattern);
+				}
+			}
+			Collections.sort(matches);
+			bh.consume(matches);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class AllRoutesPatternSet extends PatternParserData {
+
+		PathPatternSet patternSet;
+
+		@Setup(Level.Trial)
+		public void registerPatterns() {
+			parseRoutes(RouteGenerator.allRoutes());
+			this.patternSet = new PathPatternSet(this.patterns);
+		}
+	}
+
+	@Benchmark
+	public void matchAndSortAllRoutesWithPathPatternSet(AllRoutesPatternSet data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			bh.consume(data.patternSet.match(path));
+		}
+	}
+
+	@Benchmark
+	public void matchBestAllRoutesWithPathPatternSet(AllRoutesPatternSet data, Blackhole bh) {
+		for (PathContainer path : data.requestPaths) {
+			bh.consume(data.patternSet.matchBest(path));
+		}
+	}
+
 	@State(Scope.Benchmark)
 	public static class StaticRoutesPatternParser extends PatternParserData {
 
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.core.KotlinDetector;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link HandlerMethodInvokerFactory} that generates a dedicated
+ * {@link HandlerMethodInvoker} class per handler method, calling the method
+ * directly instead of through {@link Method#invoke}. Each generated invoker
+ * is a monomorphic call site that the JIT compiler can inline, avoiding
+ * reflection frames and access checks on every request.
+ *
+ * <p>Invoker classes are defined in the package and class loader of the
+ * method's declaring class, so package-visible handler methods are supported
+ * as well. Methods that cannot be called from generated code (private methods,
+ * methods with inaccessible parameter types, Kotlin suspending functions, or
+ * classes that reject class definition) fall back to a reflective invoker.
+ *
+ * <p>Note that, unlike {@link Method#invoke}, generated invokers do not apply
+ * widening conversions to primitive arguments: an {@code Integer} passed for
+ * a {@code long} parameter results in an {@link IllegalArgumentException}.
+ * Argument resolvers convert to the exact parameter type, so this is not
+ * a concern for regular handler method arguments.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ */
+public class BytecodeHandlerMethodInvokerFactory implements HandlerMethodInvokerFactory, Opcodes {
+
+	private static final Log logger = LogFactory.getLog(BytecodeHandlerMethodInvokerFactory.class);
+
+	private static final String CLASS_NAME_SEPARATOR = "$$HandlerMethodInvoker$$";
+
+	private static final String INVOKER_TYPE = Type.getInternalName(HandlerMethodInvoker.class);
+
+	private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final AtomicInteger classCounter = new AtomicInteger();
+
+
+	private final Map<Method, HandlerMethodInvoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	@Override
+	public HandlerMethodInvoker createInvoker(Method method) {
+		return this.invokerCache.computeIfAbsent(method, this::doCreateInvoker);
+	}
+
+	private HandlerMethodInvoker doCreateInvoker(Method method) {
+		if (isGenerationSupported(method)) {
+			try {
+				return generateInvoker(method);
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Falling back to reflective invocation for " + method.toGenericString(), ex);
+				}
+			}
+		}
+		return HandlerMethodInvokerFactory.reflective(method);
+	}
+
+	/**
+	 * Determine whether an invoker class can be generated for the given method.
+	 * @param method the handler method
+	 * @return {@code true} to generate an invoker class, {@code false} to use
+	 * reflective invocation instead
+	 */
+	protected boolean isGenerationSupported(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (declaringClass.getClassLoader() == null || declaringClass.getName().startsWith("java.") ||
+				Modifier.isPrivate(method.getModifiers()) || KotlinDetector.isSuspendingFunction(method)) {
+			return false;
+		}
+		for (Class<?> paramType : method.getParameterTypes()) {
+			if (!isAccessible(paramType, declaringClass)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAccessible(Class<?> type, Class<?> declaringClass) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive() || Modifier.isPublic(type.getModifiers())) {
+			return true;
+		}
+		return (!Modifier.isPrivate(type.getModifiers()) &&
+				type.getClassLoader() == declaringClass.getClassLoader() &&
+				ClassUtils.getPackageName(type).equals(ClassUtils.getPackageName(declaringClass)));
+	}
+
+	private HandlerMethodInvoker generateInvoker(Method method) throws Exception {
+		Class<?> declaringClass = method.getDeclaringClass();
+		String className = declaringClass.getName() + CLASS_NAME_SEPARATOR + classCounter.incrementAndGet();
+		byte[] bytes = generateClass(className.replace('.', '/'), method);
+		Class<?> invokerClass = ReflectUtils.defineClass(className, bytes, declaringClass.getClassLoader(),
+				declaringClass.getProtectionDomain(), declaringClass);
+		return (HandlerMethodInvoker) ReflectionUtils.accessibleConstructor(invokerClass).newInstance();
+	}
+
+	private byte[] generateClass(String internalName, Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		ClassWriter cw = new InvokerClassWriter(declaringClass.getClassLoader());
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null,
+				"java/lang/Object", new String[] {INVOKER_TYPE});
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(ACC_PUBLIC | ACC_VARARGS, "invoke", INVOKE_DESCRIPTOR, null, null);
+		mv.visitCode();
+		generateInvokeBody(mv, method);
+		mv.visitMaxs(0, 0);  // computed by the ClassWriter
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private void generateInvokeBody(MethodVisitor mv, Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		Class<?>[] paramTypes = method.getParameterTypes();
+		boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+		Label prepareStart = new Label();
+		Label invokeStart = new Label();
+		Label invokeEnd = new Label();
+		Label argumentMismatch = new Label();
+		Label wrongArgumentCount = new Label();
+		Label targetException = new Label();
+
+		// Anything failing while preparing the call is an argument mismatch
+		mv.visitTryCatchBlock(prepareStart, invokeStart, argumentMismatch, "java/lang/ClassCastException");
+		mv.visitTryCatchBlock(prepareStart, invokeStart, argumentMismatch, "java/lang/NullPointerException");
+		// Anything thrown by the handler method itself is wrapped like Method#invoke does
+		mv.visitTryCatchBlock(invokeStart, invokeEnd, targetException, "java/lang/Throwable");
+
+		mv.visitLabel(prepareStart);
+		if (paramTypes.length == 0) {
+			Label argumentsChecked = new Label();
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitJumpInsn(IFNULL, argumentsChecked);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitInsn(ARRAYLENGTH);
+			mv.visitJumpInsn(IFNE, wrongArgumentCount);
+			mv.visitLabel(argumentsChecked);
+		}
+		else {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitInsn(ARRAYLENGTH);
+			mv.visitLdcInsn(paramTypes.length);
+			mv.visitJumpInsn(IF_ICMPNE, wrongArgumentCount);
+		}
+
+		if (!isStatic) {
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitTypeInsn(CHECKCAST, owner);
+		}
+		for (int i = 0; i < paramTypes.length; i++) {
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitLdcInsn(i);
+			mv.visitInsn(AALOAD);
+			generateArgumentConversion(mv, paramTypes[i]);
+		}
+
+		mv.visitLabel(invokeStart);
+		int opcode = (isStatic ? INVOKESTATIC : declaringClass.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL);
+		mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method),
+				declaringClass.isInterface());
+		mv.visitLabel(invokeEnd);
+		generateReturnValueConversion(mv, method.getReturnType());
+		mv.visitInsn(ARETURN);
+
+		mv.visitLabel(argumentMismatch);
+		mv.visitVarInsn(ASTORE, 3);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("argument type mismatch");
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>",
+				"(Ljava/lang/String;Ljava/lang/Throwable;)V", false);
+		mv.visitInsn(ATHROW);
+
+		mv.visitLabel(wrongArgumentCount);
+		mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(DUP);
+		mv.visitLdcInsn("wrong number of arguments");
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>",
+				"(Ljava/lang/String;)V", false);
+		mv.visitInsn(ATHROW);
+
+		mv.visitLabel(targetException);
+		mv.visitVarInsn(ASTORE, 3);
+		mv.visitTypeInsn(NEW, "java/lang/reflect/InvocationTargetException");
+		mv.visitInsn(DUP);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/reflect/InvocationTargetException", "<init>",
+				"(Ljava/lang/Throwable;)V", false);
+		mv.visitInsn(ATHROW);
+	}
+
+	private static void generateArgumentConversion(MethodVisitor mv, Class<?> paramType) {
+		if (paramType.isPrimitive()) {
+			Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(paramType);
+			String wrapper = Type.getInternalName(wrapperType);
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, paramType.getName() + "Value",
+					"()" + Type.getDescriptor(paramType), false);
+		}
+		else if (paramType != Object.class) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(paramType));
+		}
+	}
+
+	private static void generateReturnValueConversion(MethodVisitor mv, Class<?> returnType) {
+		if (returnType == void.class) {
+			mv.visitInsn(ACONST_NULL);
+		}
+		else if (returnType.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+			mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf",
+					"(" + Type.getDescriptor(returnType) + ")L" + wrapper + ";", false);
+		}
+	}
+
+
+	/**
+	 * ClassWriter that resolves types against the handler's class loader
+	 * when computing stack map frames.
+	 */
+	private static class InvokerClassWriter extends ClassWriter {
+
+		private final ClassLoader classLoader;
+
+		public InvokerClassWriter(ClassLoader classLoader) {
+			super(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		protected ClassLoader getClassLoader() {
+			return this.classLoader;
+		}
+	}
+
+}
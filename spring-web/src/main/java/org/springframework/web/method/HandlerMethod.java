@@ -93,6 +93,9 @@ public class HandlerMethod {
 	@Nullable
 	private HandlerMethod resolvedFromHandlerMethod;
 
+	@Nullable
+	private HandlerMethodInvoker invoker;
+
 	@Nullable
 	private volatile List<Annotation[][]> interfaceParameterAnnotations;
 
@@ -197,6 +200,7 @@ public class HandlerMethod {
 		this.responseStatusReason = handlerMethod.responseStatusReason;
 		this.description = handlerMethod.description;
 		this.resolvedFromHandlerMethod = handlerMethod.resolvedFromHandlerMethod;
+		this.invoker = handlerMethod.invoker;
 	}
 
 	/**
@@ -215,9 +219,18 @@ public class HandlerMethod {
 		this.responseStatus = handlerMethod.responseStatus;
 		this.responseStatusReason = handlerMethod.responseStatusReason;
 		this.resolvedFromHandlerMethod = handlerMethod;
+		this.invoker = handlerMethod.invoker;
 		this.description = handlerMethod.description;
 	}
 
+	/**
+	 * Re-create HandlerMethod with the given invoker.
+	 */
+	private HandlerMethod(HandlerMethod handlerMethod, HandlerMethodInvoker invoker) {
+		this(handlerMethod);
+		this.invoker = invoker;
+	}
+
 	private MethodParameter[] initMethodParameters() {
 		int count = this.bridgedMethod.getParameterCount();
 		MethodParameter[] result = new MethodParameter[count];
@@ -355,6 +368,17 @@ public class HandlerMethod {
 		return AnnotatedElementUtils.hasAnnotation(this.method, annotationType);
 	}
 
+	/**
+	 * Return the invoker prepared for this handler method, if any.
+	 * <p>If {@code null}, the method is invoked reflectively.
+	 * @since 5.3.24
+	 * @see #createWithInvoker(HandlerMethodInvokerFactory)
+	 */
+	@Nullable
+	protected HandlerMethodInvoker getInvoker() {
+		return this.invoker;
+	}
+
 	/**
 	 * Return the HandlerMethod from which this HandlerMethod instance was
 	 * resolved via {@link #createWithResolvedBean()}.
@@ -378,6 +402,19 @@ public class HandlerMethod {
 		return new HandlerMethod(this, handler);
 	}
 
+	/**
+	 * Create a {@link HandlerMethod} that dispatches through an invoker
+	 * obtained from the given factory rather than through reflection.
+	 * The invoker is carried over to any {@code HandlerMethod} derived from
+	 * the returned instance, including {@link #createWithResolvedBean()}.
+	 * @param invokerFactory the factory to create the invoker with
+	 * @since 5.3.24
+	 */
+	public HandlerMethod createWithInvoker(HandlerMethodInvokerFactory invokerFactory) {
+		Assert.notNull(invokerFactory, "HandlerMethodInvokerFactory is required");
+		return new HandlerMethod(this, invokerFactory.createInvoker(this.bridgedMethod));
+	}
+
 	/**
 	 * Return a short representation of this handler method for log message purposes.
 	 * @since 4.3
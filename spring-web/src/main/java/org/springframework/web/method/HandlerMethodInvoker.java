@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Strategy for invoking the underlying method of a {@link HandlerMethod}
+ * on a given bean instance.
+ *
+ * <p>Implementations follow the exception contract of
+ * {@link java.lang.reflect.Method#invoke}: an exception thrown by the handler
+ * method itself is wrapped in an {@link InvocationTargetException}, and
+ * arguments that do not fit the method signature result in an
+ * {@link IllegalArgumentException}. This allows callers to treat reflective
+ * and generated invokers alike.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see HandlerMethodInvokerFactory
+ * @see HandlerMethod#createWithInvoker
+ */
+@FunctionalInterface
+public interface HandlerMethodInvoker {
+
+	/**
+	 * Invoke the handler method on the given bean with the given arguments.
+	 * @param bean the target bean instance
+	 * @param args the resolved argument values
+	 * @return the value returned by the handler method, or {@code null} for
+	 * a {@code void} method
+	 * @throws IllegalAccessException if the method is not accessible
+	 * @throws IllegalArgumentException if the arguments do not match the
+	 * method signature
+	 * @throws InvocationTargetException if the handler method threw an exception
+	 */
+	@Nullable
+	Object invoke(Object bean, Object... args) throws IllegalAccessException, InvocationTargetException;
+
+}
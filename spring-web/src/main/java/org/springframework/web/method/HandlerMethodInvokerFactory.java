@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.lang.reflect.Method;
+
+/**
+ * Factory for {@link HandlerMethodInvoker} instances, used by handler mappings
+ * to prepare the invocation of a handler method once at registration time
+ * rather than on every request.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see BytecodeHandlerMethodInvokerFactory
+ */
+@FunctionalInterface
+public interface HandlerMethodInvokerFactory {
+
+	/**
+	 * Create an invoker for the given (bridged) handler method.
+	 * @param method the method to invoke
+	 * @return the invoker to use (never {@code null})
+	 */
+	HandlerMethodInvoker createInvoker(Method method);
+
+	/**
+	 * Return an invoker that delegates to {@link Method#invoke}.
+	 * @param method the method to invoke
+	 */
+	static HandlerMethodInvoker reflective(Method method) {
+		return method::invoke;
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Immutable plan for resolving the arguments of a {@link HandlerMethod},
+ * computed once per handler method rather than on every invocation.
+ *
+ * <p>The plan records the {@link HandlerMethodArgumentResolver} selected for
+ * each method parameter, and initializes parameter name discovery up front,
+ * so that {@link InvocableHandlerMethod} can resolve argument values without
+ * per-parameter cache lookups against the {@link HandlerMethodArgumentResolverComposite}.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @see InvocableHandlerMethod#setInvocationPlan
+ */
+public final class HandlerMethodInvocationPlan {
+
+	private final HandlerMethodArgumentResolverComposite resolverComposite;
+
+	private final MethodParameter[] parameters;
+
+	private final HandlerMethodArgumentResolver[] resolvers;
+
+
+	private HandlerMethodInvocationPlan(HandlerMethodArgumentResolverComposite resolverComposite,
+			MethodParameter[] parameters, HandlerMethodArgumentResolver[] resolvers) {
+
+		this.resolverComposite = resolverComposite;
+		this.parameters = parameters;
+		this.resolvers = resolvers;
+	}
+
+
+	/**
+	 * Return the resolver composite that this plan was computed for.
+	 */
+	public HandlerMethodArgumentResolverComposite getResolverComposite() {
+		return this.resolverComposite;
+	}
+
+	/**
+	 * Return the method parameters that this plan was computed for.
+	 */
+	public MethodParameter[] getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * Return the resolver for the parameter at the given index, or {@code null}
+	 * if no registered resolver supports it. In the latter case, the argument
+	 * value must be provided by the caller.
+	 * @param index the parameter index
+	 */
+	@Nullable
+	public HandlerMethodArgumentResolver getResolver(int index) {
+		return this.resolvers[index];
+	}
+
+	/**
+	 * Whether this plan applies to the given parameters and resolvers, i.e.
+	 * it was computed for the same {@code MethodParameter} instances, as shared
+	 * across copies of a {@link HandlerMethod}, and the same resolver composite.
+	 * @param parameters the parameters to check
+	 * @param resolverComposite the resolvers to check
+	 */
+	public boolean isApplicableTo(MethodParameter[] parameters, HandlerMethodArgumentResolverComposite resolverComposite) {
+		return (this.parameters == parameters && this.resolverComposite == resolverComposite);
+	}
+
+
+	/**
+	 * Compute the plan for the given handler method.
+	 * @param handlerMethod the handler method
+	 * @param resolverComposite the resolvers to select from
+	 * @param parameterNameDiscoverer the discoverer to initialize parameters with
+	 * @return the plan for the handler method
+	 */
+	public static HandlerMethodInvocationPlan create(HandlerMethod handlerMethod,
+			HandlerMethodArgumentResolverComposite resolverComposite,
+			ParameterNameDiscoverer parameterNameDiscoverer) {
+
+		Assert.notNull(handlerMethod, "HandlerMethod is required");
+		Assert.notNull(resolverComposite, "HandlerMethodArgumentResolverComposite is required");
+		MethodParameter[] parameters = handlerMethod.getMethodParameters();
+		HandlerMethodArgumentResolver[] resolvers = new HandlerMethodArgumentResolver[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			MethodParameter parameter = parameters[i];
+			parameter.initParameterNameDiscovery(parameterNameDiscoverer);
+			resolvers[i] = resolverComposite.getArgumentResolver(parameter);
+		}
+		return new HandlerMethodInvocationPlan(resolverComposite, parameters, resolvers);
+	}
+
+}
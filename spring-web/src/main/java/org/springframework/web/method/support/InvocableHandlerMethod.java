@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,7 @@ import org.springframework.web.bind.support.SessionStatus;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.HandlerMethodInvoker;
 
 /**
  * Extension of {@link HandlerMethod} that invokes the underlying method with
@@ -56,6 +57,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	@Nullable
 	private WebDataBinderFactory dataBinderFactory;
 
+	@Nullable
+	private HandlerMethodInvocationPlan invocationPlan;
+
 
 	/**
 	 * Create an instance from a {@code HandlerMethod}.
@@ -119,6 +123,18 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.dataBinderFactory = dataBinderFactory;
 	}
 
+	/**
+	 * Set a precomputed {@link HandlerMethodInvocationPlan} to resolve argument
+	 * values with, avoiding a resolver lookup per parameter and invocation.
+	 * <p>The plan is only used if it was computed for the parameters of this
+	 * handler method and for the configured
+	 * {@link #setHandlerMethodArgumentResolvers argument resolvers}.
+	 * @since 5.3.24
+	 */
+	public void setInvocationPlan(@Nullable HandlerMethodInvocationPlan invocationPlan) {
+		this.invocationPlan = invocationPlan;
+	}
+
 
 	/**
 	 * Invoke the method after resolving its argument values in the context of the given request.
@@ -164,19 +180,27 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			return EMPTY_ARGS;
 		}
 
+		HandlerMethodInvocationPlan plan = this.invocationPlan;
+		if (plan != null && !plan.isApplicableTo(parameters, this.resolvers)) {
+			plan = null;
+		}
+
 		Object[] args = new Object[parameters.length];
 		for (int i = 0; i < parameters.length; i++) {
 			MethodParameter parameter = parameters[i];
-			parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
+			if (plan == null) {
+				parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
+			}
 			args[i] = findProvidedArgument(parameter, providedArgs);
 			if (args[i] != null) {
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
+			HandlerMethodArgumentResolver resolver = (plan != null ? plan.getResolver(i) : this.resolvers);
+			if (resolver == null || (plan == null && !this.resolvers.supportsParameter(parameter))) {
 				throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
 			}
 			try {
-				args[i] = this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				args[i] = resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
 			}
 			catch (Exception ex) {
 				// Leave stack trace for later, exception may actually be resolved and handled...
@@ -202,7 +226,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			if (KotlinDetector.isSuspendingFunction(method)) {
 				return CoroutinesUtils.invokeSuspendingFunction(method, getBean(), args);
 			}
-			return method.invoke(getBean(), args);
+			HandlerMethodInvoker invoker = getInvoker();
+			return (invoker != null ? invoker.invoke(getBean(), args) : method.invoke(getBean(), args));
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(method, getBean(), args);
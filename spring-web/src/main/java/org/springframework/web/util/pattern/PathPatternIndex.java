@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+
+/**
+ * Prefix tree that indexes values by the leading literal path segments of
+ * their {@link PathPattern PathPatterns}, in order to narrow down the values
+ * whose patterns may match a given path without matching every pattern.
+ *
+ * <p>For example, values registered for {@code "/api/orders/{id}"} and
+ * {@code "/api/users/{id}"} are stored under the {@code api/orders} and
+ * {@code api/users} nodes respectively, so that a lookup for
+ * {@code "/api/users/42"} returns the latter only. Patterns that do not start
+ * with a literal segment, such as {@code "/{tenant}/orders"} or
+ * {@code "/**"}, as well as case-insensitive patterns, are kept at the root
+ * and are returned for every lookup.
+ *
+ * <p>{@link #getCandidates(PathContainer)} returns a superset of the values
+ * with a pattern matching the given path, so each candidate must still be
+ * matched. A value with several patterns is stored under the longest literal
+ * prefix common to all of them, so it is returned at most once.
+ *
+ * <p>This class is not thread-safe: callers must guard modifications and
+ * lookups, e.g. with a read-write lock.
+ *
+ * @author haozhifeng
+ * @since 5.3.24
+ * @param <T> the type of indexed values
+ */
+public class PathPatternIndex<T> {
+
+	private final Node<T> root;
+
+	private final Map<T, Node<T>> valueNodes = new HashMap<>();
+
+
+	/**
+	 * Create an empty index.
+	 */
+	public PathPatternIndex() {
+		this.root = new Node<>();
+	}
+
+	/**
+	 * Copy constructor, e.g. to publish an immutable snapshot of an index
+	 * that is being modified.
+	 * @param other the index to copy
+	 */
+	public PathPatternIndex(PathPatternIndex<T> other) {
+		Map<Node<T>, Node<T>> copies = new IdentityHashMap<>();
+		this.root = new Node<>(other.root, copies);
+		other.valueNodes.forEach((value, node) -> this.valueNodes.put(value, copies.get(node)));
+	}
+
+	/**
+	 * Add a value to the index under the given patterns.
+	 * @param value the value to add
+	 * @param patterns the patterns of the value; if empty, the value is
+	 * returned for every lookup
+	 */
+	public void add(T value, Collection<PathPattern> patterns) {
+		remove(value);
+		List<String> prefix = null;
+		for (PathPattern pattern : patterns) {
+			List<String> literals = getLiteralPrefix(pattern);
+			prefix = (prefix != null ? commonPrefix(prefix, literals) : literals);
+		}
+		Node<T> node = this.root;
+		if (prefix != null) {
+			for (String segment : prefix) {
+				node = node.children.computeIfAbsent(segment, key -> new Node<>());
+			}
+		}
+		node.values.add(value);
+		this.valueNodes.put(value, node);
+	}
+
+	/**
+	 * Remove the given value from the index.
+	 * @param value the value to remove
+	 * @return {@code true} if the value was indexed
+	 */
+	public boolean remove(T value) {
+		Node<T> node = this.valueNodes.remove(value);
+		if (node == null) {
+			return false;
+		}
+		node.values.remove(value);
+		return true;
+	}
+
+	/**
+	 * Return the number of indexed values.
+	 */
+	public int size() {
+		return this.valueNodes.size();
+	}
+
+	/**
+	 * Return the values whose patterns may match the given path, in the order
+	 * of the tree levels walked, and in registration order within a level.
+	 * @param path the path to look up
+	 * @return the candidate values (never {@code null})
+	 */
+	public List<T> getCandidates(PathContainer path) {
+		Node<T> node = this.root;
+		List<T> result = (node.values.isEmpty() ? null : new ArrayList<>(node.values));
+		List<PathContainer.Element> elements = path.elements();
+		int index = 0;
+		while (index + 1 < elements.size() &&
+				elements.get(index) instanceof PathContainer.Separator &&
+				elements.get(index + 1) instanceof PathContainer.PathSegment) {
+
+			String segment = ((PathContainer.PathSegment) elements.get(index + 1)).valueToMatch();
+			node = node.children.get(segment);
+			if (node == null) {
+				break;
+			}
+			if (!node.values.isEmpty()) {
+				result = (result != null ? result : new ArrayList<>(node.values.size()));
+				result.addAll(node.values);
+			}
+			index += 2;
+		}
+		return (result != null ? result : Collections.emptyList());
+	}
+
+
+	/**
+	 * Return the literal segments the given pattern starts with, i.e. the
+	 * segments that any matching path must start with as well.
+	 */
+	static List<String> getLiteralPrefix(PathPattern pattern) {
+		List<String> result = null;
+		PathElement element = pattern.getHeadSection();
+		while (element instanceof SeparatorPathElement && element.next instanceof LiteralPathElement) {
+			LiteralPathElement literal = (LiteralPathElement) element.next;
+			if (!literal.isCaseSensitive() || !isSegmentEnd(literal.next)) {
+				break;
+			}
+			result = (result != null ? result : new ArrayList<>());
+			result.add(String.valueOf(literal.getChars()));
+			element = literal.next;
+		}
+		return (result != null ? result : Collections.emptyList());
+	}
+
+	private static boolean isSegmentEnd(@Nullable PathElement element) {
+		return (element == null || element instanceof SeparatorPathElement ||
+				element instanceof WildcardTheRestPathElement || element instanceof CaptureTheRestPathElement);
+	}
+
+	private static List<String> commonPrefix(List<String> first, List<String> second) {
+		int length = 0;
+		while (length < first.size() && length < second.size() && first.get(length).equals(second.get(length))) {
+			length++;
+		}
+		return first.subList(0, length);
+	}
+
+
+	private static class Node<T> {
+
+		final Map<String, Node<T>> children = new HashMap<>();
+
+		final List<T> values;
+
+		Node() {
+			this.values = new ArrayList<>(1);
+		}
+
+		Node(Node<T> other, Map<Node<T>, Node<T>> copies) {
+			this.values = new ArrayList<>(other.values);
+			other.children.forEach((segment, child) -> this.children.put(segment, new Node<>(child, copies)));
+			copies.put(other, this);
+		}
+	}
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit tests for {@link BytecodeHandlerMethodInvokerFactory}.
+ *
+ * @author haozhifeng
+ */
+class BytecodeHandlerMethodInvokerFactoryTests {
+
+	private final BytecodeHandlerMethodInvokerFactory factory = new BytecodeHandlerMethodInvokerFactory();
+
+	private final TestController controller = new TestController();
+
+
+	@Test
+	void invokeWithReferenceAndPrimitiveArguments() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("concat", String.class, int.class, boolean.class);
+
+		assertThat(isGenerated(invoker)).isTrue();
+		assertThat(invoker.invoke(this.controller, "value", 42, true)).isEqualTo("value-42-true");
+	}
+
+	@Test
+	void invokeWithPrimitiveReturnValue() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("add", long.class, long.class);
+
+		assertThat(invoker.invoke(this.controller, 2L, 3L)).isEqualTo(5L);
+	}
+
+	@Test
+	void invokeVoidMethod() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("handle");
+
+		assertThat(invoker.invoke(this.controller)).isNull();
+		assertThat(invoker.invoke(this.controller, (Object[]) null)).isNull();
+		assertThat(this.controller.handled).isEqualTo(2);
+	}
+
+	@Test
+	void invokePackagePrivateMethod() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("packagePrivate", PackagePrivateType.class);
+
+		assertThat(isGenerated(invoker)).isTrue();
+		assertThat(invoker.invoke(this.controller, new PackagePrivateType())).isEqualTo("packagePrivate");
+	}
+
+	@Test
+	void invokePrivateMethodFallsBackToReflection() throws Exception {
+		Method method = ReflectionUtils.findMethod(TestController.class, "privateMethod");
+		ReflectionUtils.makeAccessible(method);
+		HandlerMethodInvoker invoker = this.factory.createInvoker(method);
+
+		assertThat(isGenerated(invoker)).isFalse();
+		assertThat(invoker.invoke(this.controller)).isEqualTo("private");
+	}
+
+	@Test
+	void exceptionIsWrapped() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("fail");
+
+		assertThatExceptionOfType(InvocationTargetException.class)
+				.isThrownBy(() -> invoker.invoke(this.controller))
+				.withCauseInstanceOf(IOException.class);
+	}
+
+	@Test
+	void argumentTypeMismatch() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("concat", String.class, int.class, boolean.class);
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> invoker.invoke(this.controller, 1, 42, true))
+				.withMessage("argument type mismatch");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> invoker.invoke(this.controller, "value", null, true))
+				.withMessage("argument type mismatch");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> invoker.invoke(new Object(), "value", 42, true))
+				.withMessage("argument type mismatch");
+	}
+
+	@Test
+	void wrongNumberOfArguments() throws Exception {
+		HandlerMethodInvoker invoker = createInvoker("concat", String.class, int.class, boolean.class);
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> invoker.invoke(this.controller, "value"))
+				.withMessage("wrong number of arguments");
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> createInvoker("handle").invoke(this.controller, "value"))
+				.withMessage("wrong number of arguments");
+	}
+
+	@Test
+	void invokerIsCachedPerMethod() throws Exception {
+		assertThat(createInvoker("handle")).isSameAs(createInvoker("handle"));
+	}
+
+	@Test
+	void createWithInvoker() throws Exception {
+		Method method = ClassUtils.getMethod(TestController.class, "handle");
+		HandlerMethod handlerMethod = new HandlerMethod(this.controller, method).createWithInvoker(this.factory);
+
+		assertThat(handlerMethod.getInvoker()).isNotNull();
+		assertThat(handlerMethod.createWithResolvedBean().getInvoker()).isSameAs(handlerMethod.getInvoker());
+		assertThat(new HandlerMethod(handlerMethod).getInvoker()).isSameAs(handlerMethod.getInvoker());
+	}
+
+
+	private HandlerMethodInvoker createInvoker(String methodName, Class<?>... paramTypes) {
+		Method method = ReflectionUtils.findMethod(TestController.class, methodName, paramTypes);
+		assertThat(method).isNotNull();
+		return this.factory.createInvoker(method);
+	}
+
+	private static boolean isGenerated(HandlerMethodInvoker invoker) {
+		return invoker.getClass().getName().contains("$$HandlerMethodInvoker$$");
+	}
+
+
+	@SuppressWarnings("unused")
+	static class TestController {
+
+		int handled;
+
+		public String concat(String value, int number, boolean flag) {
+			return value + "-" + number + "-" + flag;
+		}
+
+		public long add(long first, long second) {
+			return first + second;
+		}
+
+		public void handle() {
+			this.handled++;
+		}
+
+		String packagePrivate(PackagePrivateType type) {
+			return "packagePrivate";
+		}
+
+		private String privateMethod() {
+			return "private";
+		}
+
+		public void fail() throws IOException {
+			throw new IOException("failure");
+		}
+	}
+
+
+	static class PackagePrivateType {
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.method.support;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.testfixture.method.ResolvableMethod;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link HandlerMethodInvocationPlan}.
+ *
+ * @author haozhifeng
+ */
+class HandlerMethodInvocationPlanTests {
+
+	private final NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+	private final CountingArgumentResolver intResolver = new CountingArgumentResolver(Integer.class, 99);
+
+	private final CountingArgumentResolver stringResolver = new CountingArgumentResolver(String.class, "value");
+
+	private final HandlerMethodArgumentResolverComposite composite =
+			new HandlerMethodArgumentResolverComposite().addResolvers(this.intResolver, this.stringResolver);
+
+
+	@Test
+	void resolversArePrecomputed() {
+		HandlerMethod handlerMethod = handlerMethod(Integer.class, String.class);
+		HandlerMethodInvocationPlan plan = createPlan(handlerMethod);
+
+		assertThat(plan.getResolver(0)).isSameAs(this.intResolver);
+		assertThat(plan.getResolver(1)).isSameAs(this.stringResolver);
+		assertThat(plan.getParameters()).isSameAs(handlerMethod.getMethodParameters());
+		assertThat(plan.getParameters()[1].getParameterName()).isEqualTo("stringArg");
+	}
+
+	@Test
+	void unsupportedParameter() {
+		HandlerMethodInvocationPlan plan = createPlan(handlerMethod(Double.class));
+
+		assertThat(plan.getResolver(0)).isNull();
+	}
+
+	@Test
+	void invokeWithPlan() throws Exception {
+		HandlerMethod handlerMethod = handlerMethod(Integer.class, String.class);
+		HandlerMethodInvocationPlan plan = createPlan(handlerMethod);
+		int supportsCount = this.intResolver.supportsCount + this.stringResolver.supportsCount;
+
+		for (int i = 0; i < 3; i++) {
+			InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod.createWithResolvedBean());
+			invocable.setHandlerMethodArgumentResolvers(this.composite);
+			invocable.setInvocationPlan(plan);
+			assertThat(invocable.invokeForRequest(this.request, null)).isEqualTo("99-value");
+		}
+
+		assertThat(this.intResolver.supportsCount + this.stringResolver.supportsCount).isEqualTo(supportsCount);
+		assertThat(this.intResolver.resolveCount).isEqualTo(3);
+		assertThat(this.stringResolver.resolveCount).isEqualTo(3);
+	}
+
+	@Test
+	void invokeWithPlanAndProvidedArgument() throws Exception {
+		HandlerMethod handlerMethod = handlerMethod(Double.class);
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
+		invocable.setHandlerMethodArgumentResolvers(this.composite);
+		invocable.setInvocationPlan(createPlan(handlerMethod));
+
+		assertThat(invocable.invokeForRequest(this.request, null, 1.5d)).isEqualTo("1.5");
+		assertThatIllegalStateException()
+				.isThrownBy(() -> invocable.invokeForRequest(this.request, null))
+				.withMessageContaining("No suitable resolver");
+	}
+
+	@Test
+	void planForOtherResolversIsIgnored() throws Exception {
+		HandlerMethod handlerMethod = handlerMethod(Integer.class, String.class);
+		HandlerMethodInvocationPlan plan = createPlan(handlerMethod);
+
+		HandlerMethodArgumentResolverComposite otherComposite = new HandlerMethodArgumentResolverComposite()
+				.addResolvers(new StubArgumentResolver(1), new StubArgumentResolver("other"));
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
+		invocable.setHandlerMethodArgumentResolvers(otherComposite);
+		invocable.setInvocationPlan(plan);
+
+		assertThat(plan.isApplicableTo(handlerMethod.getMethodParameters(), otherComposite)).isFalse();
+		assertThat(invocable.invokeForRequest(this.request, null)).isEqualTo("1-other");
+	}
+
+
+	private HandlerMethodInvocationPlan createPlan(HandlerMethod handlerMethod) {
+		return HandlerMethodInvocationPlan.create(handlerMethod, this.composite, new DefaultParameterNameDiscoverer());
+	}
+
+	private static HandlerMethod handlerMethod(Class<?>... argTypes) {
+		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
+		return new HandlerMethod(new Handler(), method);
+	}
+
+
+	@SuppressWarnings("unused")
+	private static class Handler {
+
+		public String handle(Integer intArg, String stringArg) {
+			return intArg + "-" + stringArg;
+		}
+
+		public String handle(Double doubleArg) {
+			return String.valueOf(doubleArg);
+		}
+	}
+
+
+	private static class CountingArgumentResolver implements HandlerMethodArgumentResolver {
+
+		private final Class<?> valueType;
+
+		private final Object value;
+
+		int supportsCount;
+
+		int resolveCount;
+
+		CountingArgumentResolver(Class<?> valueType, Object value) {
+			this.valueType = valueType;
+			this.value = value;
+		}
+
+		@Override
+		public boolean supportsParameter(MethodParameter parameter) {
+			this.supportsCount++;
+			return parameter.getParameterType().equals(this.valueType);
+		}
+
+		@Override
+		public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+				NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+
+			this.resolveCount++;
+			return this.value;
+		}
+	}
+
+}
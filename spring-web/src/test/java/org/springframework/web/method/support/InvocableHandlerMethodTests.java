@@ -25,6 +25,8 @@ import org.springframework.core.MethodParameter;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.BytecodeHandlerMethodInvokerFactory;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.testfixture.method.ResolvableMethod;
 import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 import org.springframework.web.testfixture.servlet.MockHttpServletResponse;
@@ -158,6 +160,45 @@ public class InvocableHandlerMethodTests {
 			.withMessageContaining("Illegal argument");
 	}
 
+	@Test
+	public void resolveArgWithGeneratedInvoker() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(99));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+
+		Object value = getGeneratedInvocable(Integer.class, String.class).invokeForRequest(request, null);
+
+		assertThat(value).isEqualTo("99-value");
+	}
+
+	@Test
+	public void illegalArgumentExceptionWithGeneratedInvoker() throws Exception {
+		this.composite.addResolver(new StubArgumentResolver(Integer.class, "__not_an_int__"));
+		this.composite.addResolver(new StubArgumentResolver("value"));
+		assertThatIllegalStateException().isThrownBy(() ->
+				getGeneratedInvocable(Integer.class, String.class).invokeForRequest(request, null))
+			.withCauseInstanceOf(IllegalArgumentException.class)
+			.withMessageContaining("[0] [type=java.lang.String] [value=__not_an_int__]");
+	}
+
+	@Test
+	public void invocationTargetExceptionWithGeneratedInvoker() throws Exception {
+		RuntimeException runtimeException = new RuntimeException("error");
+		assertThatRuntimeException()
+			.isThrownBy(() -> getGeneratedInvocable(Throwable.class).invokeForRequest(this.request, null, runtimeException))
+			.isSameAs(runtimeException);
+
+		Exception exception = new Exception("error");
+		assertThatException()
+			.isThrownBy(() -> getGeneratedInvocable(Throwable.class).invokeForRequest(this.request, null, exception))
+			.isSameAs(exception);
+
+		Throwable throwable = new Throwable("error");
+		assertThatIllegalStateException()
+			.isThrownBy(() -> getGeneratedInvocable(Throwable.class).invokeForRequest(this.request, null, throwable))
+			.withCause(throwable)
+			.withMessageContaining("Invocation failure");
+	}
+
 	private InvocableHandlerMethod getInvocable(Class<?>... argTypes) {
 		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
 		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new Handler(), method);
@@ -165,6 +206,15 @@ public class InvocableHandlerMethodTests {
 		return handlerMethod;
 	}
 
+	private InvocableHandlerMethod getGeneratedInvocable(Class<?>... argTypes) {
+		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
+		HandlerMethod handlerMethod = new HandlerMethod(new Handler(), method)
+				.createWithInvoker(new BytecodeHandlerMethodInvokerFactory());
+		InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
+		invocable.setHandlerMethodArgumentResolvers(this.composite);
+		return invocable;
+	}
+
 	private StubArgumentResolver getStubResolver(int index) {
 		return (StubArgumentResolver) this.composite.getResolvers().get(index);
 	}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PathPatternIndex}.
+ *
+ * @author haozhifeng
+ */
+class PathPatternIndexTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+	private final PathPatternIndex<String> index = new PathPatternIndex<>();
+
+
+	@Test
+	void literalPrefix() {
+		assertThat(literalPrefix("/api/users/{id}")).containsExactly("api", "users");
+		assertThat(literalPrefix("/api/users")).containsExactly("api", "users");
+		assertThat(literalPrefix("/api/users/")).containsExactly("api", "users");
+		assertThat(literalPrefix("/api/**")).containsExactly("api");
+		assertThat(literalPrefix("/api/{*path}")).containsExactly("api");
+		assertThat(literalPrefix("/api/user*")).containsExactly("api");
+		assertThat(literalPrefix("/api/{id}.json")).containsExactly("api");
+		assertThat(literalPrefix("/{tenant}/users")).isEmpty();
+		assertThat(literalPrefix("/**")).isEmpty();
+		assertThat(literalPrefix("")).isEmpty();
+	}
+
+	@Test
+	void literalPrefixWithCaseInsensitivePattern() {
+		PathPatternParser parser = new PathPatternParser();
+		parser.setCaseSensitive(false);
+		assertThat(PathPatternIndex.getLiteralPrefix(parser.parse("/api/users"))).isEmpty();
+	}
+
+	@Test
+	void candidates() {
+		add("users", "/api/users/{id}");
+		add("orders", "/api/orders/{id}");
+		add("api", "/api/**");
+		add("tenant", "/{tenant}/users");
+		add("none");
+
+		assertThat(candidates("/api/users/42")).containsExactly("tenant", "none", "api", "users");
+		assertThat(candidates("/api/orders/42")).containsExactly("tenant", "none", "api", "orders");
+		assertThat(candidates("/api/other")).containsExactly("tenant", "none", "api");
+		assertThat(candidates("/other/users")).containsExactly("tenant", "none");
+		assertThat(candidates("/")).containsExactly("tenant", "none");
+	}
+
+	@Test
+	void candidatesWithMultiplePatterns() {
+		add("users", "/api/users/{id}", "/api/users");
+		add("mixed", "/api/users", "/api/orders");
+		add("unrelated", "/api/users", "/v2/users");
+
+		assertThat(candidates("/api/users")).containsExactly("unrelated", "mixed", "users");
+		assertThat(candidates("/api/orders")).containsExactly("unrelated", "mixed");
+		assertThat(candidates("/v2/users")).containsExactly("unrelated");
+	}
+
+	@Test
+	void candidatesAreSupersetOfMatches() {
+		List<String> patterns = Arrays.asList("/api/users/{id}", "/api/users/{id}/orders", "/api/**",
+				"/api/user*", "/{tenant}/users", "/static/{*path}", "/static/css/{file}.css", "/api/users");
+		patterns.forEach(pattern -> add(pattern, pattern));
+
+		for (String path : Arrays.asList("/api/users/42", "/api/users/42/orders", "/api/users",
+				"/api/userx", "/api/users/", "/acme/users", "/static/css/main.css", "/static", "/other")) {
+			List<String> candidates = candidates(path);
+			for (String pattern : patterns) {
+				if (this.parser.parse(pattern).matches(PathContainer.parsePath(path))) {
+					assertThat(candidates).as(pattern + " for " + path).contains(pattern);
+				}
+			}
+		}
+	}
+
+	@Test
+	void addAndRemove() {
+		add("users", "/api/users/{id}");
+		add("users", "/api/orders/{id}");
+		assertThat(this.index.size()).isEqualTo(1);
+		assertThat(candidates("/api/users/42")).isEmpty();
+		assertThat(candidates("/api/orders/42")).containsExactly("users");
+
+		assertThat(this.index.remove("users")).isTrue();
+		assertThat(this.index.remove("users")).isFalse();
+		assertThat(this.index.size()).isEqualTo(0);
+		assertThat(candidates("/api/orders/42")).isEmpty();
+	}
+
+	@Test
+	void copy() {
+		add("users", "/api/users/{id}");
+		PathPatternIndex<String> copy = new PathPatternIndex<>(this.index);
+		add("orders", "/api/users/{id}/orders");
+		this.index.remove("users");
+
+		assertThat(copy.size()).isEqualTo(1);
+		assertThat(copy.getCandidates(PathContainer.parsePath("/api/users/42/orders"))).containsExactly("users");
+		assertThat(candidates("/api/users/42/orders")).containsExactly("orders");
+		assertThat(copy.remove("users")).isTrue();
+	}
+
+
+	private List<String> literalPrefix(String pattern) {
+		return PathPatternIndex.getLiteralPrefix(this.parser.parse(pattern));
+	}
+
+	private void add(String value, String... patterns) {
+		this.index.add(value, Arrays.stream(patterns).map(this.parser::parse).collect(Collectors.toList()));
+	}
+
+	private List<String> candidates(String path) {
+		return this.index.getCandidates(PathContainer.parsePath(path));
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit tests for {@link PathPatternSet}.
+ *
+ * @author haozhifeng
+ */
+class PathPatternSetTests {
+
+	private final PathPatternParser parser = new PathPatternParser();
+
+
+	@Test
+	void match() {
+		PathPatternSet patternSet = createSet("/api/**", "/api/users/{id}", "/{tenant}/users/{id}", "/api/orders/{id}");
+
+		List<PathPatternSet.PathMatch> matches = patternSet.match(PathContainer.parsePath("/api/users/42"));
+
+		assertThat(matches).extracting(match -> match.getPattern().getPatternString())
+				.containsExactly("/api/users/{id}", "/{tenant}/users/{id}", "/api/**");
+		assertThat(matches.get(0).getUriVariables()).containsExactly(entry("id", "42"));
+		assertThat(matches.get(1).getUriVariables()).containsOnly(entry("tenant", "api"), entry("id", "42"));
+		assertThat(matches.get(2).getUriVariables()).isEmpty();
+	}
+
+	@Test
+	void matchWithMatrixVariables() {
+		PathPatternSet patternSet = createSet("/cars/{car}");
+
+		List<PathPatternSet.PathMatch> matches = patternSet.match(PathContainer.parsePath("/cars/audi;color=blue"));
+
+		assertThat(matches).hasSize(1);
+		assertThat(matches.get(0).getUriVariables()).containsExactly(entry("car", "audi"));
+		assertThat(matches.get(0).getMatchInfo().getMatrixVariables().get("car").getFirst("color")).isEqualTo("blue");
+	}
+
+	@Test
+	void noMatch() {
+		PathPatternSet patternSet = createSet("/api/users/{id}", "/api/orders/{id}");
+
+		assertThat(patternSet.match(PathContainer.parsePath("/api/other/42"))).isEmpty();
+		assertThat(patternSet.matchBest(PathContainer.parsePath("/api/other/42"))).isNull();
+	}
+
+	@Test
+	void matchBest() {
+		PathPatternSet patternSet = createSet("/**", "/api/**", "/api/users/{id}", "/api/users/*");
+
+		PathPatternSet.PathMatch match = patternSet.matchBest(PathContainer.parsePath("/api/users/42"));
+
+		assertThat(match).isNotNull();
+		assertThat(match.getPattern().getPatternString()).isEqualTo("/api/users/{id}");
+		assertThat(match.getUriVariables()).containsExactly(entry("id", "42"));
+	}
+
+	@Test
+	void matchBestIsFirstMatch() {
+		List<String> patterns = Arrays.asList("/**", "/api/**", "/api/{*rest}", "/api/users/{id}",
+				"/api/users/*", "/{tenant}/users/{id}", "/api/users/{id}/orders", "/api/user?/{id}");
+		PathPatternSet patternSet = createSet(patterns.toArray(new String[0]));
+
+		for (String path : Arrays.asList("/api/users/42", "/api/users/42/orders", "/acme/users/42", "/api", "/")) {
+			PathContainer pathContainer = PathContainer.parsePath(path);
+			List<PathPatternSet.PathMatch> matches = patternSet.match(pathContainer);
+			assertThat(patternSet.matchBest(pathContainer).getPattern()).isEqualTo(matches.get(0).getPattern());
+		}
+	}
+
+	@Test
+	void matchesInOrderOfEqualSpecificity() {
+		PathPatternSet patternSet = createSet("/{a}/users", "/api/{b}", "/{c}/{d}");
+
+		List<PathPatternSet.PathMatch> matches = patternSet.match(PathContainer.parsePath("/api/users"));
+
+		assertThat(matches).extracting(match -> match.getPattern().getPatternString())
+				.containsExactly("/{a}/users", "/api/{b}", "/{c}/{d}");
+	}
+
+	@Test
+	void duplicatePatterns() {
+		PathPatternSet patternSet = createSet("/api/users", "/api/users");
+
+		assertThat(patternSet.getPatterns()).hasSize(1);
+		assertThat(patternSet.match(PathContainer.parsePath("/api/users"))).hasSize(1);
+	}
+
+	@Test
+	void empty() {
+		PathPatternSet patternSet = createSet();
+
+		assertThat(patternSet.isEmpty()).isTrue();
+		assertThat(patternSet.match(PathContainer.parsePath("/api/users"))).isEmpty();
+	}
+
+
+	private PathPatternSet createSet(String... patterns) {
+		return new PathPatternSet(Arrays.stream(patterns).map(this.parser::parse).collect(Collectors.toList()));
+	}
+
+}
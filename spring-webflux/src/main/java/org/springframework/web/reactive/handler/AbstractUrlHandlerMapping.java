@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,12 @@
 
 package org.springframework.web.reactive.handler;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
 
 import reactor.core.publisher.Mono;
 
@@ -32,6 +32,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternSet;
 
 /**
  * Abstract base class for URL-mapped
@@ -58,6 +59,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 	private final Map<PathPattern, Object> handlerMap = new LinkedHashMap<>();
 
+	@Nullable
+	private volatile PathPatternSet pathPatternSet;
+
 	@Nullable
 	private BiPredicate<Object, ServerWebExchange> handlerPredicate;
 
@@ -128,27 +132,22 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 	 */
 	@Nullable
 	protected Object lookupHandler(PathContainer lookupPath, ServerWebExchange exchange) throws Exception {
-		List<PathPattern> matches = null;
-		for (PathPattern pattern : this.handlerMap.keySet()) {
-			if (pattern.matches(lookupPath)) {
-				matches = (matches != null ? matches : new ArrayList<>());
-				matches.add(pattern);
-			}
-		}
-		if (matches == null) {
+		PathPatternSet patternSet = getPathPatternSet();
+		PathPatternSet.PathMatch match = patternSet.matchBest(lookupPath);
+		if (match == null) {
 			return null;
 		}
-		if (matches.size() > 1) {
-			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
-			if (logger.isTraceEnabled()) {
-				logger.debug(exchange.getLogPrefix() + "Matching patterns " + matches);
+		if (logger.isTraceEnabled()) {
+			List<PathPatternSet.PathMatch> matches = patternSet.match(lookupPath);
+			if (matches.size() > 1) {
+				logger.trace(exchange.getLogPrefix() + "Matching patterns " +
+						matches.stream().map(PathPatternSet.PathMatch::getPattern).collect(Collectors.toList()));
 			}
 		}
 
-		PathPattern pattern = matches.get(0);
+		PathPattern pattern = match.getPattern();
 		PathContainer pathWithinMapping = pattern.extractPathWithinPattern(lookupPath);
-		PathPattern.PathMatchInfo matchInfo = pattern.matchAndExtract(lookupPath);
-		Assert.notNull(matchInfo, "Expected a match");
+		PathPattern.PathMatchInfo matchInfo = match.getMatchInfo();
 
 		Object handler = this.handlerMap.get(pattern);
 
@@ -231,12 +230,30 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 		}
 
 		// Register resolved handler
-		this.handlerMap.put(pattern, resolvedHandler);
+		synchronized (this.handlerMap) {
+			this.handlerMap.put(pattern, resolvedHandler);
+			this.pathPatternSet = null;
+		}
 		if (logger.isTraceEnabled()) {
 			logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
 		}
 	}
 
+	private PathPatternSet getPathPatternSet() {
+		PathPatternSet patternSet = this.pathPatternSet;
+		if (patternSet == null) {
+			// Built under the registration lock, so never published from a stale map
+			synchronized (this.handlerMap) {
+				patternSet = this.pathPatternSet;
+				if (patternSet == null) {
+					patternSet = new PathPatternSet(this.handlerMap.keySet());
+					this.pathPatternSet = patternSet;
+				}
+			}
+		}
+		return patternSet;
+	}
+
 	private String getHandlerDescription(Object handler) {
 		return (handler instanceof String ? "'" + handler + "'" : handler.toString());
 	}
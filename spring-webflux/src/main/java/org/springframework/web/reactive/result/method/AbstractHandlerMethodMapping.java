@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,6 +36,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -45,10 +46,15 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsUtils;
+import org.springframework.web.method.BytecodeHandlerMethodInvokerFactory;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.HandlerMethodInvoker;
+import org.springframework.web.method.HandlerMethodInvokerFactory;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternIndex;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -96,11 +102,65 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	}
 
 
+	@Nullable
+	private HandlerMethodInvokerFactory handlerMethodInvokerFactory;
+
+	private boolean lockFreeLookup = false;
+
 	private final MappingRegistry mappingRegistry = new MappingRegistry();
 
 
 	// TODO: handlerMethodMappingNamingStrategy
 
+	/**
+	 * Configure a factory for the {@link HandlerMethodInvoker} to prepare for
+	 * each handler method at registration time.
+	 * <p>By default this is not set, and handler methods are invoked through
+	 * reflection. Use a {@link BytecodeHandlerMethodInvokerFactory} to have
+	 * handler methods invoked through generated bytecode instead.
+	 * @since 5.3.24
+	 * @see HandlerMethod#createWithInvoker
+	 */
+	public void setHandlerMethodInvokerFactory(@Nullable HandlerMethodInvokerFactory invokerFactory) {
+		this.handlerMethodInvokerFactory = invokerFactory;
+	}
+
+	/**
+	 * Return the configured {@link HandlerMethodInvokerFactory}, if any.
+	 * @since 5.3.24
+	 */
+	@Nullable
+	public HandlerMethodInvokerFactory getHandlerMethodInvokerFactory() {
+		return this.handlerMethodInvokerFactory;
+	}
+
+	/**
+	 * Whether to look up handler methods without acquiring a read lock.
+	 * <p>By default lookups are guarded by a read-write lock shared with
+	 * registrations. When this flag is switched on, lookups use an immutable
+	 * snapshot of the registered mappings instead, which is published once
+	 * after any (un)registration and then accessed through a single volatile
+	 * read. This avoids contention on the lock for read-mostly mappings, at
+	 * the expense of copying the registered mappings after every change.
+	 * <p>This must be set before the initialization of request mappings
+	 * through {@link InitializingBean#afterPropertiesSet()}.
+	 * @since 5.3.24
+	 */
+	public void setLockFreeLookup(boolean lockFreeLookup) {
+		Assert.state(this.mappingRegistry.getRegistrations().isEmpty(),
+				"Lock-free lookup must be set before the initialization of " +
+						"request mappings through InitializingBean#afterPropertiesSet.");
+		this.lockFreeLookup = lockFreeLookup;
+	}
+
+	/**
+	 * Whether handler methods are looked up without acquiring a read lock.
+	 * @since 5.3.24
+	 */
+	public boolean isLockFreeLookup() {
+		return this.lockFreeLookup;
+	}
+
 	/**
 	 * Return a (read-only) map with all mappings and HandlerMethod's.
 	 */
@@ -320,13 +380,15 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
+		MappingRegistry.Mappings mappings = this.mappingRegistry.getMappings();
+		PathContainer lookupPath = exchange.getRequest().getPath().pathWithinApplication();
 		List<Match> matches = new ArrayList<>();
-		List<T> directPathMatches = this.mappingRegistry.getMappingsByDirectPath(exchange);
+		List<T> directPathMatches = mappings.pathLookup.get(lookupPath.value());
 		if (directPathMatches != null) {
-			addMatchingMappings(directPathMatches, matches, exchange);
+			addMatchingMappings(directPathMatches, mappings, matches, exchange);
 		}
 		if (matches.isEmpty()) {
-			addMatchingMappings(this.mappingRegistry.getRegistrations().keySet(), matches, exchange);
+			addMatchingMappings(mappings.patternIndex.getCandidates(lookupPath), mappings, matches, exchange);
 		}
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -358,15 +420,20 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return bestMatch.getHandlerMethod();
 		}
 		else {
-			return handleNoMatch(this.mappingRegistry.getRegistrations().keySet(), exchange);
+			return handleNoMatch(mappings.registry.keySet(), exchange);
 		}
 	}
 
-	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, ServerWebExchange exchange) {
-		for (T mapping : mappings) {
+	private void addMatchingMappings(Collection<T> candidates, MappingRegistry.Mappings mappings,
+			List<Match> matches, ServerWebExchange exchange) {
+
+		for (T mapping : candidates) {
 			T match = getMatchingMapping(mapping, exchange);
 			if (match != null) {
-				matches.add(new Match(match, this.mappingRegistry.getRegistrations().get(mapping)));
+				MappingRegistration<T> registration = mappings.registry.get(mapping);
+				if (registration != null) {
+					matches.add(new Match(match, registration));
+				}
 			}
 		}
 	}
@@ -443,6 +510,19 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		return Collections.emptySet();
 	}
 
+	/**
+	 * Return the path patterns of the given mapping. These are used to index
+	 * mappings by their leading literal path segments, so that a lookup without
+	 * a direct path match only checks mappings whose patterns may match.
+	 * <p>The default implementation returns an empty set, in which case the
+	 * mapping is checked for every lookup without a direct path match.
+	 * @since 5.3.24
+	 * @see PathPatternIndex
+	 */
+	protected Set<PathPattern> getPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -474,16 +554,23 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> pathLookup = new LinkedMultiValueMap<>();
 
+		private final PathPatternIndex<T> patternIndex = new PathPatternIndex<>();
+
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
+		private final Mappings mappings = new Mappings(this.registry, this.pathLookup, this.patternIndex);
+
+		@Nullable
+		private volatile Mappings snapshot;
+
 		/**
 		 * Return all registrations.
 		 * @since 5.3
 		 */
 		public Map<T, MappingRegistration<T>> getRegistrations() {
-			return this.registry;
+			return getMappings().registry;
 		}
 
 		/**
@@ -494,7 +581,17 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		@Nullable
 		public List<T> getMappingsByDirectPath(ServerWebExchange exchange) {
 			String path = exchange.getRequest().getPath().pathWithinApplication().value();
-			return this.pathLookup.get(path);
+			return getMappings().pathLookup.get(path);
+		}
+
+		/**
+		 * Return the mappings whose path patterns may match the given URL path,
+		 * including mappings without path patterns. Not thread-safe.
+		 * @since 5.3.24
+		 * @see #acquireReadLock()
+		 */
+		public List<T> getMappingsByPathPrefix(ServerWebExchange exchange) {
+			return getMappings().patternIndex.getCandidates(exchange.getRequest().getPath().pathWithinApplication());
 		}
 
 		/**
@@ -508,28 +605,71 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		/**
 		 * Acquire the read lock when using getMappings and getMappingsByUrl.
+		 * No-op if {@link #setLockFreeLookup lock-free lookup} is enabled.
 		 */
 		public void acquireReadLock() {
-			this.readWriteLock.readLock().lock();
+			if (!isLockFreeLookup()) {
+				this.readWriteLock.readLock().lock();
+			}
 		}
 
 		/**
 		 * Release the read lock after using getMappings and getMappingsByUrl.
+		 * No-op if {@link #setLockFreeLookup lock-free lookup} is enabled.
 		 */
 		public void releaseReadLock() {
-			this.readWriteLock.readLock().unlock();
+			if (!isLockFreeLookup()) {
+				this.readWriteLock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Return the structures to use for a lookup, to be obtained once per
+		 * lookup: with {@link #setLockFreeLookup lock-free lookup}, a later call
+		 * may return a newer snapshot.
+		 */
+		Mappings getMappings() {
+			return (isLockFreeLookup() ? getSnapshot() : this.mappings);
+		}
+
+		private Mappings getSnapshot() {
+			Mappings snapshot = this.snapshot;
+			if (snapshot == null) {
+				// Build under the read lock so that no registration changes can
+				// interleave, and no newer state can be overwritten by this one
+				this.readWriteLock.readLock().lock();
+				try {
+					snapshot = this.snapshot;
+					if (snapshot == null) {
+						MultiValueMap<String, T> pathLookup = new LinkedMultiValueMap<>(this.pathLookup.size());
+						this.pathLookup.forEach((path, mappings) -> pathLookup.put(path, new ArrayList<>(mappings)));
+						snapshot = new Mappings(Collections.unmodifiableMap(new HashMap<>(this.registry)),
+								pathLookup, new PathPatternIndex<>(this.patternIndex));
+						this.snapshot = snapshot;
+					}
+				}
+				finally {
+					this.readWriteLock.readLock().unlock();
+				}
+			}
+			return snapshot;
 		}
 
 		public void register(T mapping, Object handler, Method method) {
 			this.readWriteLock.writeLock().lock();
 			try {
 				HandlerMethod handlerMethod = createHandlerMethod(handler, method);
+				HandlerMethodInvokerFactory invokerFactory = getHandlerMethodInvokerFactory();
+				if (invokerFactory != null) {
+					handlerMethod = handlerMethod.createWithInvoker(invokerFactory);
+				}
 				validateMethodMapping(handlerMethod, mapping);
 
 				Set<String> directPaths = AbstractHandlerMethodMapping.this.getDirectPaths(mapping);
 				for (String path : directPaths) {
 					this.pathLookup.add(path, mapping);
 				}
+				this.patternIndex.add(mapping, getPathPatterns(mapping));
 
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
@@ -541,6 +681,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 						new MappingRegistration<>(mapping, handlerMethod, directPaths, corsConfig != null));
 			}
 			finally {
+				this.snapshot = null;
 				this.readWriteLock.writeLock().unlock();
 			}
 		}
@@ -564,6 +705,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 					return;
 				}
 
+				this.patternIndex.remove(registration.getMapping());
+
 				for (String path : registration.getDirectPaths()) {
 					List<T> mappings = this.pathLookup.get(path);
 					if (mappings != null) {
@@ -577,9 +720,31 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				this.corsLookup.remove(registration.getHandlerMethod());
 			}
 			finally {
+				this.snapshot = null;
 				this.readWriteLock.writeLock().unlock();
 			}
 		}
+
+		/**
+		 * The structures used for lookups: either the live ones, guarded by the
+		 * read lock, or an immutable snapshot of them.
+		 */
+		private class Mappings {
+
+			final Map<T, MappingRegistration<T>> registry;
+
+			final MultiValueMap<String, T> pathLookup;
+
+			final PathPatternIndex<T> patternIndex;
+
+			Mappings(Map<T, MappingRegistration<T>> registry, MultiValueMap<String, T> pathLookup,
+					PathPatternIndex<T> patternIndex) {
+
+				this.registry = registry;
+				this.pathLookup = pathLookup;
+				this.patternIndex = patternIndex;
+			}
+		}
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -182,6 +182,23 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getRegistrations().keySet()).doesNotContain(key);
 	}
 
+	@Test
+	public void lockFreeLookup() {
+		this.mapping.setLockFreeLookup(true);
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		this.mapping.registerMapping("/fo*", this.handler, this.method2);
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/foo"));
+		assertThat(((HandlerMethod) this.mapping.getHandler(exchange).block()).getMethod()).isEqualTo(this.method1);
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/fox"));
+		assertThat(((HandlerMethod) this.mapping.getHandler(exchange).block()).getMethod()).isEqualTo(this.method2);
+
+		this.mapping.unregisterMapping("/foo");
+		exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/foo"));
+		assertThat(((HandlerMethod) this.mapping.getHandler(exchange).block()).getMethod()).isEqualTo(this.method2);
+		assertThat(this.mapping.getMappingRegistry().getRegistrations()).containsOnlyKeys("/fo*");
+	}
+
 
 	private static class MyHandlerMethodMapping extends AbstractHandlerMethodMapping<String> {
 
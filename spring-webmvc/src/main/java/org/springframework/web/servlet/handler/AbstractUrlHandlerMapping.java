@@ -22,6 +22,7 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -41,6 +42,7 @@ import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
 import org.springframework.web.util.pattern.PathPattern;
 import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PathPatternSet;
 
 /**
  * Abstract base class for URL-mapped {@link HandlerMapping} implementations.
@@ -73,6 +75,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 
 	private final Map<PathPattern, Object> pathPatternHandlerMap = new LinkedHashMap<>();
 
+	@Nullable
+	private volatile PathPatternSet pathPatternSet;
+
 
 	@Override
 	public void setPatternParser(PathPatternParser patternParser) {
@@ -192,23 +197,19 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		}
 
 		// Pattern match?
-		List<PathPattern> matches = null;
-		for (PathPattern pattern : this.pathPatternHandlerMap.keySet()) {
-			if (pattern.matches(path.pathWithinApplication())) {
-				matches = (matches != null ? matches : new ArrayList<>());
-				matches.add(pattern);
-			}
-		}
-		if (matches == null) {
+		PathPatternSet patternSet = getPathPatternSet();
+		PathPatternSet.PathMatch match = patternSet.matchBest(path.pathWithinApplication());
+		if (match == null) {
 			return null;
 		}
-		if (matches.size() > 1) {
-			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
-			if (logger.isTraceEnabled()) {
-				logger.trace("Matching patterns " + matches);
+		if (logger.isTraceEnabled()) {
+			List<PathPatternSet.PathMatch> matches = patternSet.match(path.pathWithinApplication());
+			if (matches.size() > 1) {
+				logger.trace("Matching patterns " +
+						matches.stream().map(PathPatternSet.PathMatch::getPattern).collect(Collectors.toList()));
 			}
 		}
-		PathPattern pattern = matches.get(0);
+		PathPattern pattern = match.getPattern();
 		handler = this.pathPatternHandlerMap.get(pattern);
 		if (handler instanceof String) {
 			String handlerName = (String) handler;
@@ -445,7 +446,11 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 			else {
 				this.handlerMap.put(urlPath, resolvedHandler);
 				if (getPatternParser() != null) {
-					this.pathPatternHandlerMap.put(getPatternParser().parse(urlPath), resolvedHandler);
+					PathPattern pattern = getPatternParser().parse(urlPath);
+					synchronized (this.pathPatternHandlerMap) {
+						this.pathPatternHandlerMap.put(pattern, resolvedHandler);
+						this.pathPatternSet = null;
+					}
 				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
@@ -454,6 +459,21 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		}
 	}
 
+	private PathPatternSet getPathPatternSet() {
+		PathPatternSet patternSet = this.pathPatternSet;
+		if (patternSet == null) {
+			// Built under the registration lock, so never published from a stale map
+			synchronized (this.pathPatternHandlerMap) {
+				patternSet = this.pathPatternSet;
+				if (patternSet == null) {
+					patternSet = new PathPatternSet(this.pathPatternHandlerMap.keySet());
+					this.pathPatternSet = patternSet;
+				}
+			}
+		}
+		return patternSet;
+	}
+
 	private String getHandlerDescription(Object handler) {
 		return (handler instanceof String ? "'" + handler + "'" : handler.toString());
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,9 +37,11 @@ import org.springframework.util.PathMatcher;
 import org.springframework.web.HttpRequestHandler;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.InvocableHandlerMethod;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.HttpRequestHandlerAdapter;
@@ -108,6 +110,23 @@ public class HandlerMethodMappingTests {
 		assertThat(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)).isEqualTo(result);
 	}
 
+	@Test
+	public void handlerMethodInvokerFactory() throws Exception {
+		List<Method> invokedMethods = new ArrayList<>();
+		this.mapping.setHandlerMethodInvokerFactory(method -> (bean, args) -> {
+			invokedMethods.add(method);
+			return "invoked";
+		});
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"));
+		Object returnValue = new InvocableHandlerMethod(result).invokeForRequest(
+				new ServletWebRequest(new MockHttpServletRequest()), null);
+
+		assertThat(returnValue).isEqualTo("invoked");
+		assertThat(invokedMethods).containsExactly(this.method1);
+	}
+
 	@Test
 	public void ambiguousMatch() {
 		this.mapping.registerMapping("/f?o", this.handler, this.method1);
@@ -254,6 +273,30 @@ public class HandlerMethodMappingTests {
 		assertThat(this.mapping.getMappingRegistry().getCorsConfiguration(handlerMethod)).isNull();
 	}
 
+	@Test
+	public void lockFreeLookup() throws Exception {
+		this.mapping.setLockFreeLookup(true);
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		this.mapping.registerMapping("/fo*", this.handler, this.method2);
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"));
+		assertThat(result.getMethod()).isEqualTo(this.method1);
+		result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/fox"));
+		assertThat(result.getMethod()).isEqualTo(this.method2);
+
+		this.mapping.unregisterMapping("/foo");
+		result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/foo"));
+		assertThat(result.getMethod()).isEqualTo(this.method2);
+		assertThat(this.mapping.getMappingRegistry().getMappingsByDirectPath("/foo")).isNull();
+		assertThat(this.mapping.getMappingRegistry().getRegistrations()).containsOnlyKeys("/fo*");
+	}
+
+	@Test
+	public void lockFreeLookupAfterInitialization() {
+		this.mapping.registerMapping("/foo", this.handler, this.method1);
+		assertThatIllegalStateException().isThrownBy(() -> this.mapping.setLockFreeLookup(true));
+	}
+
 	@Test
 	public void getCorsConfigWithBeanNameHandler() throws Exception {
 		String key = "foo";